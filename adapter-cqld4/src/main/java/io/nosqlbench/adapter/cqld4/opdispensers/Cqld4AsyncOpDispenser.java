@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.cqld4.opdispensers;
+
+import io.nosqlbench.adapter.cqld4.optypes.Cqld4AsyncCqlOp;
+import io.nosqlbench.adapter.cqld4.optypes.Cqld4CqlOp;
+import io.nosqlbench.engine.api.activityimpl.OpDispenser;
+
+/**
+ * This dispenser wraps the ops of a CQL statement dispenser in their non-blocking form.
+ * It is used by the op mapper for CQL statements when the activity is run with the
+ * async parameter.
+ */
+public class Cqld4AsyncOpDispenser implements OpDispenser<Cqld4AsyncCqlOp> {
+
+    private final OpDispenser<? extends Cqld4CqlOp> dispenser;
+
+    public Cqld4AsyncOpDispenser(OpDispenser<? extends Cqld4CqlOp> dispenser) {
+        this.dispenser = dispenser;
+    }
+
+    @Override
+    public Cqld4AsyncCqlOp apply(long cycle) {
+        return new Cqld4AsyncCqlOp(dispenser.apply(cycle));
+    }
+
+    @Override
+    public void onStart(long cycleValue) {
+        dispenser.onStart(cycleValue);
+    }
+
+    @Override
+    public void onSuccess(long cycleValue, long nanoTime, long resultsize) {
+        dispenser.onSuccess(cycleValue, nanoTime, resultsize);
+    }
+
+    @Override
+    public void onError(long cycleValue, long resultNanos, Throwable t) {
+        dispenser.onError(cycleValue, resultNanos, t);
+    }
+}
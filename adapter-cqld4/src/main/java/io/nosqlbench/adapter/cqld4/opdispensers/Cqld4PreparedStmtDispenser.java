@@ -71,10 +71,15 @@ public class Cqld4PreparedStmtDispenser extends Cqld4BaseOpDispenser {
             throw new OpConfigError(e + "( for statement '" + stmtTpl + "')");
         }
 
-        LongFunction<Statement> boundStmtFunc = c -> {
-            Object[] apply = fieldsF.apply(c);
-            return preparedStmt.bind(apply);
-        };
+        LongFunction<Statement> boundStmtFunc = Cqld4TypedStmtBinder.of(
+            preparedStmt, op.getFunctionsFromBindPoints(stmtTpl.getBindPoints()), boundSession
+        ).map(b -> (LongFunction<Statement>) b).orElseGet(() -> {
+            logger.debug("binding values by array for statement '" + stmtTpl + "'");
+            return c -> {
+                Object[] apply = fieldsF.apply(c);
+                return preparedStmt.bind(apply);
+            };
+        });
         return super.getEnhancedStmtFunc(boundStmtFunc, op);
     }
 
@@ -16,38 +16,174 @@
 
 package io.nosqlbench.adapter.cqld4.opdispensers;
 
-import com.datastax.oss.driver.api.core.CqlSession;
-import com.datastax.oss.driver.api.core.cql.Statement;
-import io.nosqlbench.adapter.cqld4.Cqld4DriverAdapter;
-import io.nosqlbench.adapter.cqld4.optypes.Cqld4CqlOp;
+import com.codahale.metrics.Meter;
+import io.nosqlbench.adapter.cqld4.Cqld4Space;
+import io.nosqlbench.adapter.cqld4.optypes.Cqld4SsTableOp;
+import io.nosqlbench.api.engine.metrics.ActivityMetrics;
+import io.nosqlbench.api.errors.OpConfigError;
+import io.nosqlbench.engine.api.activityimpl.BaseOpDispenser;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverAdapter;
 import io.nosqlbench.engine.api.templating.ParsedOp;
+import io.nosqlbench.virtdata.core.templates.ParsedStringTemplate;
+import org.apache.cassandra.io.sstable.CQLSSTableWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.LongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
-public class Cqld4SsTableDispenser extends Cqld4BaseOpDispenser {
+/**
+ * <p>This dispenser writes rows to sstables in a local directory instead of sending
+ * them to a server. Each thread has its own writer, which buffers rows, sorts them
+ * by token, and flushes them to a new sstable each time the buffer is full.</p>
+ *
+ * <p>Each writer uses its own directory, named
+ * <em>directory/writer/keyspace/table</em>, so that the output of each writer
+ * can be loaded separately with sstableloader. Writers are closed when the activity
+ * is shut down. A writer directory must be empty when the writer is created, so that
+ * the output of one run is never mixed with that of an earlier one.</p>
+ */
+public class Cqld4SsTableDispenser extends BaseOpDispenser<Cqld4SsTableOp, Cqld4Space> implements AutoCloseable {
+    private final static Logger logger = LogManager.getLogger(Cqld4SsTableDispenser.class);
+
+    private final static Pattern TABLE_NAME = Pattern.compile(
+        "(?i)create\\s+table\\s+(?:if\\s+not\\s+exists\\s+)?\"?(\\w+)\"?\\.\"?(\\w+)\"?");
+
+    private final String schema;
+    private final String insert;
+    private final Path directory;
+    private final Path tableDirectory;
+    private final int bufferMiB;
+    private final LongFunction<Object[]> fieldsF;
+    private final Meter rowsMeter;
+
+    private final static long BYTES_REFRESH_MILLIS = 1000L;
+    private volatile long bytesFlushed;
+    private volatile long bytesCheckedAt;
+
+    private final AtomicInteger writerIndex = new AtomicInteger(0);
+    private final Queue<CQLSSTableWriter> writers = new ConcurrentLinkedQueue<>();
+    private final Queue<Path> writerDirectories = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<CQLSSTableWriter> threadWriter = ThreadLocal.withInitial(this::newWriter);
+
+    public Cqld4SsTableDispenser(DriverAdapter adapter, ParsedOp op, ParsedStringTemplate stmtTpl) {
+        super(adapter, op);
+        this.schema = op.getStaticConfig("schema", String.class);
+        Matcher matcher = TABLE_NAME.matcher(schema);
+        if (!matcher.find()) {
+            throw new OpConfigError("The schema for an sstable op must be a 'create table <keyspace>.<table> ...' " +
+                "statement, but it was '" + schema + "'");
+        }
+        this.tableDirectory = Path.of(matcher.group(1), matcher.group(2));
 
-//    private final LongFunction<Statement> stmtFunc;
-//    private final LongFunction<String> targetFunction;
+        this.insert = stmtTpl.getPositionalStatement(s -> "?");
+        this.fieldsF = op.newArrayBinderFromBindPoints(stmtTpl.getBindPoints());
+        this.directory = Path.of(op.getStaticConfigOr("directory", "sstables"));
+        this.bufferMiB = op.getStaticConfigOr("buffer_mb", 128);
 
-    public Cqld4SsTableDispenser(Cqld4DriverAdapter adapter, LongFunction<CqlSession> sessionFunc, LongFunction<String> targetFunction, ParsedOp cmd) {
-        super(adapter,sessionFunc,cmd);
-//        this.targetFunction=targetFunction;
-//        this.tableFunc =createTableFunc(cmd);
+        String alias = op.getStaticConfigOr("alias", "UNKNOWN");
+        this.rowsMeter = ActivityMetrics.meter(() -> alias, op.getName() + "--sstable-rows");
+        ActivityMetrics.gauge(() -> alias, op.getName() + "--sstable-bytes", this::getBytesFlushed);
     }
 
-    protected LongFunction<Statement> createTableFunc(ParsedOp op) {
-        return null;
+    private CQLSSTableWriter newWriter() {
+        Path writerDirectory = directory.resolve(String.valueOf(writerIndex.getAndIncrement())).resolve(tableDirectory);
+        try {
+            Files.createDirectories(writerDirectory);
+            try (Stream<Path> existing = Files.list(writerDirectory)) {
+                if (existing.findAny().isPresent()) {
+                    throw new OpConfigError("The sstable directory " + writerDirectory + " is not empty. Remove the " +
+                        "files from the earlier run, or set a different directory for this op.");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        writerDirectories.add(writerDirectory);
+        logger.info("writing sstables for '" + insert + "' to " + writerDirectory);
+        CQLSSTableWriter writer = CQLSSTableWriter.builder()
+            .inDirectory(writerDirectory.toString())
+            .forTable(schema)
+            .using(insert)
+            .withBufferSizeInMiB(bufferMiB)
+            .build();
+        writers.add(writer);
+        return writer;
+    }
+
+    /**
+     * The sizes are read from the writer directories of this dispenser at most once per second,
+     * so that reporting the gauge does not list the directories on every read.
+     *
+     * @return The total size of the files written so far by this dispenser's writers, including closed ones
+     */
+    private long getBytesFlushed() {
+        long now = System.currentTimeMillis();
+        if (now - bytesCheckedAt >= BYTES_REFRESH_MILLIS) {
+            bytesCheckedAt = now;
+            long total = 0L;
+            for (Path writerDirectory : writerDirectories) {
+                try (Stream<Path> files = Files.list(writerDirectory)) {
+                    total += files.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+                } catch (IOException | UncheckedIOException e) {
+                    logger.debug("unable to read the size of " + writerDirectory + ": " + e);
+                }
+            }
+            bytesFlushed = total;
+        }
+        return bytesFlushed;
+    }
+
+    @Override
+    public Cqld4SsTableOp apply(long cycle) {
+        return new Cqld4SsTableOp(threadWriter.get(), fieldsF.apply(cycle), rowsMeter);
     }
 
     @Override
-    public Cqld4CqlOp apply(long cycle) {
-//        return new CqlD4SsTable(
-//            getSessionFunc().apply(value),
-//            (SsTable) stmtFunc.apply(value),
-//            getMaxPages(),
-//            isRetryReplace()
-//        );
-        return null;
+    public void close() throws IOException {
+        try {
+            closeAll(writers);
+        } finally {
+            // Closing flushes the last sstables, so the next read of the gauge should see them
+            bytesCheckedAt = 0L;
+        }
     }
 
+    /**
+     * Close every writer in the queue, even when closing an earlier one fails, so that one bad
+     * writer does not leave the buffered rows of the others unwritten.
+     *
+     * @throws IOException The first error, with any later ones added as suppressed
+     */
+    static void closeAll(Queue<? extends Closeable> writers) throws IOException {
+        Exception error = null;
+        Closeable writer;
+        while ((writer = writers.poll()) != null) {
+            try {
+                writer.close();
+            } catch (IOException | RuntimeException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error instanceof IOException ioe) {
+            throw ioe;
+        }
+        if (error != null) {
+            throw (RuntimeException) error;
+        }
+    }
 }
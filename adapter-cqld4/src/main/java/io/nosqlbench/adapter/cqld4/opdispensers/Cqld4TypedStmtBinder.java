@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.adapter.cqld4.opdispensers;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.session.Session;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import io.nosqlbench.virtdata.core.bindings.DataMapper;
+import io.nosqlbench.virtdata.core.bindings.DataMapperFunctionMapper;
+import io.nosqlbench.virtdata.core.bindings.FunctionType;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongFunction;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+
+import static com.datastax.oss.protocol.internal.ProtocolConstants.DataType.*;
+
+/**
+ * <p>This binds the values for a prepared statement by position, using the column types from the
+ * prepared statement metadata. It is used instead of binding an Object[] of values with
+ * {@link PreparedStatement#bind(Object...)}.</p>
+ *
+ * <p>Where a binding function is primitive-specialized and matches the column type exactly,
+ * the value is set without boxing:</p>
+ * <ul>
+ *     <li>bigint and counter columns with a {@link LongUnaryOperator}</li>
+ *     <li>int columns with a {@link LongToIntFunction}</li>
+ *     <li>double columns with a {@link LongToDoubleFunction}</li>
+ * </ul>
+ *
+ * <p>All other values are encoded with the codec for the column type and the value class, which
+ * is what {@link PreparedStatement#bind(Object...)} does, except that the codec is kept for
+ * subsequent values of the same class rather than looked up in the registry each time.</p>
+ */
+public class Cqld4TypedStmtBinder implements LongFunction<Statement> {
+
+    private final PreparedStatement preparedStmt;
+    private final FieldBinder[] binders;
+
+    private Cqld4TypedStmtBinder(PreparedStatement preparedStmt, FieldBinder[] binders) {
+        this.preparedStmt = preparedStmt;
+        this.binders = binders;
+    }
+
+    /**
+     * @param preparedStmt The prepared statement
+     * @param functions The binding function objects, in bind marker order
+     * @param session The session which the statement was prepared with
+     * @return A typed binder, or empty if the functions do not match the statement variables
+     */
+    public static Optional<Cqld4TypedStmtBinder> of(PreparedStatement preparedStmt, List<Object> functions, Session session) {
+        ColumnDefinitions defs = preparedStmt.getVariableDefinitions();
+        if (defs.size() != functions.size()) {
+            return Optional.empty();
+        }
+        CodecRegistry registry = session.getContext().getCodecRegistry();
+        ProtocolVersion protocolVersion = session.getContext().getProtocolVersion();
+        FieldBinder[] binders = new FieldBinder[functions.size()];
+        for (int i = 0; i < binders.length; i++) {
+            binders[i] = binderFor(i, defs.get(i).getType(), functions.get(i), registry, protocolVersion);
+        }
+        return Optional.of(new Cqld4TypedStmtBinder(preparedStmt, binders));
+    }
+
+    @Override
+    public Statement apply(long cycle) {
+        BoundStatementBuilder builder = preparedStmt.boundStatementBuilder();
+        for (FieldBinder binder : binders) {
+            builder = binder.bind(builder, cycle);
+        }
+        return builder.build();
+    }
+
+    private static FieldBinder binderFor(int i, DataType type, Object function, CodecRegistry registry, ProtocolVersion protocolVersion) {
+        FunctionType functionType = FunctionType.valueOf(function);
+        int code = type.getProtocolCode();
+        if ((code == BIGINT || code == COUNTER) && functionType == FunctionType.long_long) {
+            LongUnaryOperator f = (LongUnaryOperator) function;
+            return (b, cycle) -> b.setLong(i, f.applyAsLong(cycle));
+        }
+        if (code == INT && functionType == FunctionType.long_int) {
+            LongToIntFunction f = (LongToIntFunction) function;
+            return (b, cycle) -> b.setInt(i, f.applyAsInt(cycle));
+        }
+        if (code == DOUBLE && functionType == FunctionType.long_double) {
+            LongToDoubleFunction f = (LongToDoubleFunction) function;
+            return (b, cycle) -> b.setDouble(i, f.applyAsDouble(cycle));
+        }
+        return new CodecFieldBinder(i, type, DataMapperFunctionMapper.map(function), registry, protocolVersion);
+    }
+
+    private interface FieldBinder {
+        BoundStatementBuilder bind(BoundStatementBuilder builder, long cycle);
+    }
+
+    private final static class CodecFieldBinder implements FieldBinder {
+        private final int index;
+        private final DataType type;
+        private final DataMapper<Object> mapper;
+        private final CodecRegistry registry;
+        private final ProtocolVersion protocolVersion;
+        private volatile TypeCodec<Object> lastCodec;
+
+        private CodecFieldBinder(int index, DataType type, DataMapper<Object> mapper, CodecRegistry registry, ProtocolVersion protocolVersion) {
+            this.index = index;
+            this.type = type;
+            this.mapper = mapper;
+            this.registry = registry;
+            this.protocolVersion = protocolVersion;
+        }
+
+        @Override
+        public BoundStatementBuilder bind(BoundStatementBuilder builder, long cycle) {
+            Object value = mapper.apply(cycle);
+            if (value == null) {
+                return builder.setBytesUnsafe(index, null);
+            }
+            TypeCodec<Object> codec = lastCodec;
+            if (codec == null || !codec.accepts(value)) {
+                codec = registry.codecFor(type, value);
+                lastCodec = codec;
+            }
+            return builder.setBytesUnsafe(index, codec.encode(value, protocolVersion));
+        }
+    }
+}
@@ -69,8 +69,13 @@ public enum CqlD4OpType {
      * reserved for future use
      */
     rainbow,
-//    /**
-//     * reserved for future use
-//     */
-//    sst
+
+    /**
+     * uses {@link org.apache.cassandra.io.sstable.CQLSSTableWriter}
+     * This writes rows directly to sstables in a local directory, with
+     * a writer for each thread, rather than sending them to a server.
+     * The sstables can then be loaded with sstableloader. This requires
+     * cassandra-all and its dependencies to be on the classpath.
+     */
+    sstable
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.cqld4.opmappers;
+
+import io.nosqlbench.adapter.cqld4.opdispensers.Cqld4SsTableDispenser;
+import io.nosqlbench.adapter.cqld4.optypes.Cqld4SsTableOp;
+import io.nosqlbench.api.errors.BasicError;
+import io.nosqlbench.api.errors.OpConfigError;
+import io.nosqlbench.engine.api.activityimpl.OpDispenser;
+import io.nosqlbench.engine.api.activityimpl.OpMapper;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverAdapter;
+import io.nosqlbench.engine.api.templating.ParsedOp;
+import io.nosqlbench.engine.api.templating.TypeAndTarget;
+import io.nosqlbench.virtdata.core.templates.ParsedStringTemplate;
+
+public class CqlD4SsTableMapper implements OpMapper<Cqld4SsTableOp> {
+    private final TypeAndTarget<CqlD4OpType, String> target;
+    private final DriverAdapter adapter;
+
+    public CqlD4SsTableMapper(DriverAdapter adapter, TypeAndTarget<CqlD4OpType, String> target) {
+        this.target = target;
+        this.adapter = adapter;
+    }
+
+    @Override
+    public OpDispenser<? extends Cqld4SsTableOp> apply(ParsedOp op) {
+        try {
+            Class.forName("org.apache.cassandra.io.sstable.CQLSSTableWriter");
+        } catch (ClassNotFoundException e) {
+            throw new OpConfigError("The sstable op type requires cassandra-all and its dependencies on the classpath, " +
+                "but CQLSSTableWriter could not be found.");
+        }
+
+        ParsedStringTemplate stmtTpl = op.getAsTemplate(target.field).orElseThrow(() -> new BasicError(
+            "No statement was found in the op template:" + op
+        ));
+
+        return new Cqld4SsTableDispenser(adapter, op, stmtTpl);
+    }
+}
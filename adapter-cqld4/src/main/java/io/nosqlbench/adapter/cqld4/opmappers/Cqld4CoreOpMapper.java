@@ -18,6 +18,8 @@ package io.nosqlbench.adapter.cqld4.opmappers;
 
 import com.datastax.oss.driver.api.core.CqlSession;
 import io.nosqlbench.adapter.cqld4.Cqld4Space;
+import io.nosqlbench.adapter.cqld4.opdispensers.Cqld4AsyncOpDispenser;
+import io.nosqlbench.adapter.cqld4.optypes.Cqld4CqlOp;
 import io.nosqlbench.api.config.standard.NBConfiguration;
 import io.nosqlbench.engine.api.activityimpl.OpDispenser;
 import io.nosqlbench.engine.api.activityimpl.OpMapper;
@@ -68,16 +70,27 @@ public class Cqld4CoreOpMapper implements OpMapper<Op> {
 
         logger.info("Using " + target.enumId + " statement form for '" + op.getName());
 
+        boolean async = op.getOptionalStaticConfig("async", String.class).isPresent();
+
         return switch (target.enumId) {
-            case raw -> new CqlD4RawStmtMapper(adapter, sessionFunc, target.targetFunction).apply(op);
-            case simple -> new CqlD4CqlSimpleStmtMapper(adapter, sessionFunc, target.targetFunction).apply(op);
-            case prepared -> new CqlD4PreparedStmtMapper(adapter, sessionFunc, target).apply(op);
+            case raw -> asyncIf(async, new CqlD4RawStmtMapper(adapter, sessionFunc, target.targetFunction).apply(op));
+            case simple -> asyncIf(async, new CqlD4CqlSimpleStmtMapper(adapter, sessionFunc, target.targetFunction).apply(op));
+            case prepared -> asyncIf(async, new CqlD4PreparedStmtMapper(adapter, sessionFunc, target).apply(op));
             case gremlin -> new Cqld4GremlinOpMapper(adapter, sessionFunc, target.targetFunction).apply(op);
             case fluent -> new Cqld4FluentGraphOpMapper(adapter, sessionFunc, target).apply(op);
             case rainbow -> new CqlD4RainbowTableMapper(adapter, sessionFunc, target.targetFunction).apply(op);
-//            case sst -> new Cqld4SsTableMapper(adapter, sessionFunc, target.targetFunction).apply(op);
+            case sstable -> new CqlD4SsTableMapper(adapter, target).apply(op);
         };
     }
 
+    /**
+     * When the activity is run with the async parameter, CQL statements are executed
+     * with their non-blocking form, so that motor threads are not held while waiting for
+     * responses or pages.
+     */
+    private OpDispenser<? extends Op> asyncIf(boolean async, OpDispenser<? extends Cqld4CqlOp> dispenser) {
+        return async ? new Cqld4AsyncOpDispenser(dispenser) : dispenser;
+    }
+
 
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.cqld4.optypes;
+
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.internal.core.cql.ResultSets;
+import io.nosqlbench.adapter.cqld4.RSProcessors;
+import io.nosqlbench.adapter.cqld4.exceptions.ChangeUnappliedCycleException;
+import io.nosqlbench.adapter.cqld4.exceptions.UndefinedResultSetException;
+import io.nosqlbench.adapter.cqld4.exceptions.UnexpectedPagingException;
+import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * This is the non-blocking form of a {@link Cqld4CqlOp}, which is used when the
+ * activity is run with the async parameter. The statement is sent with
+ * {@link com.datastax.oss.driver.api.core.CqlSession#executeAsync(Statement)}, and
+ * each page is fed to the result set processors as it arrives, fetching the next
+ * page with {@link AsyncResultSet#fetchNextPage()} until the result set is exhausted.
+ *
+ * The LWT rebinding and paging checks are the same as for the sync form.
+ */
+public class Cqld4AsyncCqlOp implements AsyncCycleOp<AsyncResultSet>, VariableCapture, OpGenerator, OpResultSize {
+
+    private final Cqld4CqlOp op;
+    private final RSProcessors processors;
+
+    private volatile AsyncResultSet rs;
+    private volatile long resultSize;
+    private volatile Cqld4AsyncCqlOp nextOp;
+
+    public Cqld4AsyncCqlOp(Cqld4CqlOp op) {
+        this.op = op;
+        this.processors = op.getProcessors();
+    }
+
+    @Override
+    public CompletionStage<AsyncResultSet> apply(long cycle) {
+        Statement<?> stmt = op.getStmt();
+        resultSize = 0L;
+        return op.getSession().executeAsync(stmt).thenCompose(page -> {
+            rs = page;
+            processors.start(cycle, ResultSets.newInstance(page));
+
+            if (!page.wasApplied()) {
+                if (!op.isRetryReplace()) {
+                    throw new ChangeUnappliedCycleException(ResultSets.newInstance(page), op.getQueryString());
+                } else {
+                    Row one = page.one();
+                    processors.buffer(one);
+                    nextOp = new Cqld4AsyncCqlOp(op.rebindLwt(stmt, one));
+                }
+            }
+
+            return onPage(stmt, page, 1);
+        });
+    }
+
+    private CompletionStage<AsyncResultSet> onPage(Statement<?> stmt, AsyncResultSet page, int pages) {
+        rs = page;
+        resultSize += page.getExecutionInfo().getResponseSizeInBytes();
+        for (Row row : page.currentPage()) {
+            processors.buffer(row);
+        }
+        if (!page.hasMorePages()) {
+            processors.flush();
+            return CompletableFuture.completedFuture(page);
+        }
+        // The sync op reads the next page before it checks it, but there is no need to fetch it here
+        if (Cqld4CqlOp.isOverMaxPages(pages + 1, op.getMaxPages())) {
+            throw new UnexpectedPagingException(ResultSets.newInstance(page), op.getQueryString(), pages + 1, op.getMaxPages(), stmt.getPageSize());
+        }
+        return page.fetchNextPage().thenCompose(next -> onPage(stmt, next, pages + 1));
+    }
+
+    @Override
+    public long getResultSize() {
+        return resultSize;
+    }
+
+    @Override
+    public Op getNextOp() {
+        Op next = nextOp;
+        nextOp = null;
+        return next;
+    }
+
+    @Override
+    public Map<String, ?> capture() {
+        if (rs == null) {
+            throw new UndefinedResultSetException(op);
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "async:" + op;
+    }
+}
@@ -86,7 +86,7 @@ public abstract class Cqld4CqlOp implements CycleOp<ResultSet>, VariableCapture,
                 Row row = reader.next();
                 processors.buffer(row);
             }
-            if (pages++ > maxpages) {
+            if (isOverMaxPages(++pages, maxpages)) {
                 throw new UnexpectedPagingException(rs, getQueryString(), pages, maxpages, stmt.getPageSize());
             }
             if (rs.isFullyFetched()) {
@@ -122,11 +122,39 @@ public abstract class Cqld4CqlOp implements CycleOp<ResultSet>, VariableCapture,
         return null;
     }
 
+    /**
+     * The paging check which is shared by the sync and async forms of the op, so that they allow
+     * the same number of pages for the same maxpages setting.
+     *
+     * @param page the number of pages which have been read, including the current one
+     * @param maxpages the maxpages setting of the op
+     * @return true if the current page is one more than is allowed
+     */
+    static boolean isOverMaxPages(int page, int maxpages) {
+        return page - 1 > maxpages;
+    }
+
     public abstract Statement<?> getStmt();
 
     public abstract String getQueryString();
 
-    private Cqld4CqlOp rebindLwt(Statement<?> stmt, Row row) {
+    CqlSession getSession() {
+        return session;
+    }
+
+    int getMaxPages() {
+        return maxpages;
+    }
+
+    boolean isRetryReplace() {
+        return retryreplace;
+    }
+
+    RSProcessors getProcessors() {
+        return processors;
+    }
+
+    Cqld4CqlOp rebindLwt(Statement<?> stmt, Row row) {
         BoundStatement rebound = LWTRebinder.rebindUnappliedStatement(stmt, row);
         return new Cqld4CqlReboundStatement(session, maxpages, retryreplace, rebound, processors);
     }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.cqld4.optypes;
+
+import com.codahale.metrics.Meter;
+import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.CycleOp;
+import org.apache.cassandra.io.sstable.CQLSSTableWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Add one row to the sstable writer of the current thread. The row is buffered
+ * by the writer and is written to disk when the writer flushes or is closed.
+ */
+public class Cqld4SsTableOp implements CycleOp<Object[]> {
+
+    private final CQLSSTableWriter writer;
+    private final Object[] values;
+    private final Meter rowsMeter;
+
+    public Cqld4SsTableOp(CQLSSTableWriter writer, Object[] values, Meter rowsMeter) {
+        this.writer = writer;
+        this.values = values;
+        this.rowsMeter = rowsMeter;
+    }
+
+    @Override
+    public Object[] apply(long value) {
+        try {
+            writer.addRow(values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        rowsMeter.mark();
+        return values;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.adapter.cqld4.opdispensers;
+
+import io.nosqlbench.api.config.standard.NBConfiguration;
+import io.nosqlbench.api.errors.OpConfigError;
+import io.nosqlbench.engine.api.activityconfig.yaml.OpData;
+import io.nosqlbench.engine.api.templating.ParsedOp;
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class Cqld4SsTableDispenserTest {
+
+    private static Cqld4SsTableDispenser dispenser(String name, Path directory) {
+        ParsedOp op = new ParsedOp(new OpData().applyFields(Map.of(
+            "name", name,
+            "op", Map.of(
+                "sstable", "insert into ks1.t1 (k, v) values ({k}, {v})",
+                "schema", "create table ks1.t1 (k bigint primary key, v text)",
+                "directory", directory.toString()
+            ),
+            "bindings", Map.of(
+                "k", "Identity()",
+                "v", "NumberNameToString()"
+            )
+        )), NBConfiguration.empty());
+        return new Cqld4SsTableDispenser(null, op, op.getAsTemplate("sstable").orElseThrow());
+    }
+
+    private static List<Path> dataFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith("-Data.db")).toList();
+        }
+    }
+
+    @Test
+    public void testEachWriterHasItsOwnDirectory() throws Exception {
+        Path directory = Files.createTempDirectory("cqld4-sstable-test");
+        Cqld4SsTableDispenser dispenser = dispenser("layout", directory);
+
+        for (long cycle = 0; cycle < 5; cycle++) {
+            dispenser.apply(cycle).apply(cycle);
+        }
+        Thread other = new Thread(() -> {
+            for (long cycle = 5; cycle < 10; cycle++) {
+                dispenser.apply(cycle).apply(cycle);
+            }
+        });
+        other.start();
+        other.join();
+        dispenser.close();
+
+        assertThat(dataFiles(directory.resolve("0").resolve("ks1").resolve("t1"))).isNotEmpty();
+        assertThat(dataFiles(directory.resolve("1").resolve("ks1").resolve("t1"))).isNotEmpty();
+        assertThat(directory.resolve("2")).doesNotExist();
+    }
+
+    @Test
+    public void testWriterDirectoryMustBeEmpty() throws Exception {
+        Path directory = Files.createTempDirectory("cqld4-sstable-test");
+        Path tableDirectory = Files.createDirectories(directory.resolve("0").resolve("ks1").resolve("t1"));
+        Files.writeString(tableDirectory.resolve("earlier-run.txt"), "stale");
+
+        Cqld4SsTableDispenser dispenser = dispenser("nonempty", directory);
+        assertThatThrownBy(() -> dispenser.apply(0L))
+            .isInstanceOf(OpConfigError.class)
+            .hasMessageContaining("is not empty");
+        dispenser.close();
+    }
+
+    @Test
+    public void testCloseClosesAllWritersWhenOneFails() {
+        List<String> closed = new ArrayList<>();
+        Queue<Closeable> writers = new ConcurrentLinkedQueue<>();
+        writers.add(() -> closed.add("first"));
+        writers.add(() -> {
+            throw new IOException("second failed");
+        });
+        writers.add(() -> {
+            throw new IOException("third failed");
+        });
+        writers.add(() -> closed.add("fourth"));
+
+        assertThatThrownBy(() -> Cqld4SsTableDispenser.closeAll(writers))
+            .isInstanceOf(IOException.class)
+            .hasMessage("second failed")
+            .satisfies(e -> assertThat(e.getSuppressed()).hasSize(1));
+        assertThat(closed).containsExactly("first", "fourth");
+        assertThat(writers).isEmpty();
+    }
+}
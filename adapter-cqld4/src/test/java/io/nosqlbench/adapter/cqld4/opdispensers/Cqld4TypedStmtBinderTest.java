@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.adapter.cqld4.opdispensers;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.context.DriverContext;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.session.Session;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks which values are set without boxing, and that all other values are encoded the same way
+ * as {@link PreparedStatement#bind(Object...)} would, against the driver's default codec registry.
+ */
+public class Cqld4TypedStmtBinderTest {
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> impl = methods.get(method.getName());
+            if (impl != null) {
+                return impl.apply(args);
+            }
+            if (method.getReturnType() == boolean.class) {
+                return false;
+            }
+            if (method.getReturnType() == int.class) {
+                return 0;
+            }
+            if (method.getReturnType() == long.class) {
+                return 0L;
+            }
+            return null;
+        });
+    }
+
+    private static Session session() {
+        DriverContext context = fake(DriverContext.class, Map.of(
+            "getCodecRegistry", args -> CodecRegistry.DEFAULT,
+            "getProtocolVersion", args -> ProtocolVersion.DEFAULT
+        ));
+        return fake(Session.class, Map.of("getContext", args -> context));
+    }
+
+    /**
+     * @return a prepared statement with the given variable types, which records the setters called
+     * on its bound statement builders
+     */
+    private static PreparedStatement prepared(List<String> calls, DataType... types) {
+        ColumnDefinitions defs = fake(ColumnDefinitions.class, Map.of(
+            "size", args -> types.length,
+            "get", args -> fake(ColumnDefinition.class, Map.of("getType", a -> types[(Integer) args[0]]))
+        ));
+        PreparedStatement[] prepared = new PreparedStatement[1];
+        BoundStatement template = fake(BoundStatement.class, Map.of(
+            "getPreparedStatement", args -> prepared[0],
+            "getValues", args -> Arrays.asList(new ByteBuffer[types.length]),
+            "getCustomPayload", args -> Map.of(),
+            "codecRegistry", args -> CodecRegistry.DEFAULT,
+            "protocolVersion", args -> ProtocolVersion.DEFAULT
+        ));
+        prepared[0] = fake(PreparedStatement.class, Map.of(
+            "getVariableDefinitions", args -> defs,
+            "boundStatementBuilder", args -> new RecordingBuilder(template, calls)
+        ));
+        return prepared[0];
+    }
+
+    @Test
+    public void testPrimitiveFunctionsSetValuesDirectly() {
+        List<String> calls = new ArrayList<>();
+        PreparedStatement stmt = prepared(calls, DataTypes.BIGINT, DataTypes.INT, DataTypes.DOUBLE);
+        List<Object> functions = List.of(
+            (LongUnaryOperator) c -> c * 2,
+            (LongToIntFunction) c -> (int) c + 1,
+            (LongToDoubleFunction) c -> c / 2.0d
+        );
+
+        BoundStatement bound = (BoundStatement) Cqld4TypedStmtBinder.of(stmt, functions, session()).orElseThrow().apply(3L);
+
+        assertThat(calls).contains("setLong 0", "setInt 1", "setDouble 2");
+        assertThat(bound.getLong(0)).isEqualTo(6L);
+        assertThat(bound.getInt(1)).isEqualTo(4);
+        assertThat(bound.getDouble(2)).isEqualTo(1.5d);
+    }
+
+    @Test
+    public void testOtherFunctionsAreEncodedWithCodecs() {
+        List<String> calls = new ArrayList<>();
+        PreparedStatement stmt = prepared(calls, DataTypes.BIGINT, DataTypes.TEXT);
+        List<Object> functions = List.of(
+            (LongFunction<Long>) c -> c * 2,
+            (LongFunction<String>) c -> (c % 2 == 0) ? "v" + c : null
+        );
+        Cqld4TypedStmtBinder binder = Cqld4TypedStmtBinder.of(stmt, functions, session()).orElseThrow();
+
+        BoundStatement even = (BoundStatement) binder.apply(4L);
+        assertThat(calls).doesNotContain("setLong 0");
+        assertThat(calls).contains("setBytesUnsafe 0", "setBytesUnsafe 1");
+        assertThat(even.getLong(0)).isEqualTo(8L);
+        assertThat(even.getString(1)).isEqualTo("v4");
+
+        BoundStatement odd = (BoundStatement) binder.apply(5L);
+        assertThat(odd.getLong(0)).isEqualTo(10L);
+        assertThat(odd.isNull(1)).isTrue();
+    }
+
+    @Test
+    public void testMismatchedFunctionsFallBackToArrayBinding() {
+        PreparedStatement stmt = prepared(new ArrayList<>(), DataTypes.BIGINT, DataTypes.TEXT);
+        List<Object> functions = List.of((LongUnaryOperator) c -> c);
+        assertThat(Cqld4TypedStmtBinder.of(stmt, functions, session())).isEmpty();
+    }
+
+    private static class RecordingBuilder extends BoundStatementBuilder {
+        private final List<String> calls;
+
+        RecordingBuilder(BoundStatement template, List<String> calls) {
+            super(template);
+            this.calls = calls;
+        }
+
+        @Override
+        public BoundStatementBuilder setLong(int i, long v) {
+            calls.add("setLong " + i);
+            return super.setLong(i, v);
+        }
+
+        @Override
+        public BoundStatementBuilder setInt(int i, int v) {
+            calls.add("setInt " + i);
+            return super.setInt(i, v);
+        }
+
+        @Override
+        public BoundStatementBuilder setDouble(int i, double v) {
+            calls.add("setDouble " + i);
+            return super.setDouble(i, v);
+        }
+
+        @Override
+        public BoundStatementBuilder setBytesUnsafe(int i, ByteBuffer v) {
+            calls.add("setBytesUnsafe " + i);
+            return super.setBytesUnsafe(i, v);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.cqld4.optypes;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import io.nosqlbench.adapter.cqld4.exceptions.UnexpectedPagingException;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pins the maxpages boundary, which must be the same for the sync and async forms of a CQL op.
+ */
+public class Cqld4PagingTest {
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> impl = methods.get(method.getName());
+            if (impl != null) {
+                return impl.apply(args);
+            }
+            if (method.getReturnType() == boolean.class) {
+                return false;
+            }
+            if (method.getReturnType() == int.class) {
+                return 0;
+            }
+            if (method.getReturnType() == long.class) {
+                return 0L;
+            }
+            return null;
+        });
+    }
+
+    private static ResultSet syncPages(int totalPages) {
+        AtomicInteger checks = new AtomicInteger();
+        return fake(ResultSet.class, Map.of(
+            "wasApplied", args -> true,
+            "iterator", args -> Collections.emptyIterator(),
+            "isFullyFetched", args -> checks.incrementAndGet() >= totalPages
+        ));
+    }
+
+    private static AsyncResultSet asyncPage(int page, int totalPages) {
+        ExecutionInfo info = fake(ExecutionInfo.class, Map.of());
+        return fake(AsyncResultSet.class, Map.of(
+            "wasApplied", args -> true,
+            "getExecutionInfo", args -> info,
+            "currentPage", args -> Collections.emptyList(),
+            "remaining", args -> 0,
+            "hasMorePages", args -> page < totalPages,
+            "fetchNextPage", args -> CompletableFuture.completedFuture(asyncPage(page + 1, totalPages))
+        ));
+    }
+
+    private static Cqld4CqlOp op(int totalPages, int maxpages) {
+        CqlSession session = fake(CqlSession.class, Map.of(
+            "execute", args -> syncPages(totalPages),
+            "executeAsync", args -> CompletableFuture.completedFuture(asyncPage(1, totalPages))
+        ));
+        return new Cqld4CqlSimpleStatement(session, SimpleStatement.newInstance("select * from t"), maxpages, false);
+    }
+
+    private static boolean syncAllows(int totalPages, int maxpages) {
+        try {
+            op(totalPages, maxpages).apply(1L);
+            return true;
+        } catch (UnexpectedPagingException e) {
+            return false;
+        }
+    }
+
+    private static boolean asyncAllows(int totalPages, int maxpages) {
+        try {
+            new Cqld4AsyncCqlOp(op(totalPages, maxpages)).apply(1L).toCompletableFuture().get();
+            return true;
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(UnexpectedPagingException.class);
+            return false;
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testSyncAndAsyncAllowTheSamePages() {
+        for (int maxpages = 1; maxpages <= 3; maxpages++) {
+            for (int totalPages = 1; totalPages <= 6; totalPages++) {
+                assertThat(asyncAllows(totalPages, maxpages))
+                    .as("async with " + totalPages + " pages and maxpages=" + maxpages)
+                    .isEqualTo(syncAllows(totalPages, maxpages));
+            }
+        }
+    }
+
+    @Test
+    public void testMaxPagesBoundary() {
+        assertThat(syncAllows(2, 1)).isTrue();
+        assertThat(syncAllows(3, 1)).isFalse();
+        assertThat(asyncAllows(2, 1)).isTrue();
+        assertThatThrownBy(() -> op(3, 1).apply(1L))
+            .isInstanceOf(UnexpectedPagingException.class)
+            .hasMessageContaining("fetched/allowed: 3/1");
+    }
+}
@@ -16,17 +16,64 @@
 
 package io.nosqlbench.adapter.http.core;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Histogram;
 import io.nosqlbench.api.config.NBNamedElement;
 import io.nosqlbench.api.engine.metrics.ActivityMetrics;
 
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Metrics for all requests sent through one space's client. Since all threads share the
+ * client, the requests in flight are the concurrent streams over its connections. The
+ * concurrency histogram records how many requests were in flight as each one was sent,
+ * and the responses are counted by protocol version, so that it is visible whether
+ * requests were multiplexed over HTTP/2.
+ */
 public class HttpMetrics implements NBNamedElement {
     private final HttpSpace space;
     final Histogram statusCodeHistogram;
+    final Histogram bodySizeHistogram;
+    final Histogram concurrencyHistogram;
+    final Counter http2Responses;
+    final Counter http1Responses;
+    private final AtomicLong inflight = new AtomicLong();
 
     public HttpMetrics(HttpSpace space) {
         this.space = space;
         statusCodeHistogram = ActivityMetrics.histogram(this, "statuscode",space.getHdrDigits());
+        bodySizeHistogram = ActivityMetrics.histogram(this, "bodysize", space.getHdrDigits());
+        concurrencyHistogram = ActivityMetrics.histogram(this, "concurrency", space.getHdrDigits());
+        http2Responses = ActivityMetrics.counter(this, "responses_http2");
+        http1Responses = ActivityMetrics.counter(this, "responses_http1");
+        ActivityMetrics.gauge(this, "inflight", (Gauge<Long>) inflight::get);
+    }
+
+    void onSend() {
+        concurrencyHistogram.update(inflight.incrementAndGet());
+    }
+
+    void onReceive() {
+        inflight.decrementAndGet();
+    }
+
+    void onResponse(HttpResponse<?> response, long bodySize) {
+        statusCodeHistogram.update(response.statusCode());
+        if (bodySize >= 0) {
+            bodySizeHistogram.update(bodySize);
+        }
+        if (response.version() == HttpClient.Version.HTTP_2) {
+            http2Responses.inc();
+        } else {
+            http1Responses.inc();
+        }
+    }
+
+    public long getInflight() {
+        return inflight.get();
     }
 
     @Override
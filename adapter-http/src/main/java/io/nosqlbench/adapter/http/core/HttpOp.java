@@ -18,16 +18,30 @@ package io.nosqlbench.adapter.http.core;
 
 import io.nosqlbench.adapter.http.errors.InvalidResponseBodyException;
 import io.nosqlbench.adapter.http.errors.InvalidStatusCodeException;
+import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.AsyncCycleOp;
 import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.RunnableOp;
 
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public class HttpOp implements RunnableOp {
+/**
+ * An HTTP request, which is sent without blocking when the activity is run with the async
+ * parameter, and waited on otherwise. Unless an ok-body pattern or diagnostics need to see
+ * the response body, it is discarded as it arrives and only its size is kept.
+ */
+public class HttpOp implements RunnableOp, AsyncCycleOp<HttpResponse<?>> {
+
+    private final static Pattern CHARSET = Pattern.compile("charset=\"?([^\";\\s]+)", Pattern.CASE_INSENSITIVE);
 
     public final Pattern ok_status;
     public final Pattern ok_body;
@@ -35,6 +49,8 @@ public class HttpOp implements RunnableOp {
     private final HttpClient client;
     private final HttpSpace space;
     private final long cycle;
+    private volatile long bodySize = -1L;
+    private volatile HttpResponse<?> lastResponse;
 
     public HttpOp(HttpClient client, HttpRequest request, Pattern ok_status, Pattern ok_body, HttpSpace space, long cycle) {
         this.client = client;
@@ -47,43 +63,98 @@ public class HttpOp implements RunnableOp {
 
     @Override
     public void run() {
-        HttpResponse.BodyHandler<String> bodyreader = HttpResponse.BodyHandlers.ofString();
-        HttpResponse<String> response = null;
-        Exception error = null;
-        long startat = System.nanoTime();
         try {
-            CompletableFuture<HttpResponse<String>> responseFuture = client.sendAsync(request, bodyreader);
-             response = responseFuture.get(space.getTimeoutMillis(), TimeUnit.MILLISECONDS);
-             space.getHttpMetrics().statusCodeHistogram.update(response.statusCode());
+            apply(cycle).toCompletableFuture().get();
+        } catch (ExecutionException e) {
+            // propogate the cause so main error handling logic can take over
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-            if (ok_status != null) {
-                if (!ok_status.matcher(String.valueOf(response.statusCode())).matches()) {
-                    throw new InvalidStatusCodeException(ok_status, response.statusCode());
-                }
+    @Override
+    public CompletionStage<HttpResponse<?>> apply(long value) {
+        HttpMetrics metrics = space.getHttpMetrics();
+        long startat = System.nanoTime();
+        lastResponse = null;
+        metrics.onSend();
+        CompletableFuture<HttpResponse<?>> future = client.sendAsync(request, bodyHandler())
+            .thenApply(this::verify);
+        if (space.getTimeoutMillis() < Long.MAX_VALUE) {
+            future = future.orTimeout(space.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+        }
+        return future.whenComplete((response, error) -> {
+            metrics.onReceive();
+            if (space.isDiagnosticMode()) {
+                summarize(lastResponse, error, System.nanoTime() - startat);
             }
-            if (ok_body != null) {
-                if (!ok_body.matcher(response.body()).matches()) {
-                    throw new InvalidResponseBodyException(ok_body, response.body());
-                }
+        });
+    }
+
+    @Override
+    public long getResultSize() {
+        return bodySize;
+    }
+
+    private HttpResponse.BodyHandler<?> bodyHandler() {
+        if (ok_body == null && !space.isDiagnosticMode()) {
+            return info -> HttpResponse.BodySubscribers.mapping(new ByteCountingBodySubscriber(), bytes -> {
+                bodySize = bytes;
+                return bytes;
+            });
+        }
+        return info -> HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), bytes -> {
+            bodySize = bytes.length;
+            return new String(bytes, charsetOf(info.headers()));
+        });
+    }
+
+    private HttpResponse<?> verify(HttpResponse<?> response) {
+        this.lastResponse = response;
+        HttpMetrics metrics = space.getHttpMetrics();
+        metrics.onResponse(response, bodySize);
+
+        if (ok_status != null) {
+            if (!ok_status.matcher(String.valueOf(response.statusCode())).matches()) {
+                throw new InvalidStatusCodeException(ok_status, response.statusCode());
             }
-        } catch (Exception e) {
-            error = e;
-        } finally {
-            long nanos = System.nanoTime() - startat;
-            if (space.isDiagnosticMode()) {
-                space.getConsole().summarizeRequest("request", error, request, System.out, cycle, nanos);
-                if (response != null) {
-                    space.getConsole().summarizeResponseChain(error, response, System.out, cycle, nanos);
-                } else {
-                    System.out.println("---- RESPONSE was null");
-                }
-                System.out.println();
+        }
+        if (ok_body != null) {
+            String body = (String) response.body();
+            if (!ok_body.matcher(body).matches()) {
+                throw new InvalidResponseBodyException(ok_body, body);
             }
-            // propogate exception so main error handling logic can take over
-            if (error!=null) {
-                throw new RuntimeException(error);
+        }
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void summarize(HttpResponse<?> response, Throwable error, long nanos) {
+        Throwable cause = (error != null && error.getCause() != null) ? error.getCause() : error;
+        Exception exception = (cause instanceof Exception e) ? e : null;
+        synchronized (System.out) {
+            space.getConsole().summarizeRequest("request", exception, request, System.out, cycle, nanos);
+            if (response != null) {
+                space.getConsole().summarizeResponseChain(exception, (HttpResponse<String>) response, System.out, cycle, nanos);
+            } else {
+                System.out.println("---- RESPONSE was null");
             }
+            System.out.println();
         }
+    }
 
+    private static Charset charsetOf(HttpHeaders headers) {
+        return headers.firstValue("Content-Type")
+            .map(CHARSET::matcher)
+            .filter(Matcher::find)
+            .map(m -> {
+                try {
+                    return Charset.forName(m.group(1));
+                } catch (Exception e) {
+                    return StandardCharsets.UTF_8;
+                }
+            })
+            .orElse(StandardCharsets.UTF_8);
     }
 }
@@ -23,7 +23,9 @@ import io.nosqlbench.engine.api.templating.ParsedOp;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.LongFunction;
@@ -50,9 +52,23 @@ public class HttpOpDispenser extends BaseOpDispenser<HttpOp,HttpSpace> {
                 HttpRequest.BodyPublishers.noBody()
             );
 
+        // Body templates are rendered straight to UTF-8, as ofString would encode them, without the
+        // intermediate String. The reused buffer is copied since the request may be sent more than once.
+        Optional<LongFunction<ByteBuffer>> bodyBytesF = op.getAsOptionalUtf8Function("body");
+        if (bodyBytesF.isPresent()) {
+            LongFunction<ByteBuffer> bytesF = bodyBytesF.get();
+            bodyPublisherF = l -> {
+                ByteBuffer bytes = bytesF.apply(l);
+                return HttpRequest.BodyPublishers.ofByteArray(
+                    Arrays.copyOfRange(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.arrayOffset() + bytes.limit())
+                );
+            };
+        }
+
         LongFunction<String> methodF = op.getAsFunctionOr("method", "GET");
+        LongFunction<HttpRequest.BodyPublisher> finalBodyPublisherF = bodyPublisherF;
         LongFunction<HttpRequest.Builder> initBuilderF =
-            l -> builderF.apply(l).method(methodF.apply(l), bodyPublisherF.apply(l));
+            l -> builderF.apply(l).method(methodF.apply(l), finalBodyPublisherF.apply(l));
 
         initBuilderF = op.enhanceFuncOptionally(
             initBuilderF, "version", String.class,
@@ -28,11 +28,20 @@ import java.net.http.HttpClient;
 import java.time.Duration;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ThreadLocal http clients have been removed from this version, as the built-in
  * HTTP client implementation is meant to be immutable. If shared-state issues
  * occur, thread-local support will be re-added.
+ *
+ * <p>All threads which use a space share its client, and thus its connections. With HTTP/2,
+ * concurrent requests to the same host are multiplexed as streams over one connection, up to
+ * the stream limit. The connection pool settings of the JDK client are JVM-wide system
+ * properties, which are read when the first client is built, so they are applied here
+ * before building the client, and only the first space to set them has any effect.</p>
  */
 public class HttpSpace implements NBNamedElement {
     private final static Logger logger = LogManager.getLogger(HttpSpace.class);
@@ -48,6 +57,11 @@ public class HttpSpace implements NBNamedElement {
     private HttpMetrics httpMetrics;
     private boolean diagnosticsEnabled;
 
+    private final static Map<String, String> CLIENT_PROPERTIES = Map.of(
+        "client_pool_size", "jdk.httpclient.connectionPoolSize",
+        "client_keepalive", "jdk.httpclient.keepalive.timeout",
+        "client_max_streams", "jdk.httpclient.maxstreams"
+    );
 
     public HttpSpace(String spaceName, NBConfiguration cfg) {
         this.name = spaceName;
@@ -63,8 +77,23 @@ public class HttpSpace implements NBNamedElement {
     private HttpClient newClient() {
         HttpClient.Builder builder = HttpClient.newBuilder();
         logger.debug("follow_redirects=>" + followRedirects);
-        builder = builder.followRedirects(this.followRedirects);
-        builder = builder.connectTimeout(this.timeout);
+        builder.followRedirects(this.followRedirects);
+        builder.connectTimeout(this.timeout);
+        cfg.getOptional("client_version").ifPresent(v -> builder.version(
+            v.equalsIgnoreCase("http/1.1") ? HttpClient.Version.HTTP_1_1 : HttpClient.Version.HTTP_2
+        ));
+        cfg.getOptional("client_threads").map(Integer::parseInt).ifPresent(n -> {
+            AtomicInteger threadIdx = new AtomicInteger();
+            builder.executor(Executors.newFixedThreadPool(n, r -> {
+                Thread thread = new Thread(r, "http-" + name + "-" + threadIdx.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }));
+        });
+        CLIENT_PROPERTIES.forEach((param, property) -> cfg.getOptional(param).ifPresent(v -> {
+            logger.debug("setting " + property + "=" + v + " for " + param);
+            System.setProperty(property, v);
+        }));
         return builder.build();
     }
 
@@ -75,7 +104,10 @@ public class HttpSpace implements NBNamedElement {
             );
         this.timeout = Duration.ofMillis(cfg.get("timeout", long.class));
         this.timeoutMillis = cfg.get("timeout", long.class);
-        this.httpMetrics = new HttpMetrics(this);
+        this.hdrDigits = cfg.get("hdr_digits", Integer.class);
+        if (this.httpMetrics == null) {
+            this.httpMetrics = new HttpMetrics(this);
+        }
 
         this.console = cfg.getOptional("diag").map(s -> HttpConsoleFormats.apply(s, this.console))
             .orElseGet(() -> HttpConsoleFormats.apply(null,null));
@@ -124,6 +156,17 @@ public class HttpSpace implements NBNamedElement {
                 .setDescription("How long to wait for requests before timeout out. Default is forever."))
             .add(Param.defaultTo("hdr_digits", 4)
                 .setDescription("number of digits of precision to keep in HDR histograms"))
+            .add(Param.optional("client_version", String.class)
+                .setRegex("(?i)http/1\\.1|http/2(\\.0)?")
+                .setDescription("The HTTP version which the client prefers, HTTP/1.1 or HTTP/2. Default is HTTP/2."))
+            .add(Param.optional("client_threads", String.class)
+                .setDescription("The number of threads which handle responses for the client. Default is a cached pool."))
+            .add(Param.optional("client_pool_size", String.class)
+                .setDescription("The maximum number of idle HTTP/1.1 connections kept per host. JVM-wide."))
+            .add(Param.optional("client_keepalive", String.class)
+                .setDescription("How many seconds idle connections are kept open. JVM-wide."))
+            .add(Param.optional("client_max_streams", String.class)
+                .setDescription("The maximum number of concurrent streams on each HTTP/2 connection. JVM-wide."))
             .asReadOnly();
 
     }
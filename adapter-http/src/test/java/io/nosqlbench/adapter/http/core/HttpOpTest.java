@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.http.core;
+
+import com.sun.net.httpserver.HttpServer;
+import io.nosqlbench.adapter.http.errors.InvalidResponseBodyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HttpOpTest {
+
+    private HttpServer server;
+    private final CountDownLatch received = new CountDownLatch(4);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.createContext("/big", exchange -> {
+            byte[] body = new byte[100_000];
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/hello", exchange -> {
+            byte[] body = "hello, world".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            received.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    private HttpOp op(HttpSpace space, String path, Pattern okBody) {
+        HttpRequest request = HttpRequest.newBuilder(
+            URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path)
+        ).build();
+        return new HttpOp(space.getClient(), request, Pattern.compile("2.."), okBody, space, 0L);
+    }
+
+    private HttpSpace space(String name) {
+        return new HttpSpace(name, HttpSpace.getConfigModel().apply(Map.of()));
+    }
+
+    @Test
+    public void testBodyIsCountedWithoutOkBody() throws Exception {
+        HttpOp op = op(space("counted"), "/big", null);
+        HttpResponse<?> response = op.apply(0L).toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertThat(response.body()).isEqualTo(100_000L);
+        assertThat(op.getResultSize()).isEqualTo(100_000L);
+    }
+
+    @Test
+    public void testBodyIsReadForOkBody() throws Exception {
+        HttpSpace space = space("okbody");
+        HttpOp matching = op(space, "/hello", Pattern.compile("hello.*"));
+        assertThat(matching.apply(0L).toCompletableFuture().get(10, TimeUnit.SECONDS).body())
+            .isEqualTo("hello, world");
+        assertThat(matching.getResultSize()).isEqualTo(12L);
+
+        HttpOp failing = op(space, "/hello", Pattern.compile("goodbye.*"));
+        assertThatThrownBy(() -> failing.apply(0L).toCompletableFuture().get(10, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(InvalidResponseBodyException.class);
+        assertThatThrownBy(failing::run).hasCauseInstanceOf(InvalidResponseBodyException.class);
+    }
+
+    @Test
+    public void testRequestsStayInFlightWithoutBlocking() throws Exception {
+        HttpSpace space = space("inflight");
+        List<CompletableFuture<HttpResponse<?>>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(op(space, "/slow", null).apply(i).toCompletableFuture());
+        }
+        assertThat(received.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(space.getHttpMetrics().getInflight()).isEqualTo(4L);
+        assertThat(futures).noneMatch(CompletableFuture::isDone);
+
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertThat(space.getHttpMetrics().getInflight()).isEqualTo(0L);
+        assertThat(space.getHttpMetrics().concurrencyHistogram.getSnapshot().getMax()).isEqualTo(4L);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.jdbc;
+
+import io.nosqlbench.adapter.jdbc.optypes.JDBCOp;
+import io.nosqlbench.api.config.standard.NBConfigModel;
+import io.nosqlbench.api.config.standard.NBConfiguration;
+import io.nosqlbench.engine.api.activityimpl.OpMapper;
+import io.nosqlbench.engine.api.activityimpl.uniform.BaseDriverAdapter;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverAdapter;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverSpaceCache;
+import io.nosqlbench.nb.annotations.Maturity;
+import io.nosqlbench.nb.annotations.Service;
+
+import java.sql.SQLException;
+import java.util.function.Function;
+
+@Service(value = DriverAdapter.class, selector = "jdbc", maturity = Maturity.Experimental)
+public class JDBCDriverAdapter extends BaseDriverAdapter<JDBCOp, JDBCSpace> {
+
+    @Override
+    public OpMapper<JDBCOp> getOpMapper() {
+        DriverSpaceCache<? extends JDBCSpace> spaceCache = getSpaceCache();
+        NBConfiguration adapterConfig = getConfiguration();
+        return new JDBCOpMapper(this, adapterConfig, spaceCache);
+    }
+
+    @Override
+    public Function<String, ? extends JDBCSpace> getSpaceInitializer(NBConfiguration cfg) {
+        return (s) -> new JDBCSpace(s, cfg);
+    }
+
+    @Override
+    public NBConfigModel getConfigModel() {
+        return super.getConfigModel().add(JDBCSpace.getConfigModel());
+    }
+
+    /**
+     * SQL errors are named by their SQLState as well as their type, so that error handlers
+     * can be configured for specific conditions, like serialization failures. Ops wrap
+     * {@link SQLException}s, so the cause is named when it is one.
+     */
+    @Override
+    public Function<Throwable, String> getErrorNameMapper() {
+        return t -> {
+            Throwable e = (t.getCause() instanceof SQLException) ? t.getCause() : t;
+            StringBuilder sb = new StringBuilder(e.getClass().getSimpleName());
+            if (e instanceof SQLException sqle) {
+                String sqlState = sqle.getSQLState();
+                if (sqlState != null && !sqlState.isEmpty()) {
+                    sb.append('_').append(sqlState);
+                }
+            }
+            return sb.toString();
+        };
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.jdbc;
+
+import io.nosqlbench.adapter.jdbc.opdispensers.JDBCExecuteOpDispenser;
+import io.nosqlbench.adapter.jdbc.opdispensers.JDBCPreparedOpDispenser;
+import io.nosqlbench.adapter.jdbc.optypes.JDBCOp;
+import io.nosqlbench.api.config.standard.NBConfiguration;
+import io.nosqlbench.api.errors.OpConfigError;
+import io.nosqlbench.engine.api.activityimpl.OpDispenser;
+import io.nosqlbench.engine.api.activityimpl.OpMapper;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverAdapter;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverSpaceCache;
+import io.nosqlbench.engine.api.templating.ParsedOp;
+import io.nosqlbench.engine.api.templating.TypeAndTarget;
+import io.nosqlbench.virtdata.core.templates.ParsedStringTemplate;
+
+public class JDBCOpMapper implements OpMapper<JDBCOp> {
+
+    private final NBConfiguration cfg;
+    private final DriverSpaceCache<? extends JDBCSpace> cache;
+    private final DriverAdapter adapter;
+
+    public JDBCOpMapper(DriverAdapter adapter, NBConfiguration cfg, DriverSpaceCache<? extends JDBCSpace> cache) {
+        this.cfg = cfg;
+        this.cache = cache;
+        this.adapter = adapter;
+    }
+
+    @Override
+    public OpDispenser<? extends JDBCOp> apply(ParsedOp op) {
+        if (op.isDynamic("space")) {
+            throw new OpConfigError("JDBC op templates do not support dynamic space values, since" +
+                " connections and prepared statements are pinned to each thread within a space.");
+        }
+        String spaceName = op.getStaticConfigOr("space", "default");
+        JDBCSpace space = cache.get(spaceName);
+
+        TypeAndTarget<JDBCOpType, String> target = op.getTypeAndTarget(JDBCOpType.class, String.class, "type", "stmt");
+
+        if (target.enumId == JDBCOpType.execute) {
+            return new JDBCExecuteOpDispenser(adapter, space, op, target.targetFunction);
+        }
+
+        ParsedStringTemplate stmtTpl = op.getAsTemplate(target.field).orElseThrow(() -> new OpConfigError(
+            "No statement was found in field '" + target.field + "' for op template '" + op.getName() + "'"
+        ));
+        return new JDBCPreparedOpDispenser(adapter, space, op, stmtTpl, target.enumId);
+    }
+
+}
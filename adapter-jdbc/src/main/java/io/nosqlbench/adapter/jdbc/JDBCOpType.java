@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.jdbc;
+
+public enum JDBCOpType {
+    /**
+     * Run the rendered statement text as-is, with bindings substituted into the text.
+     * This is meant for DDL and other statements which can not be prepared.
+     */
+    execute,
+    /**
+     * Prepare the statement once per connection, bind parameters positionally, and
+     * read all rows of the result set.
+     */
+    query,
+    /**
+     * Prepare the statement once per connection, bind parameters positionally, and
+     * execute it as an update, or add it to a batch when batchsize is more than 1.
+     */
+    update
+}
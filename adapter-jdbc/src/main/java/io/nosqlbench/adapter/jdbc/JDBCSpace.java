@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.jdbc;
+
+import io.nosqlbench.api.config.standard.ConfigModel;
+import io.nosqlbench.api.config.standard.NBConfigModel;
+import io.nosqlbench.api.config.standard.NBConfiguration;
+import io.nosqlbench.api.config.standard.Param;
+import io.nosqlbench.api.errors.OpConfigError;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A JDBC space holds one connection per thread which uses it. Since each motor thread runs its
+ * cycles on the same thread, this pins a connection to each motor for its whole lifetime, without
+ * a pool in between. Prepared statements are cached per connection by their SQL text, and carry
+ * the count of statements which have been added to a batch but not yet executed.
+ *
+ * <p>The space is retained by each op dispenser which uses it. When the last one is released,
+ * any partially filled batches are executed and all connections are closed.</p>
+ */
+public class JDBCSpace {
+    private final static Logger logger = LogManager.getLogger(JDBCSpace.class);
+
+    private final String name;
+    private final String url;
+    private final Properties properties = new Properties();
+    private final boolean autoCommit;
+
+    private final ThreadLocal<ThreadConnection> threadConnection = ThreadLocal.withInitial(this::connect);
+    private final List<ThreadConnection> connections = new CopyOnWriteArrayList<>();
+    private int references = 0;
+
+    public JDBCSpace(String name, NBConfiguration cfg) {
+        this.name = name;
+        this.url = cfg.get("url", String.class);
+        cfg.getOptional("user").ifPresent(u -> properties.setProperty("user", u));
+        cfg.getOptional("password").ifPresent(p -> properties.setProperty("password", p));
+        this.autoCommit = cfg.get("autocommit", Boolean.class);
+    }
+
+    private ThreadConnection connect() {
+        try {
+            Connection connection = DriverManager.getConnection(url, properties);
+            connection.setAutoCommit(autoCommit);
+            ThreadConnection tc = new ThreadConnection(connection);
+            connections.add(tc);
+            logger.debug("space '" + name + "' opened connection " + connections.size() + " for thread " + Thread.currentThread().getName());
+            return tc;
+        } catch (SQLException e) {
+            throw new OpConfigError("Unable to connect to '" + url + "' for space '" + name + "': " + e, e);
+        }
+    }
+
+    /**
+     * @return the connection which is pinned to the calling thread, opening it if needed
+     */
+    public Connection getConnection() {
+        return threadConnection.get().connection;
+    }
+
+    /**
+     * @param sql The SQL text, with positional '?' parameters
+     * @return the prepared statement for this SQL text on the calling thread's connection
+     */
+    public PinnedStatement prepare(String sql) {
+        return threadConnection.get().prepare(sql);
+    }
+
+    public boolean isAutoCommit() {
+        return autoCommit;
+    }
+
+    public synchronized void retain() {
+        references++;
+    }
+
+    /**
+     * Release one reference to this space. When the last reference is released, partially filled
+     * batches are flushed and every connection is closed. This is only called after all motors
+     * have stopped, so it is safe to use the connections from the releasing thread.
+     */
+    public synchronized void release() {
+        if (--references > 0) {
+            return;
+        }
+        for (ThreadConnection tc : connections) {
+            tc.close(autoCommit);
+        }
+        connections.clear();
+    }
+
+    /**
+     * A prepared statement which belongs to one thread's connection, along with the number of
+     * bound parameter sets which are waiting in its batch.
+     */
+    public static class PinnedStatement {
+        public final PreparedStatement statement;
+        public int pending;
+
+        PinnedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    private static class ThreadConnection {
+        private final Connection connection;
+        private final Map<String, PinnedStatement> statements = new HashMap<>();
+
+        private ThreadConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        private PinnedStatement prepare(String sql) {
+            PinnedStatement ps = statements.get(sql);
+            if (ps == null) {
+                try {
+                    ps = new PinnedStatement(connection.prepareStatement(sql));
+                } catch (SQLException e) {
+                    throw new OpConfigError("Unable to prepare statement '" + sql + "': " + e, e);
+                }
+                statements.put(sql, ps);
+            }
+            return ps;
+        }
+
+        private void close(boolean autoCommit) {
+            try {
+                for (PinnedStatement ps : statements.values()) {
+                    if (ps.pending > 0) {
+                        ps.statement.executeBatch();
+                        ps.pending = 0;
+                    }
+                    ps.statement.close();
+                }
+                if (!autoCommit) {
+                    connection.commit();
+                }
+                connection.close();
+            } catch (SQLException e) {
+                logger.warn("Error while closing JDBC connection: " + e, e);
+            }
+        }
+    }
+
+    public static NBConfigModel getConfigModel() {
+        return ConfigModel.of(JDBCSpace.class)
+            .add(Param.required("url", String.class)
+                .setDescription("The JDBC connection URL, like jdbc:postgresql://host:5432/db"))
+            .add(Param.optional("user", String.class, "The user name to connect with"))
+            .add(Param.optional("password", String.class, "The password to connect with"))
+            .add(Param.defaultTo("autocommit", true, "Whether each statement or batch is committed on its own"))
+            .add(Param.optional("batchsize", Integer.class, "The default number of update statements to send in each batch"))
+            .asReadOnly();
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.jdbc.opdispensers;
+
+import io.nosqlbench.adapter.jdbc.JDBCSpace;
+import io.nosqlbench.adapter.jdbc.optypes.JDBCOp;
+import io.nosqlbench.engine.api.activityimpl.BaseOpDispenser;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverAdapter;
+import io.nosqlbench.engine.api.templating.ParsedOp;
+
+/**
+ * Each JDBC op dispenser holds a reference to its space for the life of the activity, so that
+ * connections are closed, and pending batches are flushed, once the last dispenser is closed.
+ */
+public abstract class JDBCBaseOpDispenser extends BaseOpDispenser<JDBCOp, JDBCSpace> implements AutoCloseable {
+
+    protected final JDBCSpace space;
+
+    public JDBCBaseOpDispenser(DriverAdapter adapter, JDBCSpace space, ParsedOp op) {
+        super(adapter, op);
+        this.space = space;
+        space.retain();
+    }
+
+    @Override
+    public void close() {
+        space.release();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.jdbc.opdispensers;
+
+import io.nosqlbench.adapter.jdbc.JDBCOpType;
+import io.nosqlbench.adapter.jdbc.JDBCSpace;
+import io.nosqlbench.adapter.jdbc.optypes.JDBCOp;
+import io.nosqlbench.adapter.jdbc.optypes.JDBCQueryOp;
+import io.nosqlbench.adapter.jdbc.optypes.JDBCUpdateOp;
+import io.nosqlbench.api.errors.OpConfigError;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverAdapter;
+import io.nosqlbench.engine.api.templating.ParsedOp;
+import io.nosqlbench.virtdata.core.templates.ParsedStringTemplate;
+
+import java.util.function.LongFunction;
+
+/**
+ * Bind points in the statement template are replaced with positional '?' parameters, and the
+ * values for them are generated in the same order for each cycle. The statement is prepared
+ * lazily on each thread's own connection, the first time that thread uses it.
+ */
+public class JDBCPreparedOpDispenser extends JDBCBaseOpDispenser {
+
+    private final String sql;
+    private final LongFunction<Object[]> valuesFunc;
+    private final JDBCOpType opType;
+    private final int batchSize;
+
+    public JDBCPreparedOpDispenser(DriverAdapter adapter, JDBCSpace space, ParsedOp op, ParsedStringTemplate stmtTpl, JDBCOpType opType) {
+        super(adapter, space, op);
+        this.opType = opType;
+        this.sql = stmtTpl.getPositionalStatement(s -> "?");
+        this.valuesFunc = op.newArrayBinderFromBindPoints(stmtTpl.getBindPoints());
+        this.batchSize = op.getStaticConfigOr("batchsize", 1);
+        if (batchSize < 1) {
+            throw new OpConfigError("batchsize must be at least 1 for op template '" + op.getName() + "', but it was " + batchSize);
+        }
+        if (batchSize > 1 && opType != JDBCOpType.update) {
+            throw new OpConfigError("batchsize is only supported for update statements, but op template '" +
+                op.getName() + "' is a " + opType + " statement.");
+        }
+    }
+
+    @Override
+    public JDBCOp apply(long cycle) {
+        Object[] values = valuesFunc.apply(cycle);
+        return switch (opType) {
+            case query -> new JDBCQueryOp(space, sql, values);
+            case update -> new JDBCUpdateOp(space, sql, values, batchSize);
+            case execute -> throw new OpConfigError("execute statements are not prepared");
+        };
+    }
+}
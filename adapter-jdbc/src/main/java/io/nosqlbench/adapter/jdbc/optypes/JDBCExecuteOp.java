@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.jdbc.optypes;
+
+import io.nosqlbench.adapter.jdbc.JDBCSpace;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class JDBCExecuteOp extends JDBCOp {
+
+    public JDBCExecuteOp(JDBCSpace space, String sql) {
+        super(space, sql);
+    }
+
+    @Override
+    public Boolean apply(long value) {
+        try (Statement statement = space.getConnection().createStatement()) {
+            boolean hasResultSet = statement.execute(sql);
+            commitIfNeeded();
+            return hasResultSet;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.jdbc.optypes;
+
+import io.nosqlbench.adapter.jdbc.JDBCSpace;
+import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.CycleOp;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public abstract class JDBCOp implements CycleOp<Object> {
+
+    protected final JDBCSpace space;
+    protected final String sql;
+
+    public JDBCOp(JDBCSpace space, String sql) {
+        this.space = space;
+        this.sql = sql;
+    }
+
+    protected static void bind(PreparedStatement statement, Object[] values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            statement.setObject(i + 1, values[i]);
+        }
+    }
+
+    protected void commitIfNeeded() throws SQLException {
+        if (!space.isAutoCommit()) {
+            space.getConnection().commit();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + sql + ")";
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.jdbc.optypes;
+
+import io.nosqlbench.adapter.jdbc.JDBCSpace;
+import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.OpResultSize;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Run a prepared query and read every row of the result, so that the service time
+ * includes the transfer of the whole result set. The result size is the row count.
+ */
+public class JDBCQueryOp extends JDBCOp implements OpResultSize {
+
+    private final Object[] values;
+    private long rows = 0;
+
+    public JDBCQueryOp(JDBCSpace space, String sql, Object[] values) {
+        super(space, sql);
+        this.values = values;
+    }
+
+    @Override
+    public Long apply(long value) {
+        PreparedStatement statement = space.prepare(sql).statement;
+        try {
+            bind(statement, values);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                }
+            }
+            commitIfNeeded();
+            return rows;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public long getResultSize() {
+        return rows;
+    }
+}
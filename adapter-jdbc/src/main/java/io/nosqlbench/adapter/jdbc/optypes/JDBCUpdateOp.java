@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.jdbc.optypes;
+
+import io.nosqlbench.adapter.jdbc.JDBCSpace;
+import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.OpResultSize;
+
+import java.sql.SQLException;
+
+/**
+ * Run a prepared update. With a batch size above 1, the bound values are added to the
+ * statement's batch on the calling thread's connection, and the batch is executed by
+ * whichever op fills it. Ops which only add to the batch report a result size of 0, and
+ * the op which executes it reports the total update count for the whole batch.
+ */
+public class JDBCUpdateOp extends JDBCOp implements OpResultSize {
+
+    private final Object[] values;
+    private final int batchSize;
+    private long updated = 0;
+
+    public JDBCUpdateOp(JDBCSpace space, String sql, Object[] values, int batchSize) {
+        super(space, sql);
+        this.values = values;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public Long apply(long value) {
+        JDBCSpace.PinnedStatement ps = space.prepare(sql);
+        try {
+            bind(ps.statement, values);
+            if (batchSize <= 1) {
+                updated = ps.statement.executeUpdate();
+                commitIfNeeded();
+                return updated;
+            }
+
+            ps.statement.addBatch();
+            if (++ps.pending < batchSize) {
+                return 0L;
+            }
+            ps.pending = 0;
+            for (int count : ps.statement.executeBatch()) {
+                if (count > 0) {
+                    updated += count;
+                }
+            }
+            commitIfNeeded();
+            return updated;
+        } catch (SQLException e) {
+            if (batchSize > 1) {
+                ps.pending = 0;
+                try {
+                    ps.statement.clearBatch();
+                } catch (SQLException ignored) {
+                }
+            }
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public long getResultSize() {
+        return updated;
+    }
+}
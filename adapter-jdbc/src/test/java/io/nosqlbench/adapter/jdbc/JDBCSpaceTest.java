@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.jdbc;
+
+import io.nosqlbench.adapter.jdbc.optypes.JDBCUpdateOp;
+import io.nosqlbench.api.config.standard.NBConfiguration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JDBCSpaceTest {
+
+    private final static List<String> events = new CopyOnWriteArrayList<>();
+
+    @BeforeAll
+    public static void registerStandIn() throws SQLException {
+        DriverManager.registerDriver(new StandInDriver());
+    }
+
+    @BeforeEach
+    public void clearEvents() {
+        events.clear();
+    }
+
+    private JDBCSpace space() {
+        NBConfiguration cfg = JDBCSpace.getConfigModel().apply(Map.of("url", "jdbc:standin:test"));
+        return new JDBCSpace("test", cfg);
+    }
+
+    @Test
+    public void testConnectionIsPinnedToEachThread() throws Exception {
+        JDBCSpace space = space();
+        Connection main = space.getConnection();
+        assertThat(space.getConnection()).isSameAs(main);
+
+        Connection[] other = new Connection[2];
+        Thread t = new Thread(() -> {
+            other[0] = space.getConnection();
+            other[1] = space.getConnection();
+        });
+        t.start();
+        t.join();
+
+        assertThat(other[0]).isSameAs(other[1]);
+        assertThat(other[0]).isNotSameAs(main);
+        assertThat(events.stream().filter(e -> e.equals("connect")).count()).isEqualTo(2);
+    }
+
+    @Test
+    public void testStatementIsPreparedOncePerConnection() {
+        JDBCSpace space = space();
+        space.retain();
+        for (int i = 0; i < 3; i++) {
+            new JDBCUpdateOp(space, "insert into t values (?,?)", new Object[]{"k" + i, i}, 1).apply(i);
+        }
+        assertThat(events).containsExactly(
+            "connect",
+            "prepare insert into t values (?,?)",
+            "setObject 1 k0", "setObject 2 0", "executeUpdate",
+            "setObject 1 k1", "setObject 2 1", "executeUpdate",
+            "setObject 1 k2", "setObject 2 2", "executeUpdate"
+        );
+        space.release();
+        assertThat(events).endsWith("close statement", "close connection");
+    }
+
+    @Test
+    public void testUpdatesAreBatchedAndFlushedOnRelease() {
+        JDBCSpace space = space();
+        space.retain();
+        List<Long> results = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            results.add(new JDBCUpdateOp(space, "insert into t values (?)", new Object[]{i}, 3).apply(i));
+        }
+        assertThat(results).containsExactly(0L, 0L, 3L, 0L, 0L, 3L, 0L);
+        assertThat(events.stream().filter(e -> e.startsWith("executeBatch")).toList())
+            .containsExactly("executeBatch 3", "executeBatch 3");
+
+        space.release();
+        assertThat(events.stream().filter(e -> e.startsWith("executeBatch")).toList())
+            .containsExactly("executeBatch 3", "executeBatch 3", "executeBatch 1");
+        assertThat(events).endsWith("close statement", "close connection");
+    }
+
+    @Test
+    public void testSpaceIsClosedByLastRelease() {
+        JDBCSpace space = space();
+        space.retain();
+        space.retain();
+        space.getConnection();
+        space.release();
+        assertThat(events).doesNotContain("close connection");
+        space.release();
+        assertThat(events).contains("close connection");
+    }
+
+    /**
+     * A stand-in for an embedded database, which records the calls made on its connections and
+     * statements instead of running them.
+     */
+    private static class StandInDriver implements Driver {
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            events.add("connect");
+            return proxy(Connection.class, (p, m, args) -> switch (m.getName()) {
+                case "prepareStatement" -> {
+                    events.add("prepare " + args[0]);
+                    yield statement();
+                }
+                case "close" -> {
+                    events.add("close connection");
+                    yield null;
+                }
+                default -> defaultValue(m.getReturnType());
+            });
+        }
+
+        private PreparedStatement statement() {
+            int[] batched = new int[1];
+            return proxy(PreparedStatement.class, (p, m, args) -> switch (m.getName()) {
+                case "setObject" -> {
+                    events.add("setObject " + args[0] + " " + args[1]);
+                    yield null;
+                }
+                case "addBatch" -> {
+                    batched[0]++;
+                    yield null;
+                }
+                case "executeBatch" -> {
+                    events.add("executeBatch " + batched[0]);
+                    int[] counts = new int[batched[0]];
+                    Arrays.fill(counts, 1);
+                    batched[0] = 0;
+                    yield counts;
+                }
+                case "executeUpdate" -> {
+                    events.add("executeUpdate");
+                    yield 1;
+                }
+                case "close" -> {
+                    events.add("close statement");
+                    yield null;
+                }
+                default -> defaultValue(m.getReturnType());
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, java.lang.reflect.InvocationHandler handler) {
+            return (T) Proxy.newProxyInstance(JDBCSpaceTest.class.getClassLoader(), new Class[]{type}, handler);
+        }
+
+        private static Object defaultValue(Class<?> type) {
+            if (type == boolean.class) return false;
+            if (type == int.class) return 0;
+            if (type == long.class) return 0L;
+            return null;
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith("jdbc:standin:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return null;
+        }
+    }
+}
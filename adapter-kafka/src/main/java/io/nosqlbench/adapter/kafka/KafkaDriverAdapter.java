@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.kafka;
+
+import io.nosqlbench.api.config.standard.NBConfigModel;
+import io.nosqlbench.api.config.standard.NBConfiguration;
+import io.nosqlbench.engine.api.activityimpl.OpMapper;
+import io.nosqlbench.engine.api.activityimpl.uniform.BaseDriverAdapter;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverAdapter;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverSpaceCache;
+import io.nosqlbench.nb.annotations.Maturity;
+import io.nosqlbench.nb.annotations.Service;
+
+import java.util.function.Function;
+
+@Service(value = DriverAdapter.class, selector = "kafka", maturity = Maturity.Experimental)
+public class KafkaDriverAdapter extends BaseDriverAdapter<KafkaProducerOp, KafkaSpace> {
+
+    @Override
+    public OpMapper<KafkaProducerOp> getOpMapper() {
+        DriverSpaceCache<? extends KafkaSpace> spaceCache = getSpaceCache();
+        return new KafkaOpMapper(this, spaceCache);
+    }
+
+    @Override
+    public Function<String, ? extends KafkaSpace> getSpaceInitializer(NBConfiguration cfg) {
+        return (s) -> new KafkaSpace(s, cfg);
+    }
+
+    @Override
+    public NBConfigModel getConfigModel() {
+        return super.getConfigModel().add(KafkaSpace.getConfigModel());
+    }
+}
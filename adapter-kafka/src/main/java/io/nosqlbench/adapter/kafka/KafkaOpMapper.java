@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.kafka;
+
+import io.nosqlbench.api.errors.OpConfigError;
+import io.nosqlbench.engine.api.activityimpl.OpDispenser;
+import io.nosqlbench.engine.api.activityimpl.OpMapper;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverAdapter;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverSpaceCache;
+import io.nosqlbench.engine.api.templating.ParsedOp;
+
+public class KafkaOpMapper implements OpMapper<KafkaProducerOp> {
+
+    private final DriverAdapter adapter;
+    private final DriverSpaceCache<? extends KafkaSpace> cache;
+
+    public KafkaOpMapper(DriverAdapter adapter, DriverSpaceCache<? extends KafkaSpace> cache) {
+        this.adapter = adapter;
+        this.cache = cache;
+    }
+
+    @Override
+    public OpDispenser<? extends KafkaProducerOp> apply(ParsedOp op) {
+        if (op.isDynamic("space")) {
+            throw new OpConfigError("kafka op templates do not support dynamic space values, since" +
+                " each op template sends with the producer which it is given at startup.");
+        }
+        String spaceName = op.getStaticConfigOr("space", "default");
+        return new KafkaProducerOpDispenser(adapter, cache.get(spaceName), op);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.kafka;
+
+import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.AsyncCycleOp;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Send one record, and complete when the broker has acknowledged it. The send callback
+ * completes the returned stage, so with the async parameter, the motor thread goes on to
+ * send the next record while this one waits in the producer's batch. The cycle's latency is
+ * then measured up to the callback. Without the async parameter, the stage is waited on, as
+ * the legacy kafkaproducer driver did for each record.
+ */
+public class KafkaProducerOp implements AsyncCycleOp<RecordMetadata> {
+
+    private final Producer<Object, Object> producer;
+    private final ProducerRecord<Object, Object> record;
+    private volatile long resultSize = -1L;
+
+    public KafkaProducerOp(Producer<Object, Object> producer, ProducerRecord<Object, Object> record) {
+        this.producer = producer;
+        this.record = record;
+    }
+
+    @Override
+    public CompletionStage<RecordMetadata> apply(long value) {
+        CompletableFuture<RecordMetadata> future = new CompletableFuture<>();
+        try {
+            producer.send(record, (metadata, error) -> {
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    resultSize = metadata.serializedValueSize();
+                    future.complete(metadata);
+                }
+            });
+        } catch (Exception e) {
+            // serialization errors, and waits for buffer space which time out, are thrown by send
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public long getResultSize() {
+        return resultSize;
+    }
+
+    public ProducerRecord<Object, Object> getRecord() {
+        return record;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.kafka;
+
+import io.nosqlbench.engine.api.activityimpl.BaseOpDispenser;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverAdapter;
+import io.nosqlbench.engine.api.templating.ParsedOp;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * The record value is taken from the value field, or from the op template's statement.
+ * Producer settings are static, since they configure the producer which all cycles of this op
+ * template share. They may be given as op fields, or as activity params for all op templates.
+ *
+ * <p>Each op dispenser holds a reference to its space for the life of the activity, so that
+ * producers are flushed and closed once the last dispenser is closed.</p>
+ */
+public class KafkaProducerOpDispenser extends BaseOpDispenser<KafkaProducerOp, KafkaSpace> implements AutoCloseable {
+
+    private final KafkaSpace space;
+    private final Producer<Object, Object> producer;
+    private final LongFunction<String> topicFunc;
+    private final LongFunction<Object> keyFunc;
+    private final LongFunction<Object> valueFunc;
+
+    public KafkaProducerOpDispenser(DriverAdapter adapter, KafkaSpace space, ParsedOp op) {
+        super(adapter, op);
+        this.space = space;
+        space.retain();
+
+        this.topicFunc = op.getAsFunctionOr("topic", "default-topic");
+        this.keyFunc = op.getAsOptionalFunction("key", Object.class).orElse(l -> null);
+        this.valueFunc = op.getAsRequiredFunction(op.isDefined("value") ? "value" : "stmt", Object.class);
+
+        Map<String, String> settings = new LinkedHashMap<>();
+        KafkaSpace.PRODUCER_SETTINGS.forEach((param, config) ->
+            op.getOptionalStaticConfig(param, String.class).ifPresent(v -> settings.put(config, v)));
+        this.producer = space.getProducer(settings);
+    }
+
+    @Override
+    public KafkaProducerOp apply(long cycle) {
+        ProducerRecord<Object, Object> record = new ProducerRecord<>(
+            topicFunc.apply(cycle), keyFunc.apply(cycle), valueFunc.apply(cycle)
+        );
+        return new KafkaProducerOp(producer, record);
+    }
+
+    @Override
+    public void close() {
+        space.release();
+    }
+}
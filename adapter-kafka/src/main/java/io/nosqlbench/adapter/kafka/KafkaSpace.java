@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.kafka;
+
+import io.nosqlbench.api.config.standard.ConfigModel;
+import io.nosqlbench.api.config.standard.NBConfigModel;
+import io.nosqlbench.api.config.standard.NBConfiguration;
+import io.nosqlbench.api.config.standard.Param;
+import io.nosqlbench.api.errors.OpConfigError;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A kafka space holds the producers which its op templates send records with. Producers are
+ * thread safe, and batch records from all threads together, so all op templates with the same
+ * producer settings share one producer. Op templates which set any of the
+ * {@link #PRODUCER_SETTINGS} differently get a producer of their own.
+ *
+ * <p>The space is retained by each op dispenser which uses it. When the last one is released,
+ * every producer is flushed and closed, so that records which are still batched are sent.</p>
+ */
+public class KafkaSpace {
+    private final static Logger logger = LogManager.getLogger(KafkaSpace.class);
+
+    /**
+     * The op template and activity params which are passed to the producer, by the producer config names they set.
+     */
+    public final static Map<String, String> PRODUCER_SETTINGS = new LinkedHashMap<>();
+
+    static {
+        PRODUCER_SETTINGS.put("acks", ProducerConfig.ACKS_CONFIG);
+        PRODUCER_SETTINGS.put("linger_ms", ProducerConfig.LINGER_MS_CONFIG);
+        PRODUCER_SETTINGS.put("batch_size", ProducerConfig.BATCH_SIZE_CONFIG);
+        PRODUCER_SETTINGS.put("compression", ProducerConfig.COMPRESSION_TYPE_CONFIG);
+        PRODUCER_SETTINGS.put("buffer_memory", ProducerConfig.BUFFER_MEMORY_CONFIG);
+        PRODUCER_SETTINGS.put("max_block_ms", ProducerConfig.MAX_BLOCK_MS_CONFIG);
+        PRODUCER_SETTINGS.put("max_in_flight", ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION);
+        PRODUCER_SETTINGS.put("key_serializer_class", ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG);
+        PRODUCER_SETTINGS.put("value_serializer_class", ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG);
+    }
+
+    private final String name;
+    private final Properties baseProperties = new Properties();
+    private final Function<Properties, Producer<Object, Object>> producerFactory;
+    private final Map<Map<String, String>, Producer<Object, Object>> producers = new LinkedHashMap<>();
+    private int references = 0;
+
+    public KafkaSpace(String name, NBConfiguration cfg) {
+        this(name, cfg, KafkaProducer::new);
+    }
+
+    /**
+     * @param name The name of the space
+     * @param cfg The activity configuration
+     * @param producerFactory The function which creates a producer from its properties
+     */
+    KafkaSpace(String name, NBConfiguration cfg, Function<Properties, Producer<Object, Object>> producerFactory) {
+        this.name = name;
+        this.producerFactory = producerFactory;
+
+        String servers = Arrays.stream(cfg.getOptional("host", "hosts").orElse("localhost:9092").split(","))
+            .map(x -> x.indexOf(':') == -1 ? x + ":9092" : x)
+            .collect(Collectors.joining(","));
+        baseProperties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, servers);
+        baseProperties.put(ProducerConfig.CLIENT_ID_CONFIG, cfg.get("client_id", String.class));
+        baseProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        baseProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        cfg.getOptional("schema_registry_url").ifPresent(url -> baseProperties.put("schema.registry.url", url));
+    }
+
+    /**
+     * @param settings Producer configs which differ from the defaults of this space
+     * @return the producer of this space for these settings, created if needed
+     */
+    public synchronized Producer<Object, Object> getProducer(Map<String, String> settings) {
+        Map<String, String> key = new TreeMap<>(settings);
+        Producer<Object, Object> producer = producers.get(key);
+        if (producer == null) {
+            Properties properties = new Properties();
+            properties.putAll(baseProperties);
+            properties.putAll(key);
+            if (!producers.isEmpty()) {
+                properties.put(ProducerConfig.CLIENT_ID_CONFIG,
+                    properties.getProperty(ProducerConfig.CLIENT_ID_CONFIG) + "-" + producers.size());
+            }
+            try {
+                producer = producerFactory.apply(properties);
+            } catch (Exception e) {
+                throw new OpConfigError("Unable to create a kafka producer for space '" + name + "' with " + properties + ": " + e, e);
+            }
+            logger.info("space '" + name + "' created producer " + properties.getProperty(ProducerConfig.CLIENT_ID_CONFIG) + " with " + key);
+            producers.put(key, producer);
+        }
+        return producer;
+    }
+
+    public synchronized void retain() {
+        references++;
+    }
+
+    /**
+     * Release one reference to this space. When the last reference is released, every
+     * producer is flushed and closed. This is only called after all motors have stopped.
+     */
+    public synchronized void release() {
+        if (--references > 0) {
+            return;
+        }
+        for (Producer<Object, Object> producer : producers.values()) {
+            try {
+                producer.flush();
+                producer.close(Duration.ofSeconds(30));
+            } catch (Exception e) {
+                logger.warn("Error while closing kafka producer: " + e, e);
+            }
+        }
+        producers.clear();
+    }
+
+    public static NBConfigModel getConfigModel() {
+        ConfigModel model = ConfigModel.of(KafkaSpace.class)
+            .add(Param.optional(List.of("host", "hosts"), String.class,
+                "The bootstrap servers, as a comma separated list of host[:port]. The default is localhost:9092."))
+            .add(Param.defaultTo("client_id", "nosqlbench")
+                .setDescription("The client id of the producer"))
+            .add(Param.optional("schema_registry_url", String.class, "The schema registry url for serializers which need one"));
+        for (String param : PRODUCER_SETTINGS.keySet()) {
+            model.add(Param.optional(param, String.class,
+                "The default " + PRODUCER_SETTINGS.get(param) + " of producers, which op templates may override"));
+        }
+        return model.asReadOnly();
+    }
+}
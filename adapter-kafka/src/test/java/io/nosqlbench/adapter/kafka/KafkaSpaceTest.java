@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.kafka;
+
+import io.nosqlbench.api.config.standard.NBConfiguration;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class KafkaSpaceTest {
+
+    private final static Serializer<Object> serializer =
+        (topic, data) -> data == null ? null : data.toString().getBytes(StandardCharsets.UTF_8);
+
+    private final List<Properties> created = new ArrayList<>();
+    private final List<MockProducer<Object, Object>> producers = new ArrayList<>();
+
+    private KafkaSpace space(Map<String, Object> params) {
+        NBConfiguration cfg = KafkaSpace.getConfigModel().apply(params);
+        return new KafkaSpace("test", cfg, props -> {
+            created.add(props);
+            MockProducer<Object, Object> producer = new MockProducer<>(false, serializer, serializer);
+            producers.add(producer);
+            return producer;
+        });
+    }
+
+    private KafkaProducerOp op(Producer<Object, Object> producer, long cycle) {
+        return new KafkaProducerOp(producer, new ProducerRecord<>("topic", "key" + cycle, "value" + cycle));
+    }
+
+    @Test
+    public void testRecordsStayInFlightUntilAcknowledged() {
+        KafkaSpace space = space(Map.of());
+        Producer<Object, Object> producer = space.getProducer(Map.of());
+        MockProducer<Object, Object> mock = producers.get(0);
+
+        List<CompletableFuture<RecordMetadata>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(op(producer, i).apply(i).toCompletableFuture());
+        }
+        assertThat(mock.history()).hasSize(3);
+        assertThat(futures).noneMatch(CompletableFuture::isDone);
+
+        mock.completeNext();
+        assertThat(futures.get(0)).isCompleted();
+        assertThat(futures.get(1)).isNotDone();
+
+        mock.errorNext(new RuntimeException("broker unavailable"));
+        assertThat(futures.get(1)).isCompletedExceptionally();
+
+        mock.completeNext();
+        assertThat(futures.get(2)).isCompleted();
+    }
+
+    @Test
+    public void testProducersAreSharedBySettings() {
+        KafkaSpace space = space(Map.of("host", "broker1,broker2:9093"));
+        Producer<Object, Object> first = space.getProducer(Map.of(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4"));
+        assertThat(space.getProducer(Map.of(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4"))).isSameAs(first);
+
+        Producer<Object, Object> lingering = space.getProducer(Map.of(
+            ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4",
+            ProducerConfig.LINGER_MS_CONFIG, "20"
+        ));
+        assertThat(lingering).isNotSameAs(first);
+
+        assertThat(created).hasSize(2);
+        assertThat(created.get(0).getProperty(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG)).isEqualTo("broker1:9092,broker2:9093");
+        assertThat(created.get(1).getProperty(ProducerConfig.LINGER_MS_CONFIG)).isEqualTo("20");
+        assertThat(created.get(1).getProperty(ProducerConfig.CLIENT_ID_CONFIG))
+            .isNotEqualTo(created.get(0).getProperty(ProducerConfig.CLIENT_ID_CONFIG));
+    }
+
+    @Test
+    public void testReleaseFlushesAndClosesProducers() {
+        KafkaSpace space = space(Map.of());
+        space.retain();
+        space.retain();
+        Producer<Object, Object> producer = space.getProducer(Map.of());
+        CompletableFuture<RecordMetadata> pending = op(producer, 0L).apply(0L).toCompletableFuture();
+
+        space.release();
+        assertThat(producers.get(0).closed()).isFalse();
+        assertThat(pending).isNotDone();
+
+        space.release();
+        assertThat(pending).isCompleted();
+        assertThat(producers.get(0).closed()).isTrue();
+    }
+}
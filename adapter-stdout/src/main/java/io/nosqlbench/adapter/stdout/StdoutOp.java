@@ -18,19 +18,36 @@ package io.nosqlbench.adapter.stdout;
 
 import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.RunnableOp;
 
+import java.nio.ByteBuffer;
+
 public class StdoutOp implements RunnableOp {
 
     private final StdoutSpace ctx;
     private final String text;
+    private final ByteBuffer bytes;
 
     public StdoutOp(StdoutSpace ctx, String text) {
         this.ctx = ctx;
         this.text = text;
+        this.bytes = null;
+    }
+
+    /**
+     * @param ctx The stdout space
+     * @param bytes The encoded output, which may be a buffer that is reused for the next op on this thread
+     */
+    public StdoutOp(StdoutSpace ctx, ByteBuffer bytes) {
+        this.ctx = ctx;
+        this.text = null;
+        this.bytes = bytes;
     }
 
     @Override
     public void run() {
-        ctx.writeflush(text);
-
+        if (bytes != null) {
+            ctx.writeflush(bytes);
+        } else {
+            ctx.writeflush(text);
+        }
     }
 }
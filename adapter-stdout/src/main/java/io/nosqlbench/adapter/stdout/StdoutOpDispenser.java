@@ -20,12 +20,16 @@ import io.nosqlbench.engine.api.activityimpl.BaseOpDispenser;
 import io.nosqlbench.engine.api.activityimpl.uniform.DriverAdapter;
 import io.nosqlbench.engine.api.templating.ParsedOp;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.function.LongFunction;
 
 public class StdoutOpDispenser extends BaseOpDispenser<StdoutOp,StdoutSpace> {
 
     private final LongFunction<StdoutSpace> ctxfunc;
     private final LongFunction<String> outFunction;
+    private final LongFunction<ByteBuffer> bytesFunction;
 
     public StdoutOpDispenser(DriverAdapter adapter, ParsedOp cmd, LongFunction<StdoutSpace> ctxfunc) {
         super(adapter,cmd);
@@ -34,11 +38,21 @@ public class StdoutOpDispenser extends BaseOpDispenser<StdoutOp,StdoutSpace> {
         LongFunction<String> stringfunc = l -> objectFunction.apply(l).toString();
         cmd.enhanceFuncOptionally(stringfunc,"suffix",String.class,(a, b) -> a+b);
         this.outFunction = stringfunc;
+
+        // String templates are rendered straight to bytes when they would be encoded the same way by the writer
+        if (Charset.defaultCharset().equals(StandardCharsets.UTF_8) && !cmd.isDefined("suffix")) {
+            this.bytesFunction = cmd.getAsOptionalUtf8Function("stmt").orElse(null);
+        } else {
+            this.bytesFunction = null;
+        }
     }
 
     @Override
     public StdoutOp apply(long value) {
         StdoutSpace ctx = ctxfunc.apply(value);
+        if (bytesFunction != null) {
+            return new StdoutOp(ctx, bytesFunction.apply(value));
+        }
         String output = outFunction.apply(value);
         return new StdoutOp(ctx,output);
     }
@@ -22,12 +22,16 @@ import io.nosqlbench.api.config.standard.NBConfiguration;
 import io.nosqlbench.api.config.standard.Param;
 
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.Writer;
+import java.nio.ByteBuffer;
 
 public class StdoutSpace {
 
     Writer writer;
+    private OutputStream out;
     private PrintWriter console;
 
     public StdoutSpace(NBConfiguration cfg) {
@@ -35,7 +39,7 @@ public class StdoutSpace {
         this.writer = createPrintWriter(filename);
     }
 
-    public void writeflush(String text) {
+    public synchronized void writeflush(String text) {
         try {
             writer.write(text);
             writer.flush();
@@ -44,13 +48,29 @@ public class StdoutSpace {
         }
     }
 
+    /**
+     * Write the remaining bytes of the buffer, already encoded, and flush. The buffer
+     * position is not changed, so that a reused buffer can be written again.
+     * @param bytes The encoded text
+     */
+    public synchronized void writeflush(ByteBuffer bytes) {
+        try {
+            out.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+            out.flush();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     protected Writer createPrintWriter(String filename) {
         PrintWriter pw;
         if (filename.equalsIgnoreCase("stdout")) {
+            out = System.out;
             pw = getConsoleOut();
         } else {
             try {
-                pw = new PrintWriter(filename);
+                out = new FileOutputStream(filename);
+                pw = new PrintWriter(out);
                 pw.print("");
             } catch (FileNotFoundException e) {
                 e.printStackTrace();
@@ -16,231 +16,203 @@
 
 package io.nosqlbench.adapter.tcp;
 
-import io.nosqlbench.api.engine.activityimpl.ActivityDef;
-import io.nosqlbench.api.engine.util.SSLKsFactory;
 import io.nosqlbench.api.config.standard.ConfigModel;
 import io.nosqlbench.api.config.standard.NBConfigModel;
 import io.nosqlbench.api.config.standard.NBConfiguration;
+import io.nosqlbench.api.config.standard.Param;
+import io.nosqlbench.api.engine.util.SSLKsFactory;
+import io.nosqlbench.api.errors.OpConfigError;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.net.SocketFactory;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.net.InetSocketAddress;
 import java.net.Socket;
-
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A tcp space either connects to a server, with mode=client, or listens for clients, with
+ * mode=server.
+ *
+ * <p>As a client, each thread which uses the space has its own connection, which is opened
+ * on first use. If writing to it fails, it is closed, and the next op on that thread opens a
+ * new one. As a server, all threads put their output in the queue of one {@link TcpServer}.</p>
+ *
+ * <p>The space is retained by each op dispenser which uses it. When the last one is released,
+ * buffered output is written and all connections are closed.</p>
+ */
 public class TcpAdapterSpace {
 
     private final static Logger logger = LogManager.getLogger(TcpAdapterSpace.class);
     private final String name;
     private final NBConfiguration config;
 
+    private final String host;
+    private final int port;
+    private final int bufferSize;
+    private final boolean flushEachOp;
+    private final long lingerMillis;
+    private final int retries;
+    private final long retryDelay;
+
+    private final ThreadLocal<TcpClientConnection> connection = new ThreadLocal<>();
+    private final List<TcpClientConnection> connections = new CopyOnWriteArrayList<>();
+    private final TcpServer server;
+    private int references = 0;
+
     public TcpAdapterSpace(String name, NBConfiguration config) {
         this.name = name;
         this.config = config;
+        this.host = config.get("host", String.class);
+        this.port = config.get("port", Integer.class);
+        this.bufferSize = config.get("buffer_size", Integer.class);
+        this.flushEachOp = config.get("flush", String.class).equalsIgnoreCase("op");
+        this.lingerMillis = config.getOptional("linger").map(Long::parseLong).orElse(-1L);
+        this.retries = config.get("retries", Integer.class);
+        this.retryDelay = config.get("retry_delay", Long.class);
+
+        if (config.get("mode", String.class).equalsIgnoreCase("server")) {
+            if (config.getOptional("ssl").isPresent()) {
+                throw new OpConfigError("ssl is only supported for tcp with mode=client.");
+            }
+            try {
+                this.server = new TcpServer(new InetSocketAddress(host, port), config.get("capacity", Integer.class), bufferSize);
+            } catch (IOException e) {
+                throw new OpConfigError("Error listening on " + host + ":" + port + " for space '" + name + "': " + e, e);
+            }
+        } else {
+            this.server = null;
+        }
     }
 
-    protected PrintWriter createPrintWriter() {
-
-        SocketFactory socketFactory = SocketFactory.getDefault();
-        boolean sslEnabled = config.getOptional(Boolean.class, "ssl").orElse(false);
-        if (sslEnabled) {
-            NBConfiguration sslCfg = SSLKsFactory.get().getConfigModel().extractConfig(config);
-            socketFactory = SSLKsFactory.get().createSocketFactory(sslCfg);
+    /**
+     * Send the remaining bytes of the buffer, either on the calling thread's connection, or to
+     * the server's queue.
+     * @param bytes The encoded op output, which is consumed
+     */
+    public void write(ByteBuffer bytes) {
+        if (server != null) {
+            enqueue(bytes);
+            return;
+        }
+        TcpClientConnection conn = connection.get();
+        if (conn == null) {
+            conn = connect();
+        }
+        try {
+            conn.write(bytes);
+        } catch (IOException e) {
+            connection.remove();
+            connections.remove(conn);
+            try {
+                conn.close();
+            } catch (IOException ignored) {
+            }
+            throw new RuntimeException("Error writing to " + host + ":" + port + ": " + e, e);
         }
+    }
 
-        String host = config.getOptional("host").orElse("localhost");
-        int port = config.getOptional(Integer.class, "port").orElse(12345);
+    private void enqueue(ByteBuffer bytes) {
+        try {
+            for (int attempt = 0; attempt <= retries; attempt++) {
+                if (server.offer(bytes, retryDelay, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        throw new RuntimeException("The queue of tcp server '" + name + "' stayed full for " + (retries + 1) +
+            " tries of " + retryDelay + "ms, since no client is taking output fast enough.");
+    }
 
+    private TcpClientConnection connect() {
         try {
-            Socket socket = socketFactory.createSocket(host, port);
-            logger.info("connected to " + socket.toString());
-            return new PrintWriter(socket.getOutputStream());
+            TcpClientConnection conn;
+            if (config.getOptional("ssl").isPresent()) {
+                NBConfiguration sslCfg = SSLKsFactory.get().getConfigModel().extractConfig(config);
+                SocketFactory socketFactory = SSLKsFactory.get().createSocketFactory(sslCfg);
+                Socket socket = socketFactory.createSocket(host, port);
+                logger.info("connected to " + socket);
+                conn = new TcpClientConnection(Channels.newChannel(socket.getOutputStream()), socket, bufferSize, flushEachOp, lingerMillis);
+            } else {
+                SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                logger.info("connected to " + channel.getRemoteAddress() + " for thread " + Thread.currentThread().getName());
+                conn = new TcpClientConnection(channel, channel, bufferSize, flushEachOp, lingerMillis);
+            }
+            connection.set(conn);
+            connections.add(conn);
+            return conn;
         } catch (IOException e) {
             throw new RuntimeException("Error opening socket:" + e, e);
         }
     }
 
-    public void TCPServerActivity(ActivityDef activityDef) {
-//        super(activityDef);
-//        boolean sslEnabled = activityDef.getParams().getOptionalBoolean("ssl").orElse(false);
-//        this.capacity=activityDef.getParams().getOptionalInteger("capacity").orElse(10);
-//        queue = new LinkedBlockingQueue<>(capacity);
-//
-//        if (sslEnabled) {
-//
-//            NBConfiguration sslCfg = SSLKsFactory.get().getConfigModel().extractConfig(activityDef.getParams());
-//            socketFactory = SSLKsFactory.get().createSSLServerSocketFactory(sslCfg);
-//        } else {
-//            socketFactory = ServerSocketFactory.getDefault();
-//        }
+    /**
+     * @return the server of this space, or null if it is a client space
+     */
+    public TcpServer getServer() {
+        return server;
     }
 
-//    public void shutdownActivity() {
-//        super.shutdownActivity();
-//        for (TCPServerActivity.Shutdown toClose : managedShutdown) {
-//            toClose.shutdown();
-//        }
-//    }
-
-    // server write
-//    @Override
-//    public synchronized void write(String statement) {
-//        while (true) {
-//            try {
-//                queue.put(statement);
-//                return;
-//            } catch (InterruptedException ignored) {
-//            } catch (Exception e) {
-//                throw new RuntimeException(e);
-//            }
-//        }
-//    }
-
-    // create server writer
-//
-//    @Override
-//    protected synchronized Writer createPrintWriter() {
-//
-//        String host = getActivityDef().getParams().getOptionalString("host").orElse("localhost");
-//        int port = getActivityDef().getParams().getOptionalInteger("port").orElse(12345);
-//
-//        if (listenerSocket == null || listenerSocket.isClosed()) {
-//            try {
-//                InetAddress hostAddr = InetAddress.getByName(host);
-//                listenerSocket = socketFactory.createServerSocket(port, 10, hostAddr);
-//                if (socketFactory instanceof SSLServerSocketFactory) {
-//                    logger.info("SSL enabled on server socket " + listenerSocket);
-//                }
-//                TCPServerActivity.SocketAcceptor socketAcceptor = new TCPServerActivity.SocketAcceptor(queue, listenerSocket);
-//                managedShutdown.add(socketAcceptor);
-//                Thread acceptorThread = new Thread(socketAcceptor);
-//                acceptorThread.setDaemon(true);
-//                acceptorThread.setName("Listener/" + listenerSocket);
-//                acceptorThread.start();
-//            } catch (IOException e) {
-//                throw new RuntimeException("Error listening on listenerSocket:" + e, e);
-//            }
-//        }
-//
-//        TCPServerActivity.QueueWriterAdapter queueWriterAdapter = new TCPServerActivity.QueueWriterAdapter(this.queue);
-//        logger.info("initialized queue writer:" + queueWriterAdapter);
-//        return queueWriterAdapter;
-//
-//    }
-
-    // socket writer
-//    public SocketWriter(BlockingQueue<String> sourceQueue, Socket connectedSocket) {
-//        this.sourceQueue = sourceQueue;
-//        try {
-//            outputStream = connectedSocket.getOutputStream();
-//            this.writer = new OutputStreamWriter(outputStream);
-//            //connectedSocket.shutdownInput();
-//        } catch (Exception e) {
-//            throw new RuntimeException(e);
-//        }
-//    }
-
-    // server thread
-//    public void run() {
-//        try (Writer writer = this.writer) {
-//            while (true) {
-//                while (!sourceQueue.isEmpty() || running) {
-//                    try {
-//                        String data = sourceQueue.take();
-//                        writer.write(data);
-//                        writer.flush();
-//                    } catch (Exception e) {
-//                        throw new RuntimeException(e);
-//                    }
-//                }
-//                try {
-//                    Thread.sleep(10);
-//                } catch (InterruptedException ignored) {
-//                }
-//            }
-//        } catch (Exception e) {
-//            throw new RuntimeException(e);
-//        }
-//
-//    }
-
-    // server writer adapter
-//    public static class QueueWriterAdapter extends Writer {
-//        private BlockingQueue<String> queue;
-//
-//        public QueueWriterAdapter(BlockingQueue<String> queue) {
-//            this.queue = queue;
-//        }
-//
-//        @Override
-//        public synchronized void write( char[] cbuf, int off, int len) {
-//            while (true) {
-//                try {
-//                    queue.put(new String(cbuf, off, len));
-//                    return;
-//                } catch (InterruptedException ignored) {
-//                } catch (Exception e) {
-//                    throw new RuntimeException(e);
-//                }
-//            }
-//        }
-//
-//        @Override
-//        public synchronized void flush() throws IOException {
-//        }
-//
-//        @Override
-//        public synchronized void close() throws IOException {
-//            flush();
-//            queue = null;
-//        }
-//
-//    }
-
-    // server socket acceptor
-//    public class SocketAcceptor implements Runnable, TCPServerActivity.Shutdown {
-//        private final BlockingQueue<String> queue;
-//        private final ServerSocket serverSocket;
-//        private boolean running = true;
-//
-//        public SocketAcceptor(BlockingQueue<String> queue, ServerSocket serverSocket) {
-//            this.queue = queue;
-//            this.serverSocket = serverSocket;
-//        }
-//
-//        public void shutdown() {
-//            this.running = false;
-//        }
-//
-//        @Override
-//        public void run() {
-//            try (ServerSocket serverSocket = this.serverSocket) {
-//                while (running) {
-//                    serverSocket.setSoTimeout(1000);
-//                    serverSocket.setReuseAddress(true);
-//                    try {
-//                        Socket connectedSocket = serverSocket.accept();
-//                        TCPServerActivity.SocketWriter writer = new TCPServerActivity.SocketWriter(queue, connectedSocket);
-//                        TCPServerActivity.this.managedShutdown.add(writer);
-//                        Thread writerThread = new Thread(writer);
-//                        writerThread.setName("SocketWriter/" + connectedSocket);
-//                        writerThread.setDaemon(true);
-//                        writerThread.start();
-//                        logger.info("Started writer thread for " + connectedSocket);
-//                    } catch (SocketTimeoutException ignored) {
-//                    }
-//                }
-//            } catch (IOException e) {
-//                throw new RuntimeException(e);
-//            }
-//        }
-//    }
-
+    public synchronized void retain() {
+        references++;
+    }
 
+    /**
+     * Release one reference to this space. When the last reference is released, buffered output
+     * is written and every connection is closed. This is only called after all motors have
+     * stopped, so it is safe to use the connections from the releasing thread.
+     */
+    public synchronized void release() {
+        if (--references > 0) {
+            return;
+        }
+        for (TcpClientConnection conn : connections) {
+            try {
+                conn.close();
+            } catch (IOException e) {
+                logger.warn("Error while closing tcp connection: " + e, e);
+            }
+        }
+        connections.clear();
+        if (server != null) {
+            server.close();
+        }
+    }
 
     public static NBConfigModel getConfigModel() {
         return ConfigModel.of(TcpAdapterSpace.class)
+            .add(Param.defaultTo("mode", "client")
+                .setRegex("client|server")
+                .setDescription("Whether to connect to a server and push output to it, or to listen for clients and push output to them"))
+            .add(Param.defaultTo("host", "localhost")
+                .setDescription("The host to connect to, or the local address to listen on"))
+            .add(Param.defaultTo("port", 12345)
+                .setDescription("The port to connect to, or to listen on"))
+            .add(Param.defaultTo("buffer_size", 65536)
+                .setDescription("The size in bytes of the direct buffer which output is coalesced in, for each connection"))
+            .add(Param.defaultTo("flush", "op")
+                .setRegex("op|buffer")
+                .setDescription("For clients, whether to write the output of each op right away, or only when the buffer is full or has lingered"))
+            .add(Param.optional("linger", String.class)
+                .setDescription("With flush=buffer, how many milliseconds buffered output may wait for more output"))
+            .add(Param.defaultTo("capacity", 10)
+                .setDescription("For servers, the number of op outputs which may wait for a client"))
+            .add(Param.defaultTo("retries", 3)
+                .setDescription("For servers, how many more times to wait for room in a full queue before the op fails"))
+            .add(Param.defaultTo("retry_delay", 1000L)
+                .setDescription("For servers, how many milliseconds each wait for room in a full queue may take"))
+            .add(SSLKsFactory.get().getConfigModel())
             .asReadOnly();
     }
 
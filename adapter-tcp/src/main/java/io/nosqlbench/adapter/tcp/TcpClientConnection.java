@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.tcp;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * One thread's connection to a server. Op output is copied into a direct buffer, which is
+ * written to the channel according to the flush policy. Since the JDK copies heap buffers into
+ * a temporary direct buffer before each write anyway, this costs no more than writing the op
+ * output directly, even when every op is flushed. Output which does not fit into the remaining
+ * buffer space is written along with the buffered output in one gathering write, without
+ * copying it.
+ *
+ * <p>The channel is in blocking mode, so a slow server holds up the writing thread, rather than
+ * letting output pile up in memory.</p>
+ */
+public class TcpClientConnection implements Closeable {
+
+    private final WritableByteChannel channel;
+    private final Closeable resource;
+    private final ByteBuffer buffer;
+    private final boolean flushEachOp;
+    private final long lingerNanos;
+    private final ByteBuffer[] gather = new ByteBuffer[2];
+    private long pendingSince;
+
+    /**
+     * @param channel The channel to write to
+     * @param resource The resource which owns the channel, to be closed along with it
+     * @param bufferSize The size of the direct buffer which output is coalesced in
+     * @param flushEachOp Whether to write the output of each op as soon as it is buffered
+     * @param lingerMillis How long buffered output may wait for more output before it is written,
+     *                     or a negative value to wait until the buffer is full
+     */
+    public TcpClientConnection(WritableByteChannel channel, Closeable resource, int bufferSize, boolean flushEachOp, long lingerMillis) {
+        this.channel = channel;
+        this.resource = resource;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.flushEachOp = flushEachOp;
+        this.lingerNanos = lingerMillis < 0 ? Long.MAX_VALUE : lingerMillis * 1_000_000L;
+    }
+
+    /**
+     * Write or buffer the remaining bytes of the given buffer. The buffer is consumed, so a
+     * reused buffer must be reset by its owner before it is used again.
+     * @param bytes The encoded op output
+     * @throws IOException if the output could not be written
+     */
+    public void write(ByteBuffer bytes) throws IOException {
+        if (bytes.remaining() > buffer.remaining()) {
+            buffer.flip();
+            gather[0] = buffer;
+            gather[1] = bytes;
+            writeFully(gather);
+            buffer.clear();
+            return;
+        }
+        if (buffer.position() == 0) {
+            pendingSince = System.nanoTime();
+        }
+        buffer.put(bytes);
+        if (flushEachOp || !buffer.hasRemaining() || (System.nanoTime() - pendingSince) >= lingerNanos) {
+            flush();
+        }
+    }
+
+    /**
+     * Write any buffered output.
+     * @throws IOException if the output could not be written
+     */
+    public void flush() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer[] buffers) throws IOException {
+        ByteBuffer last = buffers[buffers.length - 1];
+        if (channel instanceof GatheringByteChannel gathering) {
+            while (last.hasRemaining()) {
+                gathering.write(buffers);
+            }
+        } else {
+            for (ByteBuffer b : buffers) {
+                while (b.hasRemaining()) {
+                    channel.write(b);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write any buffered output and close the connection.
+     * @throws IOException if the output could not be written, in which case the connection is still closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            resource.close();
+        }
+    }
+}
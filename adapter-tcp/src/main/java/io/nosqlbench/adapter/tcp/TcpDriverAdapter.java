@@ -16,17 +16,58 @@
 
 package io.nosqlbench.adapter.tcp;
 
+import io.nosqlbench.adapter.stdout.StdoutDriverAdapter;
+import io.nosqlbench.api.config.standard.ConfigModel;
+import io.nosqlbench.api.config.standard.NBConfigModel;
+import io.nosqlbench.api.config.standard.NBConfiguration;
+import io.nosqlbench.api.config.standard.Param;
+import io.nosqlbench.engine.api.activityconfig.yaml.OpTemplate;
+import io.nosqlbench.engine.api.activityconfig.yaml.StmtsDocList;
 import io.nosqlbench.engine.api.activityimpl.OpMapper;
 import io.nosqlbench.engine.api.activityimpl.uniform.BaseDriverAdapter;
 import io.nosqlbench.engine.api.activityimpl.uniform.DriverAdapter;
-import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.Op;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverSpaceCache;
+import io.nosqlbench.engine.api.activityimpl.uniform.decorators.SyntheticOpTemplateProvider;
 import io.nosqlbench.nb.annotations.Service;
 
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The tcp driver writes the same output as the stdout driver, to a socket. When no op templates
+ * are given, they are synthesized from the bindings in the same way as for stdout.
+ */
 @Service(value= DriverAdapter.class,selector = "tcp")
-public class TcpDriverAdapter extends BaseDriverAdapter<Op,TcpAdapterSpace> {
+public class TcpDriverAdapter extends BaseDriverAdapter<TcpOp,TcpAdapterSpace> implements SyntheticOpTemplateProvider {
+
+    @Override
+    public OpMapper<TcpOp> getOpMapper() {
+        DriverSpaceCache<? extends TcpAdapterSpace> ctxCache = getSpaceCache();
+        return new TcpOpMapper(this, ctxCache);
+    }
+
+    @Override
+    public Function<String, ? extends TcpAdapterSpace> getSpaceInitializer(NBConfiguration cfg) {
+        return (s) -> new TcpAdapterSpace(s, cfg);
+    }
+
+    @Override
+    public NBConfigModel getConfigModel() {
+        return ConfigModel.of(this.getClass())
+            .add(super.getConfigModel())
+            .add(TcpAdapterSpace.getConfigModel())
+            .add(Param.defaultTo("newline", true)
+                .setDescription("whether to automatically add a missing newline to the end of any output"))
+            .add(Param.optional("format")
+                .setRegex("csv|readout|json|inlinejson|assignments")
+                .setDescription("Which format to use for synthesized op templates, as for the stdout driver"))
+            .add(Param.defaultTo("bindings", "doc")
+                .setDescription("A pattern for the names of the bindings to use in synthesized op templates, as for the stdout driver"));
+    }
 
     @Override
-    public OpMapper<Op> getOpMapper() {
-        return new TcpOpMapper(this);
+    public List<OpTemplate> getSyntheticOpTemplates(StmtsDocList stmtsDocList, Map<String, Object> cfg) {
+        return new StdoutDriverAdapter().getSyntheticOpTemplates(stmtsDocList, cfg);
     }
 }
@@ -16,9 +16,26 @@
 
 package io.nosqlbench.adapter.tcp;
 
-import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.Op;
+import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.RunnableOp;
 
-public class TcpOp implements Op {
-    public TcpOp(long cycle) {
+import java.nio.ByteBuffer;
+
+public class TcpOp implements RunnableOp {
+
+    private final TcpAdapterSpace space;
+    private final ByteBuffer bytes;
+
+    /**
+     * @param space The tcp space
+     * @param bytes The encoded output, which may be a buffer that is reused for the next op on this thread
+     */
+    public TcpOp(TcpAdapterSpace space, ByteBuffer bytes) {
+        this.space = space;
+        this.bytes = bytes;
+    }
+
+    @Override
+    public void run() {
+        space.write(bytes.duplicate());
     }
 }
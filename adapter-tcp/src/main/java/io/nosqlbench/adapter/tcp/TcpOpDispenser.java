@@ -17,17 +17,47 @@
 package io.nosqlbench.adapter.tcp;
 
 import io.nosqlbench.engine.api.activityimpl.BaseOpDispenser;
-import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.Op;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverAdapter;
 import io.nosqlbench.engine.api.templating.ParsedOp;
 
-public class TcpOpDispenser extends BaseOpDispenser<Op,TcpAdapterSpace> {
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongFunction;
 
-    public TcpOpDispenser(TcpDriverAdapter adapter, ParsedOp op) {
+/**
+ * Each tcp op dispenser holds a reference to its space for the life of the activity, so that
+ * buffered output is written, and connections are closed, once the last dispenser is closed.
+ */
+public class TcpOpDispenser extends BaseOpDispenser<TcpOp,TcpAdapterSpace> implements AutoCloseable {
+
+    private final TcpAdapterSpace space;
+    private final LongFunction<ByteBuffer> bytesFunction;
+
+    public TcpOpDispenser(DriverAdapter adapter, ParsedOp op, TcpAdapterSpace space) {
         super(adapter, op);
+        this.space = space;
+        space.retain();
+
+        // String templates are rendered straight to bytes when nothing is appended to them
+        LongFunction<ByteBuffer> utf8Function = op.isDefined("suffix") ? null : op.getAsOptionalUtf8Function("stmt").orElse(null);
+        if (utf8Function != null) {
+            this.bytesFunction = utf8Function;
+        } else {
+            LongFunction<Object> objectFunction = op.getAsRequiredFunction("stmt", Object.class);
+            LongFunction<String> stringfunc = l -> objectFunction.apply(l).toString();
+            stringfunc = op.enhanceFuncOptionally(stringfunc, "suffix", String.class, (a, b) -> a + b);
+            LongFunction<String> outFunction = stringfunc;
+            this.bytesFunction = l -> ByteBuffer.wrap(outFunction.apply(l).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public TcpOp apply(long cycle) {
+        return new TcpOp(space, bytesFunction.apply(cycle));
     }
 
     @Override
-    public Op apply(long cycle) {
-        return new TcpOp(cycle);
+    public void close() {
+        space.release();
     }
 }
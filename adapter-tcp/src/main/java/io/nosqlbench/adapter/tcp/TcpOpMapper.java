@@ -16,21 +16,30 @@
 
 package io.nosqlbench.adapter.tcp;
 
+import io.nosqlbench.api.errors.OpConfigError;
 import io.nosqlbench.engine.api.activityimpl.OpDispenser;
 import io.nosqlbench.engine.api.activityimpl.OpMapper;
-import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.Op;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverAdapter;
+import io.nosqlbench.engine.api.activityimpl.uniform.DriverSpaceCache;
 import io.nosqlbench.engine.api.templating.ParsedOp;
 
-public class TcpOpMapper implements OpMapper<Op> {
+public class TcpOpMapper implements OpMapper<TcpOp> {
 
-    private final TcpDriverAdapter adapter;
+    private final DriverAdapter adapter;
+    private final DriverSpaceCache<? extends TcpAdapterSpace> ctxcache;
 
-    public TcpOpMapper(TcpDriverAdapter adapter) {
+    public TcpOpMapper(DriverAdapter adapter, DriverSpaceCache<? extends TcpAdapterSpace> ctxcache) {
         this.adapter = adapter;
+        this.ctxcache = ctxcache;
     }
 
     @Override
-    public OpDispenser<? extends Op> apply(ParsedOp op) {
-        return new TcpOpDispenser(adapter,op);
+    public OpDispenser<TcpOp> apply(ParsedOp op) {
+        if (op.isDynamic("space")) {
+            throw new OpConfigError("tcp op templates do not support dynamic space values, since" +
+                " connections are pinned to each thread within a space.");
+        }
+        String spaceName = op.getStaticConfigOr("space", "default");
+        return new TcpOpDispenser(adapter, op, ctxcache.get(spaceName));
     }
 }
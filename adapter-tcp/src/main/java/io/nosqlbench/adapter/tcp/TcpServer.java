@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.tcp;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A server which pushes op output to any number of connected clients. Output is put in a bounded
+ * queue by the motor threads, and a single selector thread accepts clients and drains the queue
+ * to whichever clients can take more data, so each line of output goes to one of the clients.
+ *
+ * <p>Each time a client can be written to, the selector thread copies as much queued output as
+ * fits into that client's direct buffer, and writes it in one gathering write along with any
+ * output which did not fit. Whatever the client does not take stays with it until it can be
+ * written to again. When no client keeps up, the queue fills, and {@link #offer} fails, which is
+ * how backpressure reaches the activity.</p>
+ */
+public class TcpServer implements Runnable, Closeable {
+    private final static Logger logger = LogManager.getLogger(TcpServer.class);
+
+    private final static long SELECT_TIMEOUT_MS = 1000L;
+    private final static long SHUTDOWN_DRAIN_MS = 10_000L;
+
+    private final BlockingQueue<ByteBuffer> queue;
+    private final int bufferSize;
+    private final Selector selector;
+    private final ServerSocketChannel listener;
+    private final ByteBuffer discard = ByteBuffer.allocate(4096);
+    private final AtomicBoolean idle = new AtomicBoolean(false);
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile int clients = 0;
+
+    /**
+     * Bind the server to the given address and start accepting clients.
+     * @param address The local address to listen on
+     * @param capacity The number of op outputs which may wait for a client
+     * @param bufferSize The size of the direct buffer for each client
+     * @throws IOException if the server could not listen on the address
+     */
+    public TcpServer(InetSocketAddress address, int capacity, int bufferSize) throws IOException {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.bufferSize = bufferSize;
+        this.selector = Selector.open();
+        this.listener = ServerSocketChannel.open();
+        listener.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        listener.bind(address);
+        listener.configureBlocking(false);
+        listener.register(selector, SelectionKey.OP_ACCEPT);
+        logger.info("listening on " + listener.getLocalAddress());
+
+        this.thread = new Thread(this, "tcpserver/" + listener.getLocalAddress());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public SocketAddress getLocalAddress() throws IOException {
+        return listener.getLocalAddress();
+    }
+
+    /**
+     * Queue a copy of the remaining bytes of the given buffer for the next client which can take them.
+     * @param bytes The encoded op output, which is left as it is, so the same buffer can be offered again
+     * @param timeout How long to wait for space in the queue
+     * @param unit The unit of the timeout
+     * @return true if the output was queued, or false if the queue stayed full for the whole timeout
+     * @throws InterruptedException if interrupted while waiting for space in the queue
+     */
+    public boolean offer(ByteBuffer bytes, long timeout, TimeUnit unit) throws InterruptedException {
+        ByteBuffer copy = ByteBuffer.allocate(bytes.remaining()).put(bytes.duplicate()).flip();
+        if (!queue.offer(copy, timeout, unit)) {
+            return false;
+        }
+        if (idle.compareAndSet(true, false)) {
+            selector.wakeup();
+        }
+        return true;
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    public int getClientCount() {
+        return clients;
+    }
+
+    @Override
+    public void run() {
+        long drainDeadline = Long.MAX_VALUE;
+        try {
+            while (true) {
+                boolean backlog = !queue.isEmpty();
+                boolean pending = false;
+                for (SelectionKey key : selector.keys()) {
+                    if (key.isValid() && key.attachment() instanceof Client client) {
+                        pending |= client.hasPending();
+                        key.interestOps(SelectionKey.OP_READ |
+                            ((backlog || client.hasPending()) ? SelectionKey.OP_WRITE : 0));
+                    }
+                }
+                if (!running) {
+                    if (drainDeadline == Long.MAX_VALUE) {
+                        drainDeadline = System.currentTimeMillis() + SHUTDOWN_DRAIN_MS;
+                    }
+                    if ((!backlog && !pending) || clients == 0 || System.currentTimeMillis() > drainDeadline) {
+                        break;
+                    }
+                }
+
+                // A producer only wakes the selector when it was about to wait with nothing to write
+                idle.set(!backlog);
+                if (!backlog && !queue.isEmpty()) {
+                    idle.set(false);
+                    continue;
+                }
+                selector.select(SELECT_TIMEOUT_MS);
+                idle.set(false);
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("tcp server stopped on error: " + e, e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key);
+            }
+            closeQuietly(selector);
+            if (!queue.isEmpty()) {
+                logger.warn("tcp server stopped with " + queue.size() + " op outputs which no client took");
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        try {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Client client = (Client) key.attachment();
+            if (key.isReadable()) {
+                discard.clear();
+                if (client.channel.read(discard) < 0) {
+                    disconnect(key, client);
+                    return;
+                }
+            }
+            if (key.isWritable()) {
+                client.write(queue);
+            }
+        } catch (IOException e) {
+            if (key.attachment() instanceof Client client) {
+                logger.warn("closing client " + client.channel + " after error: " + e);
+                disconnect(key, client);
+            } else {
+                logger.warn("error while accepting a client: " + e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = listener.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.register(selector, SelectionKey.OP_READ, new Client(channel, bufferSize));
+        clients++;
+        logger.info("accepted client " + channel.getRemoteAddress() + ", " + clients + " connected");
+    }
+
+    private void disconnect(SelectionKey key, Client client) {
+        closeQuietly(key);
+        clients--;
+        if (client.hasPending()) {
+            logger.warn("client " + client.channel + " disconnected with unsent output, which was dropped");
+        }
+        logger.info("client disconnected, " + clients + " connected");
+    }
+
+    private void closeQuietly(SelectionKey key) {
+        key.cancel();
+        closeQuietly(key.channel());
+    }
+
+    private void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.debug("error while closing " + closeable + ": " + e);
+        }
+    }
+
+    /**
+     * Stop accepting output and clients. Queued output is still written to connected clients for
+     * a short while, as long as they keep taking it.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(SHUTDOWN_DRAIN_MS + SELECT_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Client {
+        private final SocketChannel channel;
+        private final ByteBuffer buffer;
+        private final ByteBuffer[] gather = new ByteBuffer[2];
+
+        private Client(SocketChannel channel, int bufferSize) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize).flip();
+        }
+
+        private boolean hasPending() {
+            return buffer.hasRemaining() || gather[1] != null;
+        }
+
+        /**
+         * Write as much as the client will take, refilling the buffer from the queue at most once,
+         * so that one fast client does not starve the others.
+         */
+        private void write(BlockingQueue<ByteBuffer> queue) throws IOException {
+            if (!hasPending()) {
+                fill(queue);
+            }
+            while (hasPending()) {
+                long written = (gather[1] == null) ? channel.write(buffer) : channel.write(gather);
+                if (gather[1] != null && !gather[1].hasRemaining()) {
+                    gather[1] = null;
+                }
+                if (written == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void fill(BlockingQueue<ByteBuffer> queue) {
+            buffer.clear();
+            ByteBuffer next;
+            while ((next = queue.poll()) != null) {
+                if (next.remaining() > buffer.remaining()) {
+                    gather[0] = buffer;
+                    gather[1] = next;
+                    break;
+                }
+                buffer.put(next);
+            }
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.adapter.tcp;
+
+import io.nosqlbench.api.config.standard.NBConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TcpAdapterSpaceTest {
+
+    private TcpAdapterSpace space(Map<String, Object> params) {
+        Map<String, Object> cfgmap = new HashMap<>(Map.of("host", "127.0.0.1"));
+        cfgmap.putAll(params);
+        NBConfiguration cfg = TcpAdapterSpace.getConfigModel().apply(cfgmap);
+        TcpAdapterSpace space = new TcpAdapterSpace("test", cfg);
+        space.retain();
+        return space;
+    }
+
+    private static ByteBuffer line(String text) {
+        return ByteBuffer.wrap((text + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> readLines(SocketChannel channel) throws Exception {
+        List<String> lines = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    @Test
+    public void testClientCoalescesUntilReleased() throws Exception {
+        try (ServerSocketChannel listener = ServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0))) {
+            int port = ((InetSocketAddress) listener.getLocalAddress()).getPort();
+            TcpAdapterSpace space = space(Map.of("port", port, "flush", "buffer", "buffer_size", 16));
+
+            // The last line does not fit in the buffer, so it is gathered with the buffered lines
+            space.write(line("one"));
+            space.write(line("two"));
+            space.write(line("a line which is longer than the buffer"));
+            space.write(line("three"));
+            space.release();
+
+            try (SocketChannel accepted = listener.accept()) {
+                assertThat(readLines(accepted)).containsExactly(
+                    "one", "two", "a line which is longer than the buffer", "three");
+            }
+        }
+    }
+
+    @Test
+    public void testClientConnectionIsPinnedToEachThread() throws Exception {
+        try (ServerSocketChannel listener = ServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0))) {
+            int port = ((InetSocketAddress) listener.getLocalAddress()).getPort();
+            TcpAdapterSpace space = space(Map.of("port", port));
+
+            space.write(line("main"));
+            Thread other = new Thread(() -> space.write(line("other")));
+            other.start();
+            other.join();
+            space.write(line("main again"));
+            space.release();
+
+            List<String> lines = new ArrayList<>();
+            try (SocketChannel first = listener.accept(); SocketChannel second = listener.accept()) {
+                lines.addAll(readLines(first));
+                lines.addAll(readLines(second));
+            }
+            assertThat(lines).containsExactlyInAnyOrder("main", "main again", "other");
+        }
+    }
+
+    @Test
+    public void testServerSpreadsOutputOverClients() throws Exception {
+        TcpAdapterSpace space = space(Map.of("mode", "server", "port", 0, "capacity", 1000));
+        int port = ((InetSocketAddress) space.getServer().getLocalAddress()).getPort();
+
+        List<String> received = new CopyOnWriteArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Socket socket = new Socket("127.0.0.1", port);
+            Thread reader = new Thread(() -> {
+                try (BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        received.add(line);
+                    }
+                } catch (Exception ignored) {
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (space.getServer().getClientCount() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(space.getServer().getClientCount()).isEqualTo(3);
+
+        List<String> sent = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            sent.add("line " + i);
+            space.write(line("line " + i));
+        }
+        space.release();
+        for (Thread reader : readers) {
+            reader.join(10_000);
+        }
+        assertThat(received).containsExactlyInAnyOrderElementsOf(sent);
+    }
+
+    @Test
+    public void testServerFailsOpsWhenNoClientKeepsUp() {
+        TcpAdapterSpace space = space(Map.of("mode", "server", "port", 0, "capacity", 2, "retries", 1, "retry_delay", 10L));
+        space.write(line("one"));
+        space.write(line("two"));
+        assertThatThrownBy(() -> space.write(line("three")))
+            .hasMessageContaining("stayed full for 2 tries");
+        assertThat(space.getServer().getQueued()).isEqualTo(2);
+        space.release();
+    }
+
+    @Test
+    public void testServerSendsAllBytesWhenQueueFreesOnRetry() throws Exception {
+        List<String> received = new CopyOnWriteArrayList<>();
+        TcpAdapterSpace space = space(Map.of("mode", "server", "port", 0, "capacity", 1, "retries", 20, "retry_delay", 50L));
+        int port = ((InetSocketAddress) space.getServer().getLocalAddress()).getPort();
+        space.write(line("one"));
+
+        // The first tries time out on the full queue, until the client connects and takes "one"
+        Thread connector = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+                try (SocketChannel client = SocketChannel.open(new InetSocketAddress("127.0.0.1", port))) {
+                    received.addAll(readLines(client));
+                }
+            } catch (Exception ignored) {
+            }
+        });
+        connector.start();
+        ByteBuffer two = line("two");
+        space.write(two);
+        assertThat(two.remaining()).isEqualTo(4);
+        space.release();
+        connector.join(10_000);
+        assertThat(received).containsExactly("one", "two");
+    }
+}
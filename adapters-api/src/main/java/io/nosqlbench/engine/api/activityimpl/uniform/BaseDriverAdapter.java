@@ -153,14 +153,34 @@ public abstract class BaseDriverAdapter<R extends Op,S> implements DriverAdapter
             .add(Param.optional(List.of("op", "stmt", "statement"), String.class, "op template in statement form"))
             .add(Param.optional("tags", String.class, "tags to be used to filter operations"))
             .add(Param.defaultTo("errors", "stop", "error handler configuration"))
+            .add(Param.optional("retrybudget", String.class, "activity-wide limit on retries, as ratio[:minpersec[:burst]]"))
+            .add(Param.optional("backoff_servicetime").setRegex("include|exclude").setDescription("whether waits before retries count as service time"))
             .add(Param.optional("threads").setRegex("\\d+|\\d+x|auto").setDescription("number of concurrent operations, controlled by threadpool"))
+            .add(Param.optional("executor").setRegex("platform|virtual").setDescription("whether motors run on platform or virtual threads"))
             .add(Param.optional("stride").setRegex("\\d+"))
+            .add(Param.optional("async").setRegex("\\d+").setDescription("number of async ops in flight, split between threads"))
+            .add(Param.optional("adaptive").setRegex("aimd|gradient|off").setDescription("adjust threads, or async when set, to hold adaptive_latency"))
+            .add(Param.optional("adaptive_latency", String.class, "target latency in milliseconds for adaptive concurrency"))
+            .add(Param.optional("adaptive_pctile", String.class, "percentile of result latency to hold at adaptive_latency"))
+            .add(Param.optional("adaptive_errors", String.class, "error ratio above which adaptive concurrency backs off"))
+            .add(Param.optional("adaptive_min").setRegex("\\d+").setDescription("lowest concurrency for adaptive concurrency"))
+            .add(Param.optional("adaptive_max").setRegex("\\d+").setDescription("highest concurrency for adaptive concurrency"))
+            .add(Param.optional("adaptive_interval", String.class, "how often adaptive concurrency is adjusted"))
+            .add(Param.optional("adaptive_step", String.class, "additive increase for adaptive=aimd"))
+            .add(Param.optional("adaptive_backoff", String.class, "multiplicative decrease for adaptive concurrency"))
+            .add(Param.optional("adaptive_smoothing", String.class, "how much of each estimate is blended in for adaptive=gradient"))
             .add(Param.optional("striderate", String.class, "rate limit for strides per second"))
             .add(Param.optional("cycles").setRegex("\\d+[KMBGTPE]?|\\d+[KMBGTPE]?\\.\\.\\d+[KMBGTPE]?").setDescription("cycle interval to use"))
             .add(Param.optional(List.of("cyclerate", "targetrate", "rate"), String.class, "rate limit for cycles per second"))
+            .add(Param.optional("arrivalrate", String.class, "open loop rate of cycles per second, with latency measured from each intended start"))
+            .add(Param.optional("arrivals").setRegex("uniform|poisson").setDescription("distribution of intended start times for arrivalrate"))
             .add(Param.optional("phaserate", String.class, "rate limit for phases per second"))
+            .add(Param.optional("tokenpool", String.class, "token pool implementation for rate limiters, threaded or cas"))
+            .add(Param.optional("stridebatch", Boolean.class, "take cycle rate limiter time for a whole stride at once"))
             .add(Param.optional("seq", String.class, "sequencing algorithm"))
+            .add(Param.optional("oprate_mode").setRegex("wait|defer").setDescription("whether a cycle waits for an op with an oprate limit, or takes the next op which is due"))
             .add(Param.optional("instrument", Boolean.class))
+            .add(Param.optional("instrumentation").setRegex("minimal|standard|full").setDescription("which per-op metrics are recorded by the action"))
             .add(Param.optional(List.of("workload", "yaml"), String.class, "location of workload yaml file"))
             .add(Param.optional("driver",String.class))
             .asReadOnly();
@@ -172,6 +192,7 @@ public abstract class BaseDriverAdapter<R extends Op,S> implements DriverAdapter
             .add(Param.optional("threads").setRegex("\\d+|\\d+x|auto").setDescription("number of concurrent operations, controlled by threadpool"))
             .add(Param.optional("striderate", String.class, "rate limit for strides per second"))
             .add(Param.optional(List.of("cyclerate", "targetrate", "rate"), String.class, "rate limit for cycles per second"))
+            .add(Param.optional("arrivalrate", String.class, "open loop rate of cycles per second, with latency measured from each intended start"))
             .asReadOnly();
     }
 
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.activityimpl.uniform.flowtypes;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.LongFunction;
+
+/**
+ * <p>An AsyncCycleOp is the asynchronous form of a {@link CycleOp}. Instead of
+ * blocking until the result is available, it returns a {@link CompletionStage}
+ * which is completed by the native driver when the operation is done.</p>
+ *
+ * <p>When an activity is run with the async parameter, each thread keeps up to
+ * its share of async ops in flight at a time, and handles their results as they
+ * complete. Without the async parameter, the returned stage is simply waited on,
+ * so that the op behaves the same way as a {@link CycleOp}.</p>
+ *
+ * <p>The op should not block in {@link #apply(long)}. Any failure which occurs after
+ * the op is sent should be reported by completing the stage exceptionally.</p>
+ *
+ * @param <T> The native result type for the underlying driver
+ */
+public interface AsyncCycleOp<T> extends Op, LongFunction<CompletionStage<T>> {
+
+    /**
+     * <p>Start an action for the given cycle. The cycle
+     * value is only to be used for anecdotal presentation.</p>
+     * @param value The cycle value for which an operation is run
+     * @return A stage which completes with the native result type for the underlying driver.
+     */
+    @Override
+    CompletionStage<T> apply(long value);
+
+}
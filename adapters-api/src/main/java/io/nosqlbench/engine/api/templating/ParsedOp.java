@@ -31,6 +31,7 @@ import io.nosqlbench.virtdata.core.templates.ParsedStringTemplate;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -568,6 +569,17 @@ public class ParsedOp implements LongFunction<Map<String, ?>>, StaticFieldReader
         return tmap.getAsRequiredFunction(name, type);
     }
 
+    /**
+     * Get the op field as a function which renders a string template directly into UTF-8 bytes.
+     * The buffer is reused by each thread. See {@link ParsedTemplateMap#getAsOptionalUtf8Function(String)}.
+     *
+     * @param name The field name
+     * @return A function which renders the field as UTF-8 bytes, if the field is a string template
+     */
+    public Optional<LongFunction<ByteBuffer>> getAsOptionalUtf8Function(String name) {
+        return tmap.getAsOptionalUtf8Function(name);
+    }
+
 
     /**
      * Get a LongFunction which returns either the static value, the dynamic value, or the default value,
@@ -683,6 +695,14 @@ public class ParsedOp implements LongFunction<Map<String, ?>>, StaticFieldReader
         return tmap.newArrayBinderFromBindPoints(bindPoints);
     }
 
+    /**
+     * @param bindPoints The {@link BindPoint}s to resolve
+     * @return the primitive-specialized binding function objects, as described in {@link ParsedTemplateMap#getFunctionsFromBindPoints(List)}
+     */
+    public List<Object> getFunctionsFromBindPoints(List<BindPoint> bindPoints) {
+        return tmap.getFunctionsFromBindPoints(bindPoints);
+    }
+
     /**
      * Get the {@link LongFunction} which is used to resolve a dynamic field value.
      *
@@ -24,6 +24,7 @@ import io.nosqlbench.engine.api.activityapi.cyclelog.filters.IntPredicateDispens
 import io.nosqlbench.engine.api.activityapi.errorhandling.ErrorMetrics;
 import io.nosqlbench.engine.api.activityapi.input.InputDispenser;
 import io.nosqlbench.engine.api.activityapi.output.OutputDispenser;
+import io.nosqlbench.engine.api.activityapi.ratelimits.ArrivalSchedule;
 import io.nosqlbench.engine.api.activityapi.ratelimits.RateLimiter;
 import io.nosqlbench.api.engine.activityimpl.ActivityDef;
 import io.nosqlbench.api.engine.activityimpl.ParameterMap;
@@ -131,6 +132,16 @@ public interface Activity extends Comparable<Activity>, ActivityDefObserver, Pro
      */
     RateLimiter getCycleRateLimiter(Supplier<? extends RateLimiter> supplier);
 
+    /**
+     * Get the open loop arrival schedule for this activity, if it has one.
+     * When an activity has an arrival schedule, each cycle is dispatched at
+     * its intended start time instead of being throttled by a cycle rate limiter.
+     * @return the {@link ArrivalSchedule}, or null if cycles are not scheduled
+     */
+    default ArrivalSchedule getArrivalSchedule() {
+        return null;
+    }
+
     /**
      * Get the current stride rate limiter for this activity.
      * The stride rate limiter is used to throttle the rate at which
@@ -62,8 +62,8 @@ public interface ActivityInstrumentation {
     /**
      * The cycles response timer measures the total response time from the scheduled
      * time an operation should start to when it is completed. Cycle scheduling is only defined
-     * when it is implied by a cycle rate limiter, so this method should return null if
-     * there is no cycles rate limiter.
+     * when it is implied by a cycle rate limiter or an arrival schedule, so this method should
+     * return null if there is neither.
      * @return a new or existing {@link Timer} if appropriate, else null
      */
     Timer getCyclesResponseTimerOrNull();
@@ -141,4 +141,18 @@ public interface ActivityInstrumentation {
      * @return a new or existing {@link Histogram}
      */
     Histogram getOrCreateTriesHistogram();
+
+    /**
+     * The backoff timer tracks the time which is spent waiting before each retry of an operation, as set by
+     * the backoff error handler. Each wait is measured separately.
+     * @return a new or existing {@link Timer}
+     */
+    Timer getOrCreateBackoffTimer();
+
+    /**
+     * The retries-denied counter counts retries which were not attempted because the activity's retry budget
+     * was spent.
+     * @return a new or existing {@link Counter}
+     */
+    Counter getOrCreateRetriesDeniedCounter();
 }
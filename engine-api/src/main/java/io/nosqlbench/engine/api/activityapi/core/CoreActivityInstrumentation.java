@@ -74,7 +74,7 @@ public class CoreActivityInstrumentation implements ActivityInstrumentation {
 
     @Override
     public synchronized Timer getCyclesResponseTimerOrNull() {
-        if (activity.getCycleLimiter() == null) {
+        if (activity.getCycleLimiter() == null && activity.getArrivalSchedule() == null) {
             return null;
         }
         String metricName = "cycles" + RESPONSE_TIME;
@@ -142,4 +142,14 @@ public class CoreActivityInstrumentation implements ActivityInstrumentation {
     public synchronized Histogram getOrCreateTriesHistogram() {
         return ActivityMetrics.histogram(def, "tries", activity.getHdrDigits());
     }
+
+    @Override
+    public synchronized Timer getOrCreateBackoffTimer() {
+        return ActivityMetrics.timer(def, "backoff", activity.getHdrDigits());
+    }
+
+    @Override
+    public synchronized Counter getOrCreateRetriesDeniedCounter() {
+        return ActivityMetrics.counter(def, "retries_denied");
+    }
 }
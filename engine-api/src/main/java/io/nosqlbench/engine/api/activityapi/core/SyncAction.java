@@ -30,4 +30,15 @@ public interface SyncAction extends Action {
         return (int) cycle % 100;
     }
 
+    /**
+     * Some of the time spent in {@link #runCycle(long)} may be excluded from the service time
+     * of cycles, like waiting to retry an op with {@code backoff_servicetime=exclude}. The motor
+     * calls this after each cycle.
+     *
+     * @return The nanoseconds of the last cycle which should not count as service time
+     */
+    default long takeExcludedNanos() {
+        return 0L;
+    }
+
 }
@@ -39,6 +39,7 @@ public class OpTrackerImpl<D> implements OpTracker<D>, ActivityDefObserver {
     private final Timer cycleServiceTimer;
     private final Timer cycleResponseTimer;
     private final Counter pendingOpsCounter;
+    private final boolean scheduled;
 
     private int maxPendingOps =1;
     private LongFunction<D> cycleOpFunction;
@@ -51,6 +52,7 @@ public class OpTrackerImpl<D> implements OpTracker<D>, ActivityDefObserver {
         this.pendingOpsCounter = activity.getInstrumentation().getOrCreatePendingOpCounter();
         this.cycleServiceTimer = activity.getInstrumentation().getOrCreateCyclesServiceTimer();
         this.cycleResponseTimer = activity.getInstrumentation().getCyclesResponseTimerOrNull();
+        this.scheduled = activity.getArrivalSchedule() != null;
     }
 
     // for testing
@@ -60,6 +62,7 @@ public class OpTrackerImpl<D> implements OpTracker<D>, ActivityDefObserver {
         this.cycleResponseTimer = cycleResponseTimer;
         this.cycleServiceTimer = cycleServiceTimer;
         this.pendingOpsCounter = pendingOpsCounter;
+        this.scheduled = false;
     }
 
     @Override
@@ -73,8 +76,7 @@ public class OpTrackerImpl<D> implements OpTracker<D>, ActivityDefObserver {
         pendingOpsCounter.dec();
         int pending = this.pendingOps.decrementAndGet();
 
-        cycleServiceTimer.update(op.getServiceTimeNanos(), TimeUnit.NANOSECONDS);
-        if (cycleResponseTimer !=null) { cycleResponseTimer.update(op.getResponseTimeNanos(), TimeUnit.NANOSECONDS); }
+        updateCycleTimers(op);
 
         if (pending< maxPendingOps) {
             synchronized (this) {
@@ -103,8 +105,7 @@ public class OpTrackerImpl<D> implements OpTracker<D>, ActivityDefObserver {
         pendingOpsCounter.dec();
         int pending = this.pendingOps.decrementAndGet();
 
-        cycleServiceTimer.update(op.getServiceTimeNanos(), TimeUnit.NANOSECONDS);
-        if (cycleResponseTimer !=null) { cycleResponseTimer.update(op.getResponseTimeNanos(), TimeUnit.NANOSECONDS); }
+        updateCycleTimers(op);
 
         if (pending< maxPendingOps) {
             synchronized (this) {
@@ -113,6 +114,13 @@ public class OpTrackerImpl<D> implements OpTracker<D>, ActivityDefObserver {
         }
     }
 
+    private void updateCycleTimers(CompletedOp<D> op) {
+        // As with sync actions, the cycle service time is measured from the scheduled start, unless
+        // there is an arrival schedule, in which case only the response time is measured from it
+        cycleServiceTimer.update(scheduled ? op.getServiceTimeNanos() : op.getResponseTimeNanos(), TimeUnit.NANOSECONDS);
+        if (cycleResponseTimer !=null) { cycleResponseTimer.update(op.getResponseTimeNanos(), TimeUnit.NANOSECONDS); }
+    }
+
     @Override
     public void setMaxPendingOps(int maxPendingOps) {
         this.maxPendingOps =maxPendingOps;
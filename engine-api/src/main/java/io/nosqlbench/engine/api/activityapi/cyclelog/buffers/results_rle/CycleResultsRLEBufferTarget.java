@@ -169,6 +169,15 @@ public class CycleResultsRLEBufferTarget implements Output,CanFilterResultValue
         return buf.capacity() / BYTES;
     }
 
+    /**
+     * @return true if the buffer only has room left for the run which is currently being
+     * accumulated. Converting the buffer with {@link #toByteBuffer()} at this point avoids
+     * resizing it, which allows callers to keep a bound on the buffered data.
+     */
+    public boolean isFull() {
+        return buf.remaining() <= BYTES;
+    }
+
     /**
      * Flushes any partial data that was submitted (an incomplete run of results,
      * for example), to the internal ByteBuffer, and marks flushed status.
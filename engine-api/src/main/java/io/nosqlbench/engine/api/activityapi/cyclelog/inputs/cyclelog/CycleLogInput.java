@@ -23,6 +23,7 @@ import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results.CycleResult
 import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results.CycleResultsSegment;
 import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results.ResultReadable;
 import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results_rle.CycleResultsRLEBufferReadable;
+import io.nosqlbench.engine.api.activityapi.cyclelog.outputs.cyclelog.CycleLogFormat;
 import io.nosqlbench.engine.api.activityapi.input.Input;
 import io.nosqlbench.engine.api.util.SimpleConfig;
 
@@ -31,24 +32,45 @@ import org.apache.logging.log4j.LogManager;
 
 import java.io.File;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 
+/**
+ * <p>An {@link Input} which provides the cycles from a cyclelog file, as written by
+ * {@link io.nosqlbench.engine.api.activityapi.cyclelog.outputs.cyclelog.CycleLogOutput}.</p>
+ *
+ * <p>Files in the {@link CycleLogFormat segmented format} are read without locking. Each
+ * caller of {@link #getInputSegment(int)} claims whole file segments for itself, and reads
+ * its cycles from them until they are exhausted. Files in the original format are read
+ * sequentially by one caller at a time.</p>
+ */
 public class CycleLogInput implements Input, AutoCloseable, Iterable<CycleResultsSegment>, CanFilterResultValue {
     private final static Logger logger = LogManager.getLogger(CycleLogInput.class);
-    private final Iterator<CycleResultsSegment> cycleResultSegmentIterator;
+    private Iterator<CycleResultsSegment> cycleResultSegmentIterator;
     private RandomAccessFile raf;
     private MappedByteBuffer mbb;
     private Iterator<CycleResult> segmentIter;
     private Predicate<ResultReadable> filter;
 
+    private boolean segmented;
+    private int segmentBytes;
+    private long segmentCount;
+    private final AtomicLong nextSegment = new AtomicLong(0L);
+    private final ThreadLocal<SegmentCursor> cursors = new ThreadLocal<>();
+
     public CycleLogInput(Activity activity) {
         SimpleConfig conf = new SimpleConfig(activity, "input");
-        mbb = initMappedBuffer(conf.getString("file").orElse(activity.getAlias()) + ".cyclelog");
-        cycleResultSegmentIterator = iterator();
-        segmentIter = cycleResultSegmentIterator.next().iterator();
+        initFile(conf.getString("file").orElse(activity.getAlias()) + ".cyclelog");
+        if (!segmented) {
+            cycleResultSegmentIterator = iterator();
+            segmentIter = cycleResultSegmentIterator.next().iterator();
+        }
     }
 
     public CycleLogInput(String filename) {
@@ -64,9 +86,11 @@ public class CycleLogInput implements Input, AutoCloseable, Iterable<CycleResult
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
-        mbb = initMappedBuffer(cycleFile.getPath());
-        cycleResultSegmentIterator = new CycleResultsRLEBufferReadable(mbb).iterator();
-        segmentIter = cycleResultSegmentIterator.next().iterator();
+        initFile(cycleFile.getPath());
+        if (!segmented) {
+            cycleResultSegmentIterator = new CycleResultsRLEBufferReadable(mbb).iterator();
+            segmentIter = cycleResultSegmentIterator.next().iterator();
+        }
     }
 
     @Override
@@ -75,7 +99,62 @@ public class CycleLogInput implements Input, AutoCloseable, Iterable<CycleResult
     }
 
     @Override
-    public synchronized CycleSegment getInputSegment(int segmentLength) {
+    public CycleSegment getInputSegment(int segmentLength) {
+        if (segmented) {
+            return getSegmentedInput(segmentLength);
+        }
+        return getSequentialInput(segmentLength);
+    }
+
+    private CycleSegment getSegmentedInput(int segmentLength) {
+        CycleSegmentBuffer csb = new CycleSegmentBuffer(segmentLength);
+        SegmentCursor cursor = cursors.get();
+
+        while (csb.remaining() > 0) {
+            if (cursor == null || !cursor.hasNext()) {
+                cursor = claimSegment();
+                cursors.set(cursor);
+                if (cursor == null) {
+                    break;
+                }
+            }
+            CycleResult cycleResult = cursor.next();
+            if (filter == null || filter.test(cycleResult)) {
+                csb.append(cycleResult.getCycle());
+            }
+        }
+        if (csb.remaining() == segmentLength) {
+            return null;
+        }
+        return csb.toReadable();
+    }
+
+    /**
+     * @return a cursor over the next unclaimed file segment which has any data,
+     * or null if there are none left
+     */
+    private SegmentCursor claimSegment() {
+        long segment;
+        while ((segment = nextSegment.getAndIncrement()) < segmentCount) {
+            SegmentCursor cursor = new SegmentCursor(mapSpans(segment).iterator());
+            if (cursor.hasNext()) {
+                return cursor;
+            }
+        }
+        return null;
+    }
+
+    private CycleResultsRLEBufferReadable mapSpans(long segment) {
+        try {
+            ByteBuffer buf = raf.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                CycleLogFormat.segmentOffset(segmentBytes, segment), segmentBytes);
+            return new CycleResultsRLEBufferReadable(CycleLogFormat.readSpans(buf));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private synchronized CycleSegment getSequentialInput(int segmentLength) {
 
         CycleSegmentBuffer csb = new CycleSegmentBuffer(segmentLength);
 
@@ -120,18 +199,31 @@ public class CycleLogInput implements Input, AutoCloseable, Iterable<CycleResult
 //
 //            remaining = csb.remaining();
 
-    private MappedByteBuffer initMappedBuffer(String filename) {
+    /**
+     * Open the file, and either read the segment layout for the segmented format, or map the
+     * whole file for the original format.
+     */
+    private void initFile(String filename) {
         File filepath = new File(filename);
         if (!filepath.exists()) {
             throw new RuntimeException("file path '" + filename + "' does not exist!");
         }
         try {
             raf = new RandomAccessFile(filepath, "r");
-            mbb = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            ByteBuffer head = ByteBuffer.allocate(CycleLogFormat.HEADER_BYTES);
+            raf.getChannel().read(head, 0);
+            head.flip();
+            segmented = CycleLogFormat.isSegmented(head);
+            if (segmented) {
+                segmentBytes = CycleLogFormat.readSegmentBytes(head);
+                segmentCount = (raf.length() - CycleLogFormat.HEADER_BYTES) / segmentBytes;
+                logger.debug("reading " + segmentCount + " segments of " + segmentBytes + " bytes from '" + filename + "'");
+            } else {
+                mbb = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            }
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
-        return mbb;
     }
 
     @Override
@@ -145,11 +237,63 @@ public class CycleLogInput implements Input, AutoCloseable, Iterable<CycleResult
 
     @Override
     public Iterator<CycleResultsSegment> iterator() {
-        CycleResultsRLEBufferReadable cycleResultsSegments = new CycleResultsRLEBufferReadable(mbb.duplicate());
-        if (cycleResultsSegments instanceof CanFilterResultValue) {
-            ((CanFilterResultValue)cycleResultsSegments).setFilter(filter);
+        if (segmented) {
+            return new SegmentsIterator();
+        }
+        return new CycleResultsRLEBufferReadable(mbb.duplicate()).iterator(filter);
+    }
+
+    /**
+     * Iterates the RLE spans of all file segments in order, independently of
+     * {@link #getInputSegment(int)}. Spans are filtered like those of the original format.
+     */
+    private class SegmentsIterator implements Iterator<CycleResultsSegment> {
+        private long segment = 0L;
+        private Iterator<CycleResultsSegment> spans = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!spans.hasNext() && segment < segmentCount) {
+                spans = mapSpans(segment++).iterator(filter);
+            }
+            return spans.hasNext();
+        }
+
+        @Override
+        public CycleResultsSegment next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return spans.next();
+        }
+    }
+
+    /**
+     * The position of one reader within the cycles of a file segment it has claimed.
+     */
+    private static class SegmentCursor implements Iterator<CycleResult> {
+        private final Iterator<CycleResultsSegment> spans;
+        private Iterator<CycleResult> cycles = Collections.emptyIterator();
+
+        SegmentCursor(Iterator<CycleResultsSegment> spans) {
+            this.spans = spans;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!cycles.hasNext() && spans.hasNext()) {
+                cycles = spans.next().iterator();
+            }
+            return cycles.hasNext();
+        }
+
+        @Override
+        public CycleResult next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return cycles.next();
         }
-        return cycleResultsSegments.iterator();
     }
 
 }
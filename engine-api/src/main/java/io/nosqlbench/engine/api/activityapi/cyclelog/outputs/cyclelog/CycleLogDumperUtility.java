@@ -18,12 +18,9 @@ package io.nosqlbench.engine.api.activityapi.cyclelog.outputs.cyclelog;
 
 import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results.CycleResult;
 import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results.CycleResultsSegment;
-import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results_rle.CycleResultsRLEBufferReadable;
+import io.nosqlbench.engine.api.activityapi.cyclelog.inputs.cyclelog.CycleLogInput;
 
 import java.io.File;
-import java.io.RandomAccessFile;
-import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
 
 public class CycleLogDumperUtility {
 
@@ -42,7 +39,6 @@ public class CycleLogDumperUtility {
 
     private void dumpData(String filename, DisplayType displayType) {
         File filepath = new File(filename);
-        MappedByteBuffer mbb = null;
         if (!filepath.exists()) {
             if (!filepath.getPath().endsWith(".cyclelog")) {
                 filepath = new File(filename+".cyclelog");
@@ -51,36 +47,23 @@ public class CycleLogDumperUtility {
                 }
             }
         }
-        try {
-            RandomAccessFile raf = new RandomAccessFile(filepath, "rw");
-            mbb = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-
-        int readsize = 100;
-
-        if (mbb.remaining() > 0) {
-            CycleResultsRLEBufferReadable readable = null;
-            while (mbb.remaining() > 0) {
-                readable = new CycleResultsRLEBufferReadable(readsize, mbb);
 
-                for (CycleResultsSegment segment : readable) {
-                    switch (displayType) {
-                        case cycles:
-                            for (CycleResult cycleResult : segment) {
-                                System.out.println(cycleResult);
-                            }
-                            break;
-                        case spans:
-                            System.out.println(segment.toString());
-                            break;
-
-                    }
+        try (CycleLogInput input = new CycleLogInput(filepath.getPath())) {
+            for (CycleResultsSegment segment : input) {
+                switch (displayType) {
+                    case cycles:
+                        for (CycleResult cycleResult : segment) {
+                            System.out.println(cycleResult);
+                        }
+                        break;
+                    case spans:
+                        System.out.println(segment.toString());
+                        break;
 
                 }
             }
-
+        } catch (Exception e) {
+            throw new RuntimeException(e);
         }
 
     }
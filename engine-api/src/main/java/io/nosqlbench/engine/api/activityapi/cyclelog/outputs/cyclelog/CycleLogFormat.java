@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.engine.api.activityapi.cyclelog.outputs.cyclelog;
+
+import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results_rle.CycleResultsRLEBufferTarget;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Layout of the segmented cyclelog format. The original cyclelog format is a single run of
+ * RLE tuples with no header. The segmented format starts with a file header, followed by
+ * any number of fixed-size segments:</p>
+ *
+ * <pre>{@code
+ * file header:    long magic, int version, int segment size in bytes
+ * each segment:   int span count, int reserved, long min cycle, long max cycle (exclusive),
+ *                 then (long,long,byte) RLE tuples up to the span count
+ * }</pre>
+ *
+ * <p>The magic value is negative, so it can not be mistaken for the first cycle of a file in
+ * the original format. Since each segment is mapped on its own, the file size is not limited
+ * by the size of a single {@link java.nio.MappedByteBuffer}, and readers can claim whole
+ * segments independently of each other.</p>
+ */
+public class CycleLogFormat {
+
+    public final static long MAGIC = 0xC1C1E106_5E6E0000L;
+    public final static int VERSION = 2;
+    public final static int HEADER_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+    public final static int SEGMENT_HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES + Long.BYTES;
+    public final static int SPAN_BYTES = CycleResultsRLEBufferTarget.BYTES;
+
+    public static int segmentBytes(int spansPerSegment) {
+        return SEGMENT_HEADER_BYTES + (spansPerSegment * SPAN_BYTES);
+    }
+
+    public static long segmentOffset(int segmentBytes, long segment) {
+        return HEADER_BYTES + (segment * segmentBytes);
+    }
+
+    /**
+     * @param head A buffer containing at least the file header, if there is one
+     * @return true if the buffer starts with the segmented format header
+     */
+    public static boolean isSegmented(ByteBuffer head) {
+        return head.remaining() >= HEADER_BYTES && head.getLong(head.position()) == MAGIC;
+    }
+
+    public static void writeHeader(ByteBuffer buf, int segmentBytes) {
+        buf.putLong(0, MAGIC).putInt(Long.BYTES, VERSION).putInt(Long.BYTES + Integer.BYTES, segmentBytes);
+    }
+
+    /**
+     * @param head A buffer containing the file header
+     * @return the size of each segment in bytes
+     */
+    public static int readSegmentBytes(ByteBuffer head) {
+        int version = head.getInt(head.position() + Long.BYTES);
+        if (version != VERSION) {
+            throw new RuntimeException("Unsupported cyclelog format version " + version);
+        }
+        return head.getInt(head.position() + Long.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * @param segment A buffer containing one segment, starting at its header
+     * @return A buffer with only the RLE tuples of the segment
+     */
+    public static ByteBuffer readSpans(ByteBuffer segment) {
+        int spans = segment.getInt(0);
+        return segment.duplicate().position(SEGMENT_HEADER_BYTES).limit(SEGMENT_HEADER_BYTES + (spans * SPAN_BYTES)).slice();
+    }
+
+    public static void writeSegmentHeader(ByteBuffer segment, int spans, long minCycle, long maxCycle) {
+        segment.putInt(0, spans).putInt(Integer.BYTES, 0)
+            .putLong(Integer.BYTES * 2, minCycle).putLong(Integer.BYTES * 2 + Long.BYTES, maxCycle);
+    }
+
+}
@@ -29,10 +29,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
 import java.io.File;
-import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
-import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.util.function.Predicate;
 
@@ -46,17 +43,20 @@ import java.util.function.Predicate;
  *
  * <p>It <em>is</em> valid for RLE segments to be broken apart into contiguous
  * ranges. Any implementation should treat this as normal.
+ *
+ * <p>The tuples are written in the {@link CycleLogFormat segmented format}. Filled extents are
+ * handed to a {@link CycleLogSegmentWriter} which writes them from its own thread. At most
+ * {@code buffers} extents of {@code extentSize} tuples are held in memory, and each segment of
+ * the file holds {@code segmentSize} tuples.
  */
 public class CycleLogOutput implements Output, CanFilterResultValue {
 
     // For use in allocating file data, etc
     private final static Logger logger = LogManager.getLogger(CycleLogOutput.class);
-    private MappedByteBuffer mbb;
-    private RandomAccessFile file;
-    //    private FileBufferConfig config;
     private CycleResultsRLEBufferTarget targetBuffer;
     private final int extentSizeInSpans;
     private final File outputFile;
+    private final CycleLogSegmentWriter writer;
     private Predicate<ResultReadable> filter;
 
     public CycleLogOutput(Activity activity) {
@@ -64,17 +64,24 @@ public class CycleLogOutput implements Output, CanFilterResultValue {
         SimpleConfig conf = new SimpleConfig(activity, "output");
         this.extentSizeInSpans = conf.getInteger("extentSize").orElse(1000);
         this.outputFile = new File(conf.getString("file").orElse(activity.getAlias()) + ".cyclelog");
-
+        int segmentSizeInSpans = conf.getInteger("segmentSize").orElse(64 * 1024);
+        int buffers = conf.getInteger("buffers").orElse(4);
 
         targetBuffer = new CycleResultsRLEBufferTarget(extentSizeInSpans);
         removeIfPresent(outputFile);
+        writer = new CycleLogSegmentWriter(outputFile, segmentSizeInSpans, buffers);
     }
 
     public CycleLogOutput(File outputFile, int extentSizeInSpans) {
+        this(outputFile, extentSizeInSpans, 64 * 1024, 4);
+    }
+
+    public CycleLogOutput(File outputFile, int extentSizeInSpans, int segmentSizeInSpans, int buffers) {
         this.extentSizeInSpans = extentSizeInSpans;
         this.outputFile = outputFile;
         targetBuffer = new CycleResultsRLEBufferTarget(extentSizeInSpans);
         removeIfPresent(outputFile);
+        writer = new CycleLogSegmentWriter(outputFile, segmentSizeInSpans, buffers);
     }
 
     private void removeIfPresent(File filename) {
@@ -104,12 +111,11 @@ public class CycleLogOutput implements Output, CanFilterResultValue {
             if (filter == null || filter.test(cycleResult)) {
                 boolean buffered = targetBuffer.onCycleResult(cycleResult);
                 if (!buffered) {
+                    throw new RuntimeException("Failed to record result in target buffer");
+                }
+                if (targetBuffer.isFull()) {
                     flush();
                     targetBuffer = new CycleResultsRLEBufferTarget(extentSizeInSpans);
-                    boolean bufferedAfterFlush = targetBuffer.onCycleResult(cycleResult);
-                    if (!bufferedAfterFlush) {
-                        throw new RuntimeException("Failed to record result in new target buffer");
-                    }
                 }
             }
         }
@@ -117,28 +123,17 @@ public class CycleLogOutput implements Output, CanFilterResultValue {
 
     private void flush() {
         ByteBuffer nextFileExtent = targetBuffer.toByteBuffer();
-        logger.debug("RLE result extent is " + nextFileExtent.remaining() + " bytes ("
+        logger.trace("RLE result extent is " + nextFileExtent.remaining() + " bytes ("
                 + (nextFileExtent.remaining() / CycleResultsRLEBufferTarget.BYTES)
                 + ") tuples");
-        int targetCapacity = (mbb == null ? 0 : mbb.capacity()) + nextFileExtent.remaining();
-        logger.trace("ensuring capacity for " + targetCapacity);
-        this.ensureCapacity(targetCapacity);
-        mbb.put(nextFileExtent);
-        mbb.force();
-        logger.trace("extent appended");
-        logger.trace("mbb position now at " + mbb.position());
-
+        writer.write(nextFileExtent);
     }
 
     @Override
     public synchronized void close() throws Exception {
         try {
             flush();
-            if (file != null) {
-                file.getFD().sync();
-                file.close();
-                file = null;
-            }
+            writer.close();
         } catch (Throwable t) {
             logger.error("Error while closing CycleLogOutput: " + t, t);
             throw t;
@@ -146,33 +141,11 @@ public class CycleLogOutput implements Output, CanFilterResultValue {
 
     }
 
-    private synchronized void ensureCapacity(long newCapacity) {
-        try {
-            logger.info("resizing marking file from " + (mbb == null ? 0 : mbb.capacity()) + " to " + newCapacity);
-            if (file == null) {
-                file = new RandomAccessFile(outputFile, "rw");
-                file.seek(0);
-                mbb = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, newCapacity);
-            } else {
-                int pos = mbb.position();
-                file.setLength(newCapacity);
-                file.seek(pos);
-                mbb = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, newCapacity);
-                mbb.position(pos);
-            }
-            logger.trace("mbb position now at " + mbb.position());
-
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     @Override
     public String toString() {
         return "CycleLogOutput{" +
-                "mbb=" + mbb +
-                ", file=" + file +
-                ", mbb=" + (mbb == null ? "null" : "(pos=" + mbb.position() + ", limit=" + mbb.limit() + ", capacity=" + mbb.capacity() + ")") +
+                "file=" + outputFile +
+                ", writer=" + writer +
                 '}';
     }
 
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.engine.api.activityapi.cyclelog.outputs.cyclelog;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes RLE extents to a file in the {@link CycleLogFormat segmented cyclelog format} from
+ * a dedicated thread. Extents are handed over through a bounded queue, so the caller only
+ * blocks when the writer has fallen behind by more than the queue capacity. Only one segment
+ * is mapped at a time, and each segment is forced to storage once when it is complete,
+ * rather than on every extent.
+ */
+public class CycleLogSegmentWriter implements Runnable, AutoCloseable {
+    private final static Logger logger = LogManager.getLogger(CycleLogSegmentWriter.class);
+    private final static ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final File outputFile;
+    private final int segmentBytes;
+    private final BlockingQueue<ByteBuffer> extents;
+    private final Thread thread;
+    private volatile Throwable error;
+
+    private RandomAccessFile file;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentIndex = -1;
+    private int segmentSpans;
+    private long segmentMin;
+    private long segmentMax;
+
+    /**
+     * @param outputFile The file to write
+     * @param spansPerSegment The number of RLE tuples in each segment
+     * @param queuedExtents The number of extents which may be queued before callers block
+     */
+    public CycleLogSegmentWriter(File outputFile, int spansPerSegment, int queuedExtents) {
+        this.outputFile = outputFile;
+        this.segmentBytes = CycleLogFormat.segmentBytes(spansPerSegment);
+        this.extents = new ArrayBlockingQueue<>(queuedExtents);
+        this.thread = new Thread(this);
+        thread.setName("cyclelog-writer-" + outputFile.getName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queue an extent of RLE tuples to be written, blocking if the queue is full.
+     *
+     * @param extent A buffer of RLE tuples, which must not be modified after this call
+     */
+    public void write(ByteBuffer extent) {
+        checkError();
+        if (!extent.hasRemaining()) {
+            return;
+        }
+        try {
+            extents.put(extent);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            file = new RandomAccessFile(outputFile, "rw");
+            channel = file.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(CycleLogFormat.HEADER_BYTES);
+            CycleLogFormat.writeHeader(header, segmentBytes);
+            channel.write(header, 0);
+
+            ByteBuffer extent;
+            while ((extent = extents.take()) != END) {
+                append(extent);
+            }
+            completeSegment();
+            file.getFD().sync();
+        } catch (Throwable t) {
+            logger.error("Error while writing cyclelog '" + outputFile + "': " + t, t);
+            error = t;
+            extents.clear();
+        }
+    }
+
+    private void append(ByteBuffer extent) throws Exception {
+        while (extent.hasRemaining()) {
+            if (segment == null || segment.remaining() < CycleLogFormat.SPAN_BYTES) {
+                completeSegment();
+                segmentIndex++;
+                segment = channel.map(FileChannel.MapMode.READ_WRITE,
+                    CycleLogFormat.segmentOffset(segmentBytes, segmentIndex), segmentBytes);
+                segment.position(CycleLogFormat.SEGMENT_HEADER_BYTES);
+                segmentSpans = 0;
+                segmentMin = Long.MAX_VALUE;
+                segmentMax = Long.MIN_VALUE;
+            }
+            int spans = Math.min(extent.remaining(), segment.remaining()) / CycleLogFormat.SPAN_BYTES;
+            int start = extent.position();
+            for (int i = 0; i < spans; i++) {
+                int at = start + (i * CycleLogFormat.SPAN_BYTES);
+                segmentMin = Math.min(segmentMin, extent.getLong(at));
+                segmentMax = Math.max(segmentMax, extent.getLong(at + Long.BYTES));
+            }
+            int end = start + (spans * CycleLogFormat.SPAN_BYTES);
+            segment.put(extent.duplicate().limit(end));
+            extent.position(end);
+            segmentSpans += spans;
+        }
+    }
+
+    private void completeSegment() {
+        if (segment != null) {
+            CycleLogFormat.writeSegmentHeader(segment, segmentSpans, segmentMin, segmentMax);
+            segment.force();
+            logger.trace("completed cyclelog segment " + segmentIndex + " with " + segmentSpans + " spans");
+            segment = null;
+        }
+    }
+
+    private void checkError() {
+        if (error != null) {
+            throw new RuntimeException("Unable to write cyclelog '" + outputFile + "': " + error, error);
+        }
+    }
+
+    /**
+     * Write any queued extents and the last segment, and close the file.
+     */
+    @Override
+    public void close() throws Exception {
+        if (thread.isAlive()) {
+            extents.put(END);
+            thread.join();
+        }
+        if (file != null) {
+            file.close();
+            file = null;
+        }
+        checkError();
+    }
+
+    @Override
+    public String toString() {
+        return "CycleLogSegmentWriter{" +
+            "file=" + outputFile +
+            ", segmentBytes=" + segmentBytes +
+            ", segment=" + segmentIndex +
+            ", queued=" + extents.size() +
+            '}';
+    }
+}
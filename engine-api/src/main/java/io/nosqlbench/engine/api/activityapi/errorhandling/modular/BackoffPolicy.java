@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.engine.api.activityapi.errorhandling.modular;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A backoff policy decides how long to wait before the next try of an operation which failed
+ * with a retryable error. Policies are set on an {@link ErrorDetail} by the {@code backoff}
+ * error handler, and are applied by the actions which retry operations.
+ */
+public interface BackoffPolicy {
+
+    /**
+     * @param tries          The number of tries of the operation so far, which is 1 after the first failure
+     * @param lastDelayNanos The delay which was used before the last try, or 0 if there was none
+     * @return The number of nanoseconds to wait before the next try
+     */
+    long nextDelayNanos(int tries, long lastDelayNanos);
+
+    /**
+     * Wait the same time before every retry.
+     */
+    static BackoffPolicy fixed(long delayNanos) {
+        return (tries, lastDelayNanos) -> delayNanos;
+    }
+
+    /**
+     * Double the upper bound of the wait with each try, up to a maximum, and wait a random
+     * time between zero and that bound. This is exponential backoff with full jitter.
+     */
+    static BackoffPolicy exponential(long baseNanos, long maxNanos) {
+        return (tries, lastDelayNanos) -> {
+            int shift = Math.min(Math.max(tries - 1, 0), 62);
+            long bound = (baseNanos > (maxNanos >> shift)) ? maxNanos : Math.min(maxNanos, baseNanos << shift);
+            return ThreadLocalRandom.current().nextLong(bound + 1);
+        };
+    }
+
+    /**
+     * Wait a random time between the base and three times the last wait, up to a maximum.
+     * This is decorrelated jitter, which spreads out the retries of clients which failed together.
+     */
+    static BackoffPolicy decorrelated(long baseNanos, long maxNanos) {
+        return (tries, lastDelayNanos) -> {
+            long upper = Math.max(baseNanos, Math.min(maxNanos, lastDelayNanos * 3));
+            return Math.min(maxNanos, ThreadLocalRandom.current().nextLong(baseNanos, upper + 1));
+        };
+    }
+}
@@ -20,6 +20,7 @@ public class ErrorDetail {
     public final Retry retryable;
     public final int resultCode;
     public final String name;
+    public final BackoffPolicy backoff;
 
     public boolean isRetryable() {
         return retryable == Retry.DoRetry;
@@ -32,23 +33,39 @@ public class ErrorDetail {
     }
 
     public ErrorDetail(String name, Retry retryable, int resultCode) {
+        this(name, retryable, resultCode, null);
+    }
+
+    public ErrorDetail(String name, Retry retryable, int resultCode, BackoffPolicy backoff) {
         this.name = name;
         this.resultCode = resultCode;
         this.retryable = retryable;
+        this.backoff = backoff;
     }
 
     public ErrorDetail withResultCode(int resultCode) {
         if (this.resultCode == resultCode) {
             return this;
         }
-        return new ErrorDetail(name, this.retryable, resultCode);
+        return new ErrorDetail(name, this.retryable, resultCode, this.backoff);
     }
 
     public ErrorDetail withRetryable() {
         if (this.retryable == Retry.DoRetry) {
             return this;
         }
-        return new ErrorDetail(name, Retry.DoRetry, this.resultCode);
+        return new ErrorDetail(name, Retry.DoRetry, this.resultCode, this.backoff);
+    }
+
+    /**
+     * @param backoff The policy which decides how long to wait before the op is retried
+     * @return an error detail with the given backoff policy
+     */
+    public ErrorDetail withBackoff(BackoffPolicy backoff) {
+        if (this.backoff == backoff) {
+            return this;
+        }
+        return new ErrorDetail(name, this.retryable, this.resultCode, backoff);
     }
 
     public static ErrorDetail OK = new ErrorDetail("OK",Retry.Unset, 0);
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.engine.api.activityapi.errorhandling.modular;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>An activity-wide limit on retries, so that retries can not become a multiple of the
+ * primary op rate when the target system is overloaded. It is configured with the
+ * {@code retrybudget} activity parameter, as {@code ratio[:minpersec[:burst]]}.</p>
+ *
+ * <ul>
+ *     <li>ratio - the number of retries which are allowed for each primary op, like 0.2</li>
+ *     <li>minpersec - the number of retries which are allowed each second regardless of the
+ *     primary ops, so that retries are possible at low rates. The default is 10.</li>
+ *     <li>burst - the most retries which can be saved up, so that a long healthy period does not
+ *     allow a storm of retries later. The default is 100.</li>
+ * </ul>
+ *
+ * <p>Primary ops are only counted on the hot path, and the balance is updated when a retry is
+ * requested.</p>
+ */
+public class RetryBudget {
+
+    private final static RetryBudget UNLIMITED = new RetryBudget(false, 0.0d, 0.0d, 0.0d);
+
+    private final boolean limited;
+    private final double ratio;
+    private final double minPerNano;
+    private final double burst;
+    private final LongAdder primaries = new LongAdder();
+
+    private long countedPrimaries;
+    private long lastRefillNanos = System.nanoTime();
+    private double balance;
+
+    private RetryBudget(boolean limited, double ratio, double minPerSecond, double burst) {
+        this.limited = limited;
+        this.ratio = ratio;
+        this.minPerNano = minPerSecond / 1_000_000_000.0d;
+        this.burst = burst;
+    }
+
+    public RetryBudget(double ratio, double minPerSecond, double burst) {
+        this(true, ratio, minPerSecond, burst);
+    }
+
+    public static RetryBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * @param spec A retry budget in the form {@code ratio[:minpersec[:burst]]}
+     * @return a retry budget
+     */
+    public static RetryBudget of(String spec) {
+        String[] parts = spec.split(":");
+        try {
+            double ratio = Double.parseDouble(parts[0]);
+            double minPerSecond = parts.length > 1 ? Double.parseDouble(parts[1]) : 10.0d;
+            double burst = parts.length > 2 ? Double.parseDouble(parts[2]) : 100.0d;
+            if (parts.length > 3 || ratio < 0.0d || minPerSecond < 0.0d || burst < 1.0d) {
+                throw new IllegalArgumentException();
+            }
+            return new RetryBudget(ratio, minPerSecond, burst);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("retrybudget must be in the form ratio[:minpersec[:burst]], like 0.2 or 0.2:10:100, not '" + spec + "'");
+        }
+    }
+
+    /**
+     * Count the first try of an op.
+     */
+    public void onPrimary() {
+        if (limited) {
+            primaries.increment();
+        }
+    }
+
+    /**
+     * @return true if a retry is allowed, in which case it is taken from the budget
+     */
+    public boolean tryRetry() {
+        if (!limited) {
+            return true;
+        }
+        synchronized (this) {
+            long now = System.nanoTime();
+            long counted = primaries.sum();
+            balance = Math.min(burst,
+                balance + ((counted - countedPrimaries) * ratio) + ((now - lastRefillNanos) * minPerNano));
+            countedPrimaries = counted;
+            lastRefillNanos = now;
+            if (balance >= 1.0d) {
+                balance -= 1.0d;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return limited ? "RetryBudget{ratio=" + ratio + ", minpersec=" + (minPerNano * 1_000_000_000.0d) + ", burst=" + burst + "}"
+            : "RetryBudget{unlimited}";
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.engine.api.activityapi.errorhandling.modular.handlers;
+
+import io.nosqlbench.api.config.standard.ConfigModel;
+import io.nosqlbench.api.config.standard.NBConfigModel;
+import io.nosqlbench.api.config.standard.NBMapConfigurable;
+import io.nosqlbench.api.config.standard.Param;
+import io.nosqlbench.api.engine.util.Unit;
+import io.nosqlbench.engine.api.activityapi.errorhandling.modular.BackoffPolicy;
+import io.nosqlbench.engine.api.activityapi.errorhandling.modular.ErrorDetail;
+import io.nosqlbench.engine.api.activityapi.errorhandling.modular.ErrorHandler;
+import io.nosqlbench.nb.annotations.Service;
+
+import java.util.Map;
+
+/**
+ * The backoff error handler sets the policy for how long to wait before an op is retried. It
+ * does not make an error retryable by itself, so it is used together with the retry handler,
+ * like {@code errors=Overloaded.*:retry,handler=backoff type=decorrelated base=5ms max=2s}.
+ *
+ * <ul>
+ *     <li>type - one of fixed, exponential (with full jitter), or decorrelated (jitter).
+ *     The default is exponential.</li>
+ *     <li>base - the fixed wait, or the smallest bound of the jittered waits. The default is 10ms.</li>
+ *     <li>max - the largest wait. The default is 1s.</li>
+ * </ul>
+ */
+@Service(value = ErrorHandler.class, selector = "backoff")
+public class BackoffErrorHandler implements ErrorHandler, NBMapConfigurable {
+
+    private BackoffPolicy policy = BackoffPolicy.exponential(10_000_000L, 1_000_000_000L);
+
+    @Override
+    public ErrorDetail handleError(String name, Throwable t, long cycle, long durationInNanos, ErrorDetail detail) {
+        return detail.withBackoff(policy);
+    }
+
+    @Override
+    public void applyConfig(Map<String, ?> providedConfig) {
+        String type = providedConfig.containsKey("type") ? providedConfig.get("type").toString() : "exponential";
+        long base = nanosFor(providedConfig, "base", "10ms");
+        long max = nanosFor(providedConfig, "max", "1s");
+        if (max < base) {
+            throw new RuntimeException("The backoff max (" + max + "ns) must not be less than the base (" + base + "ns)");
+        }
+        switch (type) {
+            case "fixed":
+                this.policy = BackoffPolicy.fixed(base);
+                break;
+            case "exponential":
+                this.policy = BackoffPolicy.exponential(base, max);
+                break;
+            case "decorrelated":
+                this.policy = BackoffPolicy.decorrelated(base, max);
+                break;
+            default:
+                throw new RuntimeException("The backoff type must be one of fixed, exponential, or decorrelated, not '" + type + "'");
+        }
+    }
+
+    private static long nanosFor(Map<String, ?> config, String name, String defaultValue) {
+        String spec = config.containsKey(name) ? config.get(name).toString() : defaultValue;
+        return Unit.nanosecondsFor(spec)
+            .orElseThrow(() -> new RuntimeException("Unable to parse backoff " + name + " duration '" + spec + "'"));
+    }
+
+    @Override
+    public NBConfigModel getConfigModel() {
+        return ConfigModel.of(this.getClass())
+            .add(Param.defaultTo("type", "exponential"))
+            .add(Param.defaultTo("base", "10ms"))
+            .add(Param.defaultTo("max", "1s"))
+            .asReadOnly();
+    }
+}
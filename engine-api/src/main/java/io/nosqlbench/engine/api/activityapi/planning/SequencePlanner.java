@@ -44,7 +44,7 @@ public class SequencePlanner<T> {
         this.ratios.add(func);
     }
 
-    public OpSequence<T> resolve() {
+    public Sequence<T> resolve() {
         switch (sequencerType) {
             case bucket:
                 logger.trace("sequencing elements by simple round-robin");
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.activityapi.planning;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import io.nosqlbench.api.config.NBNamedElement;
+import io.nosqlbench.api.engine.metrics.ActivityMetrics;
+import io.nosqlbench.engine.api.activityapi.ratelimits.GcraRateLimiter;
+import io.nosqlbench.engine.api.activityapi.ratelimits.RateSpec;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * <p>An op sequence in which some of the ops have their own rate limits, as set by the <em>oprate</em>
+ * op template field. What happens when the op which a cycle lands on is not due yet depends on
+ * the mode:
+ * <DL>
+ * <DT>wait</DT>
+ * <DD>The calling thread blocks until the op is due, as it does for the cycle rate limiter.</DD>
+ * <DT>defer</DT>
+ * <DD>The cycle takes the next op in the sequence which is due or has no limit, so the thread
+ * keeps working on the other ops and the throttled op is left to a later cycle. Only if none of the
+ * ops are due does the thread wait for the op which the cycle landed on.</DD>
+ * </DL>
+ * </p>
+ *
+ * <p>For each op, <em>oprate.&lt;name&gt;</em> meters the ops which were dispatched, so the achieved
+ * rate of each op can be seen next to its limit, <em>oprate.&lt;name&gt;.deferred</em> counts the
+ * cycles which landed on the op while it was not due, and <em>oprate.&lt;name&gt;.wait</em> times how long
+ * threads blocked until the op was due. Since {@link #apply(long)} may block, callers should select the op
+ * before they start timing the cycle.</p>
+ *
+ * @param <T> The type of element which is sequenced
+ */
+public class ThrottledSequence<T> implements OpSequence<T> {
+
+    public enum Mode {
+        wait,
+        defer
+    }
+
+    private final Sequence<T> sequence;
+    private final List<T> elems;
+    private final int[] seq;
+    private final Mode mode;
+    private final GcraRateLimiter[] limiters;
+    private final Meter[] dispatched;
+    private final Counter[] deferred;
+    private final Timer[] waits;
+
+    /**
+     * @param named the activity which the metrics belong to
+     * @param sequence the sequence to throttle
+     * @param names the names of the ops, in the same order as {@link Sequence#getOps()}
+     * @param rateSpecs the rate limit of each op, or null for an op without one
+     * @param mode what to do when an op is not due
+     * @param hdrDigits the significant digits of the wait timers
+     */
+    public ThrottledSequence(NBNamedElement named, Sequence<T> sequence, List<String> names,
+                             List<RateSpec> rateSpecs, Mode mode, int hdrDigits) {
+        this(sequence, mode, new GcraRateLimiter[rateSpecs.size()], new Meter[names.size()], new Counter[names.size()],
+            new Timer[names.size()]);
+        for (int i = 0; i < names.size(); i++) {
+            RateSpec spec = rateSpecs.get(i);
+            limiters[i] = (spec != null) ? new GcraRateLimiter(spec) : null;
+            dispatched[i] = ActivityMetrics.meter(named, "oprate." + names.get(i));
+            deferred[i] = ActivityMetrics.counter(named, "oprate." + names.get(i) + ".deferred");
+            waits[i] = ActivityMetrics.timer(named, "oprate." + names.get(i) + ".wait", hdrDigits);
+        }
+    }
+
+    private ThrottledSequence(Sequence<T> sequence, Mode mode, GcraRateLimiter[] limiters,
+                              Meter[] dispatched, Counter[] deferred, Timer[] waits) {
+        this.sequence = sequence;
+        this.elems = sequence.getOps();
+        this.seq = sequence.getSequence();
+        this.mode = mode;
+        this.limiters = limiters;
+        this.dispatched = dispatched;
+        this.deferred = deferred;
+        this.waits = waits;
+    }
+
+    @Override
+    public T apply(long selector) {
+        int position = (int) (selector % seq.length);
+        int index = seq[position];
+        GcraRateLimiter limiter = limiters[index];
+        if (limiter == null) {
+            return dispatch(index);
+        }
+        if (mode == Mode.defer) {
+            if (limiter.tryAcquire()) {
+                return dispatch(index);
+            }
+            deferred[index].inc();
+            for (int offset = 1; offset < seq.length; offset++) {
+                int alternate = seq[(position + offset) % seq.length];
+                GcraRateLimiter alternateLimiter = limiters[alternate];
+                if (alternateLimiter == null || (alternate != index && alternateLimiter.tryAcquire())) {
+                    return dispatch(alternate);
+                }
+            }
+        }
+        long waitStartedAt = System.nanoTime();
+        limiter.maybeWaitForOp();
+        waits[index].update(System.nanoTime() - waitStartedAt, TimeUnit.NANOSECONDS);
+        return dispatch(index);
+    }
+
+    private T dispatch(int index) {
+        dispatched[index].mark();
+        return elems.get(index);
+    }
+
+    @Override
+    public List<T> getOps() {
+        return elems;
+    }
+
+    @Override
+    public int[] getSequence() {
+        return seq;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    @Override
+    public <U> ThrottledSequence<U> transform(Function<T, U> func) {
+        return new ThrottledSequence<>(sequence.transform(func), mode, limiters, dispatched, deferred, waits);
+    }
+
+    @Override
+    public String toString() {
+        return mode + ":" + Arrays.stream(limiters)
+            .map(l -> l == null ? "-" : String.valueOf(l.getRateSpec().getRate()))
+            .collect(Collectors.joining(",", "[", "]")) + sequence;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.activityapi.ratelimits;
+
+import com.codahale.metrics.Gauge;
+import io.nosqlbench.api.config.NBNamedElement;
+import io.nosqlbench.api.engine.metrics.ActivityMetrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>An open loop schedule for cycles. Each cycle has an intended start time which is set by the
+ * arrival rate alone, no matter how long earlier cycles took, so a cycle which could not be started
+ * on time keeps its intended start time. Measuring from this time, rather than from when a
+ * thread was free to start the cycle, includes the queueing that a real client would see at the
+ * same arrival rate.</p>
+ *
+ * <p>With <em>uniform</em> arrivals, intended start times are evenly spaced at the arrival rate. With
+ * <em>poisson</em> arrivals, the gaps between intended start times are drawn from an exponential
+ * distribution with the same mean. Either way, the times are handed out in the order that threads
+ * ask for them, so the next arrival goes to whichever thread is free first. This is close to but not
+ * exactly the cycle order when there are several threads, and it does not depend on the stride, since
+ * each thread takes a whole stride of cycles from the input at once.</p>
+ *
+ * <p>The schedule starts when the first cycle asks for its start time. When the rate is changed, the
+ * schedule continues from the current time at the new rate, so cycles which are behind stay behind
+ * by the same number of cycles. The <em>&lt;label&gt;.backlog</em> gauge is the number of cycles which
+ * are due by the arrival rate, but which have not been dispatched yet.</p>
+ */
+public class ArrivalSchedule {
+
+    public enum Arrivals {
+        uniform,
+        poisson
+    }
+
+    private final AtomicLong nextUniformPosition = new AtomicLong();
+    private final AtomicLong nextPoissonArrival = new AtomicLong();
+    private final LongAdder dispatched = new LongAdder();
+    private volatile Arrivals arrivals;
+    private volatile double opsPerSec;
+    private volatile Plan plan;
+
+    /**
+     * The time at which the schedule was at a given position, in cycles from the first cycle,
+     * and the rate from that time on.
+     */
+    private record Plan(long startNanos, double position, double nanosPerOp) {
+        double positionAt(long nanos) {
+            return position + (nanos - startNanos) / nanosPerOp;
+        }
+
+        long nanosAt(double cyclePosition) {
+            return startNanos + (long) ((cyclePosition - position) * nanosPerOp);
+        }
+    }
+
+    public ArrivalSchedule(NBNamedElement named, String label, double opsPerSec, Arrivals arrivals) {
+        apply(opsPerSec, arrivals);
+        ActivityMetrics.gauge(named, label + ".backlog", (Gauge<Long>) this::getBacklog);
+        ActivityMetrics.gauge(named, label + ".config.arrivalrate", (Gauge<Double>) this::getRate);
+    }
+
+    /**
+     * Change the rate or the distribution of arrivals. If the schedule has started, it continues
+     * from now at the new rate.
+     */
+    public synchronized void apply(double opsPerSec, Arrivals arrivals) {
+        if (opsPerSec <= 0.0D) {
+            throw new RuntimeException("The arrival rate must be greater than zero, not " + opsPerSec);
+        }
+        if (opsPerSec == this.opsPerSec && arrivals == this.arrivals) {
+            return;
+        }
+        Plan current = plan;
+        if (current != null) {
+            long now = System.nanoTime();
+            plan = new Plan(now, current.positionAt(now), 1_000_000_000.0D / opsPerSec);
+        }
+        this.opsPerSec = opsPerSec;
+        this.arrivals = arrivals;
+    }
+
+    /**
+     * Take the next arrival from the schedule.
+     * @return the intended start time of the next arrival, in terms of {@link System#nanoTime()}
+     */
+    public long nextIntendedStart() {
+        Plan current = started();
+        if (arrivals == Arrivals.poisson) {
+            double gap = -Math.log(1.0D - ThreadLocalRandom.current().nextDouble()) * current.nanosPerOp();
+            return nextPoissonArrival.getAndAdd((long) gap);
+        }
+        return current.nanosAt(nextUniformPosition.getAndIncrement());
+    }
+
+    /**
+     * Take the next arrival from the schedule, block until it is due, and count it as dispatched.
+     *
+     * @return the intended start time of the arrival, in terms of {@link System#nanoTime()}
+     */
+    public long waitForNextArrival() {
+        long intendedAt = nextIntendedStart();
+        long wait = intendedAt - System.nanoTime();
+        while (wait > 0L) {
+            LockSupport.parkNanos(wait);
+            wait = intendedAt - System.nanoTime();
+        }
+        dispatched.increment();
+        return intendedAt;
+    }
+
+    /**
+     * @return the number of cycles which are due by the arrival rate but have not been dispatched
+     */
+    public long getBacklog() {
+        Plan current = plan;
+        if (current == null) {
+            return 0L;
+        }
+        long due = (long) Math.floor(current.positionAt(System.nanoTime())) + 1L;
+        return Math.max(0L, due - dispatched.sum());
+    }
+
+    public double getRate() {
+        return opsPerSec;
+    }
+
+    public Arrivals getArrivals() {
+        return arrivals;
+    }
+
+    private Plan started() {
+        Plan current = plan;
+        if (current == null) {
+            synchronized (this) {
+                if (plan == null) {
+                    long now = System.nanoTime();
+                    nextPoissonArrival.set(now);
+                    plan = new Plan(now, 0.0D, 1_000_000_000.0D / opsPerSec);
+                }
+                current = plan;
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return "arrivals:" + arrivals + " rate:" + opsPerSec;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.activityapi.ratelimits;
+
+import io.nosqlbench.api.config.NBNamedElement;
+import io.nosqlbench.nb.annotations.Service;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h2>Synopsis</h2>
+ *
+ * This TokenPool schedules callers directly against the system nano clock
+ * instead of moving tokens between pools with a filler thread. There are no
+ * locks and no monitor waits on the calling path. Each caller claims its
+ * slot with an atomic add and then parks until that slot is due.
+ *
+ * <h2>Scheduling state</h2>
+ * <p>Two atomic timestamps are kept:</p>
+ * <ul>
+ *     <li><em>ticks</em> - the nominal schedule. This is advanced by the
+ *     nanos per op for every op taken. The distance between the current
+ *     time and this value is the accumulated wait time, which is the same
+ *     quantity as <em>active + waiting</em> in the {@link ThreadDrivenTokenPool}.</li>
+ *     <li><em>gate</em> - the burst schedule. This is advanced by
+ *     <em>nanos per op / burst ratio</em> for every op taken, and is never
+ *     allowed to trail the current time by more than the active pool size.
+ *     It bounds how fast ops may start when the nominal schedule is behind.</li>
+ * </ul>
+ *
+ * <p>An op may start at the later of its nominal slot and its gate slot.
+ * When callers keep up with the rate, the nominal slot is always later, and
+ * the pool acts as a strict rate limiter. When callers fall behind, the
+ * gate allows them to catch up at up to <em>rate * burst ratio</em> until
+ * the nominal schedule is current again. With a burst ratio of 1.0, lost
+ * time is never recovered, and it remains visible as wait time.</p>
+ *
+ * <p>The value returned from the blocking methods is the lateness of the
+ * op relative to its nominal slot, which is what the motors add to the
+ * service time for coordinated omission accounting.</p>
+ */
+@Service(value = TokenPool.class, selector = "cas")
+public class CasTokenPool implements TokenPool {
+
+    private final static Logger logger = LogManager.getLogger(CasTokenPool.class);
+
+    public static final double MIN_CONCURRENT_OPS = 2;
+
+    private final AtomicLong ticks = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong gate = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder blocks = new LongAdder();
+
+    private volatile RateSpec rateSpec;
+    private volatile long nanosPerOp;
+    private volatile long burstNanosPerOp;
+    private volatile long maxActivePool;
+    private volatile double burstRatio;
+
+    public CasTokenPool() {
+    }
+
+    public CasTokenPool(RateSpec rateSpec, NBNamedElement named) {
+        apply(named, rateSpec);
+        logger.debug("initialized token pool: " + this + " for rate:" + rateSpec);
+    }
+
+    @Override
+    public TokenPool apply(NBNamedElement named, RateSpec rateSpec) {
+        this.rateSpec = rateSpec;
+        this.nanosPerOp = rateSpec.getNanosPerOp();
+        this.burstRatio = rateSpec.getBurstRatio();
+        this.burstNanosPerOp = (long) (nanosPerOp / burstRatio);
+        this.maxActivePool = Math.max((long) 1E6, (long) ((double) nanosPerOp * MIN_CONCURRENT_OPS));
+        long now = System.nanoTime();
+        ticks.compareAndSet(Long.MIN_VALUE, now);
+        gate.compareAndSet(Long.MIN_VALUE, now);
+        return this;
+    }
+
+    @Override
+    public double getBurstRatio() {
+        return burstRatio;
+    }
+
+    /**
+     * Take up to amt tokens which are immediately available, without blocking.
+     *
+     * @param amt tokens requested
+     * @return actual number of tokens removed, greater to or equal to zero
+     */
+    @Override
+    public long takeUpTo(long amt) {
+        while (true) {
+            long current = ticks.get();
+            long available = Math.min(System.nanoTime() - current, maxActivePool);
+            if (available <= 0L) {
+                return 0L;
+            }
+            long take = Math.min(amt, available);
+            if (ticks.compareAndSet(current, current + take)) {
+                return take;
+            }
+        }
+    }
+
+    @Override
+    public long blockAndTake() {
+        return blockAndTake(nanosPerOp);
+    }
+
+    /**
+     * Claim the next slot of the given size on both the nominal and burst
+     * schedules, and park until it is due.
+     *
+     * @param tokens the number of nanos of schedule to claim
+     * @return the lateness of the claimed slot with respect to the nominal schedule, in nanoseconds
+     */
+    @Override
+    public long blockAndTake(long tokens) {
+        long slot = ticks.getAndAdd(tokens);
+        long burstTokens = (tokens == nanosPerOp) ? burstNanosPerOp : (long) (tokens / burstRatio);
+        long activePool = maxActivePool;
+        long now = System.nanoTime();
+        long gateSlot = gate.accumulateAndGet(
+            now, (prev, at) -> Math.max(prev, at - activePool) + burstTokens) - burstTokens;
+
+        long startAt = Math.max(slot, gateSlot);
+        long remaining = startAt - now;
+        if (remaining > 0L) {
+            blocks.increment();
+            while (remaining > 0L) {
+                LockSupport.parkNanos(remaining);
+                remaining = startAt - System.nanoTime();
+            }
+            return startAt - slot;
+        }
+        return now - slot;
+    }
+
+    @Override
+    public long getWaitTime() {
+        return Math.max(System.nanoTime() - ticks.get(), 0L);
+    }
+
+    @Override
+    public long getWaitPool() {
+        return Math.max(getWaitTime() - maxActivePool, 0L);
+    }
+
+    @Override
+    public long getActivePool() {
+        return Math.min(getWaitTime(), maxActivePool);
+    }
+
+    @Override
+    public RateSpec getRateSpec() {
+        return rateSpec;
+    }
+
+    @Override
+    public long restart() {
+        long now = System.nanoTime();
+        long wait = Math.max(now - ticks.getAndSet(now), 0L);
+        gate.set(now);
+        return wait;
+    }
+
+    @Override
+    public void start() {
+        long now = System.nanoTime();
+        ticks.set(now);
+        gate.set(now);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "{ active:%d, max:%d, wait_ns:%,d, blocks:%,d }",
+            getActivePool(), maxActivePool, getWaitPool(), blocks.sum()
+        );
+    }
+}
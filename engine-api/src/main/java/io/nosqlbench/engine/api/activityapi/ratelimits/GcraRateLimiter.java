@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.activityapi.ratelimits;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>A lock-free rate limiter after the generic cell rate algorithm. It keeps only the theoretical
+ * time of the next op, which each permit moves forward by the nanoseconds per op. Unlike the
+ * {@link HybridRateLimiter}, it can be asked for a permit without blocking, with {@link #tryAcquire()},
+ * so that a caller can do something else when an op is not due yet.</p>
+ *
+ * <p>Ops may run ahead of schedule by (burstRatio - 1) * {@value #BURST_WINDOW_OPS} op intervals, so the
+ * burst after an idle period is the same number of ops at any rate. The default burst ratio of 1.1 lets
+ * 10 ops run back to back after the op which was due. Ops which were not taken on time are not made up
+ * for later.</p>
+ */
+public class GcraRateLimiter implements RateLimiter {
+
+    /**
+     * The number of op intervals which the burst ratio is applied to.
+     */
+    public static final int BURST_WINDOW_OPS = 100;
+
+    private final AtomicLong nextAt = new AtomicLong();
+    private volatile RateSpec rateSpec;
+    private volatile long nanosPerOp;
+    private volatile long toleranceNanos;
+    private volatile long startTime;
+
+    public GcraRateLimiter(RateSpec rateSpec) {
+        applyRateSpec(rateSpec);
+    }
+
+    /**
+     * Take a permit if an op is due now.
+     * @return true if a permit was taken, false if the op should not run yet
+     */
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        while (true) {
+            long next = nextAt.get();
+            if (next - toleranceNanos > now) {
+                return false;
+            }
+            if (nextAt.compareAndSet(next, Math.max(next, now) + nanosPerOp)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public long maybeWaitForOp() {
+        return maybeWaitForOps(1);
+    }
+
+    @Override
+    public long maybeWaitForOps(int ops) {
+        long now = System.nanoTime();
+        long scheduled;
+        while (true) {
+            long next = nextAt.get();
+            scheduled = Math.max(next, now);
+            if (nextAt.compareAndSet(next, scheduled + nanosPerOp * ops)) {
+                break;
+            }
+        }
+        long due = scheduled - toleranceNanos;
+        long wait = due - now;
+        while (wait > 0L) {
+            LockSupport.parkNanos(wait);
+            wait = due - System.nanoTime();
+        }
+        return 0L;
+    }
+
+    /**
+     * @return 0, since ops which were not taken on time are dropped from the schedule rather than owed
+     */
+    @Override
+    public long getTotalWaitTime() {
+        return 0L;
+    }
+
+    @Override
+    public long getWaitTime() {
+        return 0L;
+    }
+
+    @Override
+    public synchronized void applyRateSpec(RateSpec spec) {
+        this.rateSpec = spec;
+        this.nanosPerOp = spec.getNanosPerOp();
+        this.toleranceNanos = (long) (Math.max(0.0D, spec.getBurstRatio() - 1.0D) * BURST_WINDOW_OPS * nanosPerOp);
+        if (startTime == 0L || spec.isRestart()) {
+            start();
+        }
+    }
+
+    @Override
+    public long getStartTime() {
+        return startTime;
+    }
+
+    @Override
+    public RateSpec getRateSpec() {
+        return rateSpec;
+    }
+
+    @Override
+    public synchronized void start() {
+        this.startTime = System.nanoTime();
+        nextAt.set(startTime);
+    }
+
+    @Override
+    public String toString() {
+        return "gcra " + rateSpec;
+    }
+}
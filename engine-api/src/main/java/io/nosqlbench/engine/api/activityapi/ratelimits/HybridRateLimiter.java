@@ -120,6 +120,11 @@ public class HybridRateLimiter implements Startable, RateLimiter {
         return tokens.blockAndTake();
     }
 
+    @Override
+    public long maybeWaitForOps(int ops) {
+        return tokens.blockAndTake(ops * rateSpec.getNanosPerOp());
+    }
+
     @Override
     public long getTotalWaitTime() {
         return this.cumulativeWaitTimeNanos.get() + getWaitTime();
@@ -146,8 +151,14 @@ public class HybridRateLimiter implements Startable, RateLimiter {
             return;
         }
 
+        if (this.tokens != null && !this.rateSpec.getTokenPool().equals(updatingRateSpec.getTokenPool())) {
+            logger.warn("The token pool type can not be changed once a rate limiter is running. Keeping '"
+                + this.rateSpec.getTokenPool() + "' instead of '" + updatingRateSpec.getTokenPool() + "'.");
+            updatingRateSpec = updatingRateSpec.withTokenPool(this.rateSpec.getTokenPool());
+        }
+
         this.rateSpec = updatingRateSpec;
-        this.tokens = (this.tokens == null) ? new ThreadDrivenTokenPool(rateSpec, named) : this.tokens.apply(named, rateSpec);
+        this.tokens = (this.tokens == null) ? createTokenPool(rateSpec) : this.tokens.apply(named, rateSpec);
 //        this.filler = (this.filler == null) ? new TokenFiller(rateSpec, activityDef) : filler.apply(rateSpec);
 //        this.tokens = this.filler.getTokenPool();
 
@@ -159,6 +170,15 @@ public class HybridRateLimiter implements Startable, RateLimiter {
     }
 
 
+    private TokenPool createTokenPool(RateSpec rateSpec) {
+        if (rateSpec.getTokenPool().equals(RateSpec.DEFAULT_TOKEN_POOL)) {
+            return new ThreadDrivenTokenPool(rateSpec, named);
+        }
+        TokenPool pool = TokenPool.FINDER.getOrThrow(rateSpec.getTokenPool()).apply(named, rateSpec);
+        logger.debug("initialized token pool: " + pool + " for rate:" + rateSpec);
+        return pool;
+    }
+
     protected void init(NBNamedElement activityDef) {
         this.delayGauge = ActivityMetrics.gauge(activityDef, label + ".waittime", new RateLimiters.WaitTimeGauge(this));
         this.avgRateGauge = ActivityMetrics.gauge(activityDef, label + ".config.cyclerate", new RateLimiters.RateGauge(this));
@@ -34,6 +34,17 @@ public interface RateLimiter extends Startable {
      */
     long maybeWaitForOp();
 
+    /**
+     * Block until it is time for the first of a group of operations, taking
+     * the time for all of them from the rate limiter at once. The caller is
+     * then responsible for spacing the operations in the group according
+     * to the nanoseconds per op.
+     * @param ops The number of operations to take time for
+     * @return the waittime as nanos behind schedule for the first op in the group.
+     * The returned value is required to be greater than or equal to zero.
+     */
+    long maybeWaitForOps(int ops);
+
     /**
      * Return the total number of nanoseconds behind schedule
      * that this rate limiter is, including the full history across all
@@ -105,6 +105,7 @@ public class RateSpec {
     public static final double DEFAULT_RATE_OPS_S = 1.0D;
     public static final double DEFAULT_BURST_RATIO = 1.1D;
     public static Verb DEFAULT_VERB = Verb.start;
+    public static final String DEFAULT_TOKEN_POOL = "threaded";
 
     /**
      * Target rate in Operations Per Second
@@ -112,6 +113,10 @@ public class RateSpec {
     public double opsPerSec = DEFAULT_RATE_OPS_S;
     public double burstRatio = DEFAULT_BURST_RATIO;
     public Verb verb = Verb.start;
+    /**
+     * The selector of the {@link TokenPool} implementation which backs the rate limiter
+     */
+    public String tokenPool = DEFAULT_TOKEN_POOL;
 
     public enum Verb {
         /**
@@ -185,19 +190,25 @@ public class RateSpec {
         double burstPortion = Math.abs(br - ((long) br));
         String burstfmt = (burstPortion > 0.001D) ? String.format("%,.3f", br) : String.format("%,d", (long) br);
 
-        return String.format("{ rate:'%s', burstRatio:'%.3f', SOPSS:'%s', BOPSS:'%s', verb:'%s' }", ratefmt, burstRatio, ratefmt, burstfmt, verb);
+        return String.format("{ rate:'%s', burstRatio:'%.3f', SOPSS:'%s', BOPSS:'%s', verb:'%s', tokenpool:'%s' }", ratefmt, burstRatio, ratefmt, burstfmt, verb, tokenPool);
     }
 
     public RateSpec withOpsPerSecond(double rate) {
-        return new RateSpec(rate, this.burstRatio);
+        return new RateSpec(rate, this.burstRatio).withTokenPool(this.tokenPool);
     }
 
     public RateSpec withBurstRatio(double burstRatio) {
-        return new RateSpec(this.opsPerSec, burstRatio);
+        return new RateSpec(this.opsPerSec, burstRatio).withTokenPool(this.tokenPool);
     }
 
     public RateSpec withVerb(Verb verb) {
-        return new RateSpec(this.opsPerSec, this.burstRatio, verb);
+        return new RateSpec(this.opsPerSec, this.burstRatio, verb).withTokenPool(this.tokenPool);
+    }
+
+    public RateSpec withTokenPool(String tokenPool) {
+        RateSpec spec = new RateSpec(this.opsPerSec, this.burstRatio, this.verb);
+        spec.tokenPool = tokenPool;
+        return spec;
     }
 
 
@@ -221,7 +232,8 @@ public class RateSpec {
         RateSpec rateSpec = (RateSpec) o;
 
         if (Double.compare(rateSpec.opsPerSec, opsPerSec) != 0) return false;
-        return Double.compare(rateSpec.burstRatio, burstRatio) == 0;
+        if (Double.compare(rateSpec.burstRatio, burstRatio) != 0) return false;
+        return tokenPool.equals(rateSpec.tokenPool);
     }
 
     @Override
@@ -232,9 +244,14 @@ public class RateSpec {
         result = (int) (temp ^ (temp >>> 32));
         temp = Double.doubleToLongBits(burstRatio);
         result = 31 * result + (int) (temp ^ (temp >>> 32));
+        result = 31 * result + tokenPool.hashCode();
         return result;
     }
 
+    public String getTokenPool() {
+        return this.tokenPool;
+    }
+
     public Verb getVerb() {
         return this.verb;
     }
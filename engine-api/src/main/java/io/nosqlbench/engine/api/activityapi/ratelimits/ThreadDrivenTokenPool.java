@@ -63,6 +63,13 @@ public class ThreadDrivenTokenPool implements TokenPool {
 
     private TokenFiller filler;
 
+    /**
+     * This constructor is used when the token pool is loaded as a service. It
+     * must be initialized with {@link #apply(NBNamedElement, RateSpec)} before use.
+     */
+    public ThreadDrivenTokenPool() {
+    }
+
     /**
      * This constructor tries to pick reasonable defaults for the token pool for
      * a given rate spec. The active pool must be large enough to contain one
@@ -111,7 +118,7 @@ public class ThreadDrivenTokenPool implements TokenPool {
      */
     @Override
     public synchronized long takeUpTo(long amt) {
-        long take = Math.min(amt, activePool);
+        long take = Math.max(Math.min(amt, activePool), 0L);
         activePool -= take;
         return take;
     }
@@ -142,27 +149,35 @@ public class ThreadDrivenTokenPool implements TokenPool {
         return waitingPool + activePool;
     }
 
+    /**
+     * Wait for one op worth of tokens to be available, and then remove the
+     * given number of tokens from the pool. When more tokens are requested
+     * than the active pool can hold, the active pool is left in debt, which
+     * is paid back by subsequent refills before any other caller may proceed.
+     * This allows a caller to reserve time for a group of ops at once.
+     *
+     * @param tokens the number of tokens to remove
+     * @return the total number of tokens untaken, including wait tokens
+     */
     @Override
     public synchronized long blockAndTake(long tokens) {
-        while (activePool < tokens) {
-            //System.out.println(ANSI_BrightRed +  "waiting for " + amt + "/" + activePool + " of max " + maxActivePool + ANSI_Reset);
+        while (activePool < Math.min(tokens, nanosPerOp)) {
+            blocks++;
             try {
-                wait(maxActivePool / 1000000, (int) maxActivePool % 1000000);
+                wait(1000);
             } catch (InterruptedException ignored) {
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
-            //System.out.println("waited for " + amt + "/" + activePool + " tokens");
         }
-        //System.out.println(ANSI_BrightYellow + "taking " + amt + "/" + activePool + ANSI_Reset);
 
         activePool -= tokens;
-        return waitingPool + activePool;
+        return Math.max(waitingPool + activePool, 0L);
     }
 
     @Override
     public long getWaitTime() {
-        return activePool + waitingPool;
+        return Math.max(activePool + waitingPool, 0L);
     }
 
     @Override
@@ -17,9 +17,14 @@
 package io.nosqlbench.engine.api.activityapi.ratelimits;
 
 import io.nosqlbench.api.config.NBNamedElement;
+import io.nosqlbench.api.spi.SimpleServiceLoader;
+import io.nosqlbench.nb.annotations.Maturity;
 
 public interface TokenPool {
 
+    SimpleServiceLoader<TokenPool> FINDER =
+        new SimpleServiceLoader<>(TokenPool.class, Maturity.Any);
+
     TokenPool apply(NBNamedElement named, RateSpec rateSpec);
 
     double getBurstRatio();
@@ -25,11 +25,15 @@ import io.nosqlbench.engine.api.activityapi.core.progress.ProgressMeterDisplay;
 import io.nosqlbench.engine.api.activityapi.cyclelog.filters.IntPredicateDispenser;
 import io.nosqlbench.engine.api.activityapi.errorhandling.ErrorMetrics;
 import io.nosqlbench.engine.api.activityapi.errorhandling.modular.NBErrorHandler;
+import io.nosqlbench.engine.api.activityapi.errorhandling.modular.RetryBudget;
 import io.nosqlbench.engine.api.activityapi.input.InputDispenser;
 import io.nosqlbench.engine.api.activityapi.output.OutputDispenser;
 import io.nosqlbench.engine.api.activityapi.planning.OpSequence;
+import io.nosqlbench.engine.api.activityapi.planning.Sequence;
 import io.nosqlbench.engine.api.activityapi.planning.SequencePlanner;
 import io.nosqlbench.engine.api.activityapi.planning.SequencerType;
+import io.nosqlbench.engine.api.activityapi.planning.ThrottledSequence;
+import io.nosqlbench.engine.api.activityapi.ratelimits.ArrivalSchedule;
 import io.nosqlbench.engine.api.activityapi.ratelimits.RateLimiter;
 import io.nosqlbench.engine.api.activityapi.ratelimits.RateLimiters;
 import io.nosqlbench.engine.api.activityapi.ratelimits.RateSpec;
@@ -40,6 +44,7 @@ import io.nosqlbench.engine.api.activityimpl.uniform.DriverAdapter;
 import io.nosqlbench.engine.api.activityimpl.uniform.decorators.SyntheticOpTemplateProvider;
 import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.Op;
 import io.nosqlbench.api.engine.metrics.ActivityMetrics;
+import io.nosqlbench.api.engine.util.Unit;
 import io.nosqlbench.engine.api.templating.CommandTemplate;
 import io.nosqlbench.engine.api.templating.ParsedOp;
 import io.nosqlbench.api.config.standard.NBConfiguration;
@@ -73,6 +78,7 @@ public class SimpleActivity implements Activity, ProgressCapable, ActivityDefObs
     private RateLimiter strideLimiter;
     private RateLimiter cycleLimiter;
     private RateLimiter phaseLimiter;
+    private ArrivalSchedule arrivalSchedule;
     private ActivityController activityController;
     private ActivityInstrumentation activityInstrumentation;
     private PrintWriter console;
@@ -80,6 +86,7 @@ public class SimpleActivity implements Activity, ProgressCapable, ActivityDefObs
     private int nameEnumerator = 0;
     private ErrorMetrics errorMetrics;
     private NBErrorHandler errorHandler;
+    private RetryBudget retryBudget;
     private ActivityMetricProgressMeter progressMeter;
     private String workloadSource = "unspecified";
 
@@ -118,6 +125,18 @@ public class SimpleActivity implements Activity, ProgressCapable, ActivityDefObs
         return errorHandler;
     }
 
+    /**
+     * @return The activity-wide retry budget, as set by the {@code retrybudget} parameter, or an unlimited one
+     */
+    public synchronized RetryBudget getRetryBudget() {
+        if (retryBudget == null) {
+            retryBudget = activityDef.getParams().getOptionalString("retrybudget")
+                .map(RetryBudget::of)
+                .orElse(RetryBudget.unlimited());
+        }
+        return retryBudget;
+    }
+
     public synchronized RunState getRunState() {
         return runState;
     }
@@ -245,6 +264,11 @@ public class SimpleActivity implements Activity, ProgressCapable, ActivityDefObs
         return cycleLimiter;
     }
 
+    @Override
+    public synchronized ArrivalSchedule getArrivalSchedule() {
+        return this.arrivalSchedule;
+    }
+
     @Override
     public synchronized RateLimiter getStrideLimiter() {
         return this.strideLimiter;
@@ -328,16 +352,43 @@ public class SimpleActivity implements Activity, ProgressCapable, ActivityDefObs
 
     public synchronized void initOrUpdateRateLimiters(ActivityDef activityDef) {
 
+        // Virtual threads should not block on the monitor in the threaded token pool, since it would pin their carriers
+        boolean virtual = activityDef.getParams().getOptionalString("executor").map(e -> e.equals("virtual")).orElse(false);
+        String tokenPool = activityDef.getParams().getOptionalString("tokenpool")
+            .orElse(virtual ? "cas" : RateSpec.DEFAULT_TOKEN_POOL);
+
         activityDef.getParams().getOptionalNamedParameter("striderate")
             .map(RateSpec::new)
+            .map(spec -> spec.withTokenPool(tokenPool))
             .ifPresent(spec -> strideLimiter = RateLimiters.createOrUpdate(this.getActivityDef(), "strides", strideLimiter, spec));
 
         activityDef.getParams().getOptionalNamedParameter("cyclerate", "targetrate", "rate")
-            .map(RateSpec::new).ifPresent(
+            .map(RateSpec::new)
+            .map(spec -> spec.withTokenPool(tokenPool))
+            .ifPresent(
                 spec -> cycleLimiter = RateLimiters.createOrUpdate(this.getActivityDef(), "cycles", cycleLimiter, spec));
 
+        Optional<String> arrivalRate = activityDef.getParams().getOptionalString("arrivalrate");
+        if (arrivalRate.isPresent()) {
+            if (cycleLimiter != null) {
+                throw new BasicError("arrivalrate and cyclerate can not be used together on activity '" + activityDef.getAlias() + "'");
+            }
+            double opsPerSec = Unit.doubleCountFor(arrivalRate.get())
+                .orElseThrow(() -> new BasicError("Unparsable arrivalrate: " + arrivalRate.get()));
+            ArrivalSchedule.Arrivals arrivals = activityDef.getParams().getOptionalString("arrivals")
+                .map(ArrivalSchedule.Arrivals::valueOf)
+                .orElse(ArrivalSchedule.Arrivals.uniform);
+            if (arrivalSchedule == null) {
+                arrivalSchedule = new ArrivalSchedule(this.getActivityDef(), "cycles", opsPerSec, arrivals);
+                logger.info("Using arrival schedule: " + arrivalSchedule);
+            } else {
+                arrivalSchedule.apply(opsPerSec, arrivals);
+            }
+        }
+
         activityDef.getParams().getOptionalNamedParameter("phaserate")
             .map(RateSpec::new)
+            .map(spec -> spec.withTokenPool(tokenPool))
             .ifPresent(spec -> phaseLimiter = RateLimiters.createOrUpdate(this.getActivityDef(), "phases", phaseLimiter, spec));
 
     }
@@ -470,12 +521,14 @@ public class SimpleActivity implements Activity, ProgressCapable, ActivityDefObs
         try {
 
             List<Long> ratios = new ArrayList<>(pops.size());
+            List<String> oprates = new ArrayList<>(pops.size());
 
             for (int i = 0; i < pops.size(); i++) {
 
                 ParsedOp pop = pops.get(i);
                 long ratio = pop.takeStaticConfigOr("ratio", 1);
                 ratios.add(ratio);
+                oprates.add(pop.takeStaticConfigOr("oprate", ""));
             }
 
             SequencerType sequencerType = getParams()
@@ -483,6 +536,8 @@ public class SimpleActivity implements Activity, ProgressCapable, ActivityDefObs
                 .map(SequencerType::valueOf)
                 .orElse(SequencerType.bucket);
             SequencePlanner<OpDispenser<? extends O>> planner = new SequencePlanner<>(sequencerType);
+            List<String> names = new ArrayList<>();
+            List<RateSpec> rateSpecs = new ArrayList<>();
 
             for (int i = 0; i < pops.size(); i++) {
                 long ratio = ratios.get(i);
@@ -491,6 +546,8 @@ public class SimpleActivity implements Activity, ProgressCapable, ActivityDefObs
                     logger.info("skipped mapping op '" + pop.getName() + "'");
                     continue;
                 }
+                names.add(pop.getName());
+                rateSpecs.add(oprates.get(i).isEmpty() ? null : new RateSpec(oprates.get(i)));
                 DriverAdapter adapter = adapters.get(i);
                 OpMapper opMapper = adapter.getOpMapper();
                 OpDispenser<? extends Op> dispenser = opMapper.apply(pop);
@@ -500,7 +557,18 @@ public class SimpleActivity implements Activity, ProgressCapable, ActivityDefObs
                 planner.addOp((OpDispenser<? extends O>) dispenser, ratio);
             }
 
-            return planner.resolve();
+            Sequence<OpDispenser<? extends O>> sequence = planner.resolve();
+            if (rateSpecs.stream().allMatch(Objects::isNull)) {
+                return sequence;
+            }
+            ThrottledSequence.Mode mode = getParams().getOptionalString("oprate_mode")
+                .map(ThrottledSequence.Mode::valueOf)
+                .orElse(ThrottledSequence.Mode.wait);
+            ThrottledSequence<OpDispenser<? extends O>> throttled =
+                new ThrottledSequence<>(activityDef, sequence, names, rateSpecs, mode,
+                    getParams().getOptionalInteger("hdr_digits").orElse(4));
+            logger.info("using per-op rate limits " + throttled);
+            return throttled;
 
         } catch (Exception e) {
             throw new OpConfigError(e.getMessage(), workloadSource, e);
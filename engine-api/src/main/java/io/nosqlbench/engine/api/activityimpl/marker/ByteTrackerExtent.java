@@ -24,15 +24,29 @@ import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results.CycleResult
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A simple bytebuffer marker implementation
+ * <p>
+ * The marks are counted in stripes of up to {@link #STRIPE_SIZE} contiguous cycles, each with
+ * its own counter on a separate cache line. Since marking threads usually work on different
+ * ranges of cycles, they rarely update the same counter. The marks themselves are plain writes
+ * to the marker data. The thread which completes a stripe also counts it as filled in the extent,
+ * and the thread which fills the last stripe is the one which sees the extent as complete.
+ * The counter updates order the marker data writes before the completion, so the completing
+ * thread can read all of the marker data.
  */
 public class ByteTrackerExtent implements CycleResultSegmentsReadable {
 
+    public final static int STRIPE_SIZE = 4096;
+    private final static int STRIPE_PADDING = 16; // ints per cache line
+
     private final long min; // The maximum value to be dispatched
-    private final AtomicInteger totalMarked; // The total number of marked values
+    private final int stripes; // The number of stripes
+    private final AtomicIntegerArray stripeMarks; // The number of marked values in each stripe, padded
+    private final AtomicInteger filledStripes; // The number of stripes which are completely marked
     private final AtomicInteger totalServed; // the total number of served values
     byte[] markerData;
     private final int size; // max-min
@@ -49,7 +63,9 @@ public class ByteTrackerExtent implements CycleResultSegmentsReadable {
         this.min = min;
         this.size = (int) (nextMin - min);
         markerData = new byte[size];
-        totalMarked = new AtomicInteger(0);
+        stripes = (size + STRIPE_SIZE - 1) / STRIPE_SIZE;
+        stripeMarks = new AtomicIntegerArray(Math.max(1, stripes) * STRIPE_PADDING);
+        filledStripes = new AtomicInteger(0);
         totalServed = new AtomicInteger(0);
 //        maxcont = new AtomicLong(min - 1);
 //        currentValue = new AtomicLong(min);
@@ -71,9 +87,12 @@ public class ByteTrackerExtent implements CycleResultSegmentsReadable {
      * <li>zero: indicates successful marking, but exactly no remaining space available.
      * This is how a marking thread can detect that it was the one that finished marking
      * an extent.</li>
-     * <li>positive value: indicates how many cycles remain available in the extent to
-     * be marked.</li>
+     * <li>positive value: indicates that cycles remain available in the extent to
+     * be marked. This is the number of cycles remaining when the extent has a single stripe,
+     * and an upper bound on it otherwise.</li>
      * </ol>
+     * Marking the same cycle more than once counts towards the total, so marking more cycles
+     * than the extent holds also returns a negative value.
      *
      * @param cycle  The cycle to be marked
      * @param result the result code to mark in the cycle
@@ -88,20 +107,37 @@ public class ByteTrackerExtent implements CycleResultSegmentsReadable {
             if (next != null) {
                 return next.markResult(cycle, result);
             } else {
-                return (min + size) - cycle; // how long were we? ( a negative number )
+                return (min + size) - cycle - 1; // how long were we? ( a negative number )
             }
         }
 
         int position = (int) (cycle - min);
-        byte resultCode = (byte) (result & 127);
-        try {
-            markerData[position] = resultCode;
-        } catch (Exception e) {
-            e.printStackTrace();
+        markerData[position] = (byte) (result & 127);
+
+        int stripe = position / STRIPE_SIZE;
+        int stripeSize = stripeSize(stripe);
+        int marked = stripeMarks.incrementAndGet(stripe * STRIPE_PADDING);
+        if (marked != stripeSize) {
+            return stripeSize - marked;
         }
-        int i = totalMarked.incrementAndGet();
+        int filled = filledStripes.incrementAndGet();
+        return (filled == stripes) ? 0 : size - ((long) filled * STRIPE_SIZE);
+    }
+
+    private int stripeSize(int stripe) {
+        return Math.min(STRIPE_SIZE, size - (stripe * STRIPE_SIZE));
+    }
 
-        return (size - i);
+    /**
+     * @return the number of marks recorded in this extent, which may include repeated marks
+     * of the same cycle
+     */
+    public int getMarkedCount() {
+        int marked = 0;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            marked += stripeMarks.get(stripe * STRIPE_PADDING);
+        }
+        return marked;
     }
 
     public CycleResultsIntervalSegment getRemainingSegment() {
@@ -114,7 +150,7 @@ public class ByteTrackerExtent implements CycleResultSegmentsReadable {
 //        }
 //
         int current = totalServed.get();
-        int next = totalMarked.get();
+        int next = Math.min(getMarkedCount(), size);
         if (next - current == 0) {
             return null;
         }
@@ -152,7 +188,7 @@ public class ByteTrackerExtent implements CycleResultSegmentsReadable {
         StringBuilder sb = new StringBuilder();
         sb.append("(").append(min).append(",").append(min + size).append("): ")
                 .append(", getCount=").append(this.size)
-                .append(", marked=").append(this.totalMarked.get())
+                .append(", marked=").append(getMarkedCount())
                 .append(", served=").append(this.totalServed.get());
         sb.append(" data=");
         if (markerData.length < 100) {
@@ -174,7 +210,7 @@ public class ByteTrackerExtent implements CycleResultSegmentsReadable {
     }
 
     public boolean isFullyFilled() {
-        return (totalMarked.get() == size);
+        return (filledStripes.get() == stripes);
     }
 
 //    public boolean isFullyServed() {
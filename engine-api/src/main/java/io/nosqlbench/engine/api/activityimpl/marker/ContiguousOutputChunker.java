@@ -24,13 +24,12 @@ import io.nosqlbench.engine.api.activityapi.output.Output;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * This is the default cycle output implementation for NB when
@@ -43,9 +42,12 @@ import java.util.concurrent.locks.ReentrantLock;
  * is non-null, then marking is possible, but marking calls block otherwise.
  * The same is true for the tracking head element.
  * <p>
- * The nowMarking and nowTracking conditions are meant to be locked and awaited
- * by marking and tracking calls respectively. Conversely, they are expected
- * to be signaled by tracking and marking calls.
+ * Marking does not lock. Each marking thread records its results directly in the
+ * extent which holds the cycle, as described in {@link ByteTrackerExtent}. The thread
+ * which completes an extent then tries to take over the handoff with a CAS. The thread
+ * which holds the handoff moves the marking head past every completed extent, passes
+ * them to the readers in order, and adds new extents to the end of the chain. A marking
+ * thread which is ahead of the chain waits for it to be extended.
  * <p>
  * This implementation needs to be adapted to onAfterOpStop early exit of either
  * marker or tracker threads with no deadlock.
@@ -55,13 +57,12 @@ public class ContiguousOutputChunker implements Output {
     private final static Logger logger = LogManager.getLogger(ContiguousOutputChunker.class);
     private final int extentSize;
     private final int maxExtents;
-    private final List<Output> readers = new ArrayList<>();
+    private final List<Output> readers = new CopyOnWriteArrayList<>();
     private final AtomicLong min;
     private final AtomicLong nextMin;
     private final AtomicReference<ByteTrackerExtent> markingExtents = new AtomicReference<>();
-    private final ReentrantLock lock = new ReentrantLock(false);
-    private final Condition nowMarking = lock.newCondition();
-    private final Semaphore mutex = new Semaphore(1, false);
+    private final AtomicBoolean handoff = new AtomicBoolean(false);
+    private volatile long markingLimit;
 
     public ContiguousOutputChunker(long min, long nextRangeMin, int extentSize, int maxExtents) {
         this.min = new AtomicLong(min);
@@ -99,12 +100,13 @@ public class ContiguousOutputChunker implements Output {
             extent = extent.extend();
             logger.debug("added tracker extent " + extent.rangeSummary());
         }
+        this.markingLimit = extent.getMin() + extent.getSize();
         logger.info("using max " + maxExtents + " extents with getCount: " + extentSize);
     }
 
 
     @Override
-    public synchronized void onCycleResultSegment(CycleResultsSegment segment) {
+    public void onCycleResultSegment(CycleResultsSegment segment) {
         logger.trace("on-cycle-result-segment: (" + segment + ")");
         for (CycleResult cr : segment) {
             onCycleResult(cr.getCycle(), cr.getResult());
@@ -112,54 +114,71 @@ public class ContiguousOutputChunker implements Output {
     }
 
     @Override
-    public synchronized boolean onCycleResult(long completedCycle, int result) {
-        logger.trace("on-cycle-result: (" + completedCycle + "," + result + ")");
+    public boolean onCycleResult(long completedCycle, int result) {
+        while (true) {
+            // The limit is read first, so that the chain which is searched includes every extent before it
+            long limit = markingLimit;
+            ByteTrackerExtent extent = this.markingExtents.get();
+            long unmarked = extent.markResult(completedCycle, result);
+
+            if (unmarked > 0) {
+                return true;
+            } else if (unmarked == 0) {
+                handOffFilledExtents();
+                return true;
+            } else if (completedCycle < extent.getMin() || completedCycle < limit) {
+                throw new RuntimeException("Unable to mark cycle " + completedCycle + " with result " + result +
+                    ", since it is before the marking extents or was already marked: " + this);
+            } else {
+                // The chain will be extended when the marking head is complete
+                LockSupport.parkNanos(1000L);
+            }
+        }
+    }
 
-        try {
-            while (true) {
-                ByteTrackerExtent extent = this.markingExtents.get();
-                long unmarked = extent.markResult(completedCycle, result);
-
-                if (unmarked > 0) {
-                    return true;
-                } else if (unmarked == 0) {
-                    try {
-                        mutex.acquire();
-                        ByteTrackerExtent head = this.markingExtents.get();
-                        while (head.isFullyFilled()) {
-                            head.extend();
-                            if (!this.markingExtents.compareAndSet(head, head.getNextExtent().get())) {
-                                throw new RuntimeException("Unable to swap head extent.");
-                            }
-                            onFullyFilled(head);
-                            head = this.markingExtents.get();
-                        }
-                        mutex.release();
-                    } catch (InterruptedException ignored) {
-                    } catch (Throwable t) {
-                        throw t;
+    /**
+     * Pass every completed extent at the marking head to the readers, if no other thread is
+     * already doing so. Since the extent which was just completed might have been missed by
+     * a thread which was finishing its handoff, the head is checked again after releasing it.
+     */
+    private void handOffFilledExtents() {
+        do {
+            if (!handoff.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                ByteTrackerExtent head = this.markingExtents.get();
+                while (head.isFullyFilled()) {
+                    ByteTrackerExtent last = head.extend();
+                    if (!this.markingExtents.compareAndSet(head, head.getNextExtent().get())) {
+                        throw new RuntimeException("Unable to swap head extent.");
                     }
-                    return true;
-                } else {
-                    System.out.println("whoops");
+                    markingLimit = last.getMin() + last.getSize();
+                    onFullyFilled(head);
+                    head = this.markingExtents.get();
                 }
+            } finally {
+                handoff.set(false);
             }
-        } catch (Throwable t) {
-            throw t; // for debugging
-        }
+        } while (this.markingExtents.get().isFullyFilled());
     }
 
     @Override
     public synchronized void close() throws Exception {
         try {
 
-            mutex.acquire();
-            ByteTrackerExtent e = this.markingExtents.get();
-            while (e != null) {
-                onFullyFilled(e);
-                e = e.getNextExtent().get();
+            while (!handoff.compareAndSet(false, true)) {
+                Thread.onSpinWait();
+            }
+            try {
+                ByteTrackerExtent e = this.markingExtents.get();
+                while (e != null) {
+                    onFullyFilled(e);
+                    e = e.getNextExtent().get();
+                }
+            } finally {
+                handoff.set(false);
             }
-            mutex.release();
 
             for (Output reader : this.readers) {
                 logger.debug("closing downstream reader: " + reader);
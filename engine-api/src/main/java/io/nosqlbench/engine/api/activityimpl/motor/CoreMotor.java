@@ -27,6 +27,7 @@ import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results.CycleResult
 import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results.CycleSegment;
 import io.nosqlbench.engine.api.activityapi.input.Input;
 import io.nosqlbench.engine.api.activityapi.output.Output;
+import io.nosqlbench.engine.api.activityapi.ratelimits.ArrivalSchedule;
 import io.nosqlbench.engine.api.activityapi.ratelimits.RateLimiter;
 import io.nosqlbench.api.engine.activityimpl.ActivityDef;
 import io.nosqlbench.engine.api.activityimpl.SlotStateTracker;
@@ -65,6 +66,8 @@ public class CoreMotor<D> implements ActivityDefObserver, Motor<D>, Stoppable {
     private Timer cycleServiceTimer;
     private Timer cycleResponseTimer;
 
+    private ArrivalSchedule arrivalSchedule;
+
     private Input input;
     private Action action;
     private final Activity activity;
@@ -73,6 +76,7 @@ public class CoreMotor<D> implements ActivityDefObserver, Motor<D>, Stoppable {
     private final SlotStateTracker slotStateTracker;
     private final AtomicReference<RunState> slotState;
     private int stride = 1;
+    private boolean strideBatch = false;
 
     private OpTracker<D> opTracker;
     private Counter optrackerBlockCounter;
@@ -193,6 +197,7 @@ public class CoreMotor<D> implements ActivityDefObserver, Motor<D>, Stoppable {
 
             strideRateLimiter = activity.getStrideLimiter();
             cycleRateLimiter = activity.getCycleLimiter();
+            arrivalSchedule = activity.getArrivalSchedule();
 
 
             if (slotState.get() == Finished) {
@@ -216,7 +221,10 @@ public class CoreMotor<D> implements ActivityDefObserver, Motor<D>, Stoppable {
 
             long strideDelay = 0L;
             long cycleDelay = 0L;
+            long intendedAt = 0L;
             long phaseDelay = 0L;
+            StrideRateSchedule strideSchedule = new StrideRateSchedule();
+            boolean batchedCycles = false;
 
             // Reviewer Note: This separate of code paths was used to avoid impacting the
             // previously logic for the SyncAction type. It may be consolidated later once
@@ -227,7 +235,9 @@ public class CoreMotor<D> implements ActivityDefObserver, Motor<D>, Stoppable {
                 @SuppressWarnings("unchecked")
                 AsyncAction<D> async = (AsyncAction) action;
 
-                opTracker = new OpTrackerImpl<>(activity, slotId);
+                OpTrackerImpl<D> tracker = new OpTrackerImpl<>(activity, slotId);
+                tracker.onActivityDefUpdate(activity.getActivityDef());
+                opTracker = tracker;
                 opTracker.setCycleOpFunction(async.getOpInitFunction());
 
                 StrideOutputConsumer<D> strideconsumer = null;
@@ -254,6 +264,12 @@ public class CoreMotor<D> implements ActivityDefObserver, Motor<D>, Stoppable {
                         strideDelay = strideRateLimiter.maybeWaitForOp();
                     }
 
+                    batchedCycles = strideBatch && cycleRateLimiter != null;
+                    if (batchedCycles) {
+                        // Block for the first cycle of the stride, taking time for the whole stride
+                        strideSchedule.startStride(cycleRateLimiter, stride);
+                    }
+
                     StrideTracker<D> strideTracker = new StrideTracker<>(
                         strideServiceTimer,
                             stridesResponseTimer,
@@ -281,15 +297,23 @@ public class CoreMotor<D> implements ActivityDefObserver, Motor<D>, Stoppable {
                             continue;
                         }
 
-                        if (cycleRateLimiter != null) {
+                        if (arrivalSchedule != null) {
+                            // Block until the next intended start in the open loop schedule
+                            intendedAt = arrivalSchedule.waitForNextArrival();
+                        } else if (batchedCycles) {
+                            // Block for this cycle within the stride schedule
+                            cycleDelay = strideSchedule.maybeWaitForOp();
+                        } else if (cycleRateLimiter != null) {
                             // Block for cycle rate limiter
                             cycleDelay = cycleRateLimiter.maybeWaitForOp();
                         }
 
                         try {
                             TrackedOp<D> op = opTracker.newOp(cyclenum,strideTracker);
-                            op.setWaitTime(cycleDelay);
 
+                            // When rate limited, time spent waiting for an async slot counts as wait
+                            // time, so that the cycle times are still measured from the scheduled start
+                            long slotWaitStart = System.nanoTime();
                             synchronized (opTracker) {
                                 while (opTracker.isFull()) {
                                     try {
@@ -300,6 +324,12 @@ public class CoreMotor<D> implements ActivityDefObserver, Motor<D>, Stoppable {
                                     }
                                 }
                             }
+                            if (arrivalSchedule != null) {
+                                // The response time of the op is measured from its intended start
+                                op.setWaitTime(System.nanoTime() - intendedAt);
+                            } else if (cycleRateLimiter != null) {
+                                op.setWaitTime(cycleDelay + (System.nanoTime() - slotWaitStart));
+                            }
 
                             async.enqueue(op);
 
@@ -329,6 +359,7 @@ public class CoreMotor<D> implements ActivityDefObserver, Motor<D>, Stoppable {
             } else if (action instanceof SyncAction) {
 
                 cycleServiceTimer = activity.getInstrumentation().getOrCreateCyclesServiceTimer();
+                cycleResponseTimer = activity.getInstrumentation().getCyclesResponseTimerOrNull();
                 strideServiceTimer = activity.getInstrumentation().getOrCreateStridesServiceTimer();
 
                 if (activity.getActivityDef().getParams().containsKey("async")) {
@@ -358,7 +389,14 @@ public class CoreMotor<D> implements ActivityDefObserver, Motor<D>, Stoppable {
                         strideDelay = strideRateLimiter.maybeWaitForOp();
                     }
 
+                    batchedCycles = strideBatch && cycleRateLimiter != null;
+                    if (batchedCycles) {
+                        // Block for the first cycle of the stride, taking time for the whole stride
+                        strideSchedule.startStride(cycleRateLimiter, stride);
+                    }
+
                     long strideStart = System.nanoTime();
+                    long strideExcluded = 0L;
                     try {
 
                         while (!cycleSegment.isExhausted()) {
@@ -377,7 +415,13 @@ public class CoreMotor<D> implements ActivityDefObserver, Motor<D>, Stoppable {
                             }
                             int result = -1;
 
-                            if (cycleRateLimiter != null) {
+                            if (arrivalSchedule != null) {
+                                // Block until the next intended start in the open loop schedule
+                                intendedAt = arrivalSchedule.waitForNextArrival();
+                            } else if (batchedCycles) {
+                                // Block for this cycle within the stride schedule
+                                cycleDelay = strideSchedule.maybeWaitForOp();
+                            } else if (cycleRateLimiter != null) {
                                 // Block for cycle rate limiter
                                 cycleDelay = cycleRateLimiter.maybeWaitForOp();
                             }
@@ -393,14 +437,20 @@ public class CoreMotor<D> implements ActivityDefObserver, Motor<D>, Stoppable {
 
                             } finally {
                                 long cycleEnd = System.nanoTime();
-                                cycleServiceTimer.update((cycleEnd - cycleStart) + cycleDelay, TimeUnit.NANOSECONDS);
+                                long cycleExcluded = sync.takeExcludedNanos();
+                                strideExcluded += cycleExcluded;
+                                cycleServiceTimer.update((cycleEnd - cycleStart) + cycleDelay - cycleExcluded, TimeUnit.NANOSECONDS);
+                                if (cycleResponseTimer != null) {
+                                    long scheduledAt = (arrivalSchedule != null) ? intendedAt : cycleStart - cycleDelay;
+                                    cycleResponseTimer.update(cycleEnd - scheduledAt, TimeUnit.NANOSECONDS);
+                                }
                             }
                             segBuffer.append(cyclenum, result);
                         }
 
                     } finally {
                         long strideEnd = System.nanoTime();
-                        strideServiceTimer.update((strideEnd - strideStart) + strideDelay, TimeUnit.NANOSECONDS);
+                        strideServiceTimer.update((strideEnd - strideStart) + strideDelay - strideExcluded, TimeUnit.NANOSECONDS);
                     }
 
                     if (output != null) {
@@ -445,8 +495,10 @@ public class CoreMotor<D> implements ActivityDefObserver, Motor<D>, Stoppable {
         }
 
         this.stride = activityDef.getParams().getOptionalInteger("stride").orElse(1);
+        this.strideBatch = activityDef.getParams().getOptionalBoolean("stridebatch").orElse(false);
         strideRateLimiter = activity.getStrideLimiter();
         cycleRateLimiter = activity.getCycleLimiter();
+        arrivalSchedule = activity.getArrivalSchedule();
 
     }
 
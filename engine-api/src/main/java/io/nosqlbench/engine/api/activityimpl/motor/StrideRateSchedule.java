@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.activityimpl.motor;
+
+import io.nosqlbench.engine.api.activityapi.ratelimits.RateLimiter;
+import io.nosqlbench.engine.api.activityapi.ratelimits.RateSpec;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A stride rate schedule takes the time for a whole stride of cycles from
+ * the cycle rate limiter in one call, and then paces the cycles within the
+ * stride locally. This means that the shared rate limiter is only touched
+ * once per stride, while each cycle still starts at its own scheduled time.
+ *
+ * <p>The delay returned for each cycle is measured from that cycle's own
+ * scheduled start, so it can be added to the cycle service time in the same
+ * way as the delay from {@link RateLimiter#maybeWaitForOp()}.</p>
+ *
+ * <p>When a stride starts behind schedule, its cycles catch up no faster than
+ * the burst ratio of the rate limiter allows, as they would if each cycle
+ * were taken from the rate limiter on its own.</p>
+ *
+ * This is only meant to be used within a single motor thread.
+ */
+public class StrideRateSchedule {
+
+    private long nanosPerOp;
+    private long burstNanosPerOp;
+    private long nextOpAt;
+    private long earliestOpAt;
+
+    /**
+     * Take the time for the given number of cycles from the rate limiter,
+     * blocking until the first of them is due.
+     *
+     * @param rateLimiter The cycle rate limiter
+     * @param cycles The number of cycles in the stride
+     */
+    public void startStride(RateLimiter rateLimiter, int cycles) {
+        long firstOpDelay = rateLimiter.maybeWaitForOps(cycles);
+        RateSpec spec = rateLimiter.getRateSpec();
+        this.nanosPerOp = spec.getNanosPerOp();
+        this.burstNanosPerOp = (long) (nanosPerOp / spec.getBurstRatio());
+        long now = System.nanoTime();
+        this.nextOpAt = now - firstOpDelay;
+        this.earliestOpAt = now;
+    }
+
+    /**
+     * Block until the next cycle in the stride is due.
+     *
+     * @return the nanoseconds behind schedule for this cycle, greater than or equal to zero
+     */
+    public long maybeWaitForOp() {
+        long scheduledAt = nextOpAt;
+        nextOpAt += nanosPerOp;
+        long startAt = Math.max(scheduledAt, earliestOpAt);
+        long now = System.nanoTime();
+        while (now < startAt) {
+            LockSupport.parkNanos(startAt - now);
+            now = System.nanoTime();
+        }
+        earliestOpAt = now + burstNanosPerOp;
+        return now - scheduledAt;
+    }
+}
@@ -73,17 +73,17 @@ public class StrideTracker<D> extends Buffer<CompletedOp<D>> implements OpEvents
     }
 
     @Override
-    public void onOpSuccess(SucceededOp<D> op) {
+    public synchronized void onOpSuccess(SucceededOp<D> op) {
         super.put(op);
     }
 
     @Override
-    public void onOpFailure(FailedOp<D> op) {
+    public synchronized void onOpFailure(FailedOp<D> op) {
         super.put(op);
     }
 
     @Override
-    public void onOpSkipped(SkippedOp<D> op) {
+    public synchronized void onOpSkipped(SkippedOp<D> op) {
         super.put(op);
     }
 
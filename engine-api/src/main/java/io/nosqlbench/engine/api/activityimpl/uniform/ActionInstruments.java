@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.engine.api.activityimpl.uniform;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import io.nosqlbench.engine.api.activityapi.core.Activity;
+import io.nosqlbench.engine.api.activityapi.core.ActivityInstrumentation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>The per-op metrics which are recorded by {@link StandardAction} and {@link StandardAsyncAction}.
+ * The level is chosen with the {@code instrumentation} activity parameter when the action is
+ * created, and each level is a separate implementation, so the actions do not check for disabled
+ * metrics on every op. Metrics which are not used at a level are not created.</p>
+ *
+ * <ul>
+ *     <li>{@link Level#minimal} - only the result timer. Errors are still counted by the error handler.</li>
+ *     <li>{@link Level#standard} - the bind, execute, result, result-success timers and the tries histogram</li>
+ *     <li>{@link Level#full} - all of the above, and the stretch histograms and small/large latency timers
+ *     for ops which report a result size. This is the default.</li>
+ * </ul>
+ */
+public abstract class ActionInstruments {
+
+    public enum Level {
+        minimal,
+        standard,
+        full
+    }
+
+    public static ActionInstruments forActivity(Activity activity) {
+        Level level = activity.getParams().getOptionalString("instrumentation").map(name -> {
+            try {
+                return Level.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("instrumentation must be one of minimal, standard, or full, not '" + name + "'");
+            }
+        }).orElse(Level.full);
+        ActivityInstrumentation instrumentation = activity.getInstrumentation();
+        return switch (level) {
+            case minimal -> new Minimal(instrumentation);
+            case standard -> new Standard(instrumentation);
+            case full -> new Full(instrumentation);
+        };
+    }
+
+    private final ActivityInstrumentation instrumentation;
+    private volatile Timer backoffTimer;
+    private volatile Counter retriesDeniedCounter;
+
+    protected ActionInstruments(ActivityInstrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    /**
+     * @return The time at which binding started, if it is measured
+     */
+    public abstract long startBind();
+
+    public abstract void stopBind(long startedAt);
+
+    /**
+     * @return The time at which execution started, if it is measured
+     */
+    public abstract long startExecute();
+
+    public abstract void stopExecute(long startedAt);
+
+    /**
+     * Record the time for one try of an op, whether it succeeded or not.
+     */
+    public abstract void onResult(long nanos);
+
+    public abstract void onSuccess(long nanos, long resultSize);
+
+    public abstract void onTries(int tries);
+
+    /**
+     * Record a wait before a retry. This is measured at every level, and the timer is only
+     * created once an op backs off.
+     */
+    public void onBackoff(long nanos) {
+        if (backoffTimer == null) {
+            backoffTimer = instrumentation.getOrCreateBackoffTimer();
+        }
+        backoffTimer.update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count a retry which was denied by the retry budget.
+     */
+    public void onRetryDenied() {
+        if (retriesDeniedCounter == null) {
+            retriesDeniedCounter = instrumentation.getOrCreateRetriesDeniedCounter();
+        }
+        retriesDeniedCounter.inc();
+    }
+
+    private final static class Minimal extends ActionInstruments {
+        private final Timer resultTimer;
+
+        private Minimal(ActivityInstrumentation instrumentation) {
+            super(instrumentation);
+            this.resultTimer = instrumentation.getOrCreateResultTimer();
+        }
+
+        @Override
+        public long startBind() {
+            return 0L;
+        }
+
+        @Override
+        public void stopBind(long startedAt) {
+        }
+
+        @Override
+        public long startExecute() {
+            return 0L;
+        }
+
+        @Override
+        public void stopExecute(long startedAt) {
+        }
+
+        @Override
+        public void onResult(long nanos) {
+            resultTimer.update(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void onSuccess(long nanos, long resultSize) {
+        }
+
+        @Override
+        public void onTries(int tries) {
+        }
+    }
+
+    private static class Standard extends ActionInstruments {
+        private final Timer bindTimer;
+        private final Timer executeTimer;
+        private final Timer resultTimer;
+        private final Timer resultSuccessTimer;
+        private final Histogram triesHistogram;
+
+        private Standard(ActivityInstrumentation instrumentation) {
+            super(instrumentation);
+            this.bindTimer = instrumentation.getOrCreateBindTimer();
+            this.executeTimer = instrumentation.getOrCreateExecuteTimer();
+            this.triesHistogram = instrumentation.getOrCreateTriesHistogram();
+            this.resultTimer = instrumentation.getOrCreateResultTimer();
+            this.resultSuccessTimer = instrumentation.getOrCreateResultSuccessTimer();
+        }
+
+        @Override
+        public long startBind() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void stopBind(long startedAt) {
+            bindTimer.update(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public long startExecute() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void stopExecute(long startedAt) {
+            executeTimer.update(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void onResult(long nanos) {
+            resultTimer.update(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void onSuccess(long nanos, long resultSize) {
+            resultSuccessTimer.update(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void onTries(int tries) {
+            triesHistogram.update(tries);
+        }
+    }
+
+    private final static class Full extends Standard {
+        private final Timer smallLatencyTimer;
+        private final Timer largeLatencyTimer;
+        private final Histogram stretchHistogram;
+        private final Histogram smallStretchHistogram;
+        private final Histogram largeStretchHistogram;
+
+        private Full(ActivityInstrumentation instrumentation) {
+            super(instrumentation);
+            this.smallLatencyTimer = instrumentation.getOrCreateSmallLatencyTimer();
+            this.largeLatencyTimer = instrumentation.getOrCreateLargeLatencyTimer();
+            this.stretchHistogram = instrumentation.getOrCreateStretchHistogram();
+            this.smallStretchHistogram = instrumentation.getOrCreateSmallStretchHistogram();
+            this.largeStretchHistogram = instrumentation.getOrCreateLargeStretchHistogram();
+        }
+
+        @Override
+        public void onSuccess(long nanos, long resultSize) {
+            super.onSuccess(nanos, resultSize);
+            if (resultSize > 0) {
+                long stretch = nanos / resultSize;
+
+                stretchHistogram.update(stretch);
+
+                if (resultSize > 10000) {
+                    largeLatencyTimer.update(nanos, TimeUnit.NANOSECONDS);
+                    largeStretchHistogram.update(stretch);
+                } else {
+                    smallLatencyTimer.update(nanos, TimeUnit.NANOSECONDS);
+                    smallStretchHistogram.update(stretch);
+                }
+            }
+        }
+    }
+}
@@ -16,20 +16,22 @@
 
 package io.nosqlbench.engine.api.activityimpl.uniform;
 
-import com.codahale.metrics.Histogram;
-import com.codahale.metrics.Timer;
 import io.nosqlbench.engine.api.activityapi.core.ActivityDefObserver;
 import io.nosqlbench.engine.api.activityapi.core.SyncAction;
 import io.nosqlbench.engine.api.activityapi.errorhandling.modular.ErrorDetail;
 import io.nosqlbench.engine.api.activityapi.errorhandling.modular.NBErrorHandler;
+import io.nosqlbench.engine.api.activityapi.errorhandling.modular.RetryBudget;
 import io.nosqlbench.engine.api.activityapi.planning.OpSequence;
+import io.nosqlbench.engine.api.activityapi.planning.ThrottledSequence;
 import io.nosqlbench.api.engine.activityimpl.ActivityDef;
 import io.nosqlbench.engine.api.activityimpl.OpDispenser;
 import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * This is the generified version of an Action. All activity types should endeavor to use
@@ -46,47 +48,51 @@ public class StandardAction<A extends StandardActivity<R, ?>, R extends Op> impl
 
     private final A activity;
     private final int slot;
-    private final Timer executeTimer;
-    private final Histogram triesHistogram;
-    private final Timer resultSuccessTimer;
-    private final Timer smallLatencyTimer;
-    private final Timer largeLatencyTimer;
-    private final Histogram stretchHistogram;
-    private final Histogram smallStretchHistogram;
-    private final Histogram largeStretchHistogram;
-    private final Timer resultTimer;
-    private final Timer bindTimer;
+    private final ActionInstruments instruments;
     private final NBErrorHandler errorHandler;
     private final OpSequence<OpDispenser<? extends Op>> opsequence;
+    private final RetryBudget retryBudget;
+    private final boolean excludeBackoff;
+    private final boolean throttled;
+    private long excludedNanos;
 
     public StandardAction(A activity, int slot) {
         this.activity = activity;
         this.opsequence = activity.getOpSequence();
         this.slot = slot;
-        bindTimer = activity.getInstrumentation().getOrCreateBindTimer();
-        executeTimer = activity.getInstrumentation().getOrCreateExecuteTimer();
-        triesHistogram = activity.getInstrumentation().getOrCreateTriesHistogram();
-        resultTimer = activity.getInstrumentation().getOrCreateResultTimer();
-        resultSuccessTimer = activity.getInstrumentation().getOrCreateResultSuccessTimer();
-        smallLatencyTimer = activity.getInstrumentation().getOrCreateSmallLatencyTimer();
-        largeLatencyTimer = activity.getInstrumentation().getOrCreateLargeLatencyTimer();
-        stretchHistogram = activity.getInstrumentation().getOrCreateStretchHistogram();
-        smallStretchHistogram = activity.getInstrumentation().getOrCreateSmallStretchHistogram();
-        largeStretchHistogram = activity.getInstrumentation().getOrCreateLargeStretchHistogram();
+        instruments = ActionInstruments.forActivity(activity);
         errorHandler = activity.getErrorHandler();
+        retryBudget = activity.getRetryBudget();
+        excludeBackoff = excludeBackoff(activity);
+        throttled = opsequence instanceof ThrottledSequence;
+    }
+
+    static boolean excludeBackoff(StandardActivity<?, ?> activity) {
+        String mode = activity.getParams().getOptionalString("backoff_servicetime").orElse("include");
+        if (!mode.equals("include") && !mode.equals("exclude")) {
+            throw new RuntimeException("backoff_servicetime must be either include or exclude, not '" + mode + "'");
+        }
+        return mode.equals("exclude");
     }
 
     @Override
     public int runCycle(long cycle) {
 
-        OpDispenser<? extends Op> dispenser;
+        // Selecting the op may wait for its oprate limit, which is neither bind time nor service time
+        long selectStartedAt = throttled ? System.nanoTime() : 0L;
+        OpDispenser<? extends Op> dispenser = opsequence.apply(cycle);
+        if (throttled) {
+            excludedNanos += System.nanoTime() - selectStartedAt;
+        }
         Op op = null;
 
-        try (Timer.Context ct = bindTimer.time()) {
-            dispenser = opsequence.apply(cycle);
+        long bindStartedAt = instruments.startBind();
+        try {
             op = dispenser.apply(cycle);
         } catch (Exception e) {
             throw new RuntimeException("while binding request in cycle " + cycle + ": " + e.getMessage(), e);
+        } finally {
+            instruments.stopBind(bindStartedAt);
         }
 
         int code = 0;
@@ -94,63 +100,67 @@ public class StandardAction<A extends StandardActivity<R, ?>, R extends Op> impl
         while (op != null) {
 
             int tries = 0;
+            long backoffNanos = 0L;
+            retryBudget.onPrimary();
             while (tries++ <= activity.getMaxTries()) {
                 Throwable error = null;
                 long startedAt = System.nanoTime();
 
                 dispenser.onStart(cycle);
 
-                try (Timer.Context ct = executeTimer.time()) {
+                long executeStartedAt = instruments.startExecute();
+                try {
                     if (op instanceof RunnableOp) {
                         ((RunnableOp) op).run();
                     } else if (op instanceof CycleOp<?>) {
                         result = ((CycleOp) op).apply(cycle);
                     } else if (op instanceof ChainingOp) {
                         result = ((ChainingOp) op).apply(result);
+                    } else if (op instanceof AsyncCycleOp<?>) {
+                        result = ((AsyncCycleOp<?>) op).apply(cycle).toCompletableFuture().get();
                     } else {
                         throw new RuntimeException("The op implementation did not implement any active logic. Implement " +
-                            "one of [RunnableOp, CycleOp, or ChainingOp]");
+                            "one of [RunnableOp, CycleOp, ChainingOp, or AsyncCycleOp]");
                     }
+                } catch (InterruptedException e) {
+                    // The motor is being stopped, so this is not an op error to be handled or retried
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("interrupted while waiting for the result of cycle " + cycle, e);
                 } catch (Exception e) {
-                    error = e;
+                    error = unwrap(e);
                 } finally {
-                    long nanos = System.nanoTime() - startedAt;
-
-                    resultTimer.update(nanos, TimeUnit.NANOSECONDS);
-
-                    if (error == null) {
-                        long resultSize = op.getResultSize();
-
-                        resultSuccessTimer.update(nanos, TimeUnit.NANOSECONDS);
+                    instruments.stopExecute(executeStartedAt);
+                }
+                long nanos = System.nanoTime() - startedAt;
 
-                        if (resultSize > 0) {
-                            long stretch = nanos / resultSize;
+                instruments.onResult(nanos);
 
-                            stretchHistogram.update(stretch);
+                if (error == null) {
+                    long resultSize = op.getResultSize();
 
-                            if (resultSize > 10000) {
-                                largeLatencyTimer.update(nanos, TimeUnit.NANOSECONDS);
-                                largeStretchHistogram.update(stretch);
-                            } else {
-                                smallLatencyTimer.update(nanos, TimeUnit.NANOSECONDS);
-                                smallStretchHistogram.update(stretch);
-                            }
-                        }
+                    instruments.onSuccess(nanos, resultSize);
 
-                        dispenser.onSuccess(cycle, nanos, resultSize);
+                    dispenser.onSuccess(cycle, nanos, resultSize);
 
+                    break;
+                } else {
+                    ErrorDetail detail = errorHandler.handleError(error, cycle, nanos);
+                    dispenser.onError(cycle, nanos, error);
+                    code = detail.resultCode;
+                    if (!detail.isRetryable() || tries > activity.getMaxTries()) {
                         break;
-                    } else {
-                        ErrorDetail detail = errorHandler.handleError(error, cycle, nanos);
-                        dispenser.onError(cycle, nanos, error);
-                        code = detail.resultCode;
-                        if (!detail.isRetryable()) {
-                            break;
-                        }
+                    }
+                    if (!retryBudget.tryRetry()) {
+                        instruments.onRetryDenied();
+                        break;
+                    }
+                    if (detail.backoff != null) {
+                        backoffNanos = detail.backoff.nextDelayNanos(tries, backoffNanos);
+                        backoff(backoffNanos);
                     }
                 }
             }
-            triesHistogram.update(tries);
+            instruments.onTries(tries);
 
             if (op instanceof OpGenerator) {
                 logger.trace("GEN OP for cycle(" + cycle + ")");
@@ -163,6 +173,45 @@ public class StandardAction<A extends StandardActivity<R, ?>, R extends Op> impl
         return code;
     }
 
+    /**
+     * Get the error which was raised by the op, rather than the wrapper from the future which carried it.
+     */
+    static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private void backoff(long nanos) {
+        long waited = park(nanos);
+        instruments.onBackoff(waited);
+        if (excludeBackoff) {
+            excludedNanos += waited;
+        }
+    }
+
+    /**
+     * Park the calling thread for at least the given time, even if it is woken early.
+     * @return The time which was actually waited
+     */
+    static long park(long nanos) {
+        long startedAt = System.nanoTime();
+        long remaining = nanos;
+        while (remaining > 0L) {
+            LockSupport.parkNanos(remaining);
+            remaining = nanos - (System.nanoTime() - startedAt);
+        }
+        return System.nanoTime() - startedAt;
+    }
+
+    @Override
+    public long takeExcludedNanos() {
+        long excluded = excludedNanos;
+        excludedNanos = 0L;
+        return excluded;
+    }
+
     @Override
     public void onActivityDefUpdate(ActivityDef activityDef) {
     }
@@ -16,6 +16,7 @@
 
 package io.nosqlbench.engine.api.activityimpl.uniform;
 
+import io.nosqlbench.engine.api.activityapi.core.Action;
 import io.nosqlbench.engine.api.activityapi.core.ActionDispenser;
 import io.nosqlbench.engine.api.activityapi.core.Activity;
 
@@ -27,7 +28,10 @@ public class StandardActionDispenser implements ActionDispenser {
     }
 
     @Override
-    public StandardAction<?,?> getAction(int slot) {
+    public Action getAction(int slot) {
+        if (activity.getParams().getOptionalInteger("async").isPresent()) {
+            return new StandardAsyncAction<>(activity,slot);
+        }
         return new StandardAction<>(activity,slot);
     }
 }
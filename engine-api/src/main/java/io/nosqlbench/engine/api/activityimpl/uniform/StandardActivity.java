@@ -120,6 +120,13 @@ public class StandardActivity<R extends Op, S> extends SimpleActivity implements
                 throw new OpConfigError("Error mapping workload template to operations: " + e.getMessage(), null, e);
             }
         }
+
+        // Op dispensers which hold resources, like files, are closed when the activity is done
+        for (OpDispenser<? extends Op> dispenser : sequence.getOps()) {
+            if (dispenser instanceof AutoCloseable closeable) {
+                registerAutoCloseable(closeable);
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.activityimpl.uniform;
+
+import io.nosqlbench.engine.api.activityapi.core.BaseAsyncAction;
+import io.nosqlbench.engine.api.activityapi.core.ops.fluent.opfacets.StartedOp;
+import io.nosqlbench.engine.api.activityapi.core.ops.fluent.opfacets.TrackedOp;
+import io.nosqlbench.engine.api.activityapi.errorhandling.modular.ErrorDetail;
+import io.nosqlbench.engine.api.activityapi.errorhandling.modular.NBErrorHandler;
+import io.nosqlbench.engine.api.activityapi.errorhandling.modular.RetryBudget;
+import io.nosqlbench.engine.api.activityapi.planning.OpSequence;
+import io.nosqlbench.engine.api.activityimpl.OpDispenser;
+import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.*;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * <p>This is the async version of {@link StandardAction}. It is used instead of
+ * the standard action when the async parameter is provided for an activity. The
+ * core motor keeps up to this thread's share of async ops in flight, and this action
+ * handles each of them as its {@link AsyncCycleOp} completes.</p>
+ *
+ * <p>Retries, error handling, and the tries histogram work the same way as for
+ * {@link StandardAction}. Since these are handled when an op completes, they may be
+ * called from threads of the native driver, so a retry is sent from the thread which
+ * handled the failed try. A backoff before a retry of an {@link AsyncCycleOp} does not block
+ * any thread, since the retry is sent from a delayed executor. Other ops are retried on the
+ * motor thread after it parks for the backoff, as with {@link StandardAction}. The backoff is
+ * always included in the service time of the cycle.</p>
+ *
+ * <p>Ops which are not {@link AsyncCycleOp}s are run inline on the motor thread, so
+ * that any op template can be used with the async parameter.</p>
+ *
+ * @param <A> The type of activity
+ * @param <R> The type of operation
+ */
+public class StandardAsyncAction<A extends StandardActivity<R, ?>, R extends Op>
+    extends BaseAsyncAction<StandardAsyncAction.AsyncOpState, A> {
+    private final static Logger logger = LogManager.getLogger("ACTION");
+
+    private final ActionInstruments instruments;
+    private final NBErrorHandler errorHandler;
+    private final OpSequence<OpDispenser<? extends Op>> opsequence;
+    private final RetryBudget retryBudget;
+    private volatile RuntimeException completionError;
+
+    public StandardAsyncAction(A activity, int slot) {
+        super(activity, slot);
+        this.opsequence = activity.getOpSequence();
+        instruments = ActionInstruments.forActivity(activity);
+        errorHandler = activity.getErrorHandler();
+        retryBudget = activity.getRetryBudget();
+    }
+
+    @Override
+    public LongFunction<AsyncOpState> getOpInitFunction() {
+        return cycle -> {
+            // Selecting the op may wait for its oprate limit, which is not bind time
+            OpDispenser<? extends Op> dispenser = opsequence.apply(cycle);
+            long bindStartedAt = instruments.startBind();
+            try {
+                return new AsyncOpState(dispenser, dispenser.apply(cycle));
+            } catch (Exception e) {
+                throw new RuntimeException("while binding request in cycle " + cycle + ": " + e.getMessage(), e);
+            } finally {
+                instruments.stopBind(bindStartedAt);
+            }
+        };
+    }
+
+    /**
+     * Errors which are thrown while completing an op, such as by the error handler for
+     * errors=stop, are raised on the motor thread when it enqueues the next op.
+     */
+    @Override
+    public boolean enqueue(TrackedOp<AsyncOpState> opc) {
+        RuntimeException error = completionError;
+        if (error != null) {
+            throw error;
+        }
+        return super.enqueue(opc);
+    }
+
+    @Override
+    public void startOpCycle(TrackedOp<AsyncOpState> opc) {
+        StartedOp<AsyncOpState> started = opc.start();
+        dispatch(started);
+    }
+
+    private void dispatch(StartedOp<AsyncOpState> started) {
+        AsyncOpState state = started.getOpData();
+        long cycle = started.getCycle();
+        Op op = state.op;
+        if (state.tries++ == 0) {
+            retryBudget.onPrimary();
+        }
+
+        state.dispenser.onStart(cycle);
+        long startedAt = System.nanoTime();
+
+        CompletionStage<?> stage;
+        long executeStartedAt = instruments.startExecute();
+        try {
+            if (op instanceof AsyncCycleOp<?>) {
+                stage = ((AsyncCycleOp<?>) op).apply(cycle);
+            } else if (op instanceof RunnableOp) {
+                ((RunnableOp) op).run();
+                stage = CompletableFuture.completedFuture(null);
+            } else if (op instanceof CycleOp<?>) {
+                stage = CompletableFuture.completedFuture(((CycleOp<?>) op).apply(cycle));
+            } else if (op instanceof ChainingOp) {
+                stage = CompletableFuture.completedFuture(((ChainingOp) op).apply(state.result));
+            } else {
+                throw new RuntimeException("The op implementation did not implement any active logic. Implement " +
+                    "one of [RunnableOp, CycleOp, ChainingOp, or AsyncCycleOp]");
+            }
+        } catch (Exception e) {
+            stage = CompletableFuture.failedFuture(e);
+        } finally {
+            instruments.stopExecute(executeStartedAt);
+        }
+
+        stage.whenComplete((result, error) -> onTryComplete(started, startedAt, result, error));
+    }
+
+    private void onTryComplete(StartedOp<AsyncOpState> started, long startedAt, Object result, Throwable error) {
+        long nanos = System.nanoTime() - startedAt;
+        AsyncOpState state = started.getOpData();
+        long cycle = started.getCycle();
+
+        try {
+            instruments.onResult(nanos);
+
+            if (error == null) {
+                long resultSize = state.op.getResultSize();
+
+                instruments.onSuccess(nanos, resultSize);
+
+                state.dispenser.onSuccess(cycle, nanos, resultSize);
+                state.result = result;
+            } else {
+                error = StandardAction.unwrap(error);
+                ErrorDetail detail = errorHandler.handleError(error, cycle, nanos);
+                state.dispenser.onError(cycle, nanos, error);
+                state.code = detail.resultCode;
+                if (detail.isRetryable() && state.tries <= activity.getMaxTries()) {
+                    if (retryBudget.tryRetry()) {
+                        if (detail.backoff != null) {
+                            state.backoffNanos = detail.backoff.nextDelayNanos(state.tries, state.backoffNanos);
+                            backoffAndDispatch(started);
+                        } else {
+                            dispatch(started);
+                        }
+                        return;
+                    }
+                    instruments.onRetryDenied();
+                }
+            }
+            instruments.onTries(state.tries);
+
+            if (state.op instanceof OpGenerator) {
+                logger.trace("GEN OP for cycle(" + cycle + ")");
+                state.op = ((OpGenerator) state.op).getNextOp();
+                if (state.op != null) {
+                    state.tries = 0;
+                    state.backoffNanos = 0L;
+                    dispatch(started);
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            completionError = e;
+            started.fail(state.code != 0 ? state.code : -1);
+            return;
+        }
+
+        if (state.code == 0) {
+            started.succeed(state.code);
+        } else {
+            started.fail(state.code);
+        }
+    }
+
+    private void backoffAndDispatch(StartedOp<AsyncOpState> started) {
+        AsyncOpState state = started.getOpData();
+        if (state.op instanceof AsyncCycleOp<?>) {
+            long backoffStartedAt = System.nanoTime();
+            CompletableFuture.delayedExecutor(state.backoffNanos, TimeUnit.NANOSECONDS).execute(() -> {
+                instruments.onBackoff(System.nanoTime() - backoffStartedAt);
+                dispatch(started);
+            });
+        } else {
+            instruments.onBackoff(StandardAction.park(state.backoffNanos));
+            dispatch(started);
+        }
+    }
+
+    /**
+     * The state for each cycle in flight, which is carried across retries
+     * and across the ops of an {@link OpGenerator}.
+     */
+    public final static class AsyncOpState {
+        private final OpDispenser<? extends Op> dispenser;
+        private Op op;
+        private Object result;
+        private int tries;
+        private long backoffNanos;
+        private int code;
+
+        private AsyncOpState(OpDispenser<? extends Op> dispenser, Op op) {
+            this.dispenser = dispenser;
+            this.op = op;
+        }
+
+        @Override
+        public String toString() {
+            return "AsyncOpState{op=" + op + ", tries=" + tries + ", code=" + code + "}";
+        }
+    }
+}
@@ -22,8 +22,11 @@ import io.nosqlbench.engine.api.activityapi.core.ops.fluent.opfacets.SucceededOp
 import io.nosqlbench.engine.api.activityapi.core.ops.fluent.opfacets.EventedOpImpl;
 import io.nosqlbench.engine.api.activityapi.core.ops.fluent.opfacets.StartedOp;
 import io.nosqlbench.engine.api.activityapi.core.ops.fluent.opfacets.TrackedOp;
+import io.nosqlbench.api.engine.activityimpl.ActivityDef;
 import org.junit.jupiter.api.Test;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 public class OpTrackerImplTest {
 
     @Test
@@ -35,4 +38,31 @@ public class OpTrackerImplTest {
         SucceededOp stop = started.succeed(23);
     }
 
+    @Test
+    public void testMaxPendingOpsIsSplitBetweenThreads() {
+        ActivityDef def = ActivityDef.parseActivityDef("alias=test; async=10; threads=3;");
+        OpTrackerImpl<String> slot0 = new OpTrackerImpl<String>("test", 0, new Timer(), new Timer(), new Counter());
+        OpTrackerImpl<String> slot2 = new OpTrackerImpl<String>("test", 2, new Timer(), new Timer(), new Counter());
+        slot0.onActivityDefUpdate(def);
+        slot2.onActivityDefUpdate(def);
+        assertThat(slot0.getMaxPendingOps()).isEqualTo(4);
+        assertThat(slot2.getMaxPendingOps()).isEqualTo(3);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(slot2.isFull()).isFalse();
+            new EventedOpImpl<>(slot2).start();
+        }
+        assertThat(slot2.isFull()).isTrue();
+    }
+
+    @Test
+    public void testServiceTimeIsMeasuredFromScheduledStart() {
+        Timer serviceTimer = new Timer();
+        OpTrackerImpl<String> tracker = new OpTrackerImpl<String>("test", 0, serviceTimer, new Timer(), new Counter());
+        TrackedOp<String> tracked = new EventedOpImpl<>(tracker);
+        tracked.setWaitTime(5_000_000_000L);
+        tracked.start().succeed(0);
+        assertThat(serviceTimer.getSnapshot().getMax()).isGreaterThanOrEqualTo(5_000_000_000L);
+    }
+
 }
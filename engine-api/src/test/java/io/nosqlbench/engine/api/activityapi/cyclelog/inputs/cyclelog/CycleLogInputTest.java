@@ -16,12 +16,20 @@
 
 package io.nosqlbench.engine.api.activityapi.cyclelog.inputs.cyclelog;
 
+import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results.CycleResult;
+import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results.CycleResultsSegment;
 import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results.CycleSegment;
+import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results_rle.CycleResultsRLEBufferTarget;
 import io.nosqlbench.engine.api.activityapi.cyclelog.outputs.cyclelog.CycleLogOutput;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -73,4 +81,88 @@ public class CycleLogInputTest {
         assertThat(i1.isExhausted()).isTrue();
     }
 
+    @Test
+    public void testParallelSegmentReaders() throws Exception {
+        File multiSegmentFile = File.createTempFile("cycle-log-segments-test", "cyclelog");
+        multiSegmentFile.deleteOnExit();
+        CycleLogOutput out = new CycleLogOutput(multiSegmentFile, 7, 5, 2);
+        for (long cycle = 0; cycle < 10000; cycle++) {
+            out.onCycleResult(cycle, (int) (cycle % 3));
+        }
+        out.close();
+
+        CycleLogInput input = new CycleLogInput(multiSegmentFile.getPath());
+        ConcurrentLinkedQueue<Long> cycles = new ConcurrentLinkedQueue<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread reader = new Thread(() -> {
+                CycleSegment segment;
+                while ((segment = input.getInputSegment(13)) != null) {
+                    while (!segment.isExhausted()) {
+                        cycles.add(segment.nextCycle());
+                    }
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        input.close();
+
+        BitSet seen = new BitSet();
+        for (Long cycle : cycles) {
+            assertThat(seen.get(cycle.intValue())).as("cycle " + cycle + " read once").isFalse();
+            seen.set(cycle.intValue());
+        }
+        assertThat(cycles).hasSize(10000);
+        assertThat(seen.cardinality()).isEqualTo(10000);
+    }
+
+    @Test
+    public void testReadOriginalFormat() throws Exception {
+        File originalFile = File.createTempFile("cycle-log-original-test", "cyclelog");
+        originalFile.deleteOnExit();
+        CycleResultsRLEBufferTarget target = new CycleResultsRLEBufferTarget(10);
+        target.onCycleResult(1L, 11);
+        target.onCycleResult(2L, 11);
+        target.onCycleResult(3L, 33);
+        try (FileOutputStream fos = new FileOutputStream(originalFile)) {
+            fos.getChannel().write(target.toByteBuffer());
+        }
+
+        CycleLogInput input = new CycleLogInput(originalFile.getPath());
+        CycleSegment segment = input.getInputSegment(10);
+        assertThat(segment.nextCycle()).isEqualTo(1L);
+        assertThat(segment.nextCycle()).isEqualTo(2L);
+        assertThat(segment.nextCycle()).isEqualTo(3L);
+        assertThat(segment.isExhausted()).isTrue();
+        assertThat(input.getInputSegment(10)).isNull();
+        input.close();
+    }
+
+    @Test
+    public void testSegmentedIteratorIsFiltered() throws Exception {
+        File multiSegmentFile = File.createTempFile("cycle-log-filter-test", "cyclelog");
+        multiSegmentFile.deleteOnExit();
+        CycleLogOutput out = new CycleLogOutput(multiSegmentFile, 7, 5, 2);
+        for (long cycle = 0; cycle < 1000; cycle++) {
+            out.onCycleResult(cycle, (int) (cycle % 3));
+        }
+        out.close();
+
+        CycleLogInput input = new CycleLogInput(multiSegmentFile.getPath());
+        input.setFilter(r -> r.getResult() == 1);
+        long count = 0L;
+        for (CycleResultsSegment spans : input) {
+            for (CycleResult result : spans) {
+                assertThat(result.getResult()).isEqualTo(1);
+                count++;
+            }
+        }
+        input.close();
+        assertThat(count).isEqualTo(333L);
+    }
+
 }
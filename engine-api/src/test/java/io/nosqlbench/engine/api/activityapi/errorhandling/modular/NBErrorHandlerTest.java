@@ -49,6 +49,52 @@ public class NBErrorHandlerTest {
         assertThat(detail.isRetryable()).isTrue();
     }
 
+    @Test
+    public void testRetryWithBackoff() {
+        ErrorMetrics errorMetrics = new ErrorMetrics(ActivityDef.parseActivityDef("alias=testalias_backoff"));
+        NBErrorHandler eh = new NBErrorHandler(() -> "retry,handler=backoff type=fixed base=5ms", () -> errorMetrics);
+        ErrorDetail detail = eh.handleError(runtimeException, 1, 2);
+        assertThat(detail.isRetryable()).isTrue();
+        assertThat(detail.backoff).isNotNull();
+        assertThat(detail.backoff.nextDelayNanos(3, 0L)).isEqualTo(5_000_000L);
+    }
+
+    @Test
+    public void testBackoffPolicies() {
+        BackoffPolicy exponential = BackoffPolicy.exponential(1_000L, 100_000L);
+        for (int i = 0; i < 100; i++) {
+            assertThat(exponential.nextDelayNanos(1, 0L)).isBetween(0L, 1_000L);
+            assertThat(exponential.nextDelayNanos(3, 0L)).isBetween(0L, 4_000L);
+            assertThat(exponential.nextDelayNanos(80, 0L)).isBetween(0L, 100_000L);
+        }
+        BackoffPolicy decorrelated = BackoffPolicy.decorrelated(1_000L, 100_000L);
+        long delay = 0L;
+        for (int i = 0; i < 100; i++) {
+            long next = decorrelated.nextDelayNanos(i + 1, delay);
+            assertThat(next).isBetween(1_000L, Math.max(1_000L, Math.min(100_000L, delay * 3)));
+            delay = next;
+        }
+    }
+
+    @Test
+    public void testRetryBudget() {
+        RetryBudget budget = RetryBudget.of("0.5:0:2");
+        assertThat(budget.tryRetry()).isFalse();
+        for (int i = 0; i < 10; i++) {
+            budget.onPrimary();
+        }
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isFalse();
+        budget.onPrimary();
+        budget.onPrimary();
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isFalse();
+
+        assertThat(RetryBudget.unlimited().tryRetry()).isTrue();
+        assertThatExceptionOfType(RuntimeException.class).isThrownBy(() -> RetryBudget.of("0.2:x"));
+    }
+
     @Test
     public void testHistogramErrorHandler() {
         ErrorMetrics errorMetrics = new ErrorMetrics(ActivityDef.parseActivityDef("alias=testalias_histos"));
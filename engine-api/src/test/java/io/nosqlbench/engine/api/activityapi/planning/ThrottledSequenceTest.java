@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.activityapi.planning;
+
+import com.codahale.metrics.Timer;
+import io.nosqlbench.api.engine.activityimpl.ActivityDef;
+import io.nosqlbench.api.engine.metrics.ActivityMetrics;
+import io.nosqlbench.engine.api.activityapi.ratelimits.GcraRateLimiter;
+import io.nosqlbench.engine.api.activityapi.ratelimits.RateSpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ThrottledSequenceTest {
+
+    private static Sequence<String> sequence() {
+        SequencePlanner<String> planner = new SequencePlanner<>(SequencerType.bucket);
+        planner.addOp("A", 1);
+        planner.addOp("B", 1);
+        return planner.resolve();
+    }
+
+    @Test
+    public void testDeferTakesUnlimitedOp() {
+        ThrottledSequence<String> seq = new ThrottledSequence<>(
+            ActivityDef.parseActivityDef("alias=throttled_defer"), sequence(), List.of("A", "B"),
+            Arrays.asList(new RateSpec("1:1.0"), null), ThrottledSequence.Mode.defer, 4);
+
+        assertThat(seq.apply(0L)).isEqualTo("A");
+        // A is not due again for a second, so every cycle now lands on B
+        for (long cycle = 0; cycle < 100; cycle++) {
+            assertThat(seq.apply(cycle)).isEqualTo("B");
+        }
+    }
+
+    @Test
+    public void testUnlimitedOpsFollowTheSequence() {
+        ThrottledSequence<String> seq = new ThrottledSequence<>(
+            ActivityDef.parseActivityDef("alias=throttled_none"), sequence(), List.of("A", "B"),
+            Arrays.asList(null, null), ThrottledSequence.Mode.defer, 4);
+
+        for (long cycle = 0; cycle < 10; cycle++) {
+            assertThat(seq.apply(cycle)).isEqualTo(cycle % 2 == 0 ? "A" : "B");
+        }
+        assertThat(seq.transform(s -> s.toLowerCase()).apply(1L)).isEqualTo("b");
+    }
+
+    @Test
+    public void testWaitIsTimedPerOp() {
+        ActivityDef def = ActivityDef.parseActivityDef("alias=throttled_wait");
+        ThrottledSequence<String> seq = new ThrottledSequence<>(
+            def, sequence(), List.of("A", "B"),
+            Arrays.asList(new RateSpec("20:1.0"), null), ThrottledSequence.Mode.wait, 4);
+
+        assertThat(seq.apply(0L)).isEqualTo("A");
+        assertThat(seq.apply(1L)).isEqualTo("B");
+        // A is not due again for 50ms, so the thread blocks for it
+        assertThat(seq.apply(2L)).isEqualTo("A");
+
+        Timer waitA = ActivityMetrics.timer(def, "oprate.A.wait", 4);
+        assertThat(waitA.getCount()).isEqualTo(2L);
+        assertThat(waitA.getSnapshot().getMax()).isGreaterThanOrEqualTo(40_000_000L);
+        assertThat(ActivityMetrics.timer(def, "oprate.B.wait", 4).getCount()).isEqualTo(0L);
+    }
+
+    @Test
+    public void testGcraTryAcquire() {
+        GcraRateLimiter limiter = new GcraRateLimiter(new RateSpec("1:1.01"));
+        // one op is due at the start, and one more op interval may run ahead of schedule
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.activityapi.ratelimits;
+
+import io.nosqlbench.api.engine.activityimpl.ActivityDef;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class ArrivalScheduleTest {
+
+    private static ArrivalSchedule schedule(String alias, double rate, ArrivalSchedule.Arrivals arrivals) {
+        return new ArrivalSchedule(ActivityDef.parseActivityDef("alias=" + alias), "cycles", rate, arrivals);
+    }
+
+    @Test
+    public void testUniformStartsAreEvenlySpaced() {
+        ArrivalSchedule s = schedule("arrivals_uniform", 1000.0D, ArrivalSchedule.Arrivals.uniform);
+        long first = s.nextIntendedStart();
+        assertThat(s.nextIntendedStart() - first).isEqualTo(1_000_000L);
+        long last = 0L;
+        for (int i = 2; i <= 1000; i++) {
+            last = s.nextIntendedStart();
+        }
+        assertThat(last - first).isEqualTo(1_000_000_000L);
+    }
+
+    @Test
+    public void testRateChangeKeepsPosition() {
+        ArrivalSchedule s = schedule("arrivals_change", 1000.0D, ArrivalSchedule.Arrivals.uniform);
+        long before = 0L;
+        for (int i = 0; i <= 5000; i++) {
+            before = s.nextIntendedStart();
+        }
+        s.apply(2000.0D, ArrivalSchedule.Arrivals.uniform);
+        long after = s.nextIntendedStart();
+        // the next arrival was nearly 5s away at 1000/s, so it is now about 2.5s away
+        assertThat(after).isLessThan(before);
+        assertThat(s.nextIntendedStart() - after).isCloseTo(500_000L, within(1L));
+    }
+
+    @Test
+    public void testBacklogCountsLateCycles() throws InterruptedException {
+        ArrivalSchedule s = schedule("arrivals_backlog", 100_000.0D, ArrivalSchedule.Arrivals.uniform);
+        assertThat(s.getBacklog()).isEqualTo(0L);
+        long intended = s.waitForNextArrival();
+        Thread.sleep(20);
+        assertThat(s.getBacklog()).isGreaterThan(100L);
+        // a late cycle does not wait, and keeps its intended start
+        assertThat(s.waitForNextArrival()).isEqualTo(intended + 10_000L);
+    }
+
+    @Test
+    public void testArrivalsGoToTheFirstFreeThread() throws InterruptedException {
+        ArrivalSchedule s = schedule("arrivals_threads", 1000.0D, ArrivalSchedule.Arrivals.uniform);
+        int threads = 4;
+        int stride = 25;
+        long[][] intended = new long[threads][stride];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long[] mine = intended[t];
+            // Each thread owns a whole stride of cycles, as a motor does
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < stride; i++) {
+                    mine[i] = s.waitForNextArrival();
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join(5000);
+        }
+
+        long[] all = Arrays.stream(intended).flatMapToLong(Arrays::stream).sorted().toArray();
+        assertThat(all).hasSize(threads * stride);
+        for (int i = 1; i < all.length; i++) {
+            assertThat(all[i] - all[i - 1]).isEqualTo(1_000_000L);
+        }
+        // No thread waits for arrivals which are a stride or more away while others are free
+        for (long[] mine : intended) {
+            assertThat(mine[0] - all[0]).isLessThan(stride * 1_000_000L);
+        }
+    }
+
+    @Test
+    public void testPoissonAverageRate() {
+        ArrivalSchedule s = schedule("arrivals_poisson", 1000.0D, ArrivalSchedule.Arrivals.poisson);
+        long first = s.nextIntendedStart();
+        long last = first;
+        for (long cycle = 1; cycle <= 100_000; cycle++) {
+            long next = s.nextIntendedStart();
+            assertThat(next).isGreaterThanOrEqualTo(last);
+            last = next;
+        }
+        double meanGap = (last - first) / 100_000.0D;
+        assertThat(meanGap).isCloseTo(1_000_000.0D, within(20_000.0D));
+    }
+}
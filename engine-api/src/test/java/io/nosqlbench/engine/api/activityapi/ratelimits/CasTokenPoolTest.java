@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.activityapi.ratelimits;
+
+import io.nosqlbench.api.engine.activityimpl.ActivityDef;
+import io.nosqlbench.api.engine.activityimpl.ParameterMap;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CasTokenPoolTest {
+
+    ActivityDef def = new ActivityDef(ParameterMap.parseOrException("alias=testing"));
+
+    @Test
+    public void testSelectableAsService() {
+        TokenPool pool = TokenPool.FINDER.getOrThrow("cas").apply(def, new RateSpec(1000, 1.1));
+        assertThat(pool).isInstanceOf(CasTokenPool.class);
+        assertThat(pool.getRateSpec().getRate()).isEqualTo(1000.0D);
+    }
+
+    @Test
+    public void testHybridRateLimiterUsesSelectedPool() {
+        HybridRateLimiter rl = new HybridRateLimiter(def, "castest", new RateSpec(1000, 1.1).withTokenPool("cas"));
+        assertThat(rl.toString()).contains("tokenpool:'cas'");
+    }
+
+    @Test
+    public void testBlockAndTakeHoldsRate() {
+        CasTokenPool pool = new CasTokenPool(new RateSpec(1000, 1.0), def);
+        pool.start();
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            pool.blockAndTake();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(elapsed).isGreaterThanOrEqualTo(99_000_000L - pool.getRateSpec().getNanosPerOp());
+    }
+
+    @Test
+    public void testTakeUpToOnlyTakesElapsedTime() {
+        CasTokenPool pool = new CasTokenPool(new RateSpec(1, 1.0), def);
+        pool.start();
+        assertThat(pool.takeUpTo(1_000_000_000L)).isLessThan(1_000_000_000L);
+        assertThat(pool.restart()).isGreaterThanOrEqualTo(0L);
+    }
+
+}
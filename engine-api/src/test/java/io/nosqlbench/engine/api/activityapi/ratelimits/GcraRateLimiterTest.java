@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.activityapi.ratelimits;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GcraRateLimiterTest {
+
+    private static int burstAfterStart(RateSpec spec) {
+        GcraRateLimiter limiter = new GcraRateLimiter(spec);
+        int permits = 0;
+        while (limiter.tryAcquire()) {
+            permits++;
+        }
+        return permits;
+    }
+
+    @Test
+    public void testBurstSizeDoesNotDependOnRate() {
+        // The op which is due, and then (burstRatio - 1) * 100 more
+        assertThat(burstAfterStart(new RateSpec(10.0D, 1.1D))).isEqualTo(11);
+        assertThat(burstAfterStart(new RateSpec(1000.0D, 1.1D))).isEqualTo(11);
+        assertThat(burstAfterStart(new RateSpec(10.0D, 1.5D))).isEqualTo(51);
+        assertThat(burstAfterStart(new RateSpec(1000.0D, 1.5D))).isEqualTo(51);
+    }
+
+    @Test
+    public void testNoBurstWithoutBurstRatio() {
+        assertThat(burstAfterStart(new RateSpec(1000.0D, 1.0D))).isEqualTo(1);
+    }
+}
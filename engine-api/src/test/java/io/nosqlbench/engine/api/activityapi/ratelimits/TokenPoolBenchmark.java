@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.activityapi.ratelimits;
+
+import io.nosqlbench.api.engine.activityimpl.ActivityDef;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This compares the token pool implementations under contention. It is not run as
+ * part of the unit tests. Run the main method to compare the pools at 1 to 512
+ * threads. The rate is set high enough that the pool itself is the bottleneck,
+ * so the reported throughput is the ceiling of each pool at a given thread count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class TokenPoolBenchmark {
+
+    @Param({"threaded", "cas"})
+    public String pool;
+
+    @Param({"1E8"})
+    public String rate;
+
+    private TokenPool tokens;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ActivityDef def = ActivityDef.parseActivityDef("alias=tokenpoolbench");
+        RateSpec spec = new RateSpec(rate).withTokenPool(pool);
+        tokens = pool.equals("cas") ? new CasTokenPool(spec, def) : new ThreadDrivenTokenPool(spec, def);
+        tokens.start();
+    }
+
+    @Benchmark
+    public long blockAndTake() {
+        return tokens.blockAndTake();
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int threads = 1; threads <= 512; threads *= 2) {
+            Options options = new OptionsBuilder()
+                .include(TokenPoolBenchmark.class.getSimpleName())
+                .threads(threads)
+                .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.engine.api.activityimpl.marker;
+
+import io.nosqlbench.engine.api.activityapi.cyclelog.buffers.results.CycleResultsSegment;
+import io.nosqlbench.engine.api.activityapi.output.Output;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This measures result marking throughput in the {@link ContiguousOutputChunker} as the
+ * number of marking threads grows. It is not run as part of the unit tests. Run the main
+ * method to measure it at 1 to 16 threads. Each thread claims strides of contiguous cycles
+ * from a shared counter and marks them in order, like motor threads do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class ContiguousOutputChunkerBenchmark {
+
+    @Param({"100"})
+    public int stride;
+
+    private ContiguousOutputChunker chunker;
+    private final AtomicLong strides = new AtomicLong(0L);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        chunker = new ContiguousOutputChunker(0L, Long.MAX_VALUE, 1000000, 8);
+        chunker.addExtentReader(new DiscardingOutput());
+    }
+
+    @State(Scope.Thread)
+    public static class Motor {
+        private long next;
+        private long end;
+
+        private long nextCycle(ContiguousOutputChunkerBenchmark bench) {
+            if (next == end) {
+                next = bench.strides.getAndAdd(bench.stride);
+                end = next + bench.stride;
+            }
+            return next++;
+        }
+    }
+
+    @Benchmark
+    public boolean markResult(Motor motor) {
+        return chunker.onCycleResult(motor.nextCycle(this), 1);
+    }
+
+    private static class DiscardingOutput implements Output {
+        @Override
+        public boolean onCycleResult(long completedCycle, int result) {
+            return true;
+        }
+
+        @Override
+        public void onCycleResultSegment(CycleResultsSegment segment) {
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int threads = 1; threads <= 16; threads *= 2) {
+            Options options = new OptionsBuilder()
+                .include(ContiguousOutputChunkerBenchmark.class.getSimpleName())
+                .threads(threads)
+                .build();
+            new Runner(options).run();
+        }
+    }
+}
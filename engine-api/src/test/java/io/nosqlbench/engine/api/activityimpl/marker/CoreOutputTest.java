@@ -24,6 +24,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.StreamSupport;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -49,6 +50,42 @@ public class CoreOutputTest {
         assertThat(results).containsExactly(0,1,2,3);
     }
 
+    @Test
+    public void testConcurrentMarkingInOrder() throws Exception {
+        ContiguousOutputChunker chunker = new ContiguousOutputChunker(0, 100000, 10000, 2);
+        TestReader r = new TestReader();
+        chunker.addExtentReader(r);
+        AtomicLong strides = new AtomicLong(0L);
+
+        List<Thread> markers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread marker = new Thread(() -> {
+                long start;
+                while ((start = strides.getAndAdd(100)) < 100000) {
+                    for (long cycle = start; cycle < start + 100; cycle++) {
+                        chunker.onCycleResult(cycle, (int) (cycle % 7));
+                    }
+                }
+            });
+            markers.add(marker);
+            marker.start();
+        }
+        for (Thread marker : markers) {
+            marker.join();
+        }
+
+        assertThat(r.segments).hasSize(10);
+        long expected = 0L;
+        for (CycleResultsSegment segment : r.segments) {
+            for (CycleResult cycleResult : segment) {
+                assertThat(cycleResult.getCycle()).isEqualTo(expected);
+                assertThat(cycleResult.getResult()).isEqualTo((int) (expected % 7));
+                expected++;
+            }
+        }
+        assertThat(expected).isEqualTo(100000L);
+    }
+
     private static class TestReader implements Output {
         List<CycleResultsSegment> segments = new ArrayList<>();
 
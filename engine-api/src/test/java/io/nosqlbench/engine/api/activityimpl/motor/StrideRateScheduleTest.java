@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.activityimpl.motor;
+
+import io.nosqlbench.api.engine.activityimpl.ActivityDef;
+import io.nosqlbench.engine.api.activityapi.ratelimits.HybridRateLimiter;
+import io.nosqlbench.engine.api.activityapi.ratelimits.RateSpec;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StrideRateScheduleTest {
+
+    @Test
+    public void testCyclesArePacedWithinStride() {
+        // The schedule starts when the rate limiter does, so the clock has to start before it
+        long start = System.nanoTime();
+        HybridRateLimiter rl = new HybridRateLimiter(
+            ActivityDef.parseActivityDef("alias=stridebatch_cas"), "cycles", new RateSpec(1000, 1.1).withTokenPool("cas"));
+        StrideRateSchedule schedule = new StrideRateSchedule();
+
+        for (int stride = 0; stride < 3; stride++) {
+            schedule.startStride(rl, 10);
+            for (int cycle = 0; cycle < 10; cycle++) {
+                assertThat(schedule.maybeWaitForOp()).isGreaterThanOrEqualTo(0L);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(elapsed).isGreaterThanOrEqualTo(28_000_000L);
+    }
+
+    @Test
+    public void testLateStrideCatchesUpAtBurstRate() throws InterruptedException {
+        HybridRateLimiter rl = new HybridRateLimiter(
+            ActivityDef.parseActivityDef("alias=stridebatch_late"), "cycles", new RateSpec(1000, 1.1).withTokenPool("cas"));
+        StrideRateSchedule schedule = new StrideRateSchedule();
+
+        schedule.startStride(rl, 10);
+        Thread.sleep(20);
+        long start = System.nanoTime();
+        for (int cycle = 0; cycle < 10; cycle++) {
+            assertThat(schedule.maybeWaitForOp()).isGreaterThan(0L);
+        }
+        long elapsed = System.nanoTime() - start;
+        // all 10 cycles are late, but may only start 1/1.1 ms apart
+        assertThat(elapsed).isGreaterThanOrEqualTo(8_000_000L);
+    }
+
+    @Test
+    public void testStrideLargerThanThreadedPool() {
+        HybridRateLimiter rl = new HybridRateLimiter(
+            ActivityDef.parseActivityDef("alias=stridebatch_threaded"), "cycles", new RateSpec(1000, 1.1));
+        StrideRateSchedule schedule = new StrideRateSchedule();
+
+        long start = System.nanoTime();
+        for (int stride = 0; stride < 3; stride++) {
+            schedule.startStride(rl, 10);
+            for (int cycle = 0; cycle < 10; cycle++) {
+                assertThat(schedule.maybeWaitForOp()).isGreaterThanOrEqualTo(0L);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(elapsed).isGreaterThanOrEqualTo(20_000_000L);
+    }
+
+}
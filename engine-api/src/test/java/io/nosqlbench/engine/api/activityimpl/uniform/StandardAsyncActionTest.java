@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.activityimpl.uniform;
+
+import com.codahale.metrics.Timer;
+import io.nosqlbench.api.engine.activityimpl.ActivityDef;
+import io.nosqlbench.engine.api.activityapi.core.Motor;
+import io.nosqlbench.engine.api.activityapi.core.RunState;
+import io.nosqlbench.engine.api.activityapi.core.ops.fluent.OpTrackerImpl;
+import io.nosqlbench.engine.api.activityapi.core.ops.fluent.opfacets.*;
+import io.nosqlbench.engine.api.activityimpl.input.AtomicInput;
+import io.nosqlbench.engine.api.activityimpl.motor.CoreMotor;
+import io.nosqlbench.engine.api.activityimpl.uniform.StandardAsyncAction.AsyncOpState;
+import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StandardAsyncActionTest {
+
+    private static StandardActivity<Op, Object> activity(String params) {
+        return activity(params, "stop");
+    }
+
+    private static StandardActivity<Op, Object> activity(String params, String errors) {
+        ActivityDef def = ActivityDef.parseActivityDef("driver=testops;op=test;" + params);
+        def.getParams().set("errors", errors);
+        StandardActivity<Op, Object> activity = new StandardActivity<>(def);
+        activity.initActivity();
+        return activity;
+    }
+
+    private static OpTrackerImpl<AsyncOpState> tracker(StandardActivity<Op, Object> activity, StandardAsyncAction<?, ?> action) {
+        OpTrackerImpl<AsyncOpState> tracker = new OpTrackerImpl<>(activity, 0);
+        tracker.onActivityDefUpdate(activity.getActivityDef());
+        tracker.setCycleOpFunction(action.getOpInitFunction());
+        return tracker;
+    }
+
+    /**
+     * Records the result of each cycle, in place of the stride tracker of the motor.
+     */
+    private static class Completions implements OpEvents<AsyncOpState> {
+        private final Map<Long, Integer> results = new ConcurrentHashMap<>();
+        private final CountDownLatch completed;
+
+        private Completions(int cycles) {
+            this.completed = new CountDownLatch(cycles);
+        }
+
+        @Override
+        public void onOpStarted(StartedOp<AsyncOpState> op) {
+        }
+
+        @Override
+        public void onOpSuccess(SucceededOp<AsyncOpState> op) {
+            onCompleted(op);
+        }
+
+        @Override
+        public void onOpSkipped(SkippedOp<AsyncOpState> op) {
+            onCompleted(op);
+        }
+
+        @Override
+        public void onOpFailure(FailedOp<AsyncOpState> op) {
+            onCompleted(op);
+        }
+
+        private void onCompleted(CompletedOp<AsyncOpState> op) {
+            results.put(op.getCycle(), op.getResult());
+            completed.countDown();
+        }
+
+        private boolean await() throws InterruptedException {
+            return completed.await(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testInlineOpsAreRetriedOnTheMotorThread() throws Exception {
+        List<Thread> triedOn = new CopyOnWriteArrayList<>();
+        AtomicInteger tries = new AtomicInteger();
+        TestOpsDriverAdapter.setOps(cycle -> (RunnableOp) () -> {
+            triedOn.add(Thread.currentThread());
+            if (tries.incrementAndGet() < 3) {
+                throw new RuntimeException("failed try " + tries.get());
+            }
+        });
+        StandardActivity<Op, Object> activity = activity("alias=asyncinlineretries;async=1;maxtries=3",
+            "retry,handler=backoff type=fixed base=20ms");
+        StandardAsyncAction<StandardActivity<Op, Object>, Op> action = new StandardAsyncAction<>(activity, 0);
+        OpTrackerImpl<AsyncOpState> tracker = tracker(activity, action);
+        Completions completions = new Completions(1);
+
+        action.enqueue(tracker.newOp(0L, completions));
+
+        assertThat(completions.await()).isTrue();
+        assertThat(triedOn).hasSize(3).containsOnly(Thread.currentThread());
+        Timer backoff = activity.getInstrumentation().getOrCreateBackoffTimer();
+        assertThat(backoff.getCount()).isEqualTo(2);
+        // The actual wait is recorded, which is never shorter than the backoff
+        assertThat(backoff.getSnapshot().getMin()).isGreaterThanOrEqualTo(19_000_000L);
+    }
+
+    @Test
+    public void testAsyncOpsAreRetriedWithoutBlockingTheMotor() throws Exception {
+        List<Thread> triedOn = new CopyOnWriteArrayList<>();
+        AtomicInteger tries = new AtomicInteger();
+        TestOpsDriverAdapter.setOps(cycle -> (AsyncCycleOp<Object>) value -> {
+            triedOn.add(Thread.currentThread());
+            if (tries.incrementAndGet() < 3) {
+                return CompletableFuture.failedFuture(new RuntimeException("failed try " + tries.get()));
+            }
+            return CompletableFuture.completedFuture("done");
+        });
+        StandardActivity<Op, Object> activity = activity("alias=asyncasyncretries;async=1;maxtries=3",
+            "retry,handler=backoff type=fixed base=100ms");
+        StandardAsyncAction<StandardActivity<Op, Object>, Op> action = new StandardAsyncAction<>(activity, 0);
+        OpTrackerImpl<AsyncOpState> tracker = tracker(activity, action);
+        Completions completions = new Completions(1);
+
+        action.enqueue(tracker.newOp(0L, completions));
+        // The motor is free again as soon as the first try fails
+        assertThat(triedOn).hasSize(1);
+
+        assertThat(completions.await()).isTrue();
+        assertThat(triedOn).hasSize(3);
+        assertThat(triedOn.get(1)).isNotSameAs(Thread.currentThread());
+        Timer backoff = activity.getInstrumentation().getOrCreateBackoffTimer();
+        assertThat(backoff.getCount()).isEqualTo(2);
+        assertThat(backoff.getSnapshot().getMin()).isGreaterThanOrEqualTo(99_000_000L);
+    }
+
+    @Test
+    public void testInFlightOpsAreLimitedByAsync() throws Exception {
+        ScheduledExecutorService driver = Executors.newSingleThreadScheduledExecutor();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        TestOpsDriverAdapter.setOps(cycle -> (AsyncCycleOp<Object>) value -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            driver.schedule(() -> {
+                inFlight.decrementAndGet();
+                completed.incrementAndGet();
+                future.complete(value);
+            }, 1, TimeUnit.MILLISECONDS);
+            return future;
+        });
+        StandardActivity<Op, Object> activity = activity("alias=asyncinflight;async=4;cycles=200");
+        Motor motor = new CoreMotor(activity, 0L, new AtomicInput(activity.getActivityDef()));
+        motor.setAction(new StandardAsyncAction<>(activity, 0));
+        motor.getSlotStateTracker().enterState(RunState.Starting);
+
+        Thread thread = new Thread(motor);
+        thread.setName("asyncinflight");
+        thread.start();
+        thread.join(10_000);
+        driver.shutdown();
+
+        assertThat(completed.get()).isEqualTo(200);
+        assertThat(maxInFlight.get()).isGreaterThan(1).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    public void testGeneratedOpsAreChainedWithinTheCycle() throws Exception {
+        List<Object> chainedFrom = new CopyOnWriteArrayList<>();
+        ChainingOp<Object, Object> next = in -> {
+            chainedFrom.add(in);
+            return in + " chained";
+        };
+        TestOpsDriverAdapter.setOps(cycle -> new GeneratingOp("first of " + cycle, next));
+        StandardActivity<Op, Object> activity = activity("alias=asyncchaining;async=1");
+        StandardAsyncAction<StandardActivity<Op, Object>, Op> action = new StandardAsyncAction<>(activity, 0);
+        OpTrackerImpl<AsyncOpState> tracker = tracker(activity, action);
+        Completions completions = new Completions(2);
+
+        action.enqueue(tracker.newOp(0L, completions));
+        action.enqueue(tracker.newOp(1L, completions));
+
+        assertThat(completions.await()).isTrue();
+        assertThat(chainedFrom).containsExactlyInAnyOrder("first of 0", "first of 1");
+        assertThat(completions.results).containsEntry(0L, 0).containsEntry(1L, 0);
+    }
+
+    @Test
+    public void testCompletionErrorsAreRaisedOnEnqueue() throws Exception {
+        TestOpsDriverAdapter.setOps(cycle -> (AsyncCycleOp<Object>) value ->
+            CompletableFuture.supplyAsync(() -> {
+                throw new RuntimeException("failed cycle " + value);
+            }));
+        StandardActivity<Op, Object> activity = activity("alias=asynccompletionerror;async=2");
+        StandardAsyncAction<StandardActivity<Op, Object>, Op> action = new StandardAsyncAction<>(activity, 0);
+        OpTrackerImpl<AsyncOpState> tracker = tracker(activity, action);
+        Completions completions = new Completions(1);
+
+        action.enqueue(tracker.newOp(0L, completions));
+        assertThat(completions.await()).isTrue();
+        assertThat(completions.results.get(0L)).isNotZero();
+
+        // errors=stop throws on the thread of the driver, so it is raised when the motor enqueues the next op
+        assertThatThrownBy(() -> action.enqueue(tracker.newOp(1L, completions)))
+            .hasMessageContaining("failed cycle 0");
+    }
+
+    /**
+     * An async op which completes on another thread, and is followed by the given op.
+     */
+    private static class GeneratingOp implements AsyncCycleOp<Object>, OpGenerator {
+        private final Object result;
+        private final Op next;
+
+        private GeneratingOp(Object result, Op next) {
+            this.result = result;
+            this.next = next;
+        }
+
+        @Override
+        public CompletionStage<Object> apply(long value) {
+            return CompletableFuture.supplyAsync(() -> result);
+        }
+
+        @Override
+        public Op getNextOp() {
+            return next;
+        }
+    }
+}
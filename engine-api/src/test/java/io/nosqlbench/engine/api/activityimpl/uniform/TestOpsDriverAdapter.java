@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.activityimpl.uniform;
+
+import io.nosqlbench.engine.api.activityimpl.BaseOpDispenser;
+import io.nosqlbench.engine.api.activityimpl.OpMapper;
+import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.Op;
+import io.nosqlbench.engine.api.activityimpl.uniform.flowtypes.RunnableOp;
+import io.nosqlbench.nb.annotations.Service;
+
+import java.util.function.LongFunction;
+
+/**
+ * A driver for tests of the standard actions. Every op template dispenses the ops which were
+ * given to {@link #setOps(LongFunction)} by the test.
+ */
+@Service(value = DriverAdapter.class, selector = "testops")
+public class TestOpsDriverAdapter extends BaseDriverAdapter<Op, Object> {
+
+    private static volatile LongFunction<Op> ops = cycle -> (RunnableOp) () -> {
+    };
+
+    public static void setOps(LongFunction<Op> ops) {
+        TestOpsDriverAdapter.ops = ops;
+    }
+
+    @Override
+    public OpMapper<Op> getOpMapper() {
+        return pop -> new BaseOpDispenser<Op, Object>(this, pop) {
+            @Override
+            public Op apply(long cycle) {
+                return ops.apply(cycle);
+            }
+        };
+    }
+}
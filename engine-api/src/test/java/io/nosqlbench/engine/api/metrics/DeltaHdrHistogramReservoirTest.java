@@ -18,9 +18,39 @@ package io.nosqlbench.engine.api.metrics;
 
 import com.codahale.metrics.Snapshot;
 import io.nosqlbench.api.engine.metrics.DeltaHdrHistogramReservoir;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 public class DeltaHdrHistogramReservoirTest {
 
+    @Test
+    public void testViewsDoNotStealFromEachOther() {
+        DeltaHdrHistogramReservoir dhhr = new DeltaHdrHistogramReservoir("views", 4);
+        DeltaHdrHistogramReservoir.IntervalView logView = dhhr.newIntervalView();
+        DeltaHdrHistogramReservoir.IntervalView statsView = dhhr.newIntervalView();
+
+        dhhr.update(10L);
+        dhhr.update(20L);
+        assertThat(dhhr.getSnapshot().size()).isEqualTo(2);
+
+        dhhr.update(30L);
+        Histogram logged = logView.getNextHdrDeltaHistogram();
+        assertThat(logged.getTotalCount()).isEqualTo(3L);
+        assertThat(logged.getMaxValue()).isEqualTo(30L);
+        assertThat(logged.getTag()).isEqualTo("views");
+
+        Histogram stats = statsView.getNextHdrDeltaHistogram();
+        assertThat(stats.getTotalCount()).isEqualTo(3L);
+        assertThat(dhhr.getSnapshot().size()).isEqualTo(1);
+
+        assertThat(logView.getNextHdrDeltaHistogram().getTotalCount()).isEqualTo(0L);
+        dhhr.update(40L);
+        assertThat(logView.getNextHdrDeltaHistogram().getTotalCount()).isEqualTo(1L);
+        assertThat(statsView.getNextHdrDeltaHistogram().getTotalCount()).isEqualTo(1L);
+    }
+
 //    @Test
 //    public void testStartAndEndTimes() throws IOException {
 ////        File tempFile = new File("/tmp/test.hdr");
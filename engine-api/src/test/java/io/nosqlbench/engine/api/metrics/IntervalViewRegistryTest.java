@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.api.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import io.nosqlbench.api.engine.metrics.DeltaHdrHistogramReservoir;
+import io.nosqlbench.api.engine.metrics.DeltaSnapshotReader;
+import io.nosqlbench.api.engine.metrics.IntervalViewRegistry;
+import io.nosqlbench.api.engine.metrics.NicerTimer;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IntervalViewRegistryTest {
+
+    @Test
+    public void testConsumersAtDifferentIntervalsSeeEverySampleOnce() {
+        MetricRegistry source = new MetricRegistry();
+        IntervalViewRegistry fastReporter = new IntervalViewRegistry(source);
+        IntervalViewRegistry slowReporter = new IntervalViewRegistry(source);
+        NicerTimer timer = source.register("alias.result", new NicerTimer("alias.result", new DeltaHdrHistogramReservoir("alias.result", 4)));
+        DeltaSnapshotReader scripting = timer.getDeltaReader();
+
+        long fastSeen = 0L;
+        long slowSeen = 0L;
+        long scriptSeen = 0L;
+        long recorded = 0L;
+        for (int tick = 1; tick <= 12; tick++) {
+            for (int i = 0; i < tick; i++) {
+                timer.update(tick, TimeUnit.MILLISECONDS);
+                recorded++;
+            }
+            // The default view is read by other readers in between
+            timer.getSnapshot();
+
+            fastSeen += fastReporter.getTimers().get("alias.result").getSnapshot().size();
+            if (tick % 3 == 0) {
+                slowSeen += slowReporter.getTimers().get("alias.result").getSnapshot().size();
+            }
+            if (tick % 4 == 0) {
+                scriptSeen += scripting.getDeltaSnapshot().size();
+            }
+        }
+
+        assertThat(recorded).isEqualTo(78L);
+        assertThat(fastSeen).isEqualTo(recorded);
+        assertThat(slowSeen).isEqualTo(recorded);
+        assertThat(scriptSeen).isEqualTo(recorded);
+
+        Timer viewed = slowReporter.getTimers().get("alias.result");
+        assertThat(viewed).isNotSameAs(timer);
+        assertThat(viewed.getCount()).isEqualTo(recorded);
+        assertThat(viewed.getSnapshot().size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testViewIsDetachedWhenMetricIsRemoved() {
+        MetricRegistry source = new MetricRegistry();
+        IntervalViewRegistry reporter = new IntervalViewRegistry(source);
+        NicerTimer timer = source.register("alias.removed", new NicerTimer("alias.removed", new DeltaHdrHistogramReservoir("alias.removed", 4)));
+        timer.update(1L, TimeUnit.MILLISECONDS);
+
+        assertThat(reporter.getTimers()).containsKey("alias.removed");
+        source.remove("alias.removed");
+        assertThat(reporter.getTimers()).doesNotContainKey("alias.removed");
+        reporter.close();
+    }
+}
@@ -40,25 +40,19 @@ public class NicerHistogramTest {
         }
         ConvenientSnapshot deltaSnapshot1 = nh.getDeltaSnapshot(500);
         assertThat(deltaSnapshot1.getMax()).isEqualTo(200);
+        assertThat(deltaSnapshot1.size()).isEqualTo(200);
+
+        // The delta reader has its own view, so it does not take the values from the snapshot
+        ConvenientSnapshot nextSnapshot = nh.getSnapshot();
+        assertThat(nextSnapshot.getMax()).isEqualTo(200);
+        assertThat(nextSnapshot.size()).isEqualTo(200);
 
-        ConvenientSnapshot cachedSnapshot = nh.getSnapshot();
-        assertThat(cachedSnapshot.getMax()).isEqualTo(200);
         for (int i=1; i<= 300; i++ ) {
             nh.update(i);
         }
-        ConvenientSnapshot stillCachedSnapshot = nh.getSnapshot();
-        assertThat(stillCachedSnapshot.getMax()).isEqualTo(200);
-
-        try {
-            Thread.sleep(501);
-        } catch (InterruptedException ignored) {
-        }
-
-        ConvenientSnapshot notCachedAnyMoreSnapshot = nh.getSnapshot();
-        notCachedAnyMoreSnapshot.getMax();
-        assertThat(notCachedAnyMoreSnapshot.getMax()).isEqualTo(300);
-
-
+        assertThat(nh.getDeltaReader().getDeltaSnapshot().getMax()).isEqualTo(300);
+        assertThat(nh.getSnapshot().getMax()).isEqualTo(300);
+        assertThat(nh.getDeltaSnapshot(500).size()).isEqualTo(0);
     }
 
 }
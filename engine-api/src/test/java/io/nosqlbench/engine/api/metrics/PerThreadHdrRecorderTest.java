@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.engine.api.metrics;
+
+import io.nosqlbench.api.engine.metrics.DeltaHdrHistogramReservoir;
+import io.nosqlbench.api.engine.metrics.HdrIntervalRecorder;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PerThreadHdrRecorderTest {
+
+    @Test
+    public void testMergedIntervalsFromThreads() throws Exception {
+        DeltaHdrHistogramReservoir reservoir =
+            new DeltaHdrHistogramReservoir("perthread", 4, HdrIntervalRecorder.PER_THREAD);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long base = t * 1000L;
+            threads.add(new Thread(() -> {
+                for (int i = 1; i <= 1000; i++) {
+                    reservoir.update(base + i);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Histogram first = reservoir.getNextHdrHistogram();
+        assertThat(first.getTotalCount()).isEqualTo(4000L);
+        assertThat(first.getMinValue()).isEqualTo(1L);
+        assertThat(first.getMaxValue()).isEqualTo(4000L);
+        assertThat(first.getTag()).isEqualTo("perthread");
+
+        reservoir.update(42L);
+        Histogram second = reservoir.getNextHdrHistogram();
+        assertThat(second.getTotalCount()).isEqualTo(1L);
+        assertThat(second.getMaxValue()).isEqualTo(42L);
+
+        assertThat(reservoir.getNextHdrHistogram().getTotalCount()).isEqualTo(0L);
+    }
+
+    @Test
+    public void testCopySettingsKeepsRecorderType() {
+        DeltaHdrHistogramReservoir reservoir =
+            new DeltaHdrHistogramReservoir("perthread", 3, HdrIntervalRecorder.PER_THREAD).copySettings();
+        reservoir.update(7L);
+        assertThat(reservoir.getNextHdrHistogram().getTotalCount()).isEqualTo(1L);
+        assertThat(reservoir.getLastHistogram().getNumberOfSignificantValueDigits()).isEqualTo(3);
+    }
+}
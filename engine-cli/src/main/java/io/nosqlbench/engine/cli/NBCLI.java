@@ -241,6 +241,7 @@ public class NBCLI implements Function<String[], Integer> {
         NBIO.addGlobalIncludes(options.wantsIncludes());
 
         ActivityMetrics.setHdrDigits(options.getHdrDigits());
+        ActivityMetrics.setHdrRecorder(options.getHdrRecorder());
 
         if (options.wantsBasicHelp()) {
             System.out.println(loadHelpFile("basic.md"));
@@ -374,7 +375,8 @@ public class NBCLI implements Function<String[], Integer> {
                 .build()
         );
 
-        if (reportGraphiteTo != null || options.wantsReportCsvTo() != null) {
+        if (reportGraphiteTo != null || options.wantsReportCsvTo() != null
+            || options.wantsReportPromEndpoint() != null || options.wantsReportPromRemoteTo() != null) {
             MetricReporters reporters = MetricReporters.getInstance();
             reporters.addRegistry("workloads", ActivityMetrics.getMetricRegistry());
 
@@ -384,6 +386,9 @@ public class NBCLI implements Function<String[], Integer> {
             if (options.wantsReportCsvTo() != null) {
                 reporters.addCSVReporter(options.wantsReportCsvTo(), options.wantsMetricsPrefix());
             }
+            if (options.wantsReportPromEndpoint() != null || options.wantsReportPromRemoteTo() != null) {
+                reporters.addPrometheus(options.wantsReportPromEndpoint(), options.wantsReportPromRemoteTo(), options.wantsMetricsPrefix());
+            }
             reporters.start(10, options.getReportInterval());
         }
 
@@ -17,6 +17,7 @@
 package io.nosqlbench.engine.cli;
 
 import io.nosqlbench.engine.api.metrics.IndicatorMode;
+import io.nosqlbench.api.engine.metrics.HdrIntervalRecorder;
 import io.nosqlbench.api.engine.util.Unit;
 import io.nosqlbench.engine.core.script.Scenario;
 import io.nosqlbench.nb.annotations.Maturity;
@@ -85,6 +86,7 @@ public class NBCLIOptions {
     private static final String EXPORT_CYCLE_LOG = "--export-cycle-log";
     private static final String IMPORT_CYCLE_LOG = "--import-cycle-log";
     private static final String HDR_DIGITS = "--hdr-digits";
+    private static final String HDR_RECORDER = "--hdr-recorder";
 
     // Execution Options
 
@@ -101,6 +103,8 @@ public class NBCLIOptions {
     private static final String REPORT_GRAPHITE_TO = "--report-graphite-to";
     private static final String GRAPHITE_LOG_LEVEL = "--graphite-log-level";
     private static final String REPORT_CSV_TO = "--report-csv-to";
+    private static final String REPORT_PROM_ENDPOINT = "--report-prom-endpoint";
+    private static final String REPORT_PROM_REMOTE_TO = "--report-prom-remote-to";
     private static final String REPORT_SUMMARY_TO = "--report-summary-to";
     private final static String REPORT_SUMMARY_TO_DEFAULT = "stdout:60,_LOGS_/_SESSION_.summary";
     private static final String PROGRESS = "--progress";
@@ -138,6 +142,8 @@ public class NBCLIOptions {
     private boolean wantsBasicHelp = false;
     private String reportGraphiteTo = null;
     private String reportCsvTo = null;
+    private String reportPromEndpoint = null;
+    private String reportPromRemoteTo = null;
     private int reportInterval = 10;
     private String metricsPrefix = "nosqlbench";
     private String wantsMetricsForActivity;
@@ -167,6 +173,7 @@ public class NBCLIOptions {
     private final List<String> wantsToIncludePaths = new ArrayList<>();
     private Scenario.Engine engine = Scenario.Engine.Graalvm;
     private int hdr_digits = 3;
+    private String hdrRecorder = HdrIntervalRecorder.SHARED;
     private String docker_grafana_tag = "7.3.4";
     private String docker_prom_tag = "latest";
     private boolean showStackTraces = false;
@@ -532,6 +539,14 @@ public class NBCLIOptions {
                     arglist.removeFirst();
                     hdr_digits = Integer.parseInt(readWordOrThrow(arglist, "significant digits"));
                     break;
+                case HDR_RECORDER:
+                    arglist.removeFirst();
+                    hdrRecorder = readWordOrThrow(arglist, "an hdr recorder type, either shared or perthread");
+                    if (!hdrRecorder.equals(HdrIntervalRecorder.SHARED) && !hdrRecorder.equals(HdrIntervalRecorder.PER_THREAD)) {
+                        throw new BasicError("The hdr recorder type must be either " + HdrIntervalRecorder.SHARED +
+                            " or " + HdrIntervalRecorder.PER_THREAD + ", not '" + hdrRecorder + "'");
+                    }
+                    break;
                 case PROGRESS:
                     arglist.removeFirst();
                     progressSpec = readWordOrThrow(arglist, "a progress indicator, like 'log:1m' or 'screen:10s', or just 'log' or 'screen'");
@@ -582,6 +597,14 @@ public class NBCLIOptions {
                     arglist.removeFirst();
                     reportCsvTo = arglist.removeFirst();
                     break;
+                case REPORT_PROM_ENDPOINT:
+                    arglist.removeFirst();
+                    reportPromEndpoint = readWordOrThrow(arglist, "a port or host:port to serve prometheus metrics on");
+                    break;
+                case REPORT_PROM_REMOTE_TO:
+                    arglist.removeFirst();
+                    reportPromRemoteTo = readWordOrThrow(arglist, "a prometheus remote-write URL");
+                    break;
                 case REPORT_SUMMARY_TO:
                     arglist.removeFirst();
                     reportSummaryTo = readWordOrThrow(arglist, "report summary file");
@@ -794,6 +817,10 @@ public class NBCLIOptions {
         return hdr_digits;
     }
 
+    public String getHdrRecorder() {
+        return hdrRecorder;
+    }
+
     public String getProgressSpec() {
         ProgressSpec spec = parseProgressSpec(this.progressSpec);// sanity check
         if (spec.indicatorMode == IndicatorMode.console) {
@@ -826,6 +853,14 @@ public class NBCLIOptions {
         return reportCsvTo;
     }
 
+    public String wantsReportPromEndpoint() {
+        return reportPromEndpoint;
+    }
+
+    public String wantsReportPromRemoteTo() {
+        return reportPromRemoteTo;
+    }
+
     public Path getLogsDirectory() {
         return Path.of(logsDirectory);
     }
@@ -21,6 +21,8 @@ import io.nosqlbench.engine.api.activityapi.core.progress.ProgressMeterDisplay;
 import io.nosqlbench.api.engine.activityimpl.ActivityDef;
 import io.nosqlbench.api.engine.activityimpl.ParameterMap;
 import io.nosqlbench.engine.core.annotation.Annotators;
+import io.nosqlbench.engine.core.lifecycle.adaptive.AdaptiveConcurrencyController;
+import io.nosqlbench.engine.core.lifecycle.adaptive.AdaptiveConfig;
 import io.nosqlbench.api.annotations.Annotation;
 import io.nosqlbench.api.annotations.Layer;
 import org.apache.logging.log4j.LogManager;
@@ -29,6 +31,7 @@ import org.apache.logging.log4j.Logger;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -65,6 +68,7 @@ public class ActivityExecutor implements ActivityController, ParameterMap.Listen
     private long startedAt = 0L;
     private long stoppedAt = 0L;
     private String[] annotatedCommand;
+    private AdaptiveConcurrencyController adaptive;
 
 //    private RunState intendedState = RunState.Uninitialized;
 
@@ -75,13 +79,31 @@ public class ActivityExecutor implements ActivityController, ParameterMap.Listen
                 0, Integer.MAX_VALUE,
                 0L, TimeUnit.SECONDS,
                 new SynchronousQueue<>(),
-                new IndexedThreadFactory(activity.getAlias(), new ActivityExceptionHandler(this))
+                createThreadFactory(activity)
         );
         activity.getActivityDef().getParams().addListener(this);
         activity.setActivityController(this);
         this.sessionId = sessionId;
     }
 
+    /**
+     * Create the thread factory for motor threads, according to the <em>executor</em> parameter.
+     * Either way, each motor runs in its own thread with the same naming scheme.
+     */
+    private ThreadFactory createThreadFactory(Activity activity) {
+        String executor = activity.getActivityDef().getParams().getOptionalString("executor").orElse("platform");
+        ActivityExceptionHandler exceptionHandler = new ActivityExceptionHandler(this);
+        switch (executor) {
+            case "platform":
+                return new IndexedThreadFactory(activity.getAlias(), exceptionHandler);
+            case "virtual":
+                logger.info("using virtual threads for activity " + activity.getAlias());
+                return new VirtualThreadFactory(activity.getAlias(), exceptionHandler);
+            default:
+                throw new RuntimeException("Unknown executor '" + executor + "' for activity " + activity.getAlias() + ", valid options are platform or virtual");
+        }
+    }
+
     public void setSessionId(String sessionId) {
         this.sessionId = sessionId;
     }
@@ -124,15 +146,35 @@ public class ActivityExecutor implements ActivityController, ParameterMap.Listen
         }
         adjustToActivityDef(activity.getActivityDef());
         activity.setRunState(RunState.Running);
+        startAdaptive();
         activitylogger.debug("START/after alias=(" + activity.getAlias() + ")");
     }
 
+    /**
+     * Start the adaptive concurrency controller, if the activity asks for one with the adaptive parameter.
+     */
+    private synchronized void startAdaptive() {
+        stopAdaptive();
+        AdaptiveConfig adaptiveConfig = AdaptiveConfig.fromActivityDef(activityDef);
+        if (adaptiveConfig != null) {
+            this.adaptive = new AdaptiveConcurrencyController(activity, adaptiveConfig, sessionId).start();
+        }
+    }
+
+    private synchronized void stopAdaptive() {
+        if (adaptive != null) {
+            adaptive.close();
+            adaptive = null;
+        }
+    }
+
     /**
      * Simply stop the motors
      */
     public synchronized void stopActivity() {
         activitylogger.debug("STOP/before alias=(" + activity.getAlias() + ")");
 
+        stopAdaptive();
         activity.setRunState(RunState.Stopping);
         logger.info("stopping activity in progress: " + this.getActivityDef().getAlias());
         motors.forEach(Motor::requestStop);
@@ -156,6 +198,7 @@ public class ActivityExecutor implements ActivityController, ParameterMap.Listen
 
     public synchronized RuntimeException forceStopScenario(int initialMillisToWait) {
         activitylogger.debug("FORCE STOP/before alias=(" + activity.getAlias() + ")");
+        stopAdaptive();
 
         activity.setRunState(RunState.Stopped);
 
@@ -217,18 +260,21 @@ public class ActivityExecutor implements ActivityController, ParameterMap.Listen
         activitylogger.debug("REQUEST STOP/before alias=(" + activity.getAlias() + ")");
 
         logger.debug("Stopping executor for " + activity.getAlias() + " when work completes.");
+        long waitUntil = System.currentTimeMillis() + (secondsToWait * 1000L);
 
-        executorService.shutdown();
         boolean wasStopped = false;
         try {
+            awaitMotorsWhileAdaptive(waitUntil);
+            stopAdaptiveAndShutdownExecutor();
             logger.trace(() -> "awaiting termination with timeout of " + secondsToWait + " seconds");
-            wasStopped = executorService.awaitTermination(secondsToWait, TimeUnit.SECONDS);
+            wasStopped = executorService.awaitTermination(Math.max(0L, waitUntil - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
         } catch (InterruptedException ie) {
             logger.trace("interrupted while awaiting termination");
             wasStopped = false;
             logger.warn("while waiting termination of activity " + activity.getAlias() + ", " + ie.getMessage());
             activitylogger.debug("REQUEST STOP/exception alias=(" + activity.getAlias() + ") wasstopped=" + wasStopped);
         } finally {
+            stopAdaptiveAndShutdownExecutor();
             logger.trace(() -> "finally shutting down activity " + this.getActivity().getAlias());
             activity.shutdownActivity();
             logger.trace("closing auto-closeables");
@@ -246,6 +292,29 @@ public class ActivityExecutor implements ActivityController, ParameterMap.Listen
         return wasStopped;
     }
 
+    /**
+     * While the adaptive controller runs, it may add motors, which can not be started once the executor is shut
+     * down. So the executor is only shut down after all of the motors have finished or stopped.
+     *
+     * @param waitUntil the time to give up waiting, in epoch millis
+     */
+    private void awaitMotorsWhileAdaptive(long waitUntil) throws InterruptedException {
+        while (isAdaptingBusyMotors() && System.currentTimeMillis() < waitUntil) {
+            Thread.sleep(50);
+        }
+    }
+
+    private synchronized boolean isAdaptingBusyMotors() {
+        return adaptive != null && motors.stream()
+                .map(m -> m.getSlotStateTracker().getSlotState())
+                .anyMatch(state -> state != RunState.Finished && state != RunState.Stopped);
+    }
+
+    private synchronized void stopAdaptiveAndShutdownExecutor() {
+        stopAdaptive();
+        executorService.shutdown();
+    }
+
     /**
      * Listens for changes to parameter maps, maps them to the activity instance, and notifies all eligible listeners of
      * changes.
@@ -259,7 +328,7 @@ public class ActivityExecutor implements ActivityController, ParameterMap.Listen
         // considered ready to handle parameter map changes. This is signaled in an activity
         // by the RunState.
         if (activity.getRunState() != RunState.Uninitialized) {
-            if (activity.getRunState() == RunState.Running) {
+            if (activity.getRunState() == RunState.Running && !executorService.isShutdown()) {
                 adjustToActivityDef(activity.getActivityDef());
             }
             motors.stream()
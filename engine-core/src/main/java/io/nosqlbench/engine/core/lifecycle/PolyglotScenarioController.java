@@ -17,11 +17,13 @@
 package io.nosqlbench.engine.core.lifecycle;
 
 import io.nosqlbench.api.engine.activityimpl.ActivityDef;
+import io.nosqlbench.engine.core.lifecycle.findmax.FindMaxResult;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.graalvm.polyglot.Value;
 
 import java.security.InvalidParameterException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class PolyglotScenarioController {
@@ -237,4 +239,22 @@ public class PolyglotScenarioController {
         }
     }
 
+    public synchronized FindMaxResult findmax(String alias) {
+        return controller.findmax(alias, Map.of());
+    }
+
+    public synchronized FindMaxResult findmax(String alias, Object o) {
+        Map<?, ?> params;
+        if (o instanceof Value && ((Value) o).hasMembers()) {
+            params = ((Value) o).as(Map.class);
+        } else if (o instanceof Map) {
+            params = (Map<?, ?>) o;
+        } else {
+            throw new RuntimeException("unknown type for findmax params: " + o.getClass().getCanonicalName());
+        }
+        Map<String, String> stringParams = new LinkedHashMap<>();
+        params.forEach((k, v) -> stringParams.put(String.valueOf(k), String.valueOf(v)));
+        return controller.findmax(alias, stringParams);
+    }
+
 }
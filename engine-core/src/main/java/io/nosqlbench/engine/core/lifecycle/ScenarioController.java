@@ -24,6 +24,10 @@ import io.nosqlbench.api.engine.activityimpl.ParameterMap;
 import io.nosqlbench.engine.api.activityimpl.uniform.StandardActivityType;
 import io.nosqlbench.api.engine.metrics.ActivityMetrics;
 import io.nosqlbench.engine.core.annotation.Annotators;
+import io.nosqlbench.engine.core.lifecycle.findmax.ActivityRateProbe;
+import io.nosqlbench.engine.core.lifecycle.findmax.FindMaxConfig;
+import io.nosqlbench.engine.core.lifecycle.findmax.FindMaxResult;
+import io.nosqlbench.engine.core.lifecycle.findmax.FindMaxSearch;
 import io.nosqlbench.nb.annotations.Maturity;
 import io.nosqlbench.api.annotations.Annotation;
 import io.nosqlbench.api.annotations.Layer;
@@ -282,6 +286,52 @@ public class ScenarioController {
         }
     }
 
+    /**
+     * Search for the highest cycle rate at which a running activity stays within a latency limit. The
+     * cycle rate limiter of the activity is changed in place for each sample, and each sample is
+     * measured from interval histograms of the activity's own timers. When the search is done, the
+     * activity keeps running at the highest confirmed rate, if there was one. The activity needs
+     * enough cycles to keep running for the whole search. See {@link FindMaxSearch} for how the search
+     * works, and {@link FindMaxConfig} for its parameters.
+     *
+     * @param alias  The name of a running activity
+     * @param params findmax parameters, which may be empty to use the defaults
+     * @return the result of the search
+     */
+    public FindMaxResult findmax(String alias, Map<String, String> params) {
+        FindMaxConfig config = new FindMaxConfig(params);
+        ActivityExecutor executor = getActivityExecutor(alias);
+        if (executor.getActivity().getCycleLimiter() == null) {
+            modify(alias, "cyclerate", String.valueOf(config.getRateBase() + config.getRateStep()));
+        }
+        Annotators.recordAnnotation(Annotation.newBuilder()
+            .session(sessionId)
+            .now()
+            .layer(Layer.Activity)
+            .label("alias", alias)
+            .detail("command", "findmax")
+            .detail("params", config.toString())
+            .build());
+        scenariologger.debug("FINDMAX/before alias=" + alias);
+
+        FindMaxResult result;
+        try (ActivityRateProbe probe = new ActivityRateProbe(executor.getActivity(), config, this::waitMillis)) {
+            result = new FindMaxSearch(config).search(probe);
+        }
+        result.getBest().ifPresent(best -> modify(alias, "cyclerate", String.valueOf(best.getTargetRate())));
+
+        Annotators.recordAnnotation(Annotation.newBuilder()
+            .session(sessionId)
+            .now()
+            .layer(Layer.Activity)
+            .label("alias", alias)
+            .detail("command", "findmax")
+            .detail("result", result.toString())
+            .build());
+        scenariologger.debug("FINDMAX/after " + result);
+        return result;
+    }
+
     /**
      * Get the activity executor associated with the given alias. This should be used to find activitytypes
      * which are presumed to be already defined.
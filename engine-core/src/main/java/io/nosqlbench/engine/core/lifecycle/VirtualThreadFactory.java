@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.core.lifecycle;
+
+import io.nosqlbench.api.metadata.ThreadIndexes;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>A thread factory which creates virtual threads, named the same way as the
+ * threads from {@link IndexedThreadFactory}. This is used for <em>executor=virtual</em>.</p>
+ *
+ * <p>Virtual threads can not be subclassed, so they can not carry an index as
+ * {@link IndexedThreadFactory.IndexedThread} does. Instead, each thread is registered
+ * with its index in {@link ThreadIndexes}, where functions which need the thread index,
+ * like ThreadNum, look it up.</p>
+ *
+ * <p>The build targets Java 17, so the virtual thread builder API is accessed
+ * reflectively. It is only available at runtime when running on a JVM that
+ * supports virtual threads without preview flags.</p>
+ *
+ * <H2>Pinning</H2>
+ * <p>A virtual thread which blocks while holding a monitor pins its carrier thread.
+ * These are the places in the motor loop where that may occur:</p>
+ * <ul>
+ *     <li>The threaded token pool ({@code tokenpool=threaded}) waits on its own
+ *     monitor for tokens. Each virtual thread which is waiting for a rate limiter
+ *     will hold a carrier thread. For this reason, the cas token pool is the default
+ *     for rate limiters when executor=virtual, since it parks without a monitor.</li>
+ *     <li>The async motor path waits on the OpTrackerImpl monitor when the op
+ *     tracker is full. This only occurs for the legacy async actions, which
+ *     should use fewer threads with async=N rather than more threads.</li>
+ * </ul>
+ */
+public class VirtualThreadFactory implements ThreadFactory {
+
+    private final Thread.UncaughtExceptionHandler uncaughtExceptionHandler;
+    private final String name;
+    private final AtomicInteger threadIndexer = new AtomicInteger(0);
+
+    private final Method ofVirtual;
+    private final Method builderName;
+    private final Method builderExceptionHandler;
+    private final Method builderUnstarted;
+
+    public VirtualThreadFactory(String name, Thread.UncaughtExceptionHandler exceptionHandler) {
+        this.name = name;
+        this.uncaughtExceptionHandler = exceptionHandler;
+        try {
+            this.ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            this.builderName = builderClass.getMethod("name", String.class);
+            this.builderExceptionHandler = builderClass.getMethod("uncaughtExceptionHandler", Thread.UncaughtExceptionHandler.class);
+            this.builderUnstarted = builderClass.getMethod("unstarted", Runnable.class);
+            ofVirtual.invoke(null);
+        } catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException(
+                "executor=virtual requires a JVM with virtual threads enabled (Java 21 or newer), but this is Java "
+                    + Runtime.version() + ": " + e, e
+            );
+        }
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+        int threadIndex = threadIndexer.incrementAndGet();
+        try {
+            Object builder = ofVirtual.invoke(null);
+            builderName.invoke(builder, name + String.format(":%03d", threadIndex));
+            if (uncaughtExceptionHandler != null) {
+                builderExceptionHandler.invoke(builder, uncaughtExceptionHandler);
+            }
+            Thread thread = (Thread) builderUnstarted.invoke(builder, r);
+            ThreadIndexes.register(thread, threadIndex);
+            return thread;
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException("Unable to create virtual thread for " + name + ": " + e, e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.core.lifecycle.adaptive;
+
+/**
+ * How the concurrency limit is changed after each interval. Both algorithms cut the limit by
+ * the backoff factor when the error ratio is over its limit, since errors often come back faster
+ * than successful ops and would otherwise look like good latency.
+ */
+public enum AdaptiveAlgorithm {
+
+    /**
+     * Additive increase, multiplicative decrease: add the step to the limit after each interval
+     * within the target latency, and multiply it by the backoff factor after each interval over it.
+     */
+    aimd {
+        @Override
+        public double next(AdaptiveConfig config, double limit, double latencyMs, double errorRatio) {
+            if (latencyMs > config.getLatencyMs() || errorRatio > config.getMaxErrorRatio()) {
+                return clamp(config, Math.min(limit * config.getBackoff(), limit - 1.0D));
+            }
+            return clamp(config, limit + config.getStep());
+        }
+    },
+
+    /**
+     * Scale the limit by the ratio of the target latency to the measured latency, between 0.5 and 1,
+     * and allow sqrt(limit) more for queueing, as in the gradient2 limit. The target latency takes the
+     * place of the long term average, so the limit settles where the latency meets the target rather
+     * than where it stops improving. Each new estimate is blended into the limit by the smoothing factor.
+     */
+    gradient {
+        @Override
+        public double next(AdaptiveConfig config, double limit, double latencyMs, double errorRatio) {
+            if (errorRatio > config.getMaxErrorRatio()) {
+                return clamp(config, Math.min(limit * config.getBackoff(), limit - 1.0D));
+            }
+            double gradient = Math.max(0.5D, Math.min(1.0D, config.getLatencyMs() / latencyMs));
+            double estimate = limit * gradient + Math.sqrt(limit);
+            return clamp(config, limit * (1.0D - config.getSmoothing()) + estimate * config.getSmoothing());
+        }
+    };
+
+    /**
+     * @param config the controller parameters
+     * @param limit the current concurrency limit
+     * @param latencyMs the latency at the configured percentile over the last interval
+     * @param errorRatio the fraction of ops which failed over the last interval
+     * @return the new concurrency limit, within the configured bounds
+     */
+    public abstract double next(AdaptiveConfig config, double limit, double latencyMs, double errorRatio);
+
+    private static double clamp(AdaptiveConfig config, double limit) {
+        return Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), limit));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.core.lifecycle.adaptive;
+
+import io.nosqlbench.api.annotations.Annotation;
+import io.nosqlbench.api.annotations.Layer;
+import io.nosqlbench.api.engine.activityimpl.ParameterMap;
+import io.nosqlbench.api.engine.metrics.HdrDeltaHistogramAttachment;
+import io.nosqlbench.api.engine.metrics.HdrDeltaHistogramProvider;
+import io.nosqlbench.engine.api.activityapi.core.Activity;
+import io.nosqlbench.engine.core.annotation.Annotators;
+import io.nosqlbench.engine.core.metrics.ControllerMetrics;
+import org.HdrHistogram.Histogram;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * <p>Holds an activity at a target latency by adjusting its concurrency while it runs. On each
+ * interval, the controller reads the latency and the error ratio of the interval from its own views
+ * of the activity's <em>result</em> and <em>result-success</em> timers, asks the configured
+ * {@link AdaptiveAlgorithm} for a new limit, and sets the <em>threads</em> or <em>async</em> activity
+ * parameter to it. The activity executor and op trackers pick up the new value as they do for any
+ * other parameter change.</p>
+ *
+ * <p>The limit, latency and error ratio are reported as the <em>adaptive.limit</em>,
+ * <em>adaptive.latency_ms</em> and <em>adaptive.error_ratio</em> gauges of the activity. Each time the
+ * limit is cut, an annotation records the old and new limit and why it was cut.</p>
+ */
+public class AdaptiveConcurrencyController implements Runnable, AutoCloseable {
+    private final static Logger logger = LogManager.getLogger(AdaptiveConcurrencyController.class);
+
+    private final Activity activity;
+    private final AdaptiveConfig config;
+    private final String sessionId;
+    private final HdrDeltaHistogramAttachment resultTimer;
+    private final HdrDeltaHistogramAttachment successTimer;
+    private final HdrDeltaHistogramProvider results;
+    private final HdrDeltaHistogramProvider successes;
+    private final Thread thread;
+    private final ControllerMetrics.ValueGauge limitGauge;
+    private final ControllerMetrics.ValueGauge latencyGauge;
+    private final ControllerMetrics.ValueGauge errorRatioGauge;
+    private volatile boolean running = true;
+    private double limit;
+
+    public AdaptiveConcurrencyController(Activity activity, AdaptiveConfig config, String sessionId) {
+        this.activity = activity;
+        this.config = config;
+        this.sessionId = sessionId;
+        this.limit = activity.getActivityDef().getParams().getOptionalInteger(config.getLimitParam())
+            .orElse(activity.getActivityDef().getThreads());
+        this.resultTimer = ControllerMetrics.attachable(
+            activity, activity.getInstrumentation().getOrCreateResultTimer(), "adaptive concurrency");
+        this.successTimer = ControllerMetrics.attachable(
+            activity, activity.getInstrumentation().getOrCreateResultSuccessTimer(), "adaptive concurrency");
+        this.results = resultTimer.attachHdrDeltaHistogram();
+        this.successes = successTimer.attachHdrDeltaHistogram();
+
+        this.limitGauge = ControllerMetrics.gauge(activity, "adaptive.limit");
+        this.latencyGauge = ControllerMetrics.gauge(activity, "adaptive.latency_ms");
+        this.errorRatioGauge = ControllerMetrics.gauge(activity, "adaptive.error_ratio");
+        limitGauge.set(limit);
+
+        this.thread = new Thread(this, "adaptive/" + activity.getAlias());
+        thread.setDaemon(true);
+    }
+
+    public AdaptiveConcurrencyController start() {
+        logger.info("starting " + config + " for activity " + activity.getAlias() + " at " + Math.round(limit));
+        thread.start();
+        return this;
+    }
+
+    @Override
+    public void run() {
+        long next = System.currentTimeMillis() + config.getIntervalMillis();
+        while (running) {
+            long now = System.currentTimeMillis();
+            if (now < next) {
+                try {
+                    Thread.sleep(next - now);
+                } catch (InterruptedException ignored) {
+                }
+                continue;
+            }
+            next += config.getIntervalMillis();
+            try {
+                update();
+            } catch (Exception e) {
+                logger.error("adaptive concurrency for " + activity.getAlias() + " stopped on error: " + e, e);
+                running = false;
+            }
+        }
+        resultTimer.detachHdrDeltaHistogram(results);
+        successTimer.detachHdrDeltaHistogram(successes);
+    }
+
+    private void update() {
+        Histogram interval = results.getNextHdrDeltaHistogram();
+        long total = interval.getTotalCount();
+        long succeeded = successes.getNextHdrDeltaHistogram().getTotalCount();
+        if (total == 0L) {
+            return;
+        }
+        double latencyMs = interval.getValueAtPercentile(config.getLatencyPctile() * 100.0D) / 1_000_000.0D;
+        double errorRatio = Math.max(0.0D, (double) (total - succeeded) / total);
+        latencyGauge.set(latencyMs);
+        errorRatioGauge.set(errorRatio);
+
+        double previous = limit;
+        limit = config.getAlgorithm().next(config, previous, latencyMs, errorRatio);
+        limitGauge.set(limit);
+        long oldValue = Math.round(previous);
+        long newValue = Math.round(limit);
+        if (newValue == oldValue || !running) {
+            return;
+        }
+
+        if (newValue < oldValue) {
+            String reason = (errorRatio > config.getMaxErrorRatio())
+                ? String.format("error ratio %.4f > %.4f", errorRatio, config.getMaxErrorRatio())
+                : String.format("latency %.2fms > %.2fms", latencyMs, config.getLatencyMs());
+            Annotators.recordAnnotation(Annotation.newBuilder()
+                .session(sessionId)
+                .now()
+                .layer(Layer.Activity)
+                .label("alias", activity.getAlias())
+                .detail("adaptive", config.getLimitParam() + " " + oldValue + " -> " + newValue)
+                .detail("reason", reason)
+                .build());
+        }
+        logger.debug(() -> "adaptive " + config.getLimitParam() + " " + oldValue + " -> " + newValue
+            + " for " + activity.getAlias() + " at " + String.format("%.2fms", latencyMs));
+        ParameterMap params = activity.getActivityDef().getParams();
+        params.set(config.getLimitParam(), newValue);
+    }
+
+    /**
+     * Stop adjusting the activity. This does not wait for the controller thread, since it may be
+     * waiting to apply a change to an activity which is being stopped by the caller.
+     */
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+    }
+}
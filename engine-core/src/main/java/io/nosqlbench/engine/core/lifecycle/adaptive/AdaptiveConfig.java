@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.core.lifecycle.adaptive;
+
+import io.nosqlbench.api.engine.activityimpl.ActivityDef;
+import io.nosqlbench.api.engine.activityimpl.ParameterMap;
+import io.nosqlbench.api.errors.BasicError;
+
+/**
+ * <p>The activity parameters of the adaptive concurrency controller. It is enabled by
+ * <em>adaptive=aimd</em> or <em>adaptive=gradient</em>, and then needs a target latency in
+ * <em>adaptive_latency</em>.</p>
+ *
+ * <p>When the activity has an <em>async</em> parameter, the controller adjusts the number of ops in
+ * flight. Otherwise, it adjusts the number of threads.</p>
+ */
+public class AdaptiveConfig {
+
+    private final AdaptiveAlgorithm algorithm;
+    private final String limitParam;
+    private final double latencyMs;
+    private final double latencyPctile;
+    private final double maxErrorRatio;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long intervalMillis;
+    private final double step;
+    private final double backoff;
+    private final double smoothing;
+
+    public AdaptiveConfig(AdaptiveAlgorithm algorithm, String limitParam, double latencyMs, double latencyPctile,
+                          double maxErrorRatio, int minLimit, int maxLimit, long intervalMillis,
+                          double step, double backoff, double smoothing) {
+        this.algorithm = algorithm;
+        this.limitParam = limitParam;
+        this.latencyMs = latencyMs;
+        this.latencyPctile = (latencyPctile > 1.0D) ? latencyPctile * 0.01D : latencyPctile;
+        this.maxErrorRatio = maxErrorRatio;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.intervalMillis = intervalMillis;
+        this.step = step;
+        this.backoff = backoff;
+        this.smoothing = smoothing;
+
+        if (latencyMs <= 0.0D) {
+            throw new BasicError("adaptive concurrency needs a target latency in adaptive_latency, in milliseconds");
+        }
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new BasicError("adaptive concurrency needs 1 <= adaptive_min <= adaptive_max, but they are "
+                + minLimit + " and " + maxLimit);
+        }
+        if (backoff <= 0.0D || backoff >= 1.0D) {
+            throw new BasicError("adaptive_backoff must be between 0 and 1, exclusive");
+        }
+        if (smoothing <= 0.0D || smoothing > 1.0D) {
+            throw new BasicError("adaptive_smoothing must be greater than 0 and at most 1");
+        }
+    }
+
+    /**
+     * Read the adaptive parameters from an activity definition.
+     * @param def the activity definition
+     * @return the config, or null if the activity does not use adaptive concurrency
+     */
+    public static AdaptiveConfig fromActivityDef(ActivityDef def) {
+        ParameterMap params = def.getParams();
+        String mode = params.getOptionalString("adaptive").orElse(null);
+        if (mode == null || mode.equals("off")) {
+            return null;
+        }
+        AdaptiveAlgorithm algorithm;
+        try {
+            algorithm = AdaptiveAlgorithm.valueOf(mode);
+        } catch (IllegalArgumentException e) {
+            throw new BasicError("Unknown adaptive mode '" + mode + "' for activity " + def.getAlias()
+                + ", valid options are aimd, gradient or off");
+        }
+        if (params.getOptionalString("instrumentation").orElse("full").equals("minimal")) {
+            // The error ratio is read from the result-success timer, which is not recorded at this level
+            throw new BasicError("adaptive concurrency for activity " + def.getAlias() + " needs the result-success timer, "
+                + "so it can not be used with instrumentation=minimal");
+        }
+        boolean async = params.getOptionalInteger("async").isPresent();
+        return new AdaptiveConfig(
+            algorithm,
+            async ? "async" : "threads",
+            params.getOptionalDouble("adaptive_latency").orElse(0.0D),
+            params.getOptionalDouble("adaptive_pctile").orElse(0.99D),
+            params.getOptionalDouble("adaptive_errors").orElse(0.01D),
+            params.getOptionalInteger("adaptive_min").orElse(async ? def.getThreads() : 1),
+            params.getOptionalInteger("adaptive_max").orElse(async ? 4096 : 256),
+            params.getOptionalMillisUnit("adaptive_interval").orElse(1000L),
+            params.getOptionalDouble("adaptive_step").orElse(1.0D),
+            params.getOptionalDouble("adaptive_backoff").orElse(0.9D),
+            params.getOptionalDouble("adaptive_smoothing").orElse(0.2D)
+        );
+    }
+
+    public AdaptiveAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return the activity parameter which holds the concurrency limit, either threads or async
+     */
+    public String getLimitParam() {
+        return limitParam;
+    }
+
+    public double getLatencyMs() {
+        return latencyMs;
+    }
+
+    public double getLatencyPctile() {
+        return latencyPctile;
+    }
+
+    public double getMaxErrorRatio() {
+        return maxErrorRatio;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * @return how much the aimd algorithm adds to the limit after each good interval
+     */
+    public double getStep() {
+        return step;
+    }
+
+    /**
+     * @return what the limit is multiplied by after a congested interval
+     */
+    public double getBackoff() {
+        return backoff;
+    }
+
+    /**
+     * @return how much of each new gradient estimate is blended into the limit
+     */
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    @Override
+    public String toString() {
+        return "adaptive=" + algorithm + " on " + limitParam + " for p" + (latencyPctile * 100.0D) + "<=" + latencyMs
+            + "ms with errors<=" + maxErrorRatio + ", limit " + minLimit + ".." + maxLimit + " every " + intervalMillis + "ms";
+    }
+}
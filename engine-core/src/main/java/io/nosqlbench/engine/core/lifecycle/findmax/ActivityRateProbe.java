@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.core.lifecycle.findmax;
+
+import io.nosqlbench.api.engine.metrics.HdrDeltaHistogramAttachment;
+import io.nosqlbench.api.engine.metrics.HdrDeltaHistogramProvider;
+import io.nosqlbench.api.errors.BasicError;
+import io.nosqlbench.engine.api.activityapi.core.Activity;
+import io.nosqlbench.engine.api.activityapi.ratelimits.RateLimiter;
+import io.nosqlbench.engine.api.activityapi.ratelimits.RateSpec;
+import io.nosqlbench.engine.core.metrics.ControllerMetrics;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Samples a running activity at a target rate. The cycle rate limiter is changed in place, and the
+ * cycle count and result latency are read from interval histograms which are attached to the activity
+ * timers for the duration of the search, so each sample sees exactly the cycles which completed within
+ * its own window, and nothing from the reporters' intervals or from the previous step.
+ */
+public class ActivityRateProbe implements FindMaxSearch.RateProbe, AutoCloseable {
+
+    private final Activity activity;
+    private final RateLimiter limiter;
+    private final FindMaxConfig config;
+    private final Sleeper sleeper;
+    private final HdrDeltaHistogramAttachment cyclesTimer;
+    private final HdrDeltaHistogramAttachment resultTimer;
+    private final HdrDeltaHistogramProvider cycles;
+    private final HdrDeltaHistogramProvider results;
+    private final ControllerMetrics.ValueGauge targetRate;
+    private final ControllerMetrics.ValueGauge achievedRate;
+    private final ControllerMetrics.ValueGauge latency;
+
+    /**
+     * Pauses the search while the activity runs.
+     */
+    public interface Sleeper {
+        void sleep(long millis);
+    }
+
+    /**
+     * @param activity a running activity which has a cycle rate limiter
+     * @param config the search parameters
+     * @param sleeper how to wait while the activity runs
+     */
+    public ActivityRateProbe(Activity activity, FindMaxConfig config, Sleeper sleeper) {
+        this.activity = activity;
+        this.limiter = activity.getCycleLimiter();
+        if (limiter == null) {
+            throw new BasicError("activity '" + activity.getAlias() + "' needs a cycle rate limiter for findmax");
+        }
+        this.config = config;
+        this.sleeper = sleeper;
+        this.cyclesTimer = ControllerMetrics.attachable(
+            activity, activity.getInstrumentation().getOrCreateCyclesServiceTimer(), "findmax");
+        this.resultTimer = ControllerMetrics.attachable(
+            activity, activity.getInstrumentation().getOrCreateResultTimer(), "findmax");
+        this.cycles = cyclesTimer.attachHdrDeltaHistogram();
+        this.results = resultTimer.attachHdrDeltaHistogram();
+        this.targetRate = ControllerMetrics.gauge(activity, "findmax.target_rate");
+        this.achievedRate = ControllerMetrics.gauge(activity, "findmax.achieved_rate");
+        this.latency = ControllerMetrics.gauge(activity, "findmax.latency_ms");
+    }
+
+    @Override
+    public FindMaxSample sample(double rate, long sampleMillis) {
+        limiter.applyRateSpec(limiter.getRateSpec().withOpsPerSecond(rate).withVerb(RateSpec.Verb.restart));
+        targetRate.set(rate);
+
+        // Let queues and connection pools adjust to the new rate, and throw away what was measured meanwhile
+        sleeper.sleep(config.getSettleMillis());
+        cycles.getNextHdrDeltaHistogram();
+        results.getNextHdrDeltaHistogram();
+
+        long start = System.currentTimeMillis();
+        sleeper.sleep(sampleMillis);
+        Histogram cycleHisto = cycles.getNextHdrDeltaHistogram();
+        Histogram resultHisto = results.getNextHdrDeltaHistogram();
+        long duration = System.currentTimeMillis() - start;
+
+        double latencyMs = resultHisto.getValueAtPercentile(config.getLatencyPctile() * 100.0D) / 1_000_000.0D;
+        FindMaxSample sample = new FindMaxSample(rate, cycleHisto.getTotalCount(), duration, latencyMs);
+        achievedRate.set(sample.getAchievedRate());
+        latency.set(latencyMs);
+        return sample;
+    }
+
+    /**
+     * Stop accumulating interval data for the search. The activity keeps running at whichever
+     * rate was sampled last.
+     */
+    @Override
+    public void close() {
+        cyclesTimer.detachHdrDeltaHistogram(cycles);
+        resultTimer.detachHdrDeltaHistogram(results);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.core.lifecycle.findmax;
+
+import io.nosqlbench.api.engine.activityimpl.ParameterMap;
+import io.nosqlbench.api.errors.BasicError;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The parameters of a capacity search. The names and defaults follow those of the findmax.js
+ * script where they mean the same thing, so that a scenario can move from one to the other
+ * without relearning the parameters.
+ */
+public class FindMaxConfig {
+
+    private final static Set<String> NAMES = Set.of(
+        "rate_base", "rate_step", "rate_incr", "rate_max", "precision",
+        "latency_cutoff", "latency_pctile", "testrate_cutoff", "bestrate_cutoff",
+        "sample_time", "sample_incr", "sample_max", "settle_time", "confirm", "max_steps"
+    );
+
+    private final double rateBase;
+    private final double rateStep;
+    private final double rateIncr;
+    private final double rateMax;
+    private final double precision;
+    private final double latencyCutoffMs;
+    private final double latencyPctile;
+    private final double testrateCutoff;
+    private final double bestrateCutoff;
+    private final long sampleMillis;
+    private final double sampleIncr;
+    private final long sampleMaxMillis;
+    private final long settleMillis;
+    private final int confirm;
+    private final int maxSteps;
+
+    public FindMaxConfig(Map<String, String> params) {
+        for (String name : params.keySet()) {
+            if (!NAMES.contains(name)) {
+                throw new BasicError("Unknown findmax parameter '" + name + "', valid parameters are " + NAMES);
+            }
+        }
+        ParameterMap pm = new ParameterMap(params);
+        this.rateBase = pm.getOptionalDouble("rate_base").orElse(0.0D);
+        this.rateStep = pm.getOptionalDouble("rate_step").orElse(100.0D);
+        this.rateIncr = pm.getOptionalDouble("rate_incr").orElse(2.0D);
+        this.rateMax = pm.getOptionalDouble("rate_max").orElse(0.0D);
+        this.precision = pm.getOptionalDouble("precision").orElse(0.05D);
+        this.latencyCutoffMs = pm.getOptionalDouble("latency_cutoff").orElse(50.0D);
+        double pctile = pm.getOptionalDouble("latency_pctile").orElse(0.99D);
+        this.latencyPctile = (pctile > 1.0D) ? pctile * 0.01D : pctile;
+        this.testrateCutoff = pm.getOptionalDouble("testrate_cutoff").orElse(0.8D);
+        this.bestrateCutoff = pm.getOptionalDouble("bestrate_cutoff").orElse(0.9D);
+        this.sampleMillis = (long) (pm.getOptionalDouble("sample_time").orElse(10.0D) * 1000.0D);
+        this.sampleIncr = pm.getOptionalDouble("sample_incr").orElse(1.33D);
+        this.sampleMaxMillis = (long) (pm.getOptionalDouble("sample_max").orElse(300.0D) * 1000.0D);
+        this.settleMillis = (long) (pm.getOptionalDouble("settle_time").orElse(2.0D) * 1000.0D);
+        this.confirm = pm.getOptionalInteger("confirm").orElse(2);
+        this.maxSteps = pm.getOptionalInteger("max_steps").orElse(50);
+
+        if (rateStep <= 0.0D || rateIncr <= 1.0D) {
+            throw new BasicError("findmax requires rate_step > 0 and rate_incr > 1");
+        }
+        if (precision <= 0.0D || precision >= 1.0D) {
+            throw new BasicError("findmax precision must be between 0 and 1, exclusive");
+        }
+        if (latencyPctile <= 0.0D || latencyPctile > 1.0D) {
+            throw new BasicError("findmax latency_pctile must be a fraction like 0.99 or a percentile like 99.0");
+        }
+        if (sampleMillis <= 0L || sampleMaxMillis < sampleMillis) {
+            throw new BasicError("findmax requires sample_time > 0 and sample_max >= sample_time");
+        }
+    }
+
+    public double getRateBase() {
+        return rateBase;
+    }
+
+    public double getRateStep() {
+        return rateStep;
+    }
+
+    public double getRateIncr() {
+        return rateIncr;
+    }
+
+    /**
+     * @return the highest rate to try, or 0 if there is no limit
+     */
+    public double getRateMax() {
+        return rateMax;
+    }
+
+    /**
+     * @return how close, relative to the best passing rate, the lowest failing rate must be before the search stops
+     */
+    public double getPrecision() {
+        return precision;
+    }
+
+    public double getLatencyCutoffMs() {
+        return latencyCutoffMs;
+    }
+
+    public double getLatencyPctile() {
+        return latencyPctile;
+    }
+
+    public double getTestrateCutoff() {
+        return testrateCutoff;
+    }
+
+    public double getBestrateCutoff() {
+        return bestrateCutoff;
+    }
+
+    public long getSampleMillis() {
+        return sampleMillis;
+    }
+
+    public double getSampleIncr() {
+        return sampleIncr;
+    }
+
+    public long getSampleMaxMillis() {
+        return sampleMaxMillis;
+    }
+
+    public long getSettleMillis() {
+        return settleMillis;
+    }
+
+    public int getConfirm() {
+        return confirm;
+    }
+
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+
+    @Override
+    public String toString() {
+        return "rate_base=" + rateBase + " rate_step=" + rateStep + " rate_incr=" + rateIncr
+            + (rateMax > 0.0D ? " rate_max=" + rateMax : "") + " precision=" + precision
+            + " latency_cutoff=" + latencyCutoffMs + "ms latency_pctile=" + latencyPctile
+            + " testrate_cutoff=" + testrateCutoff + " bestrate_cutoff=" + bestrateCutoff
+            + " sample_time=" + sampleMillis / 1000.0D + "s sample_max=" + sampleMaxMillis / 1000.0D
+            + "s settle_time=" + settleMillis / 1000.0D + "s confirm=" + confirm + " max_steps=" + maxSteps;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.core.lifecycle.findmax;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The outcome of a capacity search: the highest confirmed rate, if any rate passed, and every
+ * sample which was taken to find it.
+ */
+public class FindMaxResult {
+    private final FindMaxSample best;
+    private final double lowestFailingRate;
+    private final List<FindMaxSample> samples;
+
+    public FindMaxResult(FindMaxSample best, double lowestFailingRate, List<FindMaxSample> samples) {
+        this.best = best;
+        this.lowestFailingRate = lowestFailingRate;
+        this.samples = Collections.unmodifiableList(samples);
+    }
+
+    /**
+     * @return the last accepted sample at the highest confirmed target rate, or empty if no target rate passed
+     */
+    public Optional<FindMaxSample> getBest() {
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * @return the highest confirmed target rate, or 0 if no target rate passed
+     */
+    public double getMaxRate() {
+        return best != null ? best.getTargetRate() : 0.0D;
+    }
+
+    /**
+     * @return the lowest target rate which failed, or {@link Double#POSITIVE_INFINITY} if none did
+     */
+    public double getLowestFailingRate() {
+        return lowestFailingRate;
+    }
+
+    public List<FindMaxSample> getSamples() {
+        return samples;
+    }
+
+    @Override
+    public String toString() {
+        if (best == null) {
+            return "findmax found no acceptable rate in " + samples.size() + " samples";
+        }
+        return String.format("findmax max rate %.0f ops_s (achieved %.0f ops_s at %.2fms), lowest failing rate %.0f, after %d samples",
+            best.getTargetRate(), best.getAchievedRate(), best.getLatencyMs(), lowestFailingRate, samples.size());
+    }
+}
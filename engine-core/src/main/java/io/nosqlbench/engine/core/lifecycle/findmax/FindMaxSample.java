@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.core.lifecycle.findmax;
+
+/**
+ * What was measured over one sampling window at a target rate, and whether it was acceptable.
+ */
+public class FindMaxSample {
+    private final double targetRate;
+    private final long count;
+    private final long durationMillis;
+    private final double latencyMs;
+    private boolean accepted;
+    private String reason = "";
+
+    public FindMaxSample(double targetRate, long count, long durationMillis, double latencyMs) {
+        this.targetRate = targetRate;
+        this.count = count;
+        this.durationMillis = durationMillis;
+        this.latencyMs = latencyMs;
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    /**
+     * @return the number of cycles completed within the window
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public double getAchievedRate() {
+        return durationMillis > 0L ? (count * 1000.0D) / durationMillis : 0.0D;
+    }
+
+    /**
+     * @return the latency at the configured percentile over the window, in milliseconds
+     */
+    public double getLatencyMs() {
+        return latencyMs;
+    }
+
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    /**
+     * @return the first check which the sample failed, or an empty string if it was accepted
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    FindMaxSample accept() {
+        this.accepted = true;
+        this.reason = "";
+        return this;
+    }
+
+    FindMaxSample reject(String reason) {
+        this.accepted = false;
+        this.reason = reason;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("target=%.0f achieved=%.0f ops_s latency=%.2fms over %.1fs: %s",
+            targetRate, getAchievedRate(), latencyMs, durationMillis / 1000.0D,
+            accepted ? "PASS" : "FAIL (" + reason + ")");
+    }
+}
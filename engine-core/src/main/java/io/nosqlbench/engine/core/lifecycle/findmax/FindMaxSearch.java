@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.core.lifecycle.findmax;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>Search for the highest target rate which a workload sustains while staying within a latency
+ * limit at a given percentile.</p>
+ *
+ * <p>The search has three parts:
+ * <OL>
+ * <LI>Ramp up the target rate as <em>rate_base + rate_step * rate_incr^n</em> until a sample fails.</LI>
+ * <LI>Bisect between the highest passing and the lowest failing target rate until they are within
+ * <em>precision</em> of each other.</LI>
+ * <LI>Confirm the highest passing rate with <em>confirm</em> more samples over longer windows. If any of
+ * them fails, the rate becomes the new lowest failing rate and the bisection continues below it.</LI>
+ * </OL>
+ * With the default rate_incr of 2, this takes about log2 of the max rate steps to find the bracket, and
+ * about log2(1/precision) steps to narrow it, rather than restarting the ramp from each new base.</p>
+ *
+ * <p>A sample passes when some cycles completed, the latency is within the cutoff, the achieved rate is
+ * at least testrate_cutoff of the target, and, for a target above the best passing one, the achieved
+ * rate is at least bestrate_cutoff of the best achieved rate so far.</p>
+ */
+public class FindMaxSearch {
+    private final static Logger logger = LogManager.getLogger(FindMaxSearch.class);
+
+    /**
+     * Runs the workload at a target rate and measures it.
+     */
+    public interface RateProbe {
+        /**
+         * Run at the target rate for the sampling window, and report what was measured.
+         * @param targetRate the rate to run at, in cycles per second
+         * @param sampleMillis how long to measure for, once the rate has been applied
+         * @return a new sample, which has not been accepted or rejected yet
+         */
+        FindMaxSample sample(double targetRate, long sampleMillis);
+    }
+
+    private final FindMaxConfig config;
+    private final List<FindMaxSample> samples = new ArrayList<>();
+    private final TreeMap<Double, FindMaxSample> passed = new TreeMap<>();
+    private FindMaxSample best;
+    private double lowestFailing = Double.POSITIVE_INFINITY;
+
+    public FindMaxSearch(FindMaxConfig config) {
+        this.config = config;
+    }
+
+    public FindMaxResult search(RateProbe probe) {
+        logger.info("findmax searching with " + config);
+        long window = config.getSampleMillis();
+
+        for (int n = 0; samples.size() < config.getMaxSteps(); n++) {
+            double rate = config.getRateBase() + config.getRateStep() * Math.pow(config.getRateIncr(), n);
+            if (config.getRateMax() > 0.0D && rate >= config.getRateMax()) {
+                rate = config.getRateMax();
+            }
+            if (!take(probe, rate, window).isAccepted() || rate == config.getRateMax()) {
+                break;
+            }
+        }
+
+        while (samples.size() < config.getMaxSteps()) {
+            double lower = (best != null) ? best.getTargetRate() : config.getRateBase();
+            boolean capped = config.getRateMax() > 0.0D && lower >= config.getRateMax();
+            boolean bracketed = lowestFailing - lower <= config.getPrecision() * Math.max(lower, config.getRateStep());
+            if (!capped && !bracketed) {
+                if (lowestFailing == Double.POSITIVE_INFINITY) {
+                    break;
+                }
+                take(probe, lower + (lowestFailing - lower) / 2.0D, window);
+                continue;
+            }
+            if (best == null) {
+                break;
+            }
+
+            window = Math.min((long) (window * config.getSampleIncr()), config.getSampleMaxMillis());
+            double candidate = best.getTargetRate();
+            boolean confirmed = true;
+            for (int i = 0; i < config.getConfirm() && samples.size() < config.getMaxSteps(); i++) {
+                if (!take(probe, candidate, window).isAccepted()) {
+                    confirmed = false;
+                    break;
+                }
+            }
+            if (confirmed) {
+                break;
+            }
+            // The failed confirmation has made the candidate the lowest failing rate, so bisect below it
+        }
+
+        if (samples.size() >= config.getMaxSteps()) {
+            logger.warn("findmax stopped after max_steps=" + config.getMaxSteps() + " samples, the result may not be confirmed");
+        }
+        FindMaxResult result = new FindMaxResult(best, lowestFailing, new ArrayList<>(samples));
+        logger.info(result);
+        return result;
+    }
+
+    private FindMaxSample take(RateProbe probe, double rate, long window) {
+        FindMaxSample sample = evaluate(probe.sample(rate, window));
+        samples.add(sample);
+        logger.info("findmax step " + samples.size() + ": " + sample);
+        if (sample.isAccepted()) {
+            passed.put(rate, sample);
+            if (best == null || rate >= best.getTargetRate()) {
+                best = sample;
+            }
+        } else {
+            // Passes at or above a failing rate can no longer be trusted
+            lowestFailing = Math.min(lowestFailing, rate);
+            passed.tailMap(rate, true).clear();
+            Map.Entry<Double, FindMaxSample> highest = passed.lastEntry();
+            best = (highest != null) ? highest.getValue() : null;
+        }
+        return sample;
+    }
+
+    private FindMaxSample evaluate(FindMaxSample sample) {
+        if (sample.getCount() == 0L) {
+            return sample.reject("no cycles completed");
+        }
+        if (sample.getLatencyMs() > config.getLatencyCutoffMs()) {
+            return sample.reject(String.format("p%s latency %.2fms > %.2fms",
+                Math.round(config.getLatencyPctile() * 100_000.0D) / 1000.0D, sample.getLatencyMs(), config.getLatencyCutoffMs()));
+        }
+        double achieved = sample.getAchievedRate();
+        if (achieved < config.getTestrateCutoff() * sample.getTargetRate()) {
+            return sample.reject(String.format("achieved %.0f%% of target < %.0f%%",
+                100.0D * achieved / sample.getTargetRate(), 100.0D * config.getTestrateCutoff()));
+        }
+        if (best != null && sample.getTargetRate() > best.getTargetRate()
+            && achieved < config.getBestrateCutoff() * best.getAchievedRate()) {
+            return sample.reject(String.format("achieved %.0f%% of best rate < %.0f%%",
+                100.0D * achieved / best.getAchievedRate(), 100.0D * config.getBestrateCutoff()));
+        }
+        return sample.accept();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.core.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
+import io.nosqlbench.api.engine.metrics.ActivityMetrics;
+import io.nosqlbench.api.engine.metrics.HdrDeltaHistogramAttachment;
+import io.nosqlbench.api.errors.BasicError;
+import io.nosqlbench.engine.api.activityapi.core.Activity;
+
+/**
+ * Metrics for controllers which steer a running activity, such as findmax and adaptive concurrency.
+ * They report their state with settable gauges, and read the activity timers through their own
+ * interval views.
+ */
+public final class ControllerMetrics {
+
+    private ControllerMetrics() {
+    }
+
+    /**
+     * Register a settable gauge for the activity, or get the one which is already registered with that name.
+     * @param activity the activity which the gauge is reported for
+     * @param name the name of the gauge within the activity
+     * @return a gauge which reports the last value it was set to
+     */
+    public static ValueGauge gauge(Activity activity, String name) {
+        Gauge<Double> registered = ActivityMetrics.gauge(activity.getActivityDef(), name, new ValueGauge());
+        return (registered instanceof ValueGauge valueGauge) ? valueGauge : new ValueGauge();
+    }
+
+    /**
+     * @param activity the activity which the timer belongs to
+     * @param timer an activity timer
+     * @param controller the name of the controller, for the error message
+     * @return the timer, as a source of interval views
+     * @throws BasicError if the timer does not keep HDR interval histograms
+     */
+    public static HdrDeltaHistogramAttachment attachable(Activity activity, Timer timer, String controller) {
+        if (timer instanceof HdrDeltaHistogramAttachment attachment) {
+            return attachment;
+        }
+        throw new BasicError(controller + " needs HDR interval histograms, but activity '" + activity.getAlias()
+            + "' has a timer of type " + timer.getClass().getSimpleName());
+    }
+
+    public static final class ValueGauge implements Gauge<Double> {
+        private volatile double value;
+
+        public void set(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public Double getValue() {
+            return value;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import com.codahale.metrics.graphite.Graphite;
 import com.codahale.metrics.graphite.GraphiteReporter;
 import io.nosqlbench.engine.api.activityapi.core.Shutdownable;
 import io.nosqlbench.api.engine.metrics.ActivityMetrics;
+import io.nosqlbench.api.engine.metrics.IntervalViewRegistry;
 import io.nosqlbench.engine.core.lifecycle.ShutdownManager;
 import io.nosqlbench.engine.core.logging.Log4JMetricsReporter;
 import org.apache.logging.log4j.Logger;
@@ -39,6 +40,8 @@ public class MetricReporters implements Shutdownable {
 
     private final List<PrefixedRegistry> metricRegistries = new ArrayList<>();
     private final List<ScheduledReporter> scheduledReporters = new ArrayList<>();
+    private final List<IntervalViewRegistry> reporterRegistries = new ArrayList<>();
+    private PromEndpoint promEndpoint;
 
     private MetricReporters() {
         ShutdownManager.register(this);
@@ -79,7 +82,7 @@ public class MetricReporters implements Shutdownable {
         }
 
         for (PrefixedRegistry prefixedRegistry : metricRegistries) {
-            CsvReporter csvReporter = CsvReporter.forRegistry(prefixedRegistry.metricRegistry)
+            CsvReporter csvReporter = CsvReporter.forRegistry(prefixedRegistry.newReporterRegistry())
                     .convertDurationsTo(TimeUnit.NANOSECONDS)
                     .convertRatesTo(TimeUnit.SECONDS)
                     .filter(ActivityMetrics.METRIC_FILTER)
@@ -102,7 +105,7 @@ public class MetricReporters implements Shutdownable {
 
             Graphite graphite = new Graphite(new InetSocketAddress(host, graphitePort));
             String _prefix = prefixedRegistry.prefix != null ? (!prefixedRegistry.prefix.isEmpty() ? globalPrefix + "." + prefixedRegistry.prefix : globalPrefix) : globalPrefix;
-            GraphiteReporter graphiteReporter = GraphiteReporter.forRegistry(prefixedRegistry.metricRegistry)
+            GraphiteReporter graphiteReporter = GraphiteReporter.forRegistry(prefixedRegistry.newReporterRegistry())
                     .prefixedWith(_prefix)
                     .convertRatesTo(TimeUnit.SECONDS)
                     .convertDurationsTo(TimeUnit.NANOSECONDS)
@@ -114,6 +117,35 @@ public class MetricReporters implements Shutdownable {
         return this;
     }
 
+    /**
+     * Add prometheus reporting, with a scrape endpoint, a remote-write push, or both.
+     * @param endpoint the port or host:port to serve /metrics on, or null
+     * @param remoteWriteUrl the remote-write receiver URL to push to, or null
+     * @param appname the value of the appname label
+     */
+    public MetricReporters addPrometheus(String endpoint, String remoteWriteUrl, String appname) {
+        logger.debug("Adding prometheus reporter with endpoint " + endpoint + " and remote-write to " + remoteWriteUrl);
+
+        if (metricRegistries.isEmpty()) {
+            throw new RuntimeException("There are no metric registries.");
+        }
+
+        List<PromExpositionReporter> promReporters = new ArrayList<>();
+        for (PrefixedRegistry prefixedRegistry : metricRegistries) {
+            PromExpositionReporter promReporter =
+                new PromExpositionReporter(prefixedRegistry.metricRegistry, appname, ActivityMetrics.METRIC_FILTER);
+            if (remoteWriteUrl != null) {
+                promReporter.addRemoteWriter(new PromRemoteWriter(remoteWriteUrl));
+            }
+            promReporters.add(promReporter);
+            scheduledReporters.add(promReporter);
+        }
+        if (endpoint != null) {
+            this.promEndpoint = new PromEndpoint(endpoint, promReporters);
+        }
+        return this;
+    }
+
     public MetricReporters addLogger() {
         logger.debug("Adding log4j reporter for metrics");
 
@@ -123,7 +155,7 @@ public class MetricReporters implements Shutdownable {
 
         for (PrefixedRegistry prefixedRegistry : metricRegistries) {
 
-            Log4JMetricsReporter reporter4j = Log4JMetricsReporter.forRegistry(prefixedRegistry.metricRegistry)
+            Log4JMetricsReporter reporter4j = Log4JMetricsReporter.forRegistry(prefixedRegistry.newReporterRegistry())
                     .convertRatesTo(TimeUnit.SECONDS)
                     .convertDurationsTo(TimeUnit.NANOSECONDS)
                     .filter(ActivityMetrics.METRIC_FILTER)
@@ -169,6 +201,12 @@ public class MetricReporters implements Shutdownable {
             reporter.report();
             reporter.stop();
         }
+        if (promEndpoint != null) {
+            promEndpoint.close();
+        }
+        for (IntervalViewRegistry reporterRegistry : reporterRegistries) {
+            reporterRegistry.close();
+        }
     }
 
     private class PrefixedRegistry {
@@ -179,5 +217,14 @@ public class MetricReporters implements Shutdownable {
             this.prefix = prefix;
             this.metricRegistry = metricRegistry;
         }
+
+        /**
+         * @return a registry for one reporter, so that it reads timers and histograms at its own interval
+         */
+        public IntervalViewRegistry newReporterRegistry() {
+            IntervalViewRegistry reporterRegistry = new IntervalViewRegistry(metricRegistry);
+            reporterRegistries.add(reporterRegistry);
+            return reporterRegistry;
+        }
     }
 }
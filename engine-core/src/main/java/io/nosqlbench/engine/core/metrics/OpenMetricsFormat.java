@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.engine.core.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders prometheus metric families in the OpenMetrics text format.
+ */
+public class OpenMetricsFormat {
+
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    public static String render(List<PromFamily> families) {
+        StringBuilder sb = new StringBuilder();
+        for (PromFamily family : families) {
+            sb.append("# TYPE ").append(family.getName()).append(" ").append(family.getType()).append("\n");
+            for (PromFamily.Sample sample : family.getSamples()) {
+                sb.append(sample.getName());
+                Map<String, String> labels = sample.getLabels();
+                if (!labels.isEmpty()) {
+                    sb.append("{");
+                    String delim = "";
+                    for (Map.Entry<String, String> label : labels.entrySet()) {
+                        sb.append(delim).append(label.getKey()).append("=\"").append(escape(label.getValue())).append("\"");
+                        delim = ",";
+                    }
+                    sb.append("}");
+                }
+                sb.append(" ").append(format(sample.getValue())).append("\n");
+            }
+        }
+        sb.append("# EOF\n");
+        return sb.toString();
+    }
+
+    public static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1.0E15d) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
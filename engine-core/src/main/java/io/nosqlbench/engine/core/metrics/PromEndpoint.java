@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.engine.core.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves the metric families of the last reporting interval on {@code /metrics}, in the OpenMetrics text format.
+ * Scrapes are answered from the families which {@link PromExpositionReporter}s built at their last report, so
+ * scraping never snapshots the metrics.
+ */
+public class PromEndpoint implements AutoCloseable {
+    private final static Logger logger = LogManager.getLogger(PromEndpoint.class);
+
+    private final HttpServer server;
+    private final List<PromExpositionReporter> reporters;
+
+    /**
+     * @param address either a port, or host:port
+     * @param reporters the reporters whose families are served
+     */
+    public PromEndpoint(String address, List<PromExpositionReporter> reporters) {
+        this.reporters = reporters;
+        InetSocketAddress socketAddress;
+        if (address.contains(":")) {
+            String[] split = address.split(":");
+            socketAddress = new InetSocketAddress(split[0], Integer.parseInt(split[1]));
+        } else {
+            socketAddress = new InetSocketAddress(Integer.parseInt(address));
+        }
+        try {
+            this.server = HttpServer.create(socketAddress, 0);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to start prometheus endpoint on " + address + ": " + e, e);
+        }
+        server.createContext("/metrics", exchange -> {
+            try (exchange) {
+                byte[] body = render().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", OpenMetricsFormat.CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.start();
+        logger.info("serving prometheus metrics on http://" + address + "/metrics");
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private String render() {
+        List<PromFamily> families = new ArrayList<>();
+        for (PromExpositionReporter reporter : reporters) {
+            families.addAll(reporter.getFamilies());
+        }
+        return OpenMetricsFormat.render(families);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
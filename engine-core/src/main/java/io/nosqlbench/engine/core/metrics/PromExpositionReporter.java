@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.engine.core.metrics;
+
+import com.codahale.metrics.*;
+import com.codahale.metrics.Timer;
+import io.nosqlbench.api.engine.metrics.HdrDeltaHistogramAttachment;
+import io.nosqlbench.api.engine.metrics.HdrDeltaHistogramProvider;
+import org.HdrHistogram.HistogramIterationValue;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>A scheduled reporter which converts the metrics of a registry to prometheus metric families once per
+ * reporting interval. The families of the last interval are served by {@link PromEndpoint} to scrapers, and are
+ * pushed to any attached {@link PromRemoteWriter}s. Scrapes only read the families of the last interval, so they
+ * do not take snapshots of the metrics themselves.</p>
+ *
+ * <p>Timers and histograms which keep HDR data are exposed as prometheus histograms. Each one gets its own
+ * interval view of the HDR reservoir, and the intervals are accumulated into cumulative bucket counts. This keeps
+ * the full HDR precision up to the bucket boundaries, which are 1-2-5 steps per decade. Timer values are exposed in
+ * seconds. Other timers and histograms are exposed as summaries with quantiles of the last snapshot.</p>
+ *
+ * <p>Metric names are split like the graphite mappings in the docker metrics stack: the first name segment
+ * is the {@code alias} label, and the rest is the metric name.</p>
+ */
+public class PromExpositionReporter extends ScheduledReporter {
+    private final static Logger logger = LogManager.getLogger(PromExpositionReporter.class);
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0d;
+    private static final long[] NANOS_BOUNDS = steps(1_000L, 100_000_000_000L);
+    private static final long[] VALUE_BOUNDS = steps(1L, 1_000_000_000L);
+    private static final double[] QUANTILES = {0.5d, 0.75d, 0.9d, 0.95d, 0.98d, 0.99d, 0.999d};
+
+    private final String appname;
+    private final Map<String, HdrBuckets> hdrBuckets = new HashMap<>();
+    private final List<PromRemoteWriter> remoteWriters = new CopyOnWriteArrayList<>();
+    private volatile List<PromFamily> families = List.of();
+
+    public PromExpositionReporter(MetricRegistry registry, String appname, MetricFilter filter) {
+        super(registry, "prom-reporter", filter, TimeUnit.SECONDS, TimeUnit.NANOSECONDS);
+        this.appname = appname;
+    }
+
+    public PromExpositionReporter addRemoteWriter(PromRemoteWriter remoteWriter) {
+        this.remoteWriters.add(remoteWriter);
+        return this;
+    }
+
+    /**
+     * @return the metric families of the last reporting interval
+     */
+    public List<PromFamily> getFamilies() {
+        return families;
+    }
+
+    @Override
+    public void report(SortedMap<String, Gauge> gauges,
+                       SortedMap<String, Counter> counters,
+                       SortedMap<String, Histogram> histograms,
+                       SortedMap<String, Meter> meters,
+                       SortedMap<String, Timer> timers) {
+        long timestamp = System.currentTimeMillis();
+        Map<String, PromFamily> byName = new LinkedHashMap<>();
+
+        gauges.forEach((name, gauge) -> {
+            Object value = gauge.getValue();
+            if (value instanceof Number) {
+                family(byName, promName(name), PromFamily.Type.gauge).add("", labels(name), ((Number) value).doubleValue());
+            }
+        });
+        counters.forEach((name, counter) ->
+            family(byName, promName(name), PromFamily.Type.counter).add("_total", labels(name), counter.getCount()));
+        meters.forEach((name, meter) ->
+            family(byName, promName(name), PromFamily.Type.counter).add("_total", labels(name), meter.getCount()));
+        histograms.forEach((name, histogram) ->
+            addSampling(byName, name, promName(name), histogram, histogram.getCount(), VALUE_BOUNDS, 1.0d));
+        timers.forEach((name, timer) ->
+            addSampling(byName, name, promName(name) + "_seconds", timer, timer.getCount(), NANOS_BOUNDS, NANOS_PER_SECOND));
+
+        Set<String> sampled = new HashSet<>(histograms.keySet());
+        sampled.addAll(timers.keySet());
+        Iterator<HdrBuckets> buckets = hdrBuckets.values().iterator();
+        while (buckets.hasNext()) {
+            HdrBuckets bucket = buckets.next();
+            if (!sampled.contains(bucket.name)) {
+                bucket.detach();
+                buckets.remove();
+            }
+        }
+
+        this.families = List.copyOf(byName.values());
+        for (PromRemoteWriter remoteWriter : remoteWriters) {
+            remoteWriter.write(families, timestamp);
+        }
+    }
+
+    private void addSampling(Map<String, PromFamily> byName, String metricName, String familyName,
+                             Sampling sampling, long count, long[] bounds, double divisor) {
+        Map<String, String> labels = labels(metricName);
+        if (sampling instanceof HdrDeltaHistogramAttachment) {
+            HdrBuckets buckets = hdrBuckets.computeIfAbsent(metricName,
+                n -> new HdrBuckets(n, (HdrDeltaHistogramAttachment) sampling, bounds));
+            buckets.update();
+
+            PromFamily family = family(byName, familyName, PromFamily.Type.histogram);
+            long cumulative = 0L;
+            for (int i = 0; i < bounds.length; i++) {
+                cumulative += buckets.counts[i];
+                family.add("_bucket", withLabel(labels, "le", OpenMetricsFormat.format(bounds[i] / divisor)), cumulative);
+            }
+            family.add("_bucket", withLabel(labels, "le", "+Inf"), buckets.total);
+            family.add("_count", labels, buckets.total);
+            family.add("_sum", labels, buckets.sum / divisor);
+        } else {
+            Snapshot snapshot = sampling.getSnapshot();
+            PromFamily family = family(byName, familyName, PromFamily.Type.summary);
+            for (double quantile : QUANTILES) {
+                family.add("", withLabel(labels, "quantile", OpenMetricsFormat.format(quantile)), snapshot.getValue(quantile) / divisor);
+            }
+            family.add("_count", labels, count);
+        }
+    }
+
+    /**
+     * Stop reporting, and detach the interval views of all HDR metrics, so that their reservoirs no
+     * longer accumulate values for this reporter.
+     */
+    @Override
+    public void close() {
+        super.close();
+        synchronized (this) {
+            hdrBuckets.values().forEach(HdrBuckets::detach);
+            hdrBuckets.clear();
+        }
+    }
+
+    private static PromFamily family(Map<String, PromFamily> byName, String name, PromFamily.Type type) {
+        PromFamily family = byName.computeIfAbsent(name, n -> new PromFamily(n, type));
+        if (family.getType() != type) {
+            String typedName = name + "_" + type;
+            family = byName.computeIfAbsent(typedName, n -> new PromFamily(n, type));
+        }
+        return family;
+    }
+
+    private static String promName(String metricName) {
+        int dot = metricName.indexOf('.');
+        return sanitize(dot >= 0 ? metricName.substring(dot + 1) : metricName);
+    }
+
+    private Map<String, String> labels(String metricName) {
+        Map<String, String> labels = new LinkedHashMap<>();
+        int dot = metricName.indexOf('.');
+        if (dot >= 0) {
+            labels.put("alias", metricName.substring(0, dot));
+        }
+        labels.put("appname", appname);
+        return labels;
+    }
+
+    private static Map<String, String> withLabel(Map<String, String> labels, String name, String value) {
+        Map<String, String> more = new LinkedHashMap<>(labels);
+        more.put(name, value);
+        return more;
+    }
+
+    static String sanitize(String name) {
+        String sanitized = name.replaceAll("[^a-zA-Z0-9_:]", "_");
+        return Character.isDigit(sanitized.charAt(0)) ? "_" + sanitized : sanitized;
+    }
+
+    private static long[] steps(long min, long max) {
+        List<Long> steps = new ArrayList<>();
+        for (long decade = min; decade <= max; decade *= 10) {
+            for (long step : new long[]{1L, 2L, 5L}) {
+                if (decade * step <= max) {
+                    steps.add(decade * step);
+                }
+            }
+        }
+        return steps.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Cumulative bucket counts for one HDR metric, fed from its own interval view.
+     */
+    private final static class HdrBuckets {
+        private final String name;
+        private final HdrDeltaHistogramAttachment metric;
+        private final HdrDeltaHistogramProvider view;
+        private final long[] bounds;
+        private final long[] counts;
+        private long total;
+        private double sum;
+
+        private HdrBuckets(String name, HdrDeltaHistogramAttachment metric, long[] bounds) {
+            this.name = name;
+            this.metric = metric;
+            this.view = metric.attachHdrDeltaHistogram();
+            this.bounds = bounds;
+            this.counts = new long[bounds.length];
+        }
+
+        private void detach() {
+            metric.detachHdrDeltaHistogram(view);
+        }
+
+        private void update() {
+            org.HdrHistogram.Histogram interval = view.getNextHdrDeltaHistogram();
+            for (HistogramIterationValue value : interval.recordedValues()) {
+                long valueIteratedTo = value.getValueIteratedTo();
+                long count = value.getCountAtValueIteratedTo();
+                int bucket = Arrays.binarySearch(bounds, valueIteratedTo);
+                if (bucket < 0) {
+                    bucket = -bucket - 1;
+                }
+                if (bucket < counts.length) {
+                    counts[bucket] += count;
+                }
+                total += count;
+                sum += (double) interval.medianEquivalentValue(valueIteratedTo) * count;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.engine.core.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One metric family as it is exposed to prometheus, with all of its samples.
+ * Families are built once per reporting interval by {@link PromExpositionReporter},
+ * and are then rendered as OpenMetrics text or sent as a remote-write request.
+ */
+public class PromFamily {
+
+    public enum Type {
+        counter,
+        gauge,
+        histogram,
+        summary
+    }
+
+    private final String name;
+    private final Type type;
+    private final List<Sample> samples = new ArrayList<>();
+
+    public PromFamily(String name, Type type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public List<Sample> getSamples() {
+        return samples;
+    }
+
+    public PromFamily add(String suffix, Map<String, String> labels, double value) {
+        samples.add(new Sample(name + suffix, labels, value));
+        return this;
+    }
+
+    public static class Sample {
+        private final String name;
+        private final Map<String, String> labels;
+        private final double value;
+
+        public Sample(String name, Map<String, String> labels, double value) {
+            this.name = name;
+            this.labels = labels;
+            this.value = value;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the labels of this sample, in the order they are rendered
+         */
+        public Map<String, String> getLabels() {
+            return labels;
+        }
+
+        public double getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.engine.core.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.xerial.snappy.Snappy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>Pushes metric families to a prometheus remote-write receiver, once per reporting interval.</p>
+ *
+ * <p>The request body is a snappy compressed {@code prometheus.WriteRequest} protobuf message. The message is
+ * small enough that it is encoded directly here:</p>
+ * <pre>
+ * WriteRequest { repeated TimeSeries timeseries = 1; }
+ * TimeSeries   { repeated Label labels = 1; repeated Sample samples = 2; }
+ * Label        { string name = 1; string value = 2; }
+ * Sample       { double value = 1; int64 timestamp = 2; }
+ * </pre>
+ */
+public class PromRemoteWriter {
+    private final static Logger logger = LogManager.getLogger(PromRemoteWriter.class);
+
+    private final URI uri;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+    public PromRemoteWriter(String url) {
+        this.uri = URI.create(url);
+    }
+
+    public void write(List<PromFamily> families, long timestamp) {
+        try {
+            byte[] body = Snappy.compress(encode(families, timestamp));
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/x-protobuf")
+                .header("Content-Encoding", "snappy")
+                .header("X-Prometheus-Remote-Write-Version", "0.1.0")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                logger.warn("prometheus remote-write to " + uri + " returned " + response.statusCode() + ": " + response.body());
+            }
+        } catch (IOException e) {
+            logger.warn("prometheus remote-write to " + uri + " failed: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static byte[] encode(List<PromFamily> families, long timestamp) {
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        for (PromFamily family : families) {
+            for (PromFamily.Sample sample : family.getSamples()) {
+                ByteArrayOutputStream series = new ByteArrayOutputStream();
+
+                Map<String, String> labels = new TreeMap<>(sample.getLabels());
+                labels.put("__name__", sample.getName());
+                for (Map.Entry<String, String> label : labels.entrySet()) {
+                    ByteArrayOutputStream encodedLabel = new ByteArrayOutputStream();
+                    writeString(encodedLabel, 1, label.getKey());
+                    writeString(encodedLabel, 2, label.getValue());
+                    writeMessage(series, 1, encodedLabel);
+                }
+
+                ByteArrayOutputStream encodedSample = new ByteArrayOutputStream();
+                writeTag(encodedSample, 1, 1);
+                long bits = Double.doubleToLongBits(sample.getValue());
+                for (int i = 0; i < 8; i++) {
+                    encodedSample.write((int) (bits >>> (8 * i)) & 0xFF);
+                }
+                writeTag(encodedSample, 2, 0);
+                writeVarint(encodedSample, timestamp);
+                writeMessage(series, 2, encodedSample);
+
+                writeMessage(request, 1, series);
+            }
+        }
+        return request.toByteArray();
+    }
+
+    private static void writeTag(ByteArrayOutputStream out, int field, int wireType) {
+        writeVarint(out, ((long) field << 3) | wireType);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, int field, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeTag(out, field, 2);
+        writeVarint(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static void writeMessage(ByteArrayOutputStream out, int field, ByteArrayOutputStream message) {
+        writeTag(out, field, 2);
+        writeVarint(out, message.size());
+        out.writeBytes(message.toByteArray());
+    }
+}
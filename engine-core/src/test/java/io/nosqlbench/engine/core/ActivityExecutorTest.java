@@ -30,13 +30,18 @@ import io.nosqlbench.engine.api.activityimpl.motor.CoreMotor;
 import io.nosqlbench.engine.api.activityimpl.motor.CoreMotorDispenser;
 import io.nosqlbench.engine.core.lifecycle.ActivityExecutor;
 import io.nosqlbench.engine.core.lifecycle.ActivityTypeLoader;
+import com.codahale.metrics.Timer;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 import org.junit.jupiter.api.Test;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class ActivityExecutorTest {
     private static final Logger logger = LogManager.getLogger(ActivityExecutorTest.class);
@@ -87,6 +92,32 @@ public class ActivityExecutorTest {
 
     }
 
+    @Test
+    public synchronized void testVirtualExecutor() {
+        ActivityDef ad = ActivityDef.parseActivityDef("driver=diag;alias=test;cycles=1000;executor=virtual;");
+        Activity a = new DelayedInitActivity(ad);
+        InputDispenser idisp = new CoreInputDispenser(a);
+        ActionDispenser adisp = new CoreActionDispenser(a);
+        OutputDispenser tdisp = CoreServices.getOutputDispenser(a).orElse(null);
+        MotorDispenser<?> mdisp = new CoreMotorDispenser(a, idisp, adisp, tdisp);
+        a.setActionDispenserDelegate(adisp);
+        a.setOutputDispenserDelegate(tdisp);
+        a.setInputDispenserDelegate(idisp);
+        a.setMotorDispenserDelegate(mdisp);
+
+        if (Runtime.version().feature() < 21) {
+            assertThatThrownBy(() -> new ActivityExecutor(a, "test-virtual-executor"))
+                .hasMessageContaining("executor=virtual");
+            return;
+        }
+
+        ActivityExecutor ae = new ActivityExecutor(a, "test-virtual-executor");
+        ad.setThreads(10);
+        ae.startActivity();
+        ae.awaitCompletion(15000);
+        assertThat(idisp.getInput(10).getInputSegment(3)).isNull();
+    }
+
     @Test
     public synchronized void testNewActivityExecutor() {
         ActivityDef ad = ActivityDef.parseActivityDef("driver=diag;alias=test;cycles=1000;");
@@ -123,6 +154,44 @@ public class ActivityExecutorTest {
 
     }
 
+    @Test
+    public synchronized void testAdaptiveThreadsChangeWhileAwaitingCompletion() {
+        ActivityDef ad = ActivityDef.parseActivityDef("driver=diag;alias=adaptivetest;cycles=600;threads=1;" +
+            "adaptive=aimd;adaptive_latency=1000;adaptive_interval=100ms;adaptive_max=8;");
+        Activity a = new SimpleActivity(ad);
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        Timer resultTimer = a.getInstrumentation().getOrCreateResultTimer();
+        Timer successTimer = a.getInstrumentation().getOrCreateResultSuccessTimer();
+        ActionDispenser adisp = slot -> new SyncAction() {
+            @Override
+            public int runCycle(long cycle) {
+                threadNames.add(Thread.currentThread().getName());
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException ignored) {
+                }
+                resultTimer.update(5, TimeUnit.MILLISECONDS);
+                successTimer.update(5, TimeUnit.MILLISECONDS);
+                return 0;
+            }
+        };
+        InputDispenser idisp = new CoreInputDispenser(a);
+        OutputDispenser tdisp = CoreServices.getOutputDispenser(a).orElse(null);
+        MotorDispenser<?> mdisp = new CoreMotorDispenser(a, idisp, adisp, tdisp);
+        a.setActionDispenserDelegate(adisp);
+        a.setInputDispenserDelegate(idisp);
+        a.setMotorDispenserDelegate(mdisp);
+
+        ActivityExecutor ae = new ActivityExecutor(a, "test-adaptive-run");
+        ae.startActivity();
+        // As with run, the caller waits for completion right after starting the activity
+        assertThat(ae.awaitCompletion(30)).isTrue();
+
+        assertThat(ad.getThreads()).isGreaterThan(1);
+        assertThat(threadNames.size()).isGreaterThan(1);
+        assertThat(idisp.getInput(10).getInputSegment(3)).isNull();
+    }
+
     private MotorDispenser<?> getActivityMotorFactory(final ActivityDef ad, Action lc, final Input ls) {
         MotorDispenser<?> cmf = new MotorDispenser<>() {
             @Override
@@ -20,6 +20,7 @@ import io.nosqlbench.engine.api.activityapi.core.*;
 import io.nosqlbench.engine.core.fortesting.BlockingSegmentInput;
 import io.nosqlbench.api.engine.activityimpl.ActivityDef;
 import io.nosqlbench.engine.api.activityimpl.SimpleActivity;
+import io.nosqlbench.engine.api.activityimpl.input.AtomicInput;
 import io.nosqlbench.engine.api.activityimpl.motor.CoreMotor;
 import org.junit.jupiter.api.Test;
 
@@ -77,6 +78,47 @@ public class CoreMotorTest {
 
     }
 
+    @Test
+    public void testArrivalsAreSharedAcrossStrides() throws InterruptedException {
+        SimpleActivity activity = new SimpleActivity("alias=arrivalstrides;cycles=200;stride=50;arrivalrate=500");
+        activity.initActivity();
+        AtomicInput input = new AtomicInput(activity.getActivityDef());
+        AtomicLongArray startedAt = new AtomicLongArray(200);
+        SyncAction action = new SyncAction() {
+            @Override
+            public int runCycle(long cycle) {
+                startedAt.set((int) cycle, System.nanoTime());
+                return 0;
+            }
+        };
+
+        Thread[] threads = new Thread[2];
+        for (int slot = 0; slot < threads.length; slot++) {
+            Motor motor = new CoreMotor(activity, slot, input);
+            motor.setAction(action);
+            motor.getSlotStateTracker().enterState(RunState.Starting);
+            threads[slot] = new Thread(motor);
+            threads[slot].setName("arrivalstrides" + slot);
+            threads[slot].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (int i = 0; i < startedAt.length(); i++) {
+            assertThat(startedAt.get(i)).isNotZero();
+            first = Math.min(first, startedAt.get(i));
+            last = Math.max(last, startedAt.get(i));
+        }
+        // The second motor takes the next arrival while the first works through its stride, rather than
+        // waiting 100ms for the intended start of the first cycle in its own stride
+        assertThat(startedAt.get(50) - first).isLessThan(40_000_000L);
+        // 200 arrivals at 500 per second are still spread over about 400ms
+        assertThat(last - first).isGreaterThanOrEqualTo(390_000_000L);
+    }
+
     private SyncAction getTestArrayConsumer(final AtomicLongArray ary) {
         return new SyncAction() {
             private int offset=0;
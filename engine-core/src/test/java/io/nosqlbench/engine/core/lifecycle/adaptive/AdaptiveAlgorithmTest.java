@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.core.lifecycle.adaptive;
+
+import io.nosqlbench.api.engine.activityimpl.ActivityDef;
+import io.nosqlbench.api.errors.BasicError;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AdaptiveAlgorithmTest {
+
+    private static AdaptiveConfig config(AdaptiveAlgorithm algorithm) {
+        return new AdaptiveConfig(algorithm, "threads", 20.0D, 0.99D, 0.01D, 1, 100, 1000L, 1.0D, 0.9D, 0.2D);
+    }
+
+    /**
+     * A system which serves 5ms at any concurrency up to 40, and queues beyond it.
+     */
+    private static double latencyAt(double concurrency) {
+        return concurrency <= 40.0D ? 5.0D : 5.0D * concurrency / 40.0D * 4.0D;
+    }
+
+    @Test
+    public void testAimdIncreasesAndBacksOff() {
+        AdaptiveConfig config = config(AdaptiveAlgorithm.aimd);
+        assertThat(AdaptiveAlgorithm.aimd.next(config, 10.0D, 5.0D, 0.0D)).isEqualTo(11.0D);
+        assertThat(AdaptiveAlgorithm.aimd.next(config, 10.0D, 25.0D, 0.0D)).isEqualTo(9.0D);
+        assertThat(AdaptiveAlgorithm.aimd.next(config, 50.0D, 25.0D, 0.0D)).isEqualTo(45.0D);
+        assertThat(AdaptiveAlgorithm.aimd.next(config, 50.0D, 5.0D, 0.05D)).isEqualTo(45.0D);
+        assertThat(AdaptiveAlgorithm.aimd.next(config, 1.0D, 25.0D, 0.0D)).isEqualTo(1.0D);
+        assertThat(AdaptiveAlgorithm.aimd.next(config, 100.0D, 5.0D, 0.0D)).isEqualTo(100.0D);
+    }
+
+    @Test
+    public void testAlgorithmsSettleNearTarget() {
+        for (AdaptiveAlgorithm algorithm : AdaptiveAlgorithm.values()) {
+            AdaptiveConfig config = config(algorithm);
+            double limit = 1.0D;
+            for (int i = 0; i < 500; i++) {
+                limit = algorithm.next(config, limit, latencyAt(limit), 0.0D);
+            }
+            // 20ms is reached at a concurrency of 40
+            assertThat(limit).as(algorithm.name()).isBetween(30.0D, 50.0D);
+        }
+    }
+
+    @Test
+    public void testGradientBacksOffOnErrors() {
+        AdaptiveConfig config = config(AdaptiveAlgorithm.gradient);
+        assertThat(AdaptiveAlgorithm.gradient.next(config, 50.0D, 1.0D, 0.5D)).isEqualTo(45.0D);
+    }
+
+    @Test
+    public void testConfigFromActivityDef() {
+        assertThat(AdaptiveConfig.fromActivityDef(ActivityDef.parseActivityDef("alias=foo;threads=10"))).isNull();
+
+        AdaptiveConfig async = AdaptiveConfig.fromActivityDef(
+            ActivityDef.parseActivityDef("alias=foo;threads=10;async=100;adaptive=gradient;adaptive_latency=20"));
+        assertThat(async.getAlgorithm()).isEqualTo(AdaptiveAlgorithm.gradient);
+        assertThat(async.getLimitParam()).isEqualTo("async");
+        assertThat(async.getMinLimit()).isEqualTo(10);
+
+        assertThatThrownBy(() -> AdaptiveConfig.fromActivityDef(ActivityDef.parseActivityDef("alias=foo;adaptive=aimd")))
+            .isInstanceOf(BasicError.class)
+            .hasMessageContaining("adaptive_latency");
+        assertThatThrownBy(() -> AdaptiveConfig.fromActivityDef(ActivityDef.parseActivityDef("alias=foo;adaptive=fast")))
+            .isInstanceOf(BasicError.class);
+        assertThatThrownBy(() -> AdaptiveConfig.fromActivityDef(
+            ActivityDef.parseActivityDef("alias=foo;adaptive=aimd;adaptive_latency=20;instrumentation=minimal")))
+            .isInstanceOf(BasicError.class)
+            .hasMessageContaining("instrumentation=minimal");
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.engine.core.lifecycle.findmax;
+
+import io.nosqlbench.api.errors.BasicError;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FindMaxSearchTest {
+
+    /**
+     * A system which keeps up with any rate up to its capacity at 5ms, and falls behind at 200ms above it.
+     */
+    private static FindMaxSearch.RateProbe capacity(double capacity) {
+        return (rate, millis) -> {
+            double achieved = Math.min(rate, capacity);
+            return new FindMaxSample(rate, (long) (achieved * millis / 1000.0D), millis, rate <= capacity ? 5.0D : 200.0D);
+        };
+    }
+
+    @Test
+    public void testFindsCapacityWithinPrecision() {
+        FindMaxConfig config = new FindMaxConfig(Map.of());
+        FindMaxResult result = new FindMaxSearch(config).search(capacity(1234.0D));
+
+        assertThat(result.getBest()).isPresent();
+        assertThat(result.getMaxRate()).isLessThanOrEqualTo(1234.0D);
+        assertThat(result.getMaxRate()).isGreaterThanOrEqualTo(1234.0D * (1.0D - config.getPrecision()));
+        assertThat(result.getLowestFailingRate()).isGreaterThan(1234.0D);
+        // 5 ramp steps, a handful of bisection steps, and the confirmations
+        assertThat(result.getSamples().size()).isLessThan(15);
+    }
+
+    @Test
+    public void testRejectsFailedConfirmation() {
+        // Looks fine over short windows up to 1500, but only sustains 1000 over longer ones
+        FindMaxSearch.RateProbe probe = (rate, millis) -> {
+            double capacity = millis > 10_000L ? 1000.0D : 1500.0D;
+            return capacity(capacity).sample(rate, millis);
+        };
+        FindMaxResult result = new FindMaxSearch(new FindMaxConfig(Map.of())).search(probe);
+
+        assertThat(result.getMaxRate()).isLessThanOrEqualTo(1000.0D);
+        assertThat(result.getMaxRate()).isGreaterThanOrEqualTo(900.0D);
+        FindMaxSample last = result.getSamples().get(result.getSamples().size() - 1);
+        assertThat(last.isAccepted()).isTrue();
+        assertThat(last.getDurationMillis()).isGreaterThan(10_000L);
+    }
+
+    @Test
+    public void testStopsAtRateMax() {
+        FindMaxResult result = new FindMaxSearch(new FindMaxConfig(Map.of("rate_max", "500"))).search(capacity(1_000_000.0D));
+
+        assertThat(result.getMaxRate()).isEqualTo(500.0D);
+        assertThat(result.getLowestFailingRate()).isEqualTo(Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void testNoAcceptableRate() {
+        FindMaxResult result = new FindMaxSearch(new FindMaxConfig(Map.of())).search(capacity(1.0D));
+
+        assertThat(result.getBest()).isEmpty();
+        assertThat(result.getSamples()).allMatch(s -> !s.isAccepted());
+    }
+
+    @Test
+    public void testLatencyCutoffAndPercentile() {
+        FindMaxConfig config = new FindMaxConfig(Map.of("latency_cutoff", "4", "latency_pctile", "99.9"));
+        assertThat(config.getLatencyPctile()).isEqualTo(0.999D);
+
+        FindMaxResult result = new FindMaxSearch(config).search(capacity(1234.0D));
+        assertThat(result.getBest()).isEmpty();
+        assertThat(result.getSamples().get(0).getReason()).contains("latency");
+    }
+
+    @Test
+    public void testUnknownParameter() {
+        assertThatThrownBy(() -> new FindMaxConfig(Map.of("sample_seconds", "10")))
+            .isInstanceOf(BasicError.class)
+            .hasMessageContaining("sample_seconds");
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.engine.core.metrics;
+
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.MetricRegistry;
+import com.sun.net.httpserver.HttpServer;
+import io.nosqlbench.api.engine.metrics.DeltaHdrHistogramReservoir;
+import io.nosqlbench.api.engine.metrics.HdrDeltaHistogramProvider;
+import io.nosqlbench.api.engine.metrics.NicerTimer;
+import org.junit.jupiter.api.Test;
+import org.xerial.snappy.Snappy;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PromExpositionReporterTest {
+
+    private PromExpositionReporter reporterWithMetrics() {
+        MetricRegistry registry = new MetricRegistry();
+        NicerTimer timer = registry.register("alias1.cycles.servicetime",
+            new NicerTimer("alias1.cycles.servicetime", new DeltaHdrHistogramReservoir("alias1.cycles.servicetime", 4)));
+        registry.counter("alias1.pending").inc(3);
+
+        PromExpositionReporter reporter = new PromExpositionReporter(registry, "nosqlbench", MetricFilter.ALL);
+        reporter.report();
+        timer.update(1500, TimeUnit.MICROSECONDS);
+        timer.update(3, TimeUnit.MILLISECONDS);
+        timer.update(20, TimeUnit.SECONDS);
+        return reporter;
+    }
+
+    @Test
+    public void testHdrTimerAsHistogram() {
+        PromExpositionReporter reporter = reporterWithMetrics();
+        reporter.report();
+        String text = OpenMetricsFormat.render(reporter.getFamilies());
+
+        assertThat(text).contains("# TYPE cycles_servicetime_seconds histogram\n");
+        assertThat(text).contains("cycles_servicetime_seconds_bucket{alias=\"alias1\",appname=\"nosqlbench\",le=\"0.001\"} 0\n");
+        assertThat(text).contains("cycles_servicetime_seconds_bucket{alias=\"alias1\",appname=\"nosqlbench\",le=\"0.002\"} 1\n");
+        assertThat(text).contains("cycles_servicetime_seconds_bucket{alias=\"alias1\",appname=\"nosqlbench\",le=\"0.005\"} 2\n");
+        assertThat(text).contains("cycles_servicetime_seconds_bucket{alias=\"alias1\",appname=\"nosqlbench\",le=\"+Inf\"} 3\n");
+        assertThat(text).contains("cycles_servicetime_seconds_count{alias=\"alias1\",appname=\"nosqlbench\"} 3\n");
+        assertThat(text).contains("# TYPE pending counter\n");
+        assertThat(text).contains("pending_total{alias=\"alias1\",appname=\"nosqlbench\"} 3\n");
+        assertThat(text).endsWith("# EOF\n");
+
+        reporter.report();
+        String cumulative = OpenMetricsFormat.render(reporter.getFamilies());
+        assertThat(cumulative).contains("cycles_servicetime_seconds_count{alias=\"alias1\",appname=\"nosqlbench\"} 3\n");
+    }
+
+    /**
+     * A timer which keeps track of the interval views which are attached to it.
+     */
+    private static class ViewCountingTimer extends NicerTimer {
+        private final Set<HdrDeltaHistogramProvider> attached = ConcurrentHashMap.newKeySet();
+
+        private ViewCountingTimer(String name) {
+            super(name, new DeltaHdrHistogramReservoir(name, 4));
+        }
+
+        @Override
+        public HdrDeltaHistogramProvider attachHdrDeltaHistogram() {
+            HdrDeltaHistogramProvider view = super.attachHdrDeltaHistogram();
+            attached.add(view);
+            return view;
+        }
+
+        @Override
+        public void detachHdrDeltaHistogram(HdrDeltaHistogramProvider view) {
+            attached.remove(view);
+            super.detachHdrDeltaHistogram(view);
+        }
+    }
+
+    @Test
+    public void testViewsAreDetachedWhenMetricsAreRemovedOrReporterIsClosed() {
+        MetricRegistry registry = new MetricRegistry();
+        ViewCountingTimer removed = registry.register("alias1.removed", new ViewCountingTimer("alias1.removed"));
+        ViewCountingTimer kept = registry.register("alias1.kept", new ViewCountingTimer("alias1.kept"));
+        PromExpositionReporter reporter = new PromExpositionReporter(registry, "nosqlbench", MetricFilter.ALL);
+
+        reporter.report();
+        assertThat(removed.attached).hasSize(1);
+        assertThat(kept.attached).hasSize(1);
+
+        registry.remove("alias1.removed");
+        reporter.report();
+        assertThat(removed.attached).isEmpty();
+        assertThat(kept.attached).hasSize(1);
+
+        reporter.close();
+        assertThat(kept.attached).isEmpty();
+    }
+
+    @Test
+    public void testEndpointServesLastReport() throws Exception {
+        PromExpositionReporter reporter = reporterWithMetrics();
+        reporter.report();
+        try (PromEndpoint endpoint = new PromEndpoint("127.0.0.1:0", List.of(reporter))) {
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + endpoint.getPort() + "/metrics")).build(),
+                HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.headers().firstValue("Content-Type")).contains(OpenMetricsFormat.CONTENT_TYPE);
+            assertThat(response.body()).isEqualTo(OpenMetricsFormat.render(reporter.getFamilies()));
+        }
+    }
+
+    @Test
+    public void testRemoteWrite() throws Exception {
+        AtomicReference<byte[]> received = new AtomicReference<>();
+        AtomicReference<String> encoding = new AtomicReference<>();
+        HttpServer receiver = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        receiver.createContext("/api/v1/write", exchange -> {
+            encoding.set(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            received.set(exchange.getRequestBody().readAllBytes());
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        receiver.start();
+        try {
+            String url = "http://127.0.0.1:" + receiver.getAddress().getPort() + "/api/v1/write";
+            PromExpositionReporter reporter = reporterWithMetrics();
+            reporter.addRemoteWriter(new PromRemoteWriter(url));
+            reporter.report();
+            assertThat(encoding.get()).isEqualTo("snappy");
+            String strings = new String(Snappy.uncompress(received.get()), StandardCharsets.ISO_8859_1);
+            assertThat(strings).contains("__name__").contains("cycles_servicetime_seconds_bucket").contains("pending_total");
+
+            new PromRemoteWriter(url).write(reporter.getFamilies(), 1234L);
+            assertThat(Snappy.uncompress(received.get())).isEqualTo(PromRemoteWriter.encode(reporter.getFamilies(), 1234L));
+        } finally {
+            receiver.stop(0);
+        }
+    }
+
+    @Test
+    public void testRemoteWriteEncoding() {
+        PromFamily family = new PromFamily("up", PromFamily.Type.gauge)
+            .add("", java.util.Map.of("job", "nb"), 1.0d);
+        byte[] encoded = PromRemoteWriter.encode(List.of(family), 1L);
+        byte[] expected = {
+            0x0a, 0x28,                                     // timeseries, 40 bytes
+            0x0a, 0x0e, 0x0a, 0x08, '_', '_', 'n', 'a', 'm', 'e', '_', '_', 0x12, 0x02, 'u', 'p',
+            0x0a, 0x09, 0x0a, 0x03, 'j', 'o', 'b', 0x12, 0x02, 'n', 'b',
+            0x12, 0x0b, 0x09, 0, 0, 0, 0, 0, 0, (byte) 0xf0, 0x3f, 0x10, 0x01
+        };
+        assertThat(encoded).isEqualTo(expected);
+    }
+}
@@ -39,6 +39,7 @@ public class ActivityMetrics {
     public static final String HDRDIGITS_PARAM = "hdr_digits";
     public static final int DEFAULT_HDRDIGITS = 4;
     private static int _HDRDIGITS = DEFAULT_HDRDIGITS;
+    private static String _HDRRECORDER = HdrIntervalRecorder.SHARED;
 
     private static MetricRegistry registry;
 
@@ -56,6 +57,19 @@ public class ActivityMetrics {
         ActivityMetrics._HDRDIGITS = hdrDigits;
     }
 
+    public static String getHdrRecorder() {
+        return _HDRRECORDER;
+    }
+
+    /**
+     * Set the type of recorder used by the reservoirs of all timers and histograms which are
+     * created after this call.
+     * @param hdrRecorder one of {@link HdrIntervalRecorder#SHARED} or {@link HdrIntervalRecorder#PER_THREAD}
+     */
+    public static void setHdrRecorder(String hdrRecorder) {
+        ActivityMetrics._HDRRECORDER = hdrRecorder;
+    }
+
     private ActivityMetrics() {
     }
 
@@ -119,7 +133,8 @@ public class ActivityMetrics {
             new NicerTimer(fullMetricName,
                 new DeltaHdrHistogramReservoir(
                     fullMetricName,
-                    hdrdigits
+                    hdrdigits,
+                    _HDRRECORDER
                 )
             ));
         return registeredTimer;
@@ -130,7 +145,8 @@ public class ActivityMetrics {
             fullMetricName,
             new DeltaHdrHistogramReservoir(
                 fullMetricName,
-                _HDRDIGITS
+                _HDRDIGITS,
+                _HDRRECORDER
             ))
         );
         return timer;
@@ -156,7 +172,8 @@ public class ActivityMetrics {
                 fullMetricName,
                 new DeltaHdrHistogramReservoir(
                     fullMetricName,
-                    hdrdigits
+                    hdrdigits,
+                    _HDRRECORDER
                 )
             ));
     }
@@ -166,7 +183,8 @@ public class ActivityMetrics {
             fullname,
             new DeltaHdrHistogramReservoir(
                 fullname,
-                _HDRDIGITS
+                _HDRDIGITS,
+                _HDRRECORDER
             )
         ));
         return histogram;
@@ -14,21 +14,27 @@
  * limitations under the License.
  */
 
+
 package io.nosqlbench.api.engine.metrics;
 
 import com.codahale.metrics.Reservoir;
 import com.codahale.metrics.Snapshot;
 import org.HdrHistogram.Histogram;
 import org.HdrHistogram.HistogramLogWriter;
-import org.HdrHistogram.Recorder;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
- * A custom wrapping of snapshotting logic on the HdrHistogram. This histogram will always report the last histogram
- * since it was most recently asked for with the getDeltaSnapshot(...) method.
- * This provides local snapshot timing, but with a consistent view for reporting channels about what those snapshots
- * most recently looked like.
+ * A custom wrapping of snapshotting logic on the HdrHistogram. This histogram will always report the data
+ * since it was last snapshotted.
+ *
+ * <p>Each consumer of interval data reads from its own {@link IntervalView}. Whenever any view is read, the values
+ * recorded since the last read of any view are added to every view, so consumers never take data from each other.
+ * Each scheduled reporter reads its own view through an {@link IntervalViewRegistry}, and scripting reads its own
+ * view through a {@link DeltaSnapshotReader}. Other readers share the default view behind {@link #getSnapshot()}.</p>
  *
  * <p>This implementation also supports attaching a single log writer. If a log writer is attached, each
  * time an interval is snapshotted internally, the data will also be written to an hdr log via the writer.</p>
@@ -37,11 +43,13 @@ import org.apache.logging.log4j.LogManager;
 public final class DeltaHdrHistogramReservoir implements Reservoir {
     private final static Logger logger = LogManager.getLogger(DeltaHdrHistogramReservoir.class);
 
-    private final Recorder recorder;
+    private final HdrIntervalRecorder recorder;
+    private final String recorderType;
+    private final List<IntervalView> views = new CopyOnWriteArrayList<>();
+    private final IntervalView defaultView;
     private Histogram lastHistogram;
 
     private Histogram intervalHistogram;
-    private long intervalHistogramEndTime = System.currentTimeMillis();
     private final String metricName;
     private HistogramLogWriter writer;
 
@@ -52,8 +60,20 @@ public final class DeltaHdrHistogramReservoir implements Reservoir {
      * @param significantDigits how many significant digits to track in the reservoir
      */
     public DeltaHdrHistogramReservoir(String name, int significantDigits) {
+        this(name, significantDigits, HdrIntervalRecorder.SHARED);
+    }
+
+    /**
+     * Create a reservoir with the given type of recorder.
+     *
+     * @param name the name to give to the reservoir, for logging purposes
+     * @param significantDigits how many significant digits to track in the reservoir
+     * @param recorderType the type of recorder, as in {@link HdrIntervalRecorder#of(String, int)}
+     */
+    public DeltaHdrHistogramReservoir(String name, int significantDigits, String recorderType) {
         this.metricName = name;
-        this.recorder = new Recorder(significantDigits);
+        this.recorderType = recorderType;
+        this.recorder = HdrIntervalRecorder.of(recorderType, significantDigits);
 
         /*
          * Start by flipping the recorder's interval histogram.
@@ -62,14 +82,15 @@ public final class DeltaHdrHistogramReservoir implements Reservoir {
          * - intervalHistogram can be nonnull.
          * - it lets us figure out the number of significant digits to use in runningTotals.
          */
-        intervalHistogram = recorder.getIntervalHistogram();
+        intervalHistogram = recorder.getIntervalHistogram(null);
         lastHistogram = new Histogram(intervalHistogram.getNumberOfSignificantValueDigits());
+        defaultView = newIntervalView();
     }
 
     @Override
     public int size() {
-        // This appears to be infrequently called, so not keeping a separate counter just for this.
-        return getSnapshot().size();
+        // This appears to be infrequently called, and must not take data from the default view.
+        return (int) lastHistogram.getTotalCount();
     }
 
     @Override
@@ -78,12 +99,11 @@ public final class DeltaHdrHistogramReservoir implements Reservoir {
     }
 
     /**
-     * @return the data accumulated since the reservoir was created, or since the last call to this method
+     * @return the data accumulated in the default view since the reservoir was created, or since the last call to this method
      */
     @Override
     public Snapshot getSnapshot() {
-        lastHistogram = getNextHdrHistogram();
-        return new DeltaHistogramSnapshot(lastHistogram);
+        return new DeltaHistogramSnapshot(getNextHdrHistogram());
     }
 
     public Histogram getNextHdrHistogram() {
@@ -99,19 +119,42 @@ public final class DeltaHdrHistogramReservoir implements Reservoir {
     }
 
     /**
-     * @return a copy of the accumulated state since the reservoir last had a snapshot
+     * Create a view which accumulates all values recorded from now on, independently of any other view.
+     * @return a new view of this reservoir
      */
-    private synchronized Histogram getDataSinceLastSnapshotAndUpdate() {
+    public IntervalView newIntervalView() {
+        IntervalView view = new IntervalView(intervalHistogram.getNumberOfSignificantValueDigits());
+        views.add(view);
+        return view;
+    }
+
+    public void removeIntervalView(IntervalView view) {
+        views.remove(view);
+    }
+
+    /**
+     * Add the values recorded since the last drain to every view.
+     */
+    private synchronized void drain() {
         intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
-        long intervalHistogramStartTime = intervalHistogramEndTime;
-        intervalHistogramEndTime = System.currentTimeMillis();
+        if (intervalHistogram.getTotalCount() == 0) {
+            return;
+        }
+        for (IntervalView view : views) {
+            view.pending.add(intervalHistogram);
+        }
+    }
 
-        intervalHistogram.setTag(metricName);
-        intervalHistogram.setStartTimeStamp(intervalHistogramStartTime);
-        intervalHistogram.setEndTimeStamp(intervalHistogramEndTime);
+    /**
+     * @return a copy of the accumulated state since the reservoir last had a snapshot
+     */
+    private synchronized Histogram getDataSinceLastSnapshotAndUpdate() {
+        Histogram interval = defaultView.getNextHdrDeltaHistogram();
 
-        lastHistogram = intervalHistogram.copy();
+        lastHistogram = interval.copy();
         lastHistogram.setTag(metricName);
+        lastHistogram.setStartTimeStamp(interval.getStartTimeStamp());
+        lastHistogram.setEndTimeStamp(interval.getEndTimeStamp());
 
         if (writer!=null) {
             writer.outputIntervalHistogram(lastHistogram);
@@ -128,7 +171,7 @@ public final class DeltaHdrHistogramReservoir implements Reservoir {
     }
 
     public DeltaHdrHistogramReservoir copySettings() {
-        return new DeltaHdrHistogramReservoir(this.metricName, intervalHistogram.getNumberOfSignificantValueDigits());
+        return new DeltaHdrHistogramReservoir(this.metricName, intervalHistogram.getNumberOfSignificantValueDigits(), recorderType);
     }
 
     public void attachLogWriter(HistogramLogWriter logWriter) {
@@ -138,4 +181,38 @@ public final class DeltaHdrHistogramReservoir implements Reservoir {
     public Histogram getLastHistogram() {
         return lastHistogram;
     }
+
+    /**
+     * One consumer's view of the reservoir. Each view holds two histograms which are swapped on every read,
+     * so reading does not allocate. The histogram returned by {@link #getNextHdrDeltaHistogram()} is only
+     * valid until the next read of the same view.
+     */
+    public final class IntervalView implements HdrDeltaHistogramProvider {
+        private Histogram pending;
+        private Histogram current;
+        private long intervalStartTime = System.currentTimeMillis();
+
+        private IntervalView(int significantDigits) {
+            this.pending = new Histogram(significantDigits);
+            this.current = new Histogram(significantDigits);
+        }
+
+        @Override
+        public Histogram getNextHdrDeltaHistogram() {
+            synchronized (DeltaHdrHistogramReservoir.this) {
+                drain();
+                Histogram next = pending;
+                pending = current;
+                pending.reset();
+                current = next;
+
+                long intervalEndTime = System.currentTimeMillis();
+                current.setTag(metricName);
+                current.setStartTimeStamp(intervalStartTime);
+                current.setEndTimeStamp(intervalEndTime);
+                intervalStartTime = intervalEndTime;
+                return current;
+            }
+        }
+    }
 }
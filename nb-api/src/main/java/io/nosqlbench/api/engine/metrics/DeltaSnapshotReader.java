@@ -16,22 +16,32 @@
 
 package io.nosqlbench.api.engine.metrics;
 
+/**
+ * A reader of interval snapshots for scripting. Each reader has its own interval view of the metric, so
+ * reading it does not take any data from the reporters or from other readers.
+ */
 public class DeltaSnapshotReader {
 
-    private final DeltaSnapshotter deltaSnapshotter;
-    private long defaultInterval=0L;
+    private final HdrDeltaHistogramProvider view;
 
-    public DeltaSnapshotReader(DeltaSnapshotter nicerHistogram) {
-        this.deltaSnapshotter = nicerHistogram;
+    public DeltaSnapshotReader(HdrDeltaHistogramAttachment attachment) {
+        this.view = attachment.attachHdrDeltaHistogram();
     }
 
+    /**
+     * @param cacheTimeMillis the time between reads. Since this reader has its own view, nothing needs to be
+     *                        cached for other readers, and this is only accepted for existing scripts.
+     * @return a snapshot of the values recorded since the last read of this reader
+     */
     public ConvenientSnapshot getDeltaSnapshot(long cacheTimeMillis) {
-        defaultInterval = cacheTimeMillis;
-        return deltaSnapshotter.getDeltaSnapshot(cacheTimeMillis);
+        return getDeltaSnapshot();
     }
 
-    public ConvenientSnapshot getDeltaSnapshot() {
-        return deltaSnapshotter.getDeltaSnapshot(defaultInterval);
+    /**
+     * @return a snapshot of the values recorded since the last read of this reader
+     */
+    public synchronized ConvenientSnapshot getDeltaSnapshot() {
+        return new ConvenientSnapshot(new DeltaHistogramSnapshot(view.getNextHdrDeltaHistogram().copy()));
     }
 
 }
@@ -17,33 +17,26 @@
 package io.nosqlbench.api.engine.metrics;
 
 /**
- * <p>Allow a DeltaHistogram to have attached metrics that also get a copy of
- * any input data.</p>
+ * <p>Allow a DeltaHistogram to have attached consumers which each get their own
+ * interval histograms of the same input data.</p>
  *
- * <p>Terms</p>
- * <ul>
- *     <li>Attaching metric - the original metric which maintains the attached metric.</li>
- *     <li>Attached metric - the "shadow" metric which receives the same input as the
- *     original metric.</li>
- * </ul>
+ * <p>Attached consumers receive content from the time they are attached, and will
+ * not see previous content. Reading the next interval from one attached consumer
+ * does not take any data from the attaching metric or from other attached consumers.</p>
  *
- * <p>Implementing classes should reproduce their configuration, but not their content.
- * This means that attached metrics will receive content from the time they are attached,
- * and wil not see previous content. Attaching metrics are responsible for the creation
- * and ownership of the attached metrics.</p>
- *
- * <p>Implementations of the attaching metric should ensure that attached metrics
- * all receive the same data.</p>
- *
- * <p>The number of metrics that are allowed to be chained is implementation dependent.</p>
- *
- * <p>Implementations should ensure that any naming fields are marked differently so that
- * the attached metric does not have the exact same name as the attaching metric.</p>
+ * <p>The number of consumers that are allowed to be attached is implementation dependent.</p>
  */
 public interface HdrDeltaHistogramAttachment extends HdrDeltaHistogramProvider {
     /**
-     * Attach a metric.
-     * @return the attached metric, after adding to the mirrors for the metric.
+     * Attach a consumer.
+     * @return a provider of interval histograms for the attached consumer
      */
     HdrDeltaHistogramProvider attachHdrDeltaHistogram();
+
+    /**
+     * Detach a consumer which was attached with {@link #attachHdrDeltaHistogram()}, so that
+     * values are no longer accumulated for it.
+     * @param attached the provider which was returned when the consumer was attached
+     */
+    void detachHdrDeltaHistogram(HdrDeltaHistogramProvider attached);
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.api.engine.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * The source of interval histograms for a {@link DeltaHdrHistogramReservoir}. Values are recorded
+ * concurrently by any thread, and the values recorded since the previous interval are read
+ * by the reservoir when it takes a snapshot.
+ */
+public interface HdrIntervalRecorder {
+
+    /**
+     * All threads record into a single {@link Recorder}.
+     */
+    String SHARED = "shared";
+    /**
+     * Each thread records into its own recorder, and they are merged when the interval is read.
+     * See {@link PerThreadHdrRecorder}.
+     */
+    String PER_THREAD = "perthread";
+
+    void recordValue(long value);
+
+    /**
+     * @param recycle A histogram which was previously returned by this recorder, to be reused, or null
+     * @return A histogram of the values which were recorded since the previous call
+     */
+    Histogram getIntervalHistogram(Histogram recycle);
+
+    /**
+     * @param type Either {@link #SHARED} or {@link #PER_THREAD}
+     * @param significantDigits The number of significant digits to track
+     * @return A new recorder of the given type
+     */
+    static HdrIntervalRecorder of(String type, int significantDigits) {
+        switch (type) {
+            case SHARED:
+                Recorder recorder = new Recorder(significantDigits);
+                return new HdrIntervalRecorder() {
+                    @Override
+                    public void recordValue(long value) {
+                        recorder.recordValue(value);
+                    }
+
+                    @Override
+                    public Histogram getIntervalHistogram(Histogram recycle) {
+                        return recorder.getIntervalHistogram(recycle);
+                    }
+                };
+            case PER_THREAD:
+                return new PerThreadHdrRecorder(significantDigits);
+            default:
+                throw new RuntimeException("HDR recorder type must be one of " + SHARED + " or " + PER_THREAD + ", not '" + type + "'");
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.api.engine.metrics;
+
+import com.codahale.metrics.*;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>A read-only registry for one reporter, which presents the metrics of another registry. Timers and
+ * histograms which support {@link HdrDeltaHistogramAttachment} are presented with their own interval view,
+ * which is attached when the metric is registered. Each reporter with its own registry sees every value
+ * exactly once, at its own reporting interval, no matter how often other reporters or scripts read the
+ * same metric.</p>
+ *
+ * <p>Metrics are registered with the source registry, not with this one.</p>
+ */
+public class IntervalViewRegistry extends MetricRegistry {
+
+    private final MetricRegistry source;
+    private final Map<String, ViewTimer> timers = new ConcurrentHashMap<>();
+    private final Map<String, ViewHistogram> histograms = new ConcurrentHashMap<>();
+    private final MetricRegistryListener listener = new MetricRegistryListener.Base() {
+        @Override
+        public void onTimerAdded(String name, Timer timer) {
+            if (timer instanceof HdrDeltaHistogramAttachment attachment) {
+                timers.put(name, new ViewTimer(timer, attachment));
+            }
+        }
+
+        @Override
+        public void onTimerRemoved(String name) {
+            ViewTimer removed = timers.remove(name);
+            if (removed != null) {
+                removed.view.detach();
+            }
+        }
+
+        @Override
+        public void onHistogramAdded(String name, Histogram histogram) {
+            if (histogram instanceof HdrDeltaHistogramAttachment attachment) {
+                histograms.put(name, new ViewHistogram(histogram, attachment));
+            }
+        }
+
+        @Override
+        public void onHistogramRemoved(String name) {
+            ViewHistogram removed = histograms.remove(name);
+            if (removed != null) {
+                removed.view.detach();
+            }
+        }
+    };
+
+    public IntervalViewRegistry(MetricRegistry source) {
+        this.source = source;
+        source.addListener(listener);
+    }
+
+    /**
+     * Stop following the source registry, and detach all interval views.
+     */
+    public void close() {
+        source.removeListener(listener);
+        timers.values().forEach(t -> t.view.detach());
+        histograms.values().forEach(h -> h.view.detach());
+        timers.clear();
+        histograms.clear();
+    }
+
+    @Override
+    public SortedMap<String, Timer> getTimers(MetricFilter filter) {
+        SortedMap<String, Timer> viewed = new TreeMap<>();
+        source.getTimers(filter).forEach((name, timer) -> {
+            ViewTimer viewTimer = timers.get(name);
+            viewed.put(name, viewTimer != null ? viewTimer : timer);
+        });
+        return Collections.unmodifiableSortedMap(viewed);
+    }
+
+    @Override
+    public SortedMap<String, Histogram> getHistograms(MetricFilter filter) {
+        SortedMap<String, Histogram> viewed = new TreeMap<>();
+        source.getHistograms(filter).forEach((name, histogram) -> {
+            ViewHistogram viewHistogram = histograms.get(name);
+            viewed.put(name, viewHistogram != null ? viewHistogram : histogram);
+        });
+        return Collections.unmodifiableSortedMap(viewed);
+    }
+
+    @Override
+    public SortedMap<String, Gauge> getGauges(MetricFilter filter) {
+        return source.getGauges(filter);
+    }
+
+    @Override
+    public SortedMap<String, Counter> getCounters(MetricFilter filter) {
+        return source.getCounters(filter);
+    }
+
+    @Override
+    public SortedMap<String, Meter> getMeters(MetricFilter filter) {
+        return source.getMeters(filter);
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        return source.getMetrics();
+    }
+
+    @Override
+    public SortedSet<String> getNames() {
+        return source.getNames();
+    }
+
+    /**
+     * A reservoir which takes its snapshots from an interval view. Values are recorded by the source metric.
+     */
+    private final static class ViewReservoir implements Reservoir {
+        private final HdrDeltaHistogramAttachment attachment;
+        private final HdrDeltaHistogramProvider provider;
+        private int lastSize;
+
+        private ViewReservoir(HdrDeltaHistogramAttachment attachment) {
+            this.attachment = attachment;
+            this.provider = attachment.attachHdrDeltaHistogram();
+        }
+
+        @Override
+        public int size() {
+            return lastSize;
+        }
+
+        @Override
+        public void update(long value) {
+            throw new UnsupportedOperationException("Values are recorded by the source metric, not by the view.");
+        }
+
+        @Override
+        public synchronized Snapshot getSnapshot() {
+            org.HdrHistogram.Histogram interval = provider.getNextHdrDeltaHistogram();
+            lastSize = (int) interval.getTotalCount();
+            return new ConvenientSnapshot(new DeltaHistogramSnapshot(interval));
+        }
+
+        private void detach() {
+            attachment.detachHdrDeltaHistogram(provider);
+        }
+    }
+
+    private final static class ViewTimer extends Timer {
+        private final Timer timer;
+        private final ViewReservoir view;
+
+        private ViewTimer(Timer timer, HdrDeltaHistogramAttachment attachment) {
+            this(timer, new ViewReservoir(attachment));
+        }
+
+        private ViewTimer(Timer timer, ViewReservoir view) {
+            super(view);
+            this.timer = timer;
+            this.view = view;
+        }
+
+        @Override
+        public long getCount() {
+            return timer.getCount();
+        }
+
+        @Override
+        public double getFifteenMinuteRate() {
+            return timer.getFifteenMinuteRate();
+        }
+
+        @Override
+        public double getFiveMinuteRate() {
+            return timer.getFiveMinuteRate();
+        }
+
+        @Override
+        public double getMeanRate() {
+            return timer.getMeanRate();
+        }
+
+        @Override
+        public double getOneMinuteRate() {
+            return timer.getOneMinuteRate();
+        }
+    }
+
+    private final static class ViewHistogram extends Histogram {
+        private final Histogram histogram;
+        private final ViewReservoir view;
+
+        private ViewHistogram(Histogram histogram, HdrDeltaHistogramAttachment attachment) {
+            this(histogram, new ViewReservoir(attachment));
+        }
+
+        private ViewHistogram(Histogram histogram, ViewReservoir view) {
+            super(view);
+            this.histogram = histogram;
+            this.view = view;
+        }
+
+        @Override
+        public long getCount() {
+            return histogram.getCount();
+        }
+    }
+}
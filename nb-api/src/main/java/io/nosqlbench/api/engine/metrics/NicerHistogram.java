@@ -25,10 +25,9 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class NicerHistogram extends Histogram implements DeltaSnapshotter, HdrDeltaHistogramAttachment, HistogramAttachment {
 
     private final DeltaHdrHistogramReservoir hdrDeltaReservoir;
-    private long cacheExpiryMillis = 0L;
-    private long cacheTimeMillis = 0L;
     private final String metricName;
     private List<Histogram> mirrors;
+    private DeltaSnapshotReader deltaReader;
 
     public NicerHistogram(String metricName, DeltaHdrHistogramReservoir hdrHistogramReservoir) {
         super(hdrHistogramReservoir);
@@ -36,41 +35,40 @@ public class NicerHistogram extends Histogram implements DeltaSnapshotter, HdrDe
         this.hdrDeltaReservoir = hdrHistogramReservoir;
     }
 
+    /**
+     * @return the scripting reader of this histogram, which has its own interval view
+     */
     @Override
-    public DeltaSnapshotReader getDeltaReader() {
-        return new DeltaSnapshotReader(this);
+    public synchronized DeltaSnapshotReader getDeltaReader() {
+        if (deltaReader == null) {
+            deltaReader = new DeltaSnapshotReader(this);
+        }
+        return deltaReader;
     }
 
     /**
-     * Only return a new snapshot form current reservoir data if the cached one has expired.
-     *
-     * @return a new delta snapshot, or the cached one
+     * @return the values recorded since the last snapshot
      */
     @Override
     public ConvenientSnapshot getSnapshot() {
-        if (System.currentTimeMillis() < cacheExpiryMillis) {
-            return new ConvenientSnapshot(hdrDeltaReservoir.getLastSnapshot());
-        } else {
-            return new ConvenientSnapshot(hdrDeltaReservoir.getSnapshot());
-        }
+        return new ConvenientSnapshot(hdrDeltaReservoir.getSnapshot());
     }
 
+    @Override
     public ConvenientSnapshot getDeltaSnapshot(long cacheTimeMillis) {
-        this.cacheTimeMillis = cacheTimeMillis;
-        cacheExpiryMillis = System.currentTimeMillis() + this.cacheTimeMillis;
-        ConvenientSnapshot convenientSnapshot = new ConvenientSnapshot(hdrDeltaReservoir.getSnapshot());
-        return convenientSnapshot;
+        return getDeltaReader().getDeltaSnapshot(cacheTimeMillis);
     }
 
     @Override
-    public synchronized NicerHistogram attachHdrDeltaHistogram() {
-        if (mirrors == null) {
-            mirrors = new CopyOnWriteArrayList<>();
+    public HdrDeltaHistogramProvider attachHdrDeltaHistogram() {
+        return this.hdrDeltaReservoir.newIntervalView();
+    }
+
+    @Override
+    public void detachHdrDeltaHistogram(HdrDeltaHistogramProvider attached) {
+        if (attached instanceof DeltaHdrHistogramReservoir.IntervalView view) {
+            this.hdrDeltaReservoir.removeIntervalView(view);
         }
-        DeltaHdrHistogramReservoir mirrorReservoir = this.hdrDeltaReservoir.copySettings();
-        NicerHistogram mirror = new NicerHistogram("mirror-" + this.metricName, mirrorReservoir);
-        mirrors.add(mirror);
-        return mirror;
     }
 
     @Override
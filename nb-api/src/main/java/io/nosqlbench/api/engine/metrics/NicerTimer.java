@@ -26,8 +26,8 @@ import java.util.concurrent.TimeUnit;
 public class NicerTimer extends Timer implements DeltaSnapshotter, HdrDeltaHistogramAttachment, TimerAttachment {
     private final String metricName;
     private final DeltaHdrHistogramReservoir deltaHdrHistogramReservoir;
-    private long cacheExpiry = 0L;
     private List<Timer> mirrors;
+    private DeltaSnapshotReader deltaReader;
 
     public NicerTimer(String metricName, DeltaHdrHistogramReservoir deltaHdrHistogramReservoir) {
         super(deltaHdrHistogramReservoir);
@@ -37,32 +37,35 @@ public class NicerTimer extends Timer implements DeltaSnapshotter, HdrDeltaHisto
 
     @Override
     public ConvenientSnapshot getSnapshot() {
-        if (System.currentTimeMillis() >= cacheExpiry) {
-            return new ConvenientSnapshot(deltaHdrHistogramReservoir.getSnapshot());
-        } else {
-            return new ConvenientSnapshot(deltaHdrHistogramReservoir.getLastSnapshot());
-        }
+        return new ConvenientSnapshot(deltaHdrHistogramReservoir.getSnapshot());
     }
 
-    public DeltaSnapshotReader getDeltaReader() {
-        return new DeltaSnapshotReader(this);
+    /**
+     * @return the scripting reader of this timer, which has its own interval view
+     */
+    @Override
+    public synchronized DeltaSnapshotReader getDeltaReader() {
+        if (deltaReader == null) {
+            deltaReader = new DeltaSnapshotReader(this);
+        }
+        return deltaReader;
     }
 
     @Override
     public ConvenientSnapshot getDeltaSnapshot(long cacheTimeMillis) {
-        this.cacheExpiry = System.currentTimeMillis() + cacheTimeMillis;
-        return new ConvenientSnapshot(deltaHdrHistogramReservoir.getSnapshot());
+        return getDeltaReader().getDeltaSnapshot(cacheTimeMillis);
     }
 
     @Override
-    public synchronized NicerTimer attachHdrDeltaHistogram() {
-        if (mirrors==null) {
-            mirrors = new CopyOnWriteArrayList<>();
+    public HdrDeltaHistogramProvider attachHdrDeltaHistogram() {
+        return this.deltaHdrHistogramReservoir.newIntervalView();
+    }
+
+    @Override
+    public void detachHdrDeltaHistogram(HdrDeltaHistogramProvider attached) {
+        if (attached instanceof DeltaHdrHistogramReservoir.IntervalView view) {
+            this.deltaHdrHistogramReservoir.removeIntervalView(view);
         }
-        DeltaHdrHistogramReservoir sameConfigReservoir = this.deltaHdrHistogramReservoir.copySettings();
-        NicerTimer mirror = new NicerTimer(this.metricName, sameConfigReservoir);
-        mirrors.add(mirror);
-        return mirror;
     }
     @Override
     public Timer attachTimer(Timer timer) {
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.api.engine.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <p>An {@link HdrIntervalRecorder} which gives each recording thread its own
+ * {@link SingleWriterRecorder}. Threads do not share any histogram counts, so recording
+ * from many threads at once does not contend on the same cache lines, as it does with a
+ * single shared {@link org.HdrHistogram.Recorder}.</p>
+ *
+ * <p>When an interval is read, the interval histogram of each thread's recorder is added to
+ * one merged histogram. Recorders of threads which have ended are removed after their last
+ * interval is read. Each recording thread holds a few histograms for each metric, so this
+ * is meant for hot metrics with a moderate number of threads.</p>
+ */
+public class PerThreadHdrRecorder implements HdrIntervalRecorder {
+
+    private final int significantDigits;
+    private final List<ThreadRecorder> recorders = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<ThreadRecorder> threadRecorder = ThreadLocal.withInitial(this::newThreadRecorder);
+
+    public PerThreadHdrRecorder(int significantDigits) {
+        this.significantDigits = significantDigits;
+    }
+
+    private ThreadRecorder newThreadRecorder() {
+        ThreadRecorder recorder = new ThreadRecorder(Thread.currentThread(), significantDigits);
+        recorders.add(recorder);
+        return recorder;
+    }
+
+    @Override
+    public void recordValue(long value) {
+        threadRecorder.get().recorder.recordValue(value);
+    }
+
+    /**
+     * This is called by one reader at a time, as {@link DeltaHdrHistogramReservoir} does.
+     */
+    @Override
+    public Histogram getIntervalHistogram(Histogram recycle) {
+        Histogram merged = recycle != null ? recycle : new Histogram(significantDigits);
+        merged.reset();
+        for (ThreadRecorder recorder : recorders) {
+            boolean ended = !recorder.owner.isAlive();
+            recorder.interval = recorder.recorder.getIntervalHistogram(recorder.interval);
+            merged.add(recorder.interval);
+            if (ended) {
+                recorders.remove(recorder);
+            }
+        }
+        return merged;
+    }
+
+    private final static class ThreadRecorder {
+        private final Thread owner;
+        private final SingleWriterRecorder recorder;
+        private Histogram interval;
+
+        private ThreadRecorder(Thread owner, int significantDigits) {
+            this.owner = owner;
+            this.recorder = new SingleWriterRecorder(significantDigits);
+        }
+    }
+}
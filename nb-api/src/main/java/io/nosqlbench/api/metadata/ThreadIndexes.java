@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.api.metadata;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.WeakHashMap;
+
+/**
+ * The index of each thread which was created by an indexed thread factory. Threads which
+ * can be subclassed carry their own index by implementing {@link Indexed}. Virtual threads
+ * can not, so their factory registers them here instead.
+ */
+public class ThreadIndexes {
+
+    private static final Map<Thread, Integer> indexes = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public static void register(Thread thread, int index) {
+        indexes.put(thread, index);
+    }
+
+    /**
+     * @param thread the thread to look up
+     * @return the index of the thread, if it implements {@link Indexed} or was registered
+     */
+    public static OptionalInt indexOf(Thread thread) {
+        if (thread instanceof Indexed indexed) {
+            return OptionalInt.of(indexed.getIndex());
+        }
+        Integer index = indexes.get(thread);
+        return (index != null) ? OptionalInt.of(index) : OptionalInt.empty();
+    }
+}
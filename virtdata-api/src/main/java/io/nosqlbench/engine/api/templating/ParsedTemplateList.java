@@ -16,6 +16,8 @@
 
 package io.nosqlbench.engine.api.templating;
 
+import io.nosqlbench.virtdata.core.bindings.BindingsCompiler;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -27,13 +29,17 @@ public class ParsedTemplateList implements LongFunction<List<?>> {
     private final LongFunction<?>[] functions;
 
     public ParsedTemplateList(List<Object> sublist, Map<String, String> bindings, List<Map<String, Object>> cfgsources) {
+        this(sublist, bindings, cfgsources, new BindingsCompiler(ParsedTemplateMap.getBindSpecs(sublist, bindings), Map.of()));
+    }
+
+    public ParsedTemplateList(List<Object> sublist, Map<String, String> bindings, List<Map<String, Object>> cfgsources, BindingsCompiler compiler) {
 
         List<LongFunction<?>> funcs = new ArrayList<>();
         List<Integer> dindexes = new ArrayList<>();
 
         for (int i = 0; i < sublist.size(); i++) {
             Object item = sublist.get(i);
-            Templatizer.Result result = Templatizer.make(bindings, item, null, cfgsources);
+            Templatizer.Result result = Templatizer.make(bindings, item, null, cfgsources, compiler);
             switch (result.getType()) {
                 case literal:
                     protolist.add(result.getValue());
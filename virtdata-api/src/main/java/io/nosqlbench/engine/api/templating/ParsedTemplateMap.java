@@ -26,8 +26,8 @@ import io.nosqlbench.api.config.standard.NBConfigError;
 import io.nosqlbench.api.config.standard.NBTypeConverter;
 import io.nosqlbench.api.errors.BasicError;
 import io.nosqlbench.api.errors.OpConfigError;
+import io.nosqlbench.virtdata.core.bindings.BindingsCompiler;
 import io.nosqlbench.virtdata.core.bindings.DataMapper;
-import io.nosqlbench.virtdata.core.bindings.VirtData;
 import io.nosqlbench.virtdata.core.templates.BindPoint;
 import io.nosqlbench.virtdata.core.templates.CapturePoint;
 import io.nosqlbench.virtdata.core.templates.ParsedStringTemplate;
@@ -35,6 +35,7 @@ import io.nosqlbench.virtdata.core.templates.StringBindings;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.function.Function;
 import java.util.function.LongFunction;
@@ -88,18 +89,44 @@ public class ParsedTemplateMap implements LongFunction<Map<String, ?>>, StaticFi
     private Map<String, Object> specmap;
     private Map<String, String> bindings;
     private final String name;
+    private final BindingsCompiler compiler;
 
     public ParsedTemplateMap(String name, Map<String, Object> map, Map<String, String> bindings, List<Map<String, Object>> cfgsources) {
+        this(name, map, bindings, cfgsources, new BindingsCompiler(getBindSpecs(map, bindings), Map.of()));
+    }
+
+    /**
+     * Create a parsed template map which resolves its bindings with the provided compiler, so that
+     * common binding function prefixes can be shared with the enclosing template.
+     */
+    public ParsedTemplateMap(String name, Map<String, Object> map, Map<String, String> bindings, List<Map<String, Object>> cfgsources, BindingsCompiler compiler) {
         this.name = name;
         this.cfgsources = cfgsources;
-        applyTemplateFields(map, bindings);
+        this.compiler = compiler;
+        applyTemplateFields(map, bindings, compiler);
         mapsize = statics.size() + dynamics.size();
     }
 
+    /**
+     * @return all of the binding specifiers which are referenced in the template, including those in nested maps and lists
+     */
+    static List<String> getBindSpecs(Object template, Map<String, String> bindings) {
+        List<String> specs = new ArrayList<>();
+        if (template instanceof CharSequence) {
+            ParsedStringTemplate pt = ParsedStringTemplate.of(template.toString(), bindings);
+            pt.getBindPoints().forEach(bp -> specs.add(bp.getBindspec()));
+        } else if (template instanceof Map) {
+            ((Map<?, ?>) template).values().forEach(v -> specs.addAll(getBindSpecs(v, bindings)));
+        } else if (template instanceof List) {
+            ((List<?>) template).forEach(v -> specs.addAll(getBindSpecs(v, bindings)));
+        }
+        return specs;
+    }
+
     // For now, we only allow bind points to reference bindings, not other op template
     // fields. This seems like the saner and less confusing approach, so implementing
     // op field references should be left until it is requested if at all
-    private void applyTemplateFields(Map<String, Object> map, Map<String, String> bindings) {
+    private void applyTemplateFields(Map<String, Object> map, Map<String, String> bindings, BindingsCompiler compiler) {
         this.specmap = map;
         this.bindings = bindings;
         map.forEach((k, v) -> {
@@ -116,12 +143,12 @@ public class ParsedTemplateMap implements LongFunction<Map<String, ?>>, StaticFi
                         if (spec == null) {
                             throw new OpConfigError("Empty binding spec for '" + k + "'");
                         }
-                        Optional<DataMapper<Object>> mapper = VirtData.getOptionalMapper(spec);
+                        Optional<DataMapper<Object>> mapper = compiler.getOptionalMapper(spec);
                         dynamics.put(k, mapper.orElseThrow());
                         protomap.put(k, null);
                         break;
                     case concat:
-                        StringBindings sb = new StringBindings(pt);
+                        StringBindings sb = new StringBindings(pt, compiler);
                         dynamics.put(k, sb);
                         protomap.put(k, null);
                         break;
@@ -133,7 +160,7 @@ public class ParsedTemplateMap implements LongFunction<Map<String, ?>>, StaticFi
                     }
                 });
                 Map<String, Object> submap = (Map<String, Object>) v;
-                ParsedTemplateMap subtpl = new ParsedTemplateMap(getName(),submap, bindings, cfgsources);
+                ParsedTemplateMap subtpl = new ParsedTemplateMap(getName(),submap, bindings, cfgsources, compiler);
                 if (subtpl.isStatic()) {
                     statics.put(k, submap);
                     protomap.put(k, submap);
@@ -143,7 +170,7 @@ public class ParsedTemplateMap implements LongFunction<Map<String, ?>>, StaticFi
                 }
             } else if (v instanceof List) {
                 List<Object> sublist = (List<Object>) v;
-                ParsedTemplateList subtpl = new ParsedTemplateList(sublist, bindings, cfgsources);
+                ParsedTemplateList subtpl = new ParsedTemplateList(sublist, bindings, cfgsources, compiler);
                 if (subtpl.isStatic()) {
                     statics.put(k, sublist);
                     protomap.put(k, sublist);
@@ -563,6 +590,26 @@ public class ParsedTemplateMap implements LongFunction<Map<String, ?>>, StaticFi
         }
     }
 
+    /**
+     * Get the op field as a function which renders a string template directly into UTF-8 bytes,
+     * without creating an intermediate String. This is only provided when the field is a string
+     * template with bindings, so that callers can fall back to {@link #getAsOptionalFunction(String, Class)}
+     * for all other field types.
+     *
+     * <p>The returned buffer is reused by each thread, and is only valid until the next call from
+     * the same thread. It must be consumed or copied before the next op is rendered.</p>
+     *
+     * @param name The field name
+     * @return A function which renders the field as UTF-8 bytes, if the field is a string template
+     */
+    public Optional<LongFunction<ByteBuffer>> getAsOptionalUtf8Function(String name) {
+        LongFunction<?> mapper = dynamics.get(name);
+        if (mapper instanceof StringBindings) {
+            return Optional.of(((StringBindings) mapper)::bindAsUtf8);
+        }
+        return Optional.empty();
+    }
+
     public <V> LongFunction<V> getAsRequiredFunction(String name, Class<? extends V> type) {
         Optional<? extends LongFunction<V>> sf = getAsOptionalFunction(name, type);
         return sf.orElseThrow(() -> new OpConfigError("The op field '" + name + "' is required, but it wasn't found in the op template."));
@@ -765,7 +812,27 @@ public class ParsedTemplateMap implements LongFunction<Map<String, ?>>, StaticFi
      * @return a new {@link ArrayBinder} which can produce a {@link Object} array from a long input.
      */
     public LongFunction<Object[]> newArrayBinderFromBindPoints(List<BindPoint> bindPoints) {
-        return new ArrayBinder(bindPoints);
+        return new ArrayBinder(bindPoints, compiler);
+    }
+
+    /**
+     * Resolve the binding function for each of the provided bind points, in the same order. Each one
+     * is the composed function object, which is the primitive-specialized functional type where the
+     * binding allows, such as {@link java.util.function.LongUnaryOperator}, {@link java.util.function.LongToIntFunction},
+     * or {@link java.util.function.LongToDoubleFunction}, otherwise a {@link LongFunction}. This allows
+     * callers which know the target types to avoid boxing the values.
+     *
+     * @param bindPoints The {@link BindPoint}s to resolve
+     * @return A list of function objects, one for each bind point
+     */
+    public List<Object> getFunctionsFromBindPoints(List<BindPoint> bindPoints) {
+        List<Object> functions = new ArrayList<>(bindPoints.size());
+        for (BindPoint bindPoint : bindPoints) {
+            functions.add(compiler.getOptionalFunction(bindPoint.getBindspec()).orElseThrow(
+                () -> new OpConfigError("Unable to resolve binding '" + bindPoint.getAnchor() + "' with spec '" + bindPoint.getBindspec() + "'")
+            ));
+        }
+        return functions;
     }
 
     /**
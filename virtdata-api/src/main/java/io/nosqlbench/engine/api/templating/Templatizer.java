@@ -17,8 +17,8 @@
 package io.nosqlbench.engine.api.templating;
 
 import io.nosqlbench.api.errors.OpConfigError;
+import io.nosqlbench.virtdata.core.bindings.BindingsCompiler;
 import io.nosqlbench.virtdata.core.bindings.DataMapper;
-import io.nosqlbench.virtdata.core.bindings.VirtData;
 import io.nosqlbench.virtdata.core.templates.CapturePoint;
 import io.nosqlbench.virtdata.core.templates.ParsedStringTemplate;
 import io.nosqlbench.virtdata.core.templates.StringBindings;
@@ -32,6 +32,10 @@ import java.util.function.LongFunction;
 public class Templatizer {
 
     public static Result make(Map<String, String> bindings, Object v, String name, List<Map<String, Object>> cfgsources) {
+        return make(bindings, v, name, cfgsources, new BindingsCompiler(ParsedTemplateMap.getBindSpecs(v, bindings), Map.of()));
+    }
+
+    public static Result make(Map<String, String> bindings, Object v, String name, List<Map<String, Object>> cfgsources, BindingsCompiler compiler) {
         Result result = new Result();
         result.setName(name);
 
@@ -48,11 +52,11 @@ public class Templatizer {
                     if (spec == null) {
                         throw new OpConfigError("Empty binding spec for '" + (name!=null?name:"anonymous binding") + "'");
                     }
-                    Optional<DataMapper<Object>> mapper = VirtData.getOptionalMapper(spec);
+                    Optional<DataMapper<Object>> mapper = compiler.getOptionalMapper(spec);
                     result.setFunction(mapper.orElseThrow());
                     break;
                 case concat:
-                    StringBindings sb = new StringBindings(pt);
+                    StringBindings sb = new StringBindings(pt, compiler);
                     result.setFunction(sb);
                     break;
             }
@@ -63,7 +67,7 @@ public class Templatizer {
                 }
             });
             Map<String, Object> submap = (Map<String, Object>) v;
-            ParsedTemplateMap subtpl = new ParsedTemplateMap(name, submap, bindings, cfgsources);
+            ParsedTemplateMap subtpl = new ParsedTemplateMap(name, submap, bindings, cfgsources, compiler);
             if (subtpl.isStatic()) {
                 result.setValue(submap);
             } else {
@@ -71,7 +75,7 @@ public class Templatizer {
             }
         } else if (v instanceof List) {
             List<Object> sublist = (List<Object>) v;
-            ParsedTemplateList subtpl = new ParsedTemplateList(sublist, bindings, cfgsources);
+            ParsedTemplateList subtpl = new ParsedTemplateList(sublist, bindings, cfgsources, compiler);
             if (subtpl.isStatic()) {
                 result.setValue(sublist);
             } else {
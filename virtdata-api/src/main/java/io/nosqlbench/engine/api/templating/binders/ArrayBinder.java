@@ -18,14 +18,16 @@ package io.nosqlbench.engine.api.templating.binders;
 
 import io.nosqlbench.engine.api.templating.ParsedTemplateMap;
 import io.nosqlbench.api.errors.OpConfigError;
+import io.nosqlbench.virtdata.core.bindings.BindingsCompiler;
 import io.nosqlbench.virtdata.core.bindings.DataMapper;
-import io.nosqlbench.virtdata.core.bindings.VirtData;
 import io.nosqlbench.virtdata.core.templates.BindPoint;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.LongFunction;
+import java.util.stream.Collectors;
 
 public class ArrayBinder implements LongFunction<Object[]> {
 
@@ -58,6 +60,10 @@ public class ArrayBinder implements LongFunction<Object[]> {
     }
 
     public ArrayBinder(List<BindPoint> bindPoints) {
+        this(bindPoints, new BindingsCompiler(bindPoints.stream().map(BindPoint::getBindspec).collect(Collectors.toList()), Map.of()));
+    }
+
+    public ArrayBinder(List<BindPoint> bindPoints, BindingsCompiler compiler) {
         this.protoary = new Object[bindPoints.size()];
         this.mapperary = new LongFunction<?>[bindPoints.size()];
         int[] indexes = new int[bindPoints.size()];
@@ -65,7 +71,7 @@ public class ArrayBinder implements LongFunction<Object[]> {
 
         for (int i = 0; i < bindPoints.size(); i++) {
             BindPoint bindPoint = bindPoints.get(i);
-            Optional<DataMapper<Object>> mapper = VirtData.getOptionalMapper(bindPoint.getBindspec());
+            Optional<DataMapper<Object>> mapper = compiler.getOptionalMapper(bindPoint.getBindspec());
             mapperary[i] = mapper.orElseThrow();
             indexes[nextIndex++] = i;
         }
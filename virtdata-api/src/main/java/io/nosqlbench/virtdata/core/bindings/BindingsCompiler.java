@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.virtdata.core.bindings;
+
+import io.nosqlbench.virtdata.api.annotations.DeterministicMapper;
+import io.nosqlbench.virtdata.core.composers.FunctionAssembly;
+import io.nosqlbench.virtdata.lang.ast.Expression;
+import io.nosqlbench.virtdata.lang.ast.VirtDataFlow;
+import io.nosqlbench.virtdata.lang.parser.VirtDataDSL;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * <p>A bindings compiler resolves all of the binding specifiers which are used together,
+ * such as those of a single op template, as one set. Where two or more of the function
+ * chains start with the same functions, that common prefix is evaluated once per cycle
+ * and the result is fed into the remaining functions of each chain.</p>
+ *
+ * <p>For example, given these bindings, the {@code Mod(1000000); Hash()} part is only
+ * computed once for each cycle, rather than once for each binding:</p>
+ * <pre>{@code
+ * userid: Mod(1000000); Hash(); ToString()
+ * username: Mod(1000000); Hash(); FirstNames()
+ * }</pre>
+ *
+ * <p>Only prefixes which can be shared without changing the results are considered.
+ * Each function in a shared prefix must be a {@link LongUnaryOperator} which is marked as
+ * thread safe and as a {@link DeterministicMapper}, and is not assigned to a variable.
+ * Functions which read clocks, scripts or variables are not marked, so they are always
+ * evaluated for each binding. The functions which are used are the same instances which would be resolved
+ * for each binding individually, so the values produced are identical.</p>
+ *
+ * <p>A shared prefix remembers the last input and result for each thread. This is only
+ * a benefit when the bindings are called with the same input in turn, as they are when
+ * an op is rendered for a cycle. Specifiers which were not provided up front, or which
+ * can not be resolved, are resolved individually with {@link VirtData} as before.</p>
+ */
+public class BindingsCompiler {
+
+    private final static Logger logger = LogManager.getLogger(BindingsCompiler.class);
+
+    private final Map<String, Object> config;
+    private final Map<String, Object> functions = new HashMap<>();
+    private final Map<String, DataMapper<Object>> mappers = new HashMap<>();
+    private final Map<String, SharedPrefix> prefixes = new LinkedHashMap<>();
+
+    /**
+     * @param specs The binding specifiers which will be used together
+     * @param config A map of configuration objects, as used by {@link VirtData#getOptionalMapper(String, Map)}
+     */
+    public BindingsCompiler(Collection<String> specs, Map<String, Object> config) {
+        this.config = config;
+        compile(new LinkedHashSet<>(specs));
+    }
+
+    public BindingsCompiler() {
+        this(List.of(), Map.of());
+    }
+
+    /**
+     * Get the data mapper for a binding specifier. If the specifier was part of the
+     * compiled set, the shared form is returned, otherwise it is resolved individually.
+     *
+     * @param spec The VirtData specifier for the mapping function
+     * @return An optional function which will be empty if the function could not be resolved.
+     */
+    public Optional<DataMapper<Object>> getOptionalMapper(String spec) {
+        DataMapper<Object> mapper = mappers.get(spec);
+        if (mapper != null) {
+            return Optional.of(mapper);
+        }
+        return VirtData.getOptionalMapper(spec, config);
+    }
+
+    /**
+     * Get the composed function object for a binding specifier. This is the primitive-specialized
+     * functional type where the functions allow, such as {@link LongUnaryOperator} or
+     * {@link java.util.function.LongToIntFunction}, so callers can avoid boxing the values.
+     *
+     * @param spec The VirtData specifier for the mapping function
+     * @return An optional function object which will be empty if the function could not be resolved.
+     */
+    public Optional<Object> getOptionalFunction(String spec) {
+        Object function = functions.get(spec);
+        if (function != null) {
+            return Optional.of(function);
+        }
+        return Optional.ofNullable(Chain.resolve(spec, config)).map(c -> c.composed);
+    }
+
+    /**
+     * @return The function chain prefixes which are evaluated once and shared between bindings
+     */
+    public Set<String> getSharedPrefixes() {
+        return Collections.unmodifiableSet(prefixes.keySet());
+    }
+
+    private void compile(Set<String> specs) {
+        List<Chain> chains = new ArrayList<>();
+        Map<String, Integer> prefixCounts = new HashMap<>();
+        for (String spec : specs) {
+            Chain chain = Chain.resolve(spec, config);
+            if (chain != null) {
+                chains.add(chain);
+                for (int i = 0; i < chain.shareable; i++) {
+                    prefixCounts.merge(chain.keys[i], 1, Integer::sum);
+                }
+            }
+        }
+
+        Set<String> chosen = new HashSet<>();
+        for (Chain chain : chains) {
+            int length = chain.shareable;
+            while (length > 0 && prefixCounts.get(chain.keys[length - 1]) < 2) {
+                length--;
+            }
+            chain.prefixLength = length;
+            if (length > 0) {
+                chosen.add(chain.keys[length - 1]);
+            }
+        }
+
+        for (Chain chain : chains) {
+            if (chain.prefixLength == 0) {
+                functions.put(chain.spec, chain.composed);
+                mappers.put(chain.spec, DataMapperFunctionMapper.map(chain.composed));
+                continue;
+            }
+            FunctionAssembly assembly = new FunctionAssembly();
+            assembly.andThen(prefixFor(chain, chain.prefixLength, chosen));
+            for (int i = chain.prefixLength; i < chain.functions.size(); i++) {
+                assembly.andThen(chain.functions.get(i).getFunctionObject());
+            }
+            Object function = assembly.getFunctionObject();
+            functions.put(chain.spec, function);
+            mappers.put(chain.spec, DataMapperFunctionMapper.map(function));
+        }
+
+        if (!prefixes.isEmpty()) {
+            logger.debug(() -> "sharing " + prefixes.size() + " function prefixes between " + chains.size() + " bindings: " + prefixes.keySet());
+        }
+    }
+
+    /**
+     * Get or create the shared prefix for the first length functions of a chain. If a
+     * shorter prefix of the same chain is also shared, then it is used as the start
+     * of this one.
+     */
+    private SharedPrefix prefixFor(Chain chain, int length, Set<String> chosen) {
+        String key = chain.keys[length - 1];
+        SharedPrefix prefix = prefixes.get(key);
+        if (prefix == null) {
+            int inner = length - 1;
+            while (inner > 0 && !chosen.contains(chain.keys[inner - 1])) {
+                inner--;
+            }
+            FunctionAssembly assembly = new FunctionAssembly();
+            if (inner > 0) {
+                assembly.andThen(prefixFor(chain, inner, chosen));
+            }
+            for (int i = inner; i < length; i++) {
+                assembly.andThen(chain.functions.get(i).getFunctionObject());
+            }
+            prefix = new SharedPrefix((LongUnaryOperator) assembly.getFunctionObject());
+            prefixes.put(key, prefix);
+        }
+        return prefix;
+    }
+
+    private final static class Chain {
+        private final String spec;
+        private final Object composed;
+        private final List<ResolvedFunction> functions;
+        private final String[] keys;
+        private final int shareable;
+        private int prefixLength;
+
+        private Chain(String spec, Object composed, List<ResolvedFunction> functions, String[] keys, int shareable) {
+            this.spec = spec;
+            this.composed = composed;
+            this.functions = functions;
+            this.keys = keys;
+            this.shareable = shareable;
+        }
+
+        /**
+         * @return a resolved chain, or null if the spec can not be resolved, in which case
+         * resolving it individually will report the error as usual.
+         */
+        private static Chain resolve(String spec, Map<String, Object> config) {
+            try {
+                VirtDataDSL.ParseResult parseResult = VirtDataDSL.parse(CompatibilityFixups.fixup(spec));
+                if (parseResult.throwable != null) {
+                    return null;
+                }
+                VirtDataFlow flow = parseResult.flow;
+                VirtDataComposer composer = new VirtDataComposer();
+                composer.addCustomElements(config);
+                ResolverDiagnostics diagnostics = composer.resolveDiagnosticFunctionFlow(flow);
+                Optional<ResolvedFunction> resolved = diagnostics.getResolvedFunction();
+                List<ResolvedFunction> functions = diagnostics.getResolvedChain();
+                List<Expression> expressions = flow.getExpressions();
+                if (resolved.isEmpty() || functions.size() != expressions.size()) {
+                    return null;
+                }
+
+                int shareable = 0;
+                while (shareable < functions.size()
+                    && expressions.get(shareable).getAssignment() == null
+                    && isShareable(functions.get(shareable))) {
+                    shareable++;
+                }
+
+                String[] keys = new String[shareable];
+                StringBuilder key = new StringBuilder();
+                for (int i = 0; i < shareable; i++) {
+                    key.append(i == 0 ? "" : "; ")
+                        .append(expressions.get(i))
+                        .append("=>")
+                        .append(functions.get(i).getFunctionObject().getClass().getCanonicalName());
+                    keys[i] = key.toString();
+                }
+                return new Chain(spec, resolved.get().getFunctionObject(), functions, keys, shareable);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        private static boolean isShareable(ResolvedFunction function) {
+            return function.isThreadSafe()
+                && function.getFunctionType() == FunctionType.long_long
+                && function.getFunctionObject().getClass().isAnnotationPresent(DeterministicMapper.class);
+        }
+    }
+
+    /**
+     * A function prefix which keeps the last input and result for each thread.
+     */
+    private final static class SharedPrefix implements LongUnaryOperator {
+        private final LongUnaryOperator function;
+        private final ThreadLocal<LastValue> lastValue = ThreadLocal.withInitial(LastValue::new);
+
+        private SharedPrefix(LongUnaryOperator function) {
+            this.function = function;
+        }
+
+        @Override
+        public long applyAsLong(long operand) {
+            LastValue last = lastValue.get();
+            if (!last.isSet || last.input != operand) {
+                last.result = function.applyAsLong(operand);
+                last.input = operand;
+                last.isSet = true;
+            }
+            return last.result;
+        }
+    }
+
+    private final static class LastValue {
+        private boolean isSet;
+        private long input;
+        private long result;
+    }
+}
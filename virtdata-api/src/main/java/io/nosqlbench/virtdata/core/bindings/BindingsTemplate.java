@@ -123,8 +123,9 @@ public class BindingsTemplate {
      */
     public Bindings resolveBindings() {
         List<DataMapper<?>> dataMappers = new ArrayList<>();
+        BindingsCompiler compiler = new BindingsCompiler(specifiers, fconfig);
         for (String specifier : specifiers) {
-            Optional<DataMapper<Object>> optionalDataMapper = VirtData.getOptionalMapper(specifier,fconfig);
+            Optional<DataMapper<Object>> optionalDataMapper = compiler.getOptionalMapper(specifier);
             if (optionalDataMapper.isPresent()) {
                 dataMappers.add(optionalDataMapper.get());
             } else {
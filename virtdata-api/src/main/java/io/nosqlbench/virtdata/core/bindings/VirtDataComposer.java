@@ -191,6 +191,7 @@ public class VirtDataComposer {
         removeNonLongFunctions(funcs.getFirst());
 
         List<ResolvedFunction> flattenedFuncs = optimizePath(funcs, ValueType.classOfType(flow.getLastExpression().getCall().getOutputType()));
+        diagnostics.setResolvedChain(flattenedFuncs);
 
         if (flattenedFuncs.size() == 1) {
             diagnostics.trace("FUNCTION resolution succeeded (single): '" + flow + "'");
@@ -17,8 +17,10 @@
 package io.nosqlbench.virtdata.core.templates;
 
 import io.nosqlbench.virtdata.core.bindings.Binder;
+import io.nosqlbench.virtdata.core.bindings.BindingsCompiler;
 import io.nosqlbench.virtdata.core.bindings.BindingsTemplate;
 
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 /**
@@ -49,6 +51,10 @@ public class StringBindings implements Binder<String> {
         this.compositor = new StringCompositor(pt,fconfig);
     }
 
+    public StringBindings(ParsedStringTemplate pt, BindingsCompiler compiler) {
+        this.compositor = new StringCompositor(pt, compiler, Object::toString);
+    }
+
     public StringBindings(String stringTemplate, BindingsTemplate bindingsTemplate) {
         this(stringTemplate,bindingsTemplate.getMap());
     }
@@ -64,6 +70,17 @@ public class StringBindings implements Binder<String> {
         return compositor.apply(value);
     }
 
+    /**
+     * Render the string template for the given input as UTF-8 bytes, without creating a String.
+     * The buffer is reused by each thread, as described in {@link StringCompositor#applyAsUtf8(long)}.
+     *
+     * @param value a long input value
+     * @return a buffer containing the encoded bytes, valid until the next call on this thread
+     */
+    public ByteBuffer bindAsUtf8(long value) {
+        return compositor.applyAsUtf8(value);
+    }
+
     @Override
     public String toString() {
         return "StringBindings{" +
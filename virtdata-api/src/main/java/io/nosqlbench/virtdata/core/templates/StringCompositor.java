@@ -16,20 +16,27 @@
 
 package io.nosqlbench.virtdata.core.templates;
 
+import io.nosqlbench.virtdata.core.bindings.BindingsCompiler;
 import io.nosqlbench.virtdata.core.bindings.DataMapper;
-import io.nosqlbench.virtdata.core.bindings.VirtData;
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.function.LongFunction;
+import java.util.stream.Collectors;
 
 /**
  * This implementation of a string compositor takes a logically coherent
  * string template and bindings set. It employs a few simplistic optimizations
  * to avoid re-generating duplicate values, as well as lower allocation
  * rate of buffer data.
+ *
+ * <p>The values and the rendered text are kept in buffers which are reused
+ * by each thread. {@link #apply(long)} only allocates the resulting String.
+ * {@link #applyAsUtf8(long)} encodes the rendered text into a reusable byte
+ * buffer, for consumers which write bytes and do not need a String at all.</p>
  */
 public class StringCompositor implements LongFunction<String> {
 
@@ -39,8 +46,18 @@ public class StringCompositor implements LongFunction<String> {
     private final int bufsize;
 
     private final Function<Object, String> stringfunc;
+    private final transient ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(this::newBuffers);
 
     public StringCompositor(ParsedStringTemplate template, Map<String,Object> fconfig, Function<Object,String> stringfunc) {
+        this(template, new BindingsCompiler(template.getBindPoints().stream().map(BindPoint::getBindspec).collect(Collectors.toList()), fconfig), stringfunc);
+    }
+
+    /**
+     * @param template The parsed string template
+     * @param compiler The bindings compiler which resolves the bindings of this template, possibly along with others
+     * @param stringfunc The function which converts each binding value to a string
+     */
+    public StringCompositor(ParsedStringTemplate template, BindingsCompiler compiler, Function<Object,String> stringfunc) {
         Map<String,Integer> specs = new HashMap<>();
         List<BindPoint> bindpoints = template.getBindPoints();
         for (BindPoint bindPoint : bindpoints) {
@@ -49,7 +66,7 @@ public class StringCompositor implements LongFunction<String> {
         }
         mappers = new DataMapper<?>[specs.size()];
         specs.forEach((k,v) -> {
-            mappers[v]= VirtData.getOptionalMapper(k,fconfig).orElseThrow();
+            mappers[v]= compiler.getOptionalMapper(k).orElseThrow();
         });
         String[] even_odd_spans = template.getSpans();
         this.spans = new String[bindpoints.size()+1];
@@ -75,15 +92,85 @@ public class StringCompositor implements LongFunction<String> {
 
     @Override
     public String apply(long value) {
-        StringBuilder sb = new StringBuilder(bufsize);
-        String[] ary = new String[mappers.length];
+        return render(value, buffers.get()).toString();
+    }
+
+    /**
+     * Render the template for the given input, and encode it as UTF-8 into a buffer which is
+     * owned by the calling thread. The returned buffer is positioned at zero with the limit
+     * at the end of the encoded text. It is only valid until the next call to this method from
+     * the same thread, so callers must consume or copy it before rendering again.
+     *
+     * @param value The input value for the bindings
+     * @return A reusable buffer containing the UTF-8 bytes of the rendered template
+     */
+    public ByteBuffer applyAsUtf8(long value) {
+        Buffers buf = buffers.get();
+        StringBuilder sb = render(value, buf);
+        ByteBuffer bytes = buf.bytesFor(sb.length());
+        for (int i = 0; i < sb.length(); i++) {
+            char c = sb.charAt(i);
+            if (c < 0x80) {
+                bytes.put((byte) c);
+            } else if (c < 0x800) {
+                bytes.put((byte) (0xC0 | (c >> 6)));
+                bytes.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < sb.length() && Character.isLowSurrogate(sb.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, sb.charAt(++i));
+                bytes.put((byte) (0xF0 | (cp >> 18)));
+                bytes.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                bytes.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                bytes.put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogates are replaced as String.getBytes does
+                bytes.put((byte) '?');
+            } else {
+                bytes.put((byte) (0xE0 | (c >> 12)));
+                bytes.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                bytes.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        return bytes.flip();
+    }
+
+    private Buffers newBuffers() {
+        return new Buffers(bufsize, mappers.length);
+    }
+
+    private StringBuilder render(long value, Buffers buf) {
+        String[] ary = buf.values;
         for (int i = 0; i < ary.length; i++) {
             ary[i] = stringfunc.apply(mappers[i].apply(value));
         }
+        StringBuilder sb = buf.text;
+        sb.setLength(0);
         for (int i = 0; i < LUT.length; i++) {
           sb.append(spans[i]).append(ary[LUT[i]]);
         }
         sb.append(spans[spans.length-1]);
-        return sb.toString();
+        return sb;
+    }
+
+    private final static class Buffers {
+        private final StringBuilder text;
+        private final String[] values;
+        private ByteBuffer bytes;
+
+        private Buffers(int bufsize, int values) {
+            this.text = new StringBuilder(bufsize);
+            this.values = new String[values];
+            this.bytes = ByteBuffer.allocate(bufsize * 3);
+        }
+
+        /**
+         * @return the cleared byte buffer, grown if needed to hold the UTF-8 form of the given number of chars
+         */
+        private ByteBuffer bytesFor(int chars) {
+            int required = chars * 3;
+            if (bytes.capacity() < required) {
+                bytes = ByteBuffer.allocate(Math.max(required, bytes.capacity() * 2));
+            }
+            return bytes.clear();
+        }
     }
 }
@@ -16,11 +16,13 @@
 
 package io.nosqlbench.virtdata.library.basics.shared.from_long.to_long;
 
+import io.nosqlbench.virtdata.api.annotations.DeterministicMapper;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 
 import java.util.function.LongUnaryOperator;
 
 @ThreadSafeMapper
+@DeterministicMapper
 public class AddHashRange implements LongUnaryOperator {
 
     private final HashRange hashRange;
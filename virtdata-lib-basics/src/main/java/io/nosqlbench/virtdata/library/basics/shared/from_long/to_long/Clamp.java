@@ -17,6 +17,7 @@
 package io.nosqlbench.virtdata.library.basics.shared.from_long.to_long;
 
 import io.nosqlbench.virtdata.api.annotations.Example;
+import io.nosqlbench.virtdata.api.annotations.DeterministicMapper;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 
 import java.util.function.LongUnaryOperator;
@@ -26,6 +27,7 @@ import java.util.function.LongUnaryOperator;
  * at most the maximum value.
  */
 @ThreadSafeMapper
+@DeterministicMapper
 public class Clamp implements LongUnaryOperator {
 
     private final long min;
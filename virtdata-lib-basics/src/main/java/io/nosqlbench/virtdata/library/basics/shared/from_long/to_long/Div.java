@@ -16,6 +16,7 @@
 package io.nosqlbench.virtdata.library.basics.shared.from_long.to_long;
 
 import io.nosqlbench.virtdata.api.annotations.Example;
+import io.nosqlbench.virtdata.api.annotations.DeterministicMapper;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 
 import java.util.function.LongUnaryOperator;
@@ -24,6 +25,7 @@ import java.util.function.LongUnaryOperator;
  * Divide the operand by a fixed value and return the result.
  */
 @ThreadSafeMapper
+@DeterministicMapper
 public class Div implements LongUnaryOperator {
     private final long divisor;
 
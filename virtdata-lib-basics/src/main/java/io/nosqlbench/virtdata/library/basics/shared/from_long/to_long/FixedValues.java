@@ -19,6 +19,7 @@ package io.nosqlbench.virtdata.library.basics.shared.from_long.to_long;
 import io.nosqlbench.virtdata.api.annotations.Categories;
 import io.nosqlbench.virtdata.api.annotations.Category;
 import io.nosqlbench.virtdata.api.annotations.Example;
+import io.nosqlbench.virtdata.api.annotations.DeterministicMapper;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 
 import java.util.function.LongUnaryOperator;
@@ -28,6 +29,7 @@ import java.util.function.LongUnaryOperator;
  * increases.
  */
 @ThreadSafeMapper
+@DeterministicMapper
 @Categories({Category.general})
 public class FixedValues implements LongUnaryOperator {
 
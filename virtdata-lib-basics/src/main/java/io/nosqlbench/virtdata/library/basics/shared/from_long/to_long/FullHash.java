@@ -18,6 +18,7 @@ package io.nosqlbench.virtdata.library.basics.shared.from_long.to_long;
 
 import io.nosqlbench.virtdata.api.annotations.Categories;
 import io.nosqlbench.virtdata.api.annotations.Category;
+import io.nosqlbench.virtdata.api.annotations.DeterministicMapper;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 import io.nosqlbench.virtdata.murmur.Murmur3F;
 
@@ -34,6 +35,7 @@ import java.util.function.LongUnaryOperator;
  * It does not return the absolute value, as {@link Hash} does.
  */
 @ThreadSafeMapper
+@DeterministicMapper
 @Categories({Category.general})
 public class FullHash implements LongUnaryOperator {
 
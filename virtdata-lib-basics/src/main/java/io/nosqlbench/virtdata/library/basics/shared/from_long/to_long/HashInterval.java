@@ -18,6 +18,7 @@ package io.nosqlbench.virtdata.library.basics.shared.from_long.to_long;
 
 import io.nosqlbench.api.errors.BasicError;
 import io.nosqlbench.virtdata.api.annotations.Example;
+import io.nosqlbench.virtdata.api.annotations.DeterministicMapper;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 
 import java.util.function.LongUnaryOperator;
@@ -33,6 +34,7 @@ import java.util.function.LongUnaryOperator;
  * (5,6), or as wide as the relevant data type allows.
  */
 @ThreadSafeMapper
+@DeterministicMapper
 public class HashInterval implements LongUnaryOperator {
 
     private final long minValue;
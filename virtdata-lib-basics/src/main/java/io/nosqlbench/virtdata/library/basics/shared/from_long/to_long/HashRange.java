@@ -17,6 +17,7 @@
 package io.nosqlbench.virtdata.library.basics.shared.from_long.to_long;
 
 import io.nosqlbench.api.errors.BasicError;
+import io.nosqlbench.virtdata.api.annotations.DeterministicMapper;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 
 import java.util.function.LongUnaryOperator;
@@ -30,6 +31,7 @@ import java.util.function.LongUnaryOperator;
  * (5,5), or as wide as the relevant data type allows.
  */
 @ThreadSafeMapper
+@DeterministicMapper
 public class HashRange implements LongUnaryOperator {
 
     private final long minValue;
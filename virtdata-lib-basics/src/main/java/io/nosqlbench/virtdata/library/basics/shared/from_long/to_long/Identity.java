@@ -18,6 +18,7 @@ package io.nosqlbench.virtdata.library.basics.shared.from_long.to_long;
 
 import io.nosqlbench.virtdata.api.annotations.Categories;
 import io.nosqlbench.virtdata.api.annotations.Category;
+import io.nosqlbench.virtdata.api.annotations.DeterministicMapper;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 
 import java.util.function.LongUnaryOperator;
@@ -26,6 +27,7 @@ import java.util.function.LongUnaryOperator;
  * Simply returns the input value. This function intentionally does nothing.
  */
 @ThreadSafeMapper
+@DeterministicMapper
 @Categories({Category.general})
 public class Identity implements LongUnaryOperator {
     @Override
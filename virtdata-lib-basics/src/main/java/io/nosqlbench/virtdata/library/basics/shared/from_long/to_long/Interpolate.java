@@ -18,11 +18,13 @@ package io.nosqlbench.virtdata.library.basics.shared.from_long.to_long;
 
 
 import io.nosqlbench.virtdata.api.annotations.Example;
+import io.nosqlbench.virtdata.api.annotations.DeterministicMapper;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 
 import java.util.function.LongUnaryOperator;
 
 @ThreadSafeMapper
+@DeterministicMapper
 public class Interpolate implements LongUnaryOperator {
 
     private final io.nosqlbench.virtdata.library.basics.shared.from_long.to_double.Interpolate basefunc;
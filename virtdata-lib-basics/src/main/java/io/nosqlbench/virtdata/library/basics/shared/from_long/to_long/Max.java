@@ -17,6 +17,7 @@
 package io.nosqlbench.virtdata.library.basics.shared.from_long.to_long;
 
 import io.nosqlbench.virtdata.api.annotations.Example;
+import io.nosqlbench.virtdata.api.annotations.DeterministicMapper;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 
 import java.util.function.LongUnaryOperator;
@@ -25,6 +26,7 @@ import java.util.function.LongUnaryOperator;
  * Return the maximum of either the input value or the specified max.
  */
 @ThreadSafeMapper
+@DeterministicMapper
 public class Max implements LongUnaryOperator {
 
     private final long max;
@@ -16,6 +16,7 @@
 
 package io.nosqlbench.virtdata.library.basics.shared.from_long.to_long;
 
+import io.nosqlbench.virtdata.api.annotations.DeterministicMapper;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 
 import java.util.function.LongUnaryOperator;
@@ -24,6 +25,7 @@ import java.util.function.LongUnaryOperator;
  * Return the minimum of either the input value or the specified minimum.
  */
 @ThreadSafeMapper
+@DeterministicMapper
 public class Min implements LongUnaryOperator {
 
     private final long min;
@@ -15,6 +15,7 @@
  */
 package io.nosqlbench.virtdata.library.basics.shared.from_long.to_long;
 
+import io.nosqlbench.virtdata.api.annotations.DeterministicMapper;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 
 import java.util.function.LongUnaryOperator;
@@ -23,6 +24,7 @@ import java.util.function.LongUnaryOperator;
  * Return the result of modulo division by the specified divisor.
  */
 @ThreadSafeMapper
+@DeterministicMapper
 public class Mod implements LongUnaryOperator {
 
     private final Long modulo;
@@ -18,6 +18,7 @@ package io.nosqlbench.virtdata.library.basics.shared.from_long.to_long;
 
 import io.nosqlbench.virtdata.api.annotations.Categories;
 import io.nosqlbench.virtdata.api.annotations.Category;
+import io.nosqlbench.virtdata.api.annotations.DeterministicMapper;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
@@ -28,6 +29,7 @@ import java.util.function.LongUnaryOperator;
  * Return a long value as the result of modulo division with the specified divisor.
  */
 @ThreadSafeMapper
+@DeterministicMapper
 @Categories({Category.general})
 public class ModuloToLong implements LongUnaryOperator {
     private final static Logger logger  = LogManager.getLogger(ModuloToLong.class);
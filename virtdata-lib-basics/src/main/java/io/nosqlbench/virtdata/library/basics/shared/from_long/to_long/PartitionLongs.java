@@ -18,6 +18,7 @@ package io.nosqlbench.virtdata.library.basics.shared.from_long.to_long;
 
 import io.nosqlbench.virtdata.api.annotations.Categories;
 import io.nosqlbench.virtdata.api.annotations.Category;
+import io.nosqlbench.virtdata.api.annotations.DeterministicMapper;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 
 import java.util.function.LongUnaryOperator;
@@ -31,6 +32,7 @@ import java.util.function.LongUnaryOperator;
  * This is not an exactly emulation of token range splits in Apache Cassandra.
  */
 @ThreadSafeMapper
+@DeterministicMapper
 @Categories({Category.general})
 public class PartitionLongs implements LongUnaryOperator {
 
@@ -16,17 +16,20 @@
 
 package io.nosqlbench.virtdata.library.basics.shared.nondeterministic;
 
+import io.nosqlbench.api.metadata.ThreadIndexes;
 import io.nosqlbench.virtdata.api.annotations.Categories;
 import io.nosqlbench.virtdata.api.annotations.Category;
 import io.nosqlbench.virtdata.api.annotations.DeprecatedFunction;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 
+import java.util.OptionalInt;
 import java.util.function.LongFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * Matches a digit sequence in the current thread name and caches it in a thread local.
+ * Takes the index of the current thread from its thread factory, or else matches the digit sequence
+ * at the end of the current thread name, and caches it in a thread local.
  * This allows you to use any intentionally indexed thread factories to provide an analogue for
  * concurrency. Note that once the thread number is cached, it will not be refreshed. This means
  * you can't change the thread name and get an updated value.
@@ -36,11 +39,16 @@ import java.util.regex.Pattern;
 @Categories({Category.general})
 public class ThreadNumToInteger implements LongFunction<Integer> {
 
-    private static final Pattern pattern = Pattern.compile("^.*?(\\d+).*$");
+    private static final Pattern pattern = Pattern.compile("^.*?(\\d+)$");
 
     private final ThreadLocal<Integer> threadLocalInt = new ThreadLocal<Integer>() {
         @Override
         protected Integer initialValue() {
+            OptionalInt index = ThreadIndexes.indexOf(Thread.currentThread());
+            if (index.isPresent()) {
+                return index.getAsInt();
+            }
+
             Matcher matcher = pattern.matcher(Thread.currentThread().getName());
             if (matcher.matches()) {
                 return Integer.valueOf(matcher.group(1));
@@ -16,11 +16,12 @@
 
 package io.nosqlbench.virtdata.library.basics.shared.nondeterministic.to_long;
 
-import io.nosqlbench.api.metadata.Indexed;
+import io.nosqlbench.api.metadata.ThreadIndexes;
 import io.nosqlbench.virtdata.api.annotations.Categories;
 import io.nosqlbench.virtdata.api.annotations.Category;
 import io.nosqlbench.virtdata.api.annotations.ThreadSafeMapper;
 
+import java.util.OptionalInt;
 import java.util.function.LongUnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -29,12 +30,13 @@ import java.util.regex.Pattern;
 @Categories({Category.state})
 public class ThreadNum implements LongUnaryOperator {
 
-    private static final Pattern pattern = Pattern.compile("^.*?(\\d+).*$");
+    private static final Pattern pattern = Pattern.compile("^.*?(\\d+)$");
     private final transient ThreadLocal<Long> threadLocalInt = new ThreadLocal<Long>() {
         @Override
         protected Long initialValue() {
-            if (Thread.currentThread() instanceof Indexed) {
-                return (long) ((Indexed)Thread.currentThread()).getIndex();
+            OptionalInt index = ThreadIndexes.indexOf(Thread.currentThread());
+            if (index.isPresent()) {
+                return (long) index.getAsInt();
             }
 
             Matcher matcher = pattern.matcher(Thread.currentThread().getName());
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.virtdata.murmur;
+
+/**
+ * <p>This is a stateless form of {@link Murmur3F} for a single long value. It returns
+ * the same result as hashing the 8 big-endian bytes of the value with a new
+ * Murmur3F (seed 0) and taking {@link Murmur3F#getValue()}, but without allocating
+ * a buffer or keeping any hash state.</p>
+ *
+ * <p>For an 8 byte input, there are no full 16 byte blocks, so the murmur3 body is
+ * skipped and only the tail and finalization steps are needed. These are unrolled
+ * here with the constant length folded in.</p>
+ */
+public final class Murmur3Long {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private Murmur3Long() {
+    }
+
+    /**
+     * @param value The value to hash, as if it were written to a big-endian {@link java.nio.ByteBuffer}
+     * @return The lower 64 bits of the 128 bit murmur3 hash of the value
+     */
+    public static long hash(long value) {
+        // The bytes are read little-endian by murmur3, so big-endian input is byte-reversed
+        long k1 = Long.reverseBytes(value) * C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+
+        long h1 = k1 ^ Long.BYTES;
+        long h2 = Long.BYTES;
+
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        return h1 + h2;
+    }
+
+    /**
+     * @param value The value to hash, as if it were written twice to a big-endian {@link java.nio.ByteBuffer}
+     * @return The lower 64 bits of the 128 bit murmur3 hash of the value
+     */
+    public static long hash(int value) {
+        return hash(((long) value << 32) | (value & 0xFFFFFFFFL));
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.nosqlbench.virtdata.library.basics.shared.nondeterministic;
+
+import io.nosqlbench.api.metadata.ThreadIndexes;
+import io.nosqlbench.virtdata.library.basics.shared.nondeterministic.to_long.ThreadNum;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ThreadNumTest {
+
+    private static long threadNumIn(Thread thread, AtomicLong result) throws InterruptedException {
+        thread.start();
+        thread.join();
+        return result.get();
+    }
+
+    @Test
+    public void testTrailingDigitsWithDigitInAlias() throws InterruptedException {
+        ThreadNum threadNum = new ThreadNum();
+        io.nosqlbench.virtdata.library.basics.shared.nondeterministic.to_int.ThreadNum intThreadNum =
+            new io.nosqlbench.virtdata.library.basics.shared.nondeterministic.to_int.ThreadNum();
+        AtomicLong result = new AtomicLong(-1L);
+        AtomicLong intResult = new AtomicLong(-1L);
+        Thread thread = new Thread(() -> {
+            result.set(threadNum.applyAsLong(0L));
+            intResult.set(intThreadNum.applyAsInt(0L));
+        }, "load2:007");
+        assertThat(threadNumIn(thread, result)).isEqualTo(7L);
+        assertThat(intResult.get()).isEqualTo(7L);
+    }
+
+    @Test
+    public void testDeprecatedVariantsUseTrailingDigits() throws InterruptedException {
+        ThreadNumToLong toLong = new ThreadNumToLong();
+        ThreadNumToInteger toInteger = new ThreadNumToInteger();
+        AtomicLong result = new AtomicLong(-1L);
+        AtomicLong intResult = new AtomicLong(-1L);
+        Thread thread = new Thread(() -> {
+            result.set(toLong.applyAsLong(0L));
+            intResult.set(toInteger.apply(0L));
+        }, "load2:012");
+        assertThat(threadNumIn(thread, result)).isEqualTo(12L);
+        assertThat(intResult.get()).isEqualTo(12L);
+    }
+
+    @Test
+    public void testRegisteredIndexTakesPrecedence() throws InterruptedException {
+        ThreadNum threadNum = new ThreadNum();
+        AtomicLong result = new AtomicLong(-1L);
+        Thread thread = new Thread(() -> result.set(threadNum.applyAsLong(0L)), "load2:001");
+        ThreadIndexes.register(thread, 42);
+        assertThat(threadNumIn(thread, result)).isEqualTo(42L);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.virtdata.murmur;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This compares the previous per-call Murmur3F and ByteBuffer form of the long hash
+ * with {@link Murmur3Long}. It is not run as part of the unit tests. Run the main
+ * method to see ns/op, and bytes/op from the GC profiler as gc.alloc.rate.norm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class HashBenchmark {
+
+    private final Murmur3F murmur3F = new Murmur3F();
+    private long cycle;
+
+    @Benchmark
+    public long murmur3f() {
+        ByteBuffer bb = ByteBuffer.allocate(Long.BYTES);
+        murmur3F.reset();
+        bb.putLong(0, cycle++);
+        murmur3F.update(bb.array(), 0, Long.BYTES);
+        return Math.abs(murmur3F.getValue());
+    }
+
+    @Benchmark
+    public long murmur3long() {
+        return Math.abs(Murmur3Long.hash(cycle++));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(HashBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.nosqlbench.virtdata.murmur;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class Murmur3LongTest {
+
+    @Test
+    public void testLongMatchesMurmur3F() {
+        SplittableRandom random = new SplittableRandom(42L);
+        long[] edges = {0L, 1L, -1L, Long.MIN_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (long value : edges) {
+            assertThat(Murmur3Long.hash(value)).isEqualTo(murmur3f(value));
+        }
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong();
+            assertThat(Murmur3Long.hash(value)).isEqualTo(murmur3f(value));
+        }
+    }
+
+    @Test
+    public void testIntMatchesMurmur3F() {
+        SplittableRandom random = new SplittableRandom(42L);
+        int[] edges = {0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        for (int value : edges) {
+            assertThat(Murmur3Long.hash(value)).isEqualTo(murmur3f(value));
+        }
+        for (int i = 0; i < 100_000; i++) {
+            int value = random.nextInt();
+            assertThat(Murmur3Long.hash(value)).isEqualTo(murmur3f(value));
+        }
+    }
+
+    private static long murmur3f(long value) {
+        Murmur3F murmur3F = new Murmur3F();
+        murmur3F.update(ByteBuffer.allocate(Long.BYTES).putLong(0, value).array(), 0, Long.BYTES);
+        return murmur3F.getValue();
+    }
+
+    private static long murmur3f(int value) {
+        Murmur3F murmur3F = new Murmur3F();
+        murmur3F.update(ByteBuffer.allocate(Long.BYTES).putInt(0, value).putInt(4, value).array());
+        return murmur3F.getValue();
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2022 nosqlbench
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.virtdata;
+
+import io.nosqlbench.engine.api.templating.ParsedTemplateMap;
+import io.nosqlbench.virtdata.core.bindings.BindingsCompiler;
+import io.nosqlbench.virtdata.core.bindings.DataMapper;
+import io.nosqlbench.virtdata.core.bindings.VirtData;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IntegratedBindingsCompilerTest {
+
+    private final static List<String> specs = List.of(
+        "Mod(1000); Hash(); ToString()",
+        "Mod(1000); Hash(); Mod(10)",
+        "Mod(1000); Hash(); Mod(10); ToString()",
+        "Mod(1000); Div(2L)",
+        "Mod(7)",
+        "Mod(1000); Hash(); Mod(10); Save('x'); ToString()"
+    );
+
+    @Test
+    public void testSharedPrefixesAreFound() {
+        BindingsCompiler compiler = new BindingsCompiler(specs, Map.of());
+        assertThat(compiler.getSharedPrefixes()).hasSize(3);
+        assertThat(compiler.getSharedPrefixes()).allMatch(p -> p.startsWith("Mod(1000)"));
+    }
+
+    @Test
+    public void testSharedPrefixesProduceIdenticalValues() {
+        BindingsCompiler compiler = new BindingsCompiler(specs, Map.of());
+        for (String spec : specs) {
+            DataMapper<Object> individual = VirtData.getMapper(spec);
+            DataMapper<Object> shared = compiler.getOptionalMapper(spec).orElseThrow();
+            for (long cycle = 0; cycle < 2000; cycle++) {
+                assertThat(shared.get(cycle)).isEqualTo(individual.get(cycle));
+            }
+        }
+    }
+
+    @Test
+    public void testUnsharedAndUnknownSpecs() {
+        BindingsCompiler compiler = new BindingsCompiler(List.of("Mod(5)", "Mod(7)"), Map.of());
+        assertThat(compiler.getSharedPrefixes()).isEmpty();
+        assertThat(compiler.getOptionalMapper("Mod(11)").orElseThrow().get(12L)).isEqualTo(1L);
+    }
+
+    @Test
+    public void testNondeterministicPrefixesAreNotShared() {
+        BindingsCompiler compiler = new BindingsCompiler(List.of(
+            "ElapsedNanoTime(); ToString()",
+            "ElapsedNanoTime(); Mod(10)",
+            "Expr('cycle * 2'); Hash(); ToString()",
+            "Expr('cycle * 2'); Hash(); Mod(10)"
+        ), Map.of());
+        assertThat(compiler.getSharedPrefixes()).isEmpty();
+    }
+
+    @Test
+    public void testParsedTemplateMapUsesSharedPrefixes() {
+        Map<String, Object> template = new LinkedHashMap<>();
+        template.put("a", "{a}");
+        template.put("b", "b={b}");
+        template.put("nested", Map.of("c", "{c}"));
+        Map<String, String> bindings = Map.of(
+            "a", "Mod(1000); Hash(); ToString()",
+            "b", "Mod(1000); Hash(); Mod(10)",
+            "c", "Mod(1000); Hash(); Mod(100)"
+        );
+        ParsedTemplateMap ptm = new ParsedTemplateMap("test", template, bindings, List.of());
+        DataMapper<Object> a = VirtData.getMapper(bindings.get("a"));
+        DataMapper<Object> b = VirtData.getMapper(bindings.get("b"));
+        DataMapper<Object> c = VirtData.getMapper(bindings.get("c"));
+        for (long cycle = 0; cycle < 100; cycle++) {
+            Map<String, ?> values = ptm.apply(cycle);
+            assertThat(values.get("a")).isEqualTo(a.get(cycle));
+            assertThat(values.get("b")).isEqualTo("b=" + b.get(cycle));
+            assertThat(((Map<?, ?>) values.get("nested")).get("c")).isEqualTo(c.get(cycle));
+        }
+    }
+
+}
@@ -22,6 +22,9 @@ import io.nosqlbench.virtdata.core.templates.StringBindings;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class IntegratedStringBindingsTest {
@@ -73,4 +76,15 @@ public class IntegratedStringBindingsTest {
         assertThat(s).isEqualTo("A2C");
     }
 
+    @Test
+    public void testBindAsUtf8() {
+        StringBindings c = new StringBindings("A{ident}\u00e9\u20ac\ud83d\ude00{mod5}\ud800Z", template);
+        for (long cycle = 0; cycle < 20; cycle++) {
+            ByteBuffer bytes = c.bindAsUtf8(cycle);
+            byte[] actual = new byte[bytes.remaining()];
+            bytes.get(actual);
+            assertThat(actual).isEqualTo(c.bind(cycle).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
 }